@@ -125,15 +125,9 @@ public class MainActivity extends AppCompatActivity {
                 // Create Preview use case
                 Preview preview = new Preview.Builder().build();
 
-                // Create ImageAnalysis use case for frame-by-frame analysis
-                ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
-                        .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
-                        .build();
-
-                // Set an analyzer for the image analysis use case
-                imageAnalysis.setAnalyzer(ContextCompat.getMainExecutor(this), image -> {
-                    CameraHeartRateManager.getInstance().analyzeImage(image);
-                });
+                // Create ImageAnalysis use case for frame-by-frame analysis: small YUV frames analyzed on the
+                // SDK's background thread, listener callbacks are posted to the main thread
+                ImageAnalysis imageAnalysis = CameraHeartRateManager.getInstance().createImageAnalysis();
 
                 // Bind the camera use cases (preview and analysis) to the lifecycle
                 cameraProvider.bindToLifecycle(this, cameraSelector, preview, imageAnalysis);
@@ -0,0 +1,74 @@
+package com.azure.cameraheartratecore.buffer;
+
+import java.util.Arrays;
+
+/**
+ * 统计有界整数区间 [min, max] 内各数值出现次数的树状数组（Fenwick tree）。
+ * 插入、删除和按名次查找都是 O(log(max - min))，可在滑动窗口上随时取中位数，不需要拷贝或排序。
+ */
+public class BoundedOrderStatistics {
+    private final long min;
+    //下标从 1 开始
+    private final int[] tree;
+    private final int highestBit;
+    private int size;
+
+    public BoundedOrderStatistics(long min, long max) {
+        if (max < min || max - min >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid range: [" + min + ", " + max + "]");
+        }
+        this.min = min;
+        tree = new int[(int) (max - min) + 2];
+        highestBit = Integer.highestOneBit(tree.length - 1);
+    }
+
+    public void add(long value) {
+        update(value, 1);
+        size++;
+    }
+
+    /**
+     * 移除一个等于 value 的数值，调用方需保证该数值存在
+     */
+    public void remove(long value) {
+        update(value, -1);
+        size--;
+    }
+
+    private void update(long value, int delta) {
+        if (value < min || value - min >= tree.length - 1) {
+            throw new IllegalArgumentException("value out of range: " + value);
+        }
+        for (int i = (int) (value - min) + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * 按升序排列后第 rank 个数值（从 0 开始）
+     */
+    public long select(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("rank: " + rank + ", size: " + size);
+        }
+        int position = 0;
+        int remaining = rank + 1;
+        for (int step = highestBit; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return min + position;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(tree, 0);
+        size = 0;
+    }
+}
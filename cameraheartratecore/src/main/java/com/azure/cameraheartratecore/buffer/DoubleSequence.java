@@ -0,0 +1,10 @@
+package com.azure.cameraheartratecore.buffer;
+
+/**
+ * double 序列的只读视图，下标 0 为最早的数据
+ */
+public interface DoubleSequence {
+    int size();
+
+    double get(int index);
+}
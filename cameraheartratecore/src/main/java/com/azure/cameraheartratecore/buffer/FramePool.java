@@ -0,0 +1,224 @@
+package com.azure.cameraheartratecore.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按宽高复用整帧缓冲区（直接 ByteBuffer、Bitmap 等）的有界线程安全缓冲池。
+ * <p>
+ * acquire 优先返回尺寸相同的空闲缓冲区，没有时才分配；release 把缓冲区放回空闲队列，队列已满时丢弃。
+ * 空闲队列最多保留 maxIdle 个，尺寸固定时稳态下借出和归还都不分配内存。
+ * 设置 outstandingLimit 后，tryAcquire 在借出数量达到上限时返回 null 并计入 drops，
+ * 调用方不归还缓冲区时也不会无限分配。
+ * 调试模式下记录每次借出的调用位置，借出数量超过 maxOutstanding 或调用 checkLeaks 时
+ * 把仍未归还的缓冲区报告给 LeakListener。
+ */
+public class FramePool<T> {
+
+    /**
+     * 分配和释放缓冲区
+     */
+    public interface Allocator<T> {
+        T allocate(int width, int height);
+
+        /**
+         * 缓冲区被丢弃时调用，例如回收 Bitmap
+         */
+        default void dispose(T value) {
+        }
+    }
+
+    /**
+     * 泄漏报告
+     */
+    public interface LeakListener {
+        /**
+         * @param acquisitionSite 借出位置的调用栈
+         */
+        void onLeak(int width, int height, Throwable acquisitionSite);
+    }
+
+    private final Allocator<T> allocator;
+    private final int maxIdle;
+    private final PooledFrame<T>[] idle;
+    private int idleCount;
+    //调试模式下借出数量的上限，超过时报告泄漏
+    private int maxOutstanding;
+    private volatile boolean debug;
+    private volatile LeakListener leakListener;
+    //调试模式下尚未归还的缓冲区
+    private final List<PooledFrame<T>> leased = new ArrayList<>();
+    private int outstanding;
+    //同时借出数量的硬上限，只对 tryAcquire 生效
+    private int outstandingLimit = Integer.MAX_VALUE;
+
+    private long acquires;
+    private long reuses;
+    private long allocations;
+    private long discards;
+    private long drops;
+
+    /**
+     * @param maxIdle 空闲队列的容量
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public FramePool(Allocator<T> allocator, int maxIdle) {
+        if (maxIdle <= 0) {
+            throw new IllegalArgumentException("maxIdle must be positive: " + maxIdle);
+        }
+        this.allocator = allocator;
+        this.maxIdle = maxIdle;
+        this.maxOutstanding = maxIdle;
+        idle = (PooledFrame<T>[]) new PooledFrame[maxIdle];
+    }
+
+    /**
+     * 直接 ByteBuffer 的缓冲池，每帧容量为 width * height * bitsPerPixel / 8，例如 NV21 为 12
+     */
+    public static FramePool<ByteBuffer> directByteBuffers(final int bitsPerPixel, int maxIdle) {
+        return new FramePool<>((width, height) -> ByteBuffer.allocateDirect(width * height * bitsPerPixel / 8), maxIdle);
+    }
+
+    /**
+     * 借出一个 width x height 的缓冲区，借出数量已达到 outstandingLimit 时返回 null，调用方应跳过该帧
+     */
+    public synchronized PooledFrame<T> tryAcquire(int width, int height) {
+        if (outstanding >= outstandingLimit) {
+            drops++;
+            return null;
+        }
+        return acquire(width, height);
+    }
+
+    /**
+     * 借出一个 width x height 的缓冲区，不受 outstandingLimit 限制
+     */
+    public synchronized PooledFrame<T> acquire(int width, int height) {
+        acquires++;
+        PooledFrame<T> frame = null;
+        for (int i = idleCount - 1; i >= 0; i--) {
+            PooledFrame<T> candidate = idle[i];
+            if (candidate.getWidth() == width && candidate.getHeight() == height) {
+                idle[i] = idle[--idleCount];
+                idle[idleCount] = null;
+                frame = candidate;
+                reuses++;
+                break;
+            }
+        }
+        if (frame == null) {
+            frame = new PooledFrame<>(this, allocator.allocate(width, height), width, height);
+            allocations++;
+        }
+        frame.leased = true;
+        outstanding++;
+        if (debug) {
+            frame.acquisitionSite = new Throwable("frame acquired here");
+            leased.add(frame);
+            if (outstanding > maxOutstanding) {
+                reportLeaks();
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * 归还缓冲区，重复归还或归还到其他缓冲池会抛出 IllegalStateException
+     */
+    public synchronized void release(PooledFrame<T> frame) {
+        if (frame.pool != this) {
+            throw new IllegalStateException("frame belongs to another pool");
+        }
+        if (!frame.leased) {
+            throw new IllegalStateException("frame released twice");
+        }
+        frame.leased = false;
+        outstanding--;
+        if (frame.acquisitionSite != null) {
+            frame.acquisitionSite = null;
+            leased.remove(frame);
+        }
+        if (idleCount == maxIdle) {
+            // 淘汰最早放入的空闲缓冲区，保留最近使用的尺寸
+            discard(idle[0]);
+            System.arraycopy(idle, 1, idle, 0, idleCount - 1);
+            idleCount--;
+        }
+        idle[idleCount++] = frame;
+    }
+
+    private void discard(PooledFrame<T> frame) {
+        discards++;
+        allocator.dispose(frame.getValue());
+    }
+
+    /**
+     * 开启调试模式：记录借出位置并检测泄漏，有额外开销，只应在调试版本中开启
+     */
+    public synchronized void setDebug(boolean debug) {
+        this.debug = debug;
+        if (!debug) {
+            for (PooledFrame<T> frame : leased) {
+                frame.acquisitionSite = null;
+            }
+            leased.clear();
+        }
+    }
+
+    /**
+     * 调试模式下同时借出的数量超过该值时报告泄漏，默认等于 maxIdle
+     */
+    public synchronized void setMaxOutstanding(int maxOutstanding) {
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    /**
+     * 设置同时借出数量的上限，tryAcquire 达到上限时返回 null，默认不限制
+     */
+    public synchronized void setOutstandingLimit(int outstandingLimit) {
+        if (outstandingLimit <= 0) {
+            throw new IllegalArgumentException("outstandingLimit must be positive: " + outstandingLimit);
+        }
+        this.outstandingLimit = outstandingLimit;
+    }
+
+    public void setLeakListener(LeakListener leakListener) {
+        this.leakListener = leakListener;
+    }
+
+    /**
+     * 把调试模式下尚未归还的缓冲区报告给 LeakListener，通常在会话结束、应当已全部归还时调用
+     *
+     * @return 尚未归还的缓冲区个数（包括非调试模式下借出的）
+     */
+    public synchronized int checkLeaks() {
+        reportLeaks();
+        return outstanding;
+    }
+
+    private void reportLeaks() {
+        LeakListener listener = leakListener;
+        if (listener == null) {
+            return;
+        }
+        for (PooledFrame<T> frame : leased) {
+            listener.onLeak(frame.getWidth(), frame.getHeight(), frame.acquisitionSite);
+        }
+    }
+
+    /**
+     * 丢弃所有空闲缓冲区，已借出的缓冲区归还后仍会放回空闲队列
+     */
+    public synchronized void clear() {
+        for (int i = 0; i < idleCount; i++) {
+            discard(idle[i]);
+            idle[i] = null;
+        }
+        idleCount = 0;
+    }
+
+    public synchronized PoolStats getStats() {
+        return new PoolStats(acquires, reuses, allocations, discards, drops, outstanding, idleCount);
+    }
+}
@@ -0,0 +1,114 @@
+package com.azure.cameraheartratecore.buffer;
+
+/**
+ * 固定容量的 long 环形缓冲区，追加和淘汰均为 O(1)，不装箱、不扩容。
+ * 写满后继续追加会覆盖最早的数据。
+ */
+public class LongRingBuffer implements LongSequence {
+    private final long[] data;
+    //最早数据所在的位置
+    private int head;
+    private int size;
+
+    public LongRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        data = new long[capacity];
+    }
+
+    /**
+     * 追加到尾部，已满时淘汰最早的数据
+     */
+    public void add(long value) {
+        int tail = head + size;
+        if (tail >= data.length) {
+            tail -= data.length;
+        }
+        data[tail] = value;
+        if (size == data.length) {
+            head = tail + 1 == data.length ? 0 : tail + 1;
+        } else {
+            size++;
+        }
+    }
+
+    /**
+     * 依次追加 values 中的所有数据
+     */
+    public void addAll(LongSequence values) {
+        for (int i = 0; i < values.size(); i++) {
+            add(values.get(i));
+        }
+    }
+
+    /**
+     * 从头部移除最早的 count 个数据
+     */
+    public void removeFirst(int count) {
+        if (count >= size) {
+            clear();
+            return;
+        }
+        head += count;
+        if (head >= data.length) {
+            head -= data.length;
+        }
+        size -= count;
+    }
+
+    @Override
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        int i = head + index;
+        if (i >= data.length) {
+            i -= data.length;
+        }
+        return data[i];
+    }
+
+    /**
+     * 覆盖第 index 个数据
+     */
+    public void set(int index, long value) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        int i = head + index;
+        if (i >= data.length) {
+            i -= data.length;
+        }
+        data[i] = value;
+    }
+
+    /**
+     * 最新追加的数据
+     */
+    public long getLast() {
+        return get(size - 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return data.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == data.length;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.azure.cameraheartratecore.buffer;
+
+/**
+ * FramePool 的不可变统计快照
+ */
+public class PoolStats {
+    private final long acquires;
+    private final long reuses;
+    private final long allocations;
+    private final long discards;
+    private final long drops;
+    private final int outstanding;
+    private final int idle;
+
+    PoolStats(long acquires, long reuses, long allocations, long discards, long drops, int outstanding, int idle) {
+        this.acquires = acquires;
+        this.reuses = reuses;
+        this.allocations = allocations;
+        this.discards = discards;
+        this.drops = drops;
+        this.outstanding = outstanding;
+        this.idle = idle;
+    }
+
+    public long getAcquires() {
+        return acquires;
+    }
+
+    /**
+     * 命中空闲缓冲区、无需分配的借出次数
+     */
+    public long getReuses() {
+        return reuses;
+    }
+
+    public long getAllocations() {
+        return allocations;
+    }
+
+    /**
+     * 归还时空闲队列已满、或尺寸变化后被丢弃的缓冲区个数
+     */
+    public long getDiscards() {
+        return discards;
+    }
+
+    /**
+     * 借出数量达到上限、tryAcquire 返回 null 的次数
+     */
+    public long getDrops() {
+        return drops;
+    }
+
+    /**
+     * 已借出尚未归还的缓冲区个数
+     */
+    public int getOutstanding() {
+        return outstanding;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * 复用率，取值 [0, 1]
+     */
+    public double getReuseRate() {
+        return acquires > 0 ? (double) reuses / acquires : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "acquires=" + acquires + ", reuses=" + reuses + ", allocations=" + allocations
+                + ", discards=" + discards + ", drops=" + drops + ", outstanding=" + outstanding + ", idle=" + idle;
+    }
+}
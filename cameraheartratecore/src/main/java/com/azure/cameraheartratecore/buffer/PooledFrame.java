@@ -0,0 +1,41 @@
+package com.azure.cameraheartratecore.buffer;
+
+/**
+ * 从 FramePool 借出的一帧缓冲区，用完后必须调用 release() 归还，归还后不能再访问 getValue()
+ */
+public final class PooledFrame<T> {
+    final FramePool<T> pool;
+    private final T value;
+    private final int width;
+    private final int height;
+    //是否处于借出状态
+    boolean leased;
+    //调试模式下记录借出位置，用于泄漏报告
+    Throwable acquisitionSite;
+
+    PooledFrame(FramePool<T> pool, T value, int width, int height) {
+        this.pool = pool;
+        this.value = value;
+        this.width = width;
+        this.height = height;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 归还到所属的缓冲池，重复归还会抛出 IllegalStateException
+     */
+    public void release() {
+        pool.release(this);
+    }
+}
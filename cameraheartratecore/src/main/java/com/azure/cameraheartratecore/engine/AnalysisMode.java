@@ -0,0 +1,20 @@
+package com.azure.cameraheartratecore.engine;
+
+/**
+ * 引擎的分析模式
+ */
+public enum AnalysisMode {
+    /**
+     * 批处理：累积一批采样后整体平滑、找峰并清空，与最初的实现一致
+     */
+    BATCH,
+    /**
+     * 流式：逐采样点滑动平均和找峰，峰值确认后立即产生 R-R 间期，每隔 hopSize 个采样点输出一次结果
+     */
+    STREAMING,
+    /**
+     * 滤波流式：逐采样点去基线、带通滤波，再用带不应期和自适应阈值的检测器找峰，
+     * 减少基线漂移和重搏波造成的伪峰，每隔 hopSize 个采样点输出一次结果
+     */
+    FILTERED
+}
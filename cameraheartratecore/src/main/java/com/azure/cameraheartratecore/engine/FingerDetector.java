@@ -0,0 +1,131 @@
+package com.azure.cameraheartratecore.engine;
+
+/**
+ * 带迟滞的分级手指检测：覆盖比例超过 enterThreshold 并连续保持 confirmFrames 帧才判定为放置，
+ * 低于 exitThreshold 并连续 releaseFrames 帧才判定为离开，单帧噪声不会导致状态来回切换、R-R 历史被清空。
+ * 手指移动时覆盖比例只要不低于 motionThreshold 就仍视为放置，由运动伪影处理跳过这段信号。
+ */
+public class FingerDetector {
+
+    public enum State {
+        /**
+         * 未放置，只需粗略采样
+         */
+        ABSENT,
+        /**
+         * 覆盖比例已达标，正在连续确认
+         */
+        ACQUIRING,
+        /**
+         * 已放置
+         */
+        PRESENT,
+        /**
+         * 已放置但覆盖比例低于离开阈值，正在连续确认是否离开
+         */
+        RELEASING
+    }
+
+    private volatile double enterThreshold = 0.95;
+    private volatile double exitThreshold = 0.85;
+    private volatile int confirmFrames = 3;
+    private volatile int releaseFrames = 3;
+    private volatile double motionThreshold = 0.5;
+    private State state = State.ABSENT;
+    private int pendingFrames;
+
+    /**
+     * 根据一帧的覆盖比例更新状态
+     */
+    public State update(double coverageRatio) {
+        switch (state) {
+            case ABSENT:
+            case ACQUIRING:
+                if (coverageRatio > enterThreshold) {
+                    pendingFrames = state == State.ABSENT ? 1 : pendingFrames + 1;
+                    state = pendingFrames >= confirmFrames ? State.PRESENT : State.ACQUIRING;
+                } else {
+                    state = State.ABSENT;
+                }
+                break;
+            default:
+                if (coverageRatio > exitThreshold) {
+                    state = State.PRESENT;
+                } else {
+                    pendingFrames = state == State.PRESENT ? 1 : pendingFrames + 1;
+                    state = pendingFrames >= releaseFrames ? State.ABSENT : State.RELEASING;
+                }
+                break;
+        }
+        return state;
+    }
+
+    /**
+     * 根据一帧的覆盖比例和运动检测结果更新状态，已放置且处于运动中时覆盖比例不低于 motionThreshold 即保持放置
+     */
+    public State update(double coverageRatio, boolean motion) {
+        if (motion && isPresent() && coverageRatio >= motionThreshold) {
+            state = State.PRESENT;
+            return state;
+        }
+        return update(coverageRatio);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 手指已放置（包括正在确认离开）
+     */
+    public boolean isPresent() {
+        return state == State.PRESENT || state == State.RELEASING;
+    }
+
+    /**
+     * 未放置时只需粗略采样覆盖比例，其余状态需要完整采样
+     */
+    public boolean needsFullSample() {
+        return state != State.ABSENT;
+    }
+
+    /**
+     * 设置判定放置的覆盖比例阈值，默认 0.95，离开阈值不高于该值
+     */
+    public void setEnterThreshold(double enterThreshold) {
+        this.enterThreshold = enterThreshold;
+        if (exitThreshold > enterThreshold) {
+            exitThreshold = enterThreshold;
+        }
+    }
+
+    /**
+     * 设置判定离开的覆盖比例阈值，默认 0.85
+     */
+    public void setExitThreshold(double exitThreshold) {
+        this.exitThreshold = Math.min(exitThreshold, enterThreshold);
+    }
+
+    /**
+     * 设置手指移动时仍视为放置的覆盖比例下限，默认 0.5，不低于离开阈值时运动不影响判定
+     */
+    public void setMotionThreshold(double motionThreshold) {
+        this.motionThreshold = motionThreshold;
+    }
+
+    /**
+     * 设置确认放置和确认离开所需的连续帧数，默认均为 3，为 1 时不做确认
+     */
+    public void setConfirmFrames(int confirmFrames, int releaseFrames) {
+        if (confirmFrames <= 0 || releaseFrames <= 0) {
+            throw new IllegalArgumentException("frames must be positive: " + confirmFrames + ", " + releaseFrames);
+        }
+        this.confirmFrames = confirmFrames;
+        this.releaseFrames = releaseFrames;
+    }
+
+    public void reset() {
+        state = State.ABSENT;
+        pendingFrames = 0;
+    }
+}
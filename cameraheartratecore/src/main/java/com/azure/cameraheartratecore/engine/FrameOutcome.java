@@ -0,0 +1,27 @@
+package com.azure.cameraheartratecore.engine;
+
+/**
+ * HeartRatePipeline 处理一帧后的结果
+ */
+public enum FrameOutcome {
+    /**
+     * 采样已加入引擎，暂无新的计算结果
+     */
+    NONE,
+    /**
+     * 产生了新的计算结果
+     */
+    RESULT,
+    /**
+     * 手指刚离开，R-R 间期历史已清空，每次离开只返回一次
+     */
+    NO_FINGER,
+    /**
+     * 手指未放置或正在确认放置，本帧未做任何处理
+     */
+    IDLE,
+    /**
+     * 检测到手指但信号质量指数低于阈值（或覆盖比例暂时下降），该帧未交给引擎
+     */
+    LOW_QUALITY
+}
@@ -0,0 +1,472 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.buffer.DoubleRingBuffer;
+import com.azure.cameraheartratecore.buffer.LongRingBuffer;
+import com.azure.cameraheartratecore.filter.SignalFilter;
+import com.azure.cameraheartratecore.metrics.PipelineMetrics;
+import com.azure.cameraheartratecore.metrics.PipelineStage;
+import com.azure.cameraheartratecore.spectrum.SpectralHeartRateEstimator;
+import com.azure.cameraheartratecore.stream.AdaptivePeakDetector;
+import com.azure.cameraheartratecore.stream.MovingAverage;
+import com.azure.cameraheartratecore.stream.StreamingPeakDetector;
+
+/**
+ * 心率计算引擎，输入 (时间戳, 强度) 采样点，输出心率、SDNN、RMSSD 和有效值比例。
+ * 批处理模式下每累积一批采样计算一次；流式模式下逐点找峰，每隔 hopSize 个采样点输出一次。
+ * 与相机和 Android 无关，可以在 JVM 上回放、测试和基准测试。
+ * 所有窗口和临时缓冲区在构造时按配置一次性分配，稳定运行时每个采样点不再分配内存。
+ * 心率与 HRV 只按 setOutputs 要求的指标计算，并按 R-R 间期窗口的版本号缓存，窗口没有新间期时直接沿用上次结果。
+ * 被标记为伪影的采样点以伪影前的最后一个值代替，伪影结束后整体平移使信号连续，跨越伪影的 R-R 间期不计入窗口，
+ * 其余间期和已有结果保留。
+ */
+public class HeartRateEngine {
+    private final HeartRateEngineConfig config;
+    private final LongRingBuffer frameTimestamps;
+    private final DoubleRingBuffer intensities;
+    private final DoubleRingBuffer smoothedIntensities;
+    private final int[] peaks;
+    private final LongRingBuffer newRRList;
+    //R-R 间期窗口，加入时即完成增量过滤
+    private final RRArtifactFilter heartRRList;
+    private final RRArtifactFilter hrvRRList;
+    private final LongRingBuffer heartFilterRRByChange;
+    private final LongRingBuffer hrvFilterRRByChange;
+    //流式模式的状态
+    private final MovingAverage movingAverage;
+    private final LongRingBuffer smoothTimestamps;
+    private final StreamingPeakDetector peakDetector = new StreamingPeakDetector();
+    private int samplesSinceUpdate;
+    //滤波流式模式的状态
+    private final SignalFilter signalFilter;
+    private final AdaptivePeakDetector adaptivePeakDetector;
+    private long lastSampleTimestamp = -1;
+    //平均采样间隔与滤波器当前按哪个采样率设计，单位：毫秒、Hz
+    private double sampleIntervalMs;
+    private double filterSampleRateHz;
+    //频谱心率估计，PEAK 方式下为 null
+    private final SpectralHeartRateEstimator spectralEstimator;
+    //长时 HRV，未启用时为 null
+    private final HrvEngine longTermHrv;
+    //性能指标，默认关闭
+    private PipelineMetrics metrics = new PipelineMetrics();
+    //是否计算 SDNN/RMSSD，关闭时 R-R 间期仍然进入 HRV 窗口，重新开启后立即有完整窗口可用
+    private volatile boolean hrvEnabled = true;
+    //需要输出的指标
+    private volatile ResultOutputs outputs = ResultOutputs.ALL;
+    //上次计算心率、HRV 时 R-R 间期窗口的版本号，-1 表示没有缓存
+    private long heartWindowVersion = -1;
+    private long hrvWindowVersion = -1;
+    private int peakHeartRate;
+    //伪影处理：最后一个输出的强度、伪影结束后叠加的偏移，以及是否处于伪影中
+    private double lastIntensity = Double.NaN;
+    private double intensityOffset;
+    private boolean inArtifact;
+    //伪影结束后峰值检测仍需暂停的采样点数，覆盖流式模式的平滑窗口
+    private int peakHoldSamples;
+    //批处理模式下当前批次中伪影采样点的下标范围，没有伪影时为 -1
+    private int firstArtifactIndex = -1;
+    private int lastArtifactIndex = -1;
+
+    private int heartRate;
+    private int spectralHeartRate;
+    private float spectralQuality;
+    private int sdnn;
+    private int rmssd;
+    private float hrEffectiveValueRate;
+    private float hrvEffectiveValueRate;
+
+    public HeartRateEngine() {
+        this(new HeartRateEngineConfig());
+    }
+
+    public HeartRateEngine(HeartRateEngineConfig config) {
+        this.config = config;
+        int frameCapacity = config.getBatchSize() + 1;
+        frameTimestamps = new LongRingBuffer(frameCapacity);
+        intensities = new DoubleRingBuffer(frameCapacity);
+        smoothedIntensities = new DoubleRingBuffer(frameCapacity);
+        peaks = new int[frameCapacity];
+        newRRList = new LongRingBuffer(frameCapacity);
+        heartRRList = new RRArtifactFilter(config.getHrWindowSize(), config.getChangeThreshold());
+        hrvRRList = new RRArtifactFilter(config.getHrvWindowSize(), config.getChangeThreshold());
+        heartFilterRRByChange = new LongRingBuffer(config.getHrWindowSize());
+        hrvFilterRRByChange = new LongRingBuffer(config.getHrvWindowSize());
+        movingAverage = new MovingAverage(config.getSmoothWindowSize());
+        smoothTimestamps = new LongRingBuffer(config.getSmoothWindowSize());
+        signalFilter = config.getSignalFilterFactory().create();
+        adaptivePeakDetector = new AdaptivePeakDetector(config.getRefractoryMs());
+        spectralEstimator = config.getHeartRateEstimator() != HeartRateEstimator.PEAK
+                ? new SpectralHeartRateEstimator(config.getSpectralWindowMs())
+                : null;
+        longTermHrv = config.getLongTermHrvWindowMs() > 0
+                ? new HrvEngine(config.getLongTermHrvWindowMs(), config.getSpectrumIntervalMs(), config.getChangeThreshold())
+                : null;
+    }
+
+    /**
+     * 添加一个采样点
+     *
+     * @param timestamp 采样时间，单位：毫秒
+     * @param intensity 采样强度
+     * @return 本次是否产生了新的计算结果
+     */
+    public boolean addSample(long timestamp, double intensity) {
+        return addSample(timestamp, intensity, false);
+    }
+
+    /**
+     * 添加一个采样点
+     *
+     * @param timestamp 采样时间，单位：毫秒
+     * @param intensity 采样强度
+     * @param artifact 该采样点是否被运动等伪影破坏，为 true 时以插值代替并暂停峰值检测
+     * @return 本次是否产生了新的计算结果
+     */
+    public boolean addSample(long timestamp, double intensity, boolean artifact) {
+        intensity = repairArtifact(intensity, artifact);
+        if (spectralEstimator != null) {
+            spectralEstimator.add(timestamp, intensity);
+        }
+        switch (config.getAnalysisMode()) {
+            case STREAMING:
+                return addStreamingSample(timestamp, intensity);
+            case FILTERED:
+                return addFilteredSample(timestamp, intensity);
+            default:
+                return addBatchSample(timestamp, intensity);
+        }
+    }
+
+    /**
+     * 伪影中保持伪影前的最后一个值；伪影结束后把信号整体平移到该值，避免阶跃使滤波器振荡
+     */
+    private double repairArtifact(double intensity, boolean artifact) {
+        if (artifact) {
+            inArtifact = true;
+            peakHoldSamples = config.getAnalysisMode() == AnalysisMode.STREAMING ? config.getSmoothWindowSize() : 0;
+            return Double.isNaN(lastIntensity) ? intensity + intensityOffset : lastIntensity;
+        }
+        if (inArtifact) {
+            inArtifact = false;
+            if (!Double.isNaN(lastIntensity)) {
+                intensityOffset = lastIntensity - intensity;
+            }
+        }
+        lastIntensity = intensity + intensityOffset;
+        return lastIntensity;
+    }
+
+    //当前采样点是否需要暂停峰值检测
+    private boolean holdPeaks() {
+        if (inArtifact) {
+            return true;
+        }
+        if (peakHoldSamples > 0) {
+            peakHoldSamples--;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean addBatchSample(long timestamp, double intensity) {
+        if (inArtifact) {
+            if (firstArtifactIndex < 0) {
+                firstArtifactIndex = frameTimestamps.size();
+            }
+            lastArtifactIndex = frameTimestamps.size();
+        }
+        intensities.add(intensity);
+        frameTimestamps.add(timestamp);
+
+        if (frameTimestamps.size() <= config.getBatchSize()) {
+            return false;
+        }
+
+        boolean timing = metrics.isEnabled();
+        long startNs = timing ? System.nanoTime() : 0;
+        SignalProcessing.smoothData(intensities, config.getSmoothWindowSize(), smoothedIntensities);
+        int peakCount = SignalProcessing.findPeaks(smoothedIntensities, peaks);
+        newRRList.clear();
+        if (SignalProcessing.calculateRR(frameTimestamps, peaks, peakCount, newRRList)) {
+            for (int i = 1; i < peakCount; i++) {
+                // 两峰之间有伪影采样点的间期不可信
+                if (firstArtifactIndex >= 0 && peaks[i - 1] <= lastArtifactIndex && peaks[i] >= firstArtifactIndex) {
+                    continue;
+                }
+                addInterval(frameTimestamps.get(peaks[i]), newRRList.get(i - 1));
+            }
+        }
+        firstArtifactIndex = -1;
+        lastArtifactIndex = -1;
+        if (timing) {
+            metrics.recordStage(PipelineStage.PEAKS, System.nanoTime() - startNs);
+        }
+        updateResults(timing);
+
+        frameTimestamps.clear();
+        intensities.clear();
+        return true;
+    }
+
+    private boolean addStreamingSample(long timestamp, double intensity) {
+        boolean timing = metrics.isEnabled();
+        long startNs = timing ? System.nanoTime() : 0;
+        smoothTimestamps.add(timestamp);
+        double smoothed = movingAverage.add(intensity);
+        if (holdPeaks()) {
+            peakDetector.reset();
+        } else if (!Double.isNaN(smoothed)) {
+            // 平滑值对应窗口中心的采样点
+            long centerTimestamp = smoothTimestamps.get(smoothTimestamps.size() - 1 - movingAverage.getDelay());
+            long rr = peakDetector.add(centerTimestamp, smoothed);
+            if (rr > 0) {
+                addInterval(peakDetector.getLastPeakTimestamp(), rr);
+            }
+        }
+        if (timing) {
+            metrics.recordStage(PipelineStage.PEAKS, System.nanoTime() - startNs);
+        }
+
+        if (++samplesSinceUpdate < config.getHopSize()) {
+            return false;
+        }
+        samplesSinceUpdate = 0;
+        updateResults(timing);
+        return true;
+    }
+
+    private boolean addFilteredSample(long timestamp, double intensity) {
+        boolean timing = metrics.isEnabled();
+        long startNs = timing ? System.nanoTime() : 0;
+        trackSampleRate(timestamp);
+        double filtered = signalFilter.process(intensity);
+        long filteredNs = timing ? System.nanoTime() : 0;
+        long rr = -1;
+        if (holdPeaks()) {
+            adaptivePeakDetector.interrupt();
+        } else {
+            rr = adaptivePeakDetector.add(timestamp, filtered);
+        }
+        if (rr > 0) {
+            addInterval(adaptivePeakDetector.getLastPeakTimestamp(), rr);
+        }
+        if (timing) {
+            metrics.recordStage(PipelineStage.FILTER, filteredNs - startNs);
+            metrics.recordStage(PipelineStage.PEAKS, System.nanoTime() - filteredNs);
+        }
+
+        if (++samplesSinceUpdate < config.getHopSize()) {
+            return false;
+        }
+        samplesSinceUpdate = 0;
+        updateResults(timing);
+        return true;
+    }
+
+    /**
+     * 把一个 R-R 间期加入心率和 HRV 窗口；只输出心率时不加入长时 HRV，省去其周期性的频谱计算
+     */
+    private void addInterval(long peakTimestamp, long rr) {
+        heartRRList.add(rr);
+        hrvRRList.add(rr);
+        if (longTermHrv != null && outputs.includesHrv()) {
+            longTermHrv.addInterval(peakTimestamp, rr);
+        }
+    }
+
+    /**
+     * 跟踪平均采样间隔，采样率偏离滤波器设计值超过 15% 时就地重新计算滤波系数，
+     * 例如 SamplingPolicy.adaptive 调整了分析帧率
+     */
+    private void trackSampleRate(long timestamp) {
+        long interval = timestamp - lastSampleTimestamp;
+        boolean valid = lastSampleTimestamp >= 0 && interval > 0 && interval < 1000;
+        lastSampleTimestamp = timestamp;
+        if (!valid) {
+            return;
+        }
+        sampleIntervalMs = sampleIntervalMs == 0 ? interval : sampleIntervalMs + 0.1 * (interval - sampleIntervalMs);
+        double sampleRateHz = 1000.0 / sampleIntervalMs;
+        if (filterSampleRateHz == 0 || Math.abs(sampleRateHz - filterSampleRateHz) > 0.15 * filterSampleRateHz) {
+            signalFilter.setSampleRate(sampleRateHz);
+            filterSampleRateHz = sampleRateHz;
+        }
+    }
+
+    private void updateResults(boolean timing) {
+        long startNs = timing ? System.nanoTime() : 0;
+        ResultOutputs outputs = this.outputs;
+        boolean computeHeartRate = outputs.includesHeartRate();
+        boolean computeHrv = hrvEnabled && outputs.includesHrv();
+        // 两个窗口总是同时加入间期、同时清空，有效值比例的前提条件只需在窗口变化时判断
+        boolean enoughIntervals = heartRRList.size() >= 5 && hrvRRList.size() >= 5;
+        boolean heartChanged = computeHeartRate && heartRRList.getVersion() != heartWindowVersion;
+        boolean hrvChanged = computeHrv && hrvRRList.getVersion() != hrvWindowVersion;
+        if (heartChanged) {
+            heartRRList.filter(heartFilterRRByChange);
+        }
+        if (hrvChanged) {
+            hrvRRList.filter(hrvFilterRRByChange);
+        }
+        long filteredNs = timing ? System.nanoTime() : 0;
+
+        if (heartChanged) {
+            hrEffectiveValueRate = enoughIntervals
+                    ? Math.round((float) heartFilterRRByChange.size() / heartRRList.size() * 100) / 100.0f
+                    : 0.0f;
+            peakHeartRate = SignalProcessing.calculateHeartRate(heartFilterRRByChange);
+            heartWindowVersion = heartRRList.getVersion();
+        } else if (!computeHeartRate) {
+            hrEffectiveValueRate = 0.0f;
+            peakHeartRate = 0;
+            heartWindowVersion = -1;
+        }
+        if (hrvChanged) {
+            hrvEffectiveValueRate = enoughIntervals
+                    ? Math.round((float) hrvFilterRRByChange.size() / hrvRRList.size() * 100) / 100.0f
+                    : 0.0f;
+            sdnn = SignalProcessing.calculateSDNN(hrvFilterRRByChange);
+            rmssd = SignalProcessing.calculateRMSSD(hrvFilterRRByChange);
+            hrvWindowVersion = hrvRRList.getVersion();
+        } else if (!computeHrv) {
+            hrvEffectiveValueRate = 0.0f;
+            sdnn = 0;
+            rmssd = 0;
+            hrvWindowVersion = -1;
+        }
+        long hrvNs = timing ? System.nanoTime() : 0;
+        heartRate = computeHeartRate ? selectHeartRate(peakHeartRate) : 0;
+        if (timing) {
+            metrics.recordStage(PipelineStage.RR_FILTER, filteredNs - startNs);
+            metrics.recordStage(PipelineStage.HRV, hrvNs - filteredNs);
+            if (spectralEstimator != null && computeHeartRate) {
+                metrics.recordStage(PipelineStage.SPECTRUM, System.nanoTime() - hrvNs);
+            }
+        }
+    }
+
+    private int selectHeartRate(int peakHeartRate) {
+        if (spectralEstimator == null) {
+            return peakHeartRate;
+        }
+        boolean spectralReady = spectralEstimator.estimate();
+        boolean spectralValid = spectralReady && spectralEstimator.getQuality() >= config.getMinSpectralQuality();
+        spectralQuality = (float) spectralEstimator.getQuality();
+        spectralHeartRate = spectralValid ? (int) Math.round(spectralEstimator.getHeartRate()) : 0;
+        if (config.getHeartRateEstimator() == HeartRateEstimator.SPECTRAL || !spectralReady) {
+            // 频谱窗口填满之前无法核对峰值结果，最初几个间期常把重搏波计为心跳，此时不输出
+            return spectralHeartRate;
+        }
+        // 峰值结果需要足够多的有效间期才可靠，此前以及两者明显不一致时使用频谱结果
+        boolean peakReliable = peakHeartRate > 0 && hrEffectiveValueRate >= 0.5f;
+        if (peakReliable && (!spectralValid || Math.abs(peakHeartRate - spectralHeartRate) <= 0.1 * spectralHeartRate)) {
+            return peakHeartRate;
+        }
+        if (spectralValid) {
+            return spectralHeartRate;
+        }
+        return peakReliable ? peakHeartRate : 0;
+    }
+
+    /**
+     * 清空 R-R 间期历史，手指离开相机时调用
+     */
+    public void clearRRHistory() {
+        heartRRList.clear();
+        hrvRRList.clear();
+        // 流式状态跨越无手指的间隙没有意义，一并重置
+        movingAverage.reset();
+        smoothTimestamps.clear();
+        peakDetector.reset();
+        signalFilter.reset();
+        adaptivePeakDetector.reset();
+        if (spectralEstimator != null) {
+            spectralEstimator.reset();
+        }
+        spectralHeartRate = 0;
+        spectralQuality = 0;
+        lastSampleTimestamp = -1;
+        samplesSinceUpdate = 0;
+        lastIntensity = Double.NaN;
+        intensityOffset = 0;
+        inArtifact = false;
+        peakHoldSamples = 0;
+        if (longTermHrv != null) {
+            longTermHrv.clear();
+        }
+    }
+
+    /**
+     * 设置记录各阶段耗时的性能指标
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 开关 SDNN/RMSSD 的计算，关闭时两者与 HRV 有效值比例输出 0，只计算心率。默认开启
+     */
+    public void setHrvEnabled(boolean hrvEnabled) {
+        this.hrvEnabled = hrvEnabled;
+    }
+
+    public boolean isHrvEnabled() {
+        return hrvEnabled;
+    }
+
+    /**
+     * 设置需要输出的指标，默认 ALL。只订阅心率时设为 HEART_RATE，可以省去 HRV 窗口的过滤和 SDNN/RMSSD 计算；
+     * 与 setHrvEnabled 同时生效，两者都允许时才计算 HRV
+     */
+    public void setOutputs(ResultOutputs outputs) {
+        if (outputs == null) {
+            throw new IllegalArgumentException("outputs must not be null");
+        }
+        this.outputs = outputs;
+    }
+
+    public ResultOutputs getOutputs() {
+        return outputs;
+    }
+
+    /**
+     * 获取长时 HRV，配置中 longTermHrvWindowMs 为 0 时返回 null
+     */
+    public HrvEngine getLongTermHrv() {
+        return longTermHrv;
+    }
+
+    public int getHeartRate() {
+        return heartRate;
+    }
+
+    /**
+     * 频谱估计的心率，PEAK 方式或质量不足时为 0
+     */
+    public int getSpectralHeartRate() {
+        return spectralHeartRate;
+    }
+
+    /**
+     * 频谱估计的质量分数，0–1
+     */
+    public float getSpectralQuality() {
+        return spectralQuality;
+    }
+
+    public int getSdnn() {
+        return sdnn;
+    }
+
+    public int getRmssd() {
+        return rmssd;
+    }
+
+    public float getHrEffectiveValueRate() {
+        return hrEffectiveValueRate;
+    }
+
+    public float getHrvEffectiveValueRate() {
+        return hrvEffectiveValueRate;
+    }
+}
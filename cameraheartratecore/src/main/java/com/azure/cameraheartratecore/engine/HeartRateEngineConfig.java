@@ -0,0 +1,164 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.filter.FilterChain;
+import com.azure.cameraheartratecore.filter.SignalFilterFactory;
+
+/**
+ * HeartRateEngine 的参数配置，默认值与原 HeartRateAnalyzer 中的常量一致
+ */
+public class HeartRateEngineConfig {
+    //分析模式
+    private AnalysisMode analysisMode = AnalysisMode.BATCH;
+    //流式模式下每隔多少个采样点输出一次结果
+    private int hopSize = 10;
+    //每批次采样数，超过后计算一次 R-R 间期
+    private int batchSize = 30;
+    //心率计算使用的 R-R 间期窗口
+    private int hrWindowSize = 10;
+    //HRV 计算使用的 R-R 间期窗口
+    private int hrvWindowSize = 20;
+    //平滑窗口大小
+    private int smoothWindowSize = 5;
+    //相邻 R-R 间期变化率阈值
+    private double changeThreshold = 0.3;
+    //长时 HRV 的时间窗口，单位：毫秒，默认为 0 不计算，需要时再开启，例如 300_000
+    private long longTermHrvWindowMs = 0;
+    //长时 HRV 频域指标的更新间隔，单位：毫秒
+    private long spectrumIntervalMs = 5_000;
+    //FILTERED 模式的滤波阶段
+    private SignalFilterFactory signalFilterFactory = FilterChain::createDefault;
+    //FILTERED 模式找峰的不应期下限，单位：毫秒
+    private long refractoryMs = 250;
+    //心率估计方式
+    private HeartRateEstimator heartRateEstimator = HeartRateEstimator.PEAK;
+    //频谱估计的时间窗口，单位：毫秒
+    private long spectralWindowMs = 4_000;
+    //频谱估计的最低质量分数
+    private double minSpectralQuality = 0.4;
+
+    public AnalysisMode getAnalysisMode() {
+        return analysisMode;
+    }
+
+    public HeartRateEngineConfig setAnalysisMode(AnalysisMode analysisMode) {
+        this.analysisMode = analysisMode;
+        return this;
+    }
+
+    public int getHopSize() {
+        return hopSize;
+    }
+
+    public HeartRateEngineConfig setHopSize(int hopSize) {
+        this.hopSize = hopSize;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public HeartRateEngineConfig setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public int getHrWindowSize() {
+        return hrWindowSize;
+    }
+
+    public HeartRateEngineConfig setHrWindowSize(int hrWindowSize) {
+        this.hrWindowSize = hrWindowSize;
+        return this;
+    }
+
+    public int getHrvWindowSize() {
+        return hrvWindowSize;
+    }
+
+    public HeartRateEngineConfig setHrvWindowSize(int hrvWindowSize) {
+        this.hrvWindowSize = hrvWindowSize;
+        return this;
+    }
+
+    public int getSmoothWindowSize() {
+        return smoothWindowSize;
+    }
+
+    public HeartRateEngineConfig setSmoothWindowSize(int smoothWindowSize) {
+        this.smoothWindowSize = smoothWindowSize;
+        return this;
+    }
+
+    public double getChangeThreshold() {
+        return changeThreshold;
+    }
+
+    public HeartRateEngineConfig setChangeThreshold(double changeThreshold) {
+        this.changeThreshold = changeThreshold;
+        return this;
+    }
+
+    public long getLongTermHrvWindowMs() {
+        return longTermHrvWindowMs;
+    }
+
+    public HeartRateEngineConfig setLongTermHrvWindowMs(long longTermHrvWindowMs) {
+        this.longTermHrvWindowMs = longTermHrvWindowMs;
+        return this;
+    }
+
+    public long getSpectrumIntervalMs() {
+        return spectrumIntervalMs;
+    }
+
+    public HeartRateEngineConfig setSpectrumIntervalMs(long spectrumIntervalMs) {
+        this.spectrumIntervalMs = spectrumIntervalMs;
+        return this;
+    }
+
+    public SignalFilterFactory getSignalFilterFactory() {
+        return signalFilterFactory;
+    }
+
+    public HeartRateEngineConfig setSignalFilterFactory(SignalFilterFactory signalFilterFactory) {
+        this.signalFilterFactory = signalFilterFactory;
+        return this;
+    }
+
+    public long getRefractoryMs() {
+        return refractoryMs;
+    }
+
+    public HeartRateEngineConfig setRefractoryMs(long refractoryMs) {
+        this.refractoryMs = refractoryMs;
+        return this;
+    }
+
+    public HeartRateEstimator getHeartRateEstimator() {
+        return heartRateEstimator;
+    }
+
+    public HeartRateEngineConfig setHeartRateEstimator(HeartRateEstimator heartRateEstimator) {
+        this.heartRateEstimator = heartRateEstimator;
+        return this;
+    }
+
+    public long getSpectralWindowMs() {
+        return spectralWindowMs;
+    }
+
+    public HeartRateEngineConfig setSpectralWindowMs(long spectralWindowMs) {
+        this.spectralWindowMs = spectralWindowMs;
+        return this;
+    }
+
+    public double getMinSpectralQuality() {
+        return minSpectralQuality;
+    }
+
+    public HeartRateEngineConfig setMinSpectralQuality(double minSpectralQuality) {
+        this.minSpectralQuality = minSpectralQuality;
+        return this;
+    }
+}
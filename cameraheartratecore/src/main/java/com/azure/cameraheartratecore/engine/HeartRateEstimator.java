@@ -0,0 +1,20 @@
+package com.azure.cameraheartratecore.engine;
+
+/**
+ * 心率的估计方式
+ */
+public enum HeartRateEstimator {
+    /**
+     * 由过滤后的 R-R 间期计算，需要若干个干净的峰值，与最初的实现一致
+     */
+    PEAK,
+    /**
+     * 由最近数秒强度信号的频谱主频计算，收敛快，质量分数低于阈值时不输出
+     */
+    SPECTRAL,
+    /**
+     * 峰值结果可靠且与频谱结果一致时使用峰值结果，否则在频谱质量足够时使用频谱结果，两者都不可靠时不输出。
+     * 频谱窗口填满之前无法核对峰值结果，与 SPECTRAL 同时开始输出
+     */
+    FUSED
+}
@@ -0,0 +1,189 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.metrics.PipelineMetrics;
+import com.azure.cameraheartratecore.quality.FrameQualityEvaluator;
+import com.azure.cameraheartratecore.quality.MotionDetector;
+import com.azure.cameraheartratecore.result.HeartRateSnapshot;
+import com.azure.cameraheartratecore.sampler.FrameStats;
+
+/**
+ * 单路视频流的逐帧处理：根据覆盖比例判断手指是否放置，计算信号质量指数并选择信号通道，
+ * 质量合格的帧再交给 HeartRateEngine。输入是像素采样后的精简信号，实时相机与离线回放共用同一套逻辑。
+ * 手指未放置时每帧只更新检测状态，needsFullSample() 为 false，调用方可以只做粗略采样。
+ * 运动伪影帧和质量过低的帧作为伪影交给引擎，引擎以插值代替并跳过跨越伪影的 R-R 间期，已有窗口不被清空。
+ * 采样区域或步长改变后的第一帧同样作为伪影，引擎把前后两段信号平移衔接，运动检测和信号质量重新建立基准。
+ */
+public class HeartRatePipeline {
+    private final HeartRateEngine engine;
+    private final FrameQualityEvaluator qualityEvaluator = new FrameQualityEvaluator();
+    private final FingerDetector fingerDetector = new FingerDetector();
+    private final MotionDetector motionDetector = new MotionDetector();
+    //旧接口只有红色均值和覆盖比例，复用该实例转换
+    private final FrameStats redOnlyStats = new FrameStats();
+    //低于该信号质量指数的帧不交给引擎
+    private volatile double minFrameQuality = 0.3;
+    //采样区域或步长已改变，下一帧的均值相对上一帧有阶跃
+    private boolean samplingChanged;
+    private PipelineMetrics metrics = new PipelineMetrics();
+
+    public HeartRatePipeline() {
+        this(new HeartRateEngineConfig());
+    }
+
+    public HeartRatePipeline(HeartRateEngineConfig config) {
+        engine = new HeartRateEngine(config);
+    }
+
+    /**
+     * 处理只有红色通道的采样结果
+     *
+     * @param timestampNs 帧时间戳，单位：纳秒
+     * @param intensity 采样强度
+     * @param coverageRatio 红色占优像素的比例
+     */
+    public FrameOutcome processFrame(long timestampNs, double intensity, double coverageRatio) {
+        return processFrame(timestampNs, redOnlyStats.setRedOnly(intensity, coverageRatio));
+    }
+
+    /**
+     * 处理一帧的多通道采样结果
+     *
+     * @param timestampNs 帧时间戳，单位：纳秒
+     * @param stats 采样结果，例如 PixelSampler.getFrameStats()
+     */
+    public FrameOutcome processFrame(long timestampNs, FrameStats stats) {
+        boolean samplingBoundary = samplingChanged;
+        if (samplingBoundary) {
+            samplingChanged = false;
+            motionDetector.rebase();
+            qualityEvaluator.rebase();
+        }
+        FingerDetector.State previous = fingerDetector.getState();
+        long timestampMs = timestampNs / 1_000_000L;
+        boolean motion = fingerDetector.isPresent()
+                && motionDetector.update(timestampMs, stats, qualityEvaluator.getChannel());
+        FingerDetector.State state = fingerDetector.update(stats.getCoverageRatio(), motion);
+        if (state == FingerDetector.State.RELEASING) {
+            //覆盖比例暂时下降，跳过该帧但保留 R-R 历史
+            metrics.onFrameLowQuality();
+            return FrameOutcome.LOW_QUALITY;
+        }
+        qualityEvaluator.evaluate(stats, state == FingerDetector.State.PRESENT);
+        if (state != FingerDetector.State.PRESENT) {
+            if (previous != FingerDetector.State.RELEASING && previous != FingerDetector.State.PRESENT) {
+                return FrameOutcome.IDLE;
+            }
+            metrics.onMeasurementStopped();
+            engine.clearRRHistory();
+            motionDetector.reset();
+            return FrameOutcome.NO_FINGER;
+        }
+        metrics.onMeasurementStarted(timestampNs);
+        if (qualityEvaluator.isChannelChanged()) {
+            //不同通道的幅度和基线不同，不能拼接在同一段信号里
+            engine.clearRRHistory();
+            motionDetector.reset();
+        }
+        //坏帧作为伪影交给引擎，引擎跳过找峰，只保持结果的输出节奏
+        boolean lowQuality = motion || qualityEvaluator.getQuality() < minFrameQuality;
+        if (lowQuality) {
+            metrics.onFrameLowQuality();
+        }
+        //采样设置改变后的第一帧也作为伪影，引擎据此平移衔接阶跃，不计入低质量帧
+        boolean artifact = lowQuality || samplingBoundary;
+        if (!engine.addSample(timestampMs, stats.getMean(qualityEvaluator.getChannel()), artifact)) {
+            return lowQuality ? FrameOutcome.LOW_QUALITY : FrameOutcome.NONE;
+        }
+        if (engine.getHeartRate() > 0) {
+            metrics.onValidReading(timestampNs);
+        }
+        return FrameOutcome.RESULT;
+    }
+
+    /**
+     * 以当前引擎结果和信号质量创建快照，通常在 processFrame 返回 RESULT 后调用
+     *
+     * @param timestampNs 帧时间戳，单位：纳秒
+     */
+    public HeartRateSnapshot createSnapshot(long timestampNs) {
+        return fillSnapshot(new HeartRateSnapshot(), timestampNs);
+    }
+
+    /**
+     * 与 createSnapshot 相同，但改写传入的快照并返回它，用于循环复用快照
+     *
+     * @param timestampNs 帧时间戳，单位：纳秒
+     */
+    public HeartRateSnapshot fillSnapshot(HeartRateSnapshot snapshot, long timestampNs) {
+        if (!fingerDetector.isPresent()) {
+            snapshot.setNoFinger(timestampNs);
+        } else {
+            snapshot.set(timestampNs, engine.getHeartRate(), engine.getSdnn(), engine.getRmssd(), true,
+                    engine.getHrEffectiveValueRate(), engine.getHrvEffectiveValueRate(),
+                    qualityEvaluator.getQuality(), qualityEvaluator.getIssue());
+        }
+        return snapshot;
+    }
+
+    /**
+     * 通知采样区域或步长已改变，例如 AdaptiveGovernor 切换档位之后，应在分析线程上调用
+     */
+    public void onSamplingChanged() {
+        samplingChanged = true;
+    }
+
+    /**
+     * 设置判定手指覆盖相机的红色像素比例阈值，默认 0.95，离开阈值见 getFingerDetector()
+     */
+    public void setCoverageThreshold(double coverageThreshold) {
+        fingerDetector.setEnterThreshold(coverageThreshold);
+    }
+
+    /**
+     * 设置信号质量指数阈值，低于该值的帧作为伪影处理，默认 0.3，为 0 时只按运动检测结果处理
+     */
+    public void setMinFrameQuality(double minFrameQuality) {
+        this.minFrameQuality = minFrameQuality;
+    }
+
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+        engine.setMetrics(metrics);
+    }
+
+    public boolean isFingerDetected() {
+        return fingerDetector.isPresent();
+    }
+
+    /**
+     * 下一帧是否需要完整采样，为 false 时只需粗略采样覆盖比例
+     */
+    public boolean needsFullSample() {
+        return fingerDetector.needsFullSample();
+    }
+
+    /**
+     * 手指检测器，用于配置迟滞阈值和确认帧数
+     */
+    public FingerDetector getFingerDetector() {
+        return fingerDetector;
+    }
+
+    /**
+     * 最近一帧的信号质量与所选通道
+     */
+    public FrameQualityEvaluator getQualityEvaluator() {
+        return qualityEvaluator;
+    }
+
+    /**
+     * 运动伪影检测器，用于配置保持时长
+     */
+    public MotionDetector getMotionDetector() {
+        return motionDetector;
+    }
+
+    public HeartRateEngine getEngine() {
+        return engine;
+    }
+}
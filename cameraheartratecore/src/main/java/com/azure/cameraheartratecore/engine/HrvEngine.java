@@ -0,0 +1,254 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.buffer.LongRingBuffer;
+import com.azure.cameraheartratecore.spectrum.LombScargle;
+
+/**
+ * 长时 HRV 计算，保存最近 windowMs 内带心跳时刻的 R-R 间期，默认 5 分钟。
+ * <p>
+ * 时域指标（SDNN、RMSSD、pNN50、平均心率）用滑入滑出的累加和增量维护。R-R 间期是整数毫秒，
+ * 累加和以 long 精确保存，长时间运行也不会产生浮点漂移。
+ * 频域指标（LF、HF 功率）用 Lomb-Scargle 周期图，按 spectrumIntervalMs 的固定节奏更新。
+ * 所有缓冲区在构造时分配，运行时不分配内存。
+ */
+public class HrvEngine {
+    public static final double LF_LOW_HZ = 0.04;
+    public static final double LF_HIGH_HZ = 0.15;
+    public static final double HF_HIGH_HZ = 0.4;
+    //频域分析所需的最短数据时长，至少覆盖两个 LF 下限周期
+    public static final long MIN_SPECTRUM_DURATION_MS = 60_000;
+    //连续被剔除的次数达到该值后，以新间期作为比较基准，避免基准本身是异常值时一直拒绝
+    private static final int MAX_CONSECUTIVE_REJECTS = 3;
+    private static final long NO_DIFF = Long.MIN_VALUE;
+
+    private final long windowMs;
+    private final long spectrumIntervalMs;
+    private final double changeThreshold;
+    private final LongRingBuffer beatTimestamps;
+    private final LongRingBuffer intervals;
+    //与前一个间期之差，前一个间期不相邻或已滑出窗口时为 NO_DIFF
+    private final LongRingBuffer successiveDiffs;
+    private long sum;
+    private long sumSquares;
+    private int diffCount;
+    private long diffSquares;
+    private int nn50Count;
+
+    private long lastAcceptedRR = -1;
+    private long lastAcceptedBeat = -1;
+    private int consecutiveRejects;
+
+    private final LombScargle lombScargle;
+    private final double[] spectrumTimes;
+    private final double[] spectrumValues;
+    private long lastSpectrumBeat = -1;
+    private double lfPower;
+    private double hfPower;
+
+    //时域、频域结果每更新一次加一，调用方据此判断是否需要回调
+    private long version;
+    private long spectrumVersion;
+
+    public HrvEngine(long windowMs, long spectrumIntervalMs, double changeThreshold) {
+        this.windowMs = windowMs;
+        this.spectrumIntervalMs = spectrumIntervalMs;
+        this.changeThreshold = changeThreshold;
+        int capacity = (int) (windowMs / SignalProcessing.RR_MIN) + 1;
+        beatTimestamps = new LongRingBuffer(capacity);
+        intervals = new LongRingBuffer(capacity);
+        successiveDiffs = new LongRingBuffer(capacity);
+        // 频率分辨率取窗口时长的倒数
+        lombScargle = new LombScargle(LF_LOW_HZ, HF_HIGH_HZ, Math.max(1000.0 / windowMs, 0.002), capacity);
+        spectrumTimes = new double[capacity];
+        spectrumValues = new double[capacity];
+    }
+
+    /**
+     * 添加一个 R-R 间期
+     *
+     * @param beatTimestamp 间期结束时的心跳时刻，单位：毫秒
+     * @param rr R-R 间期，单位：毫秒
+     * @return 间期是否被接受
+     */
+    public boolean addInterval(long beatTimestamp, long rr) {
+        if (!SignalProcessing.isInRange(rr)) {
+            return false;
+        }
+        if (lastAcceptedRR >= 0 && !SignalProcessing.isWithinChange(rr, lastAcceptedRR, changeThreshold)
+                && ++consecutiveRejects < MAX_CONSECUTIVE_REJECTS) {
+            return false;
+        }
+        // 只有与上一个接受的心跳首尾相接时，相邻差值才有意义
+        long diff = lastAcceptedBeat >= 0 && beatTimestamp - rr == lastAcceptedBeat ? rr - lastAcceptedRR : NO_DIFF;
+        consecutiveRejects = 0;
+        lastAcceptedRR = rr;
+        lastAcceptedBeat = beatTimestamp;
+
+        if (intervals.isFull()) {
+            evictFirst();
+        }
+        beatTimestamps.add(beatTimestamp);
+        intervals.add(rr);
+        successiveDiffs.add(diff);
+        sum += rr;
+        sumSquares += rr * rr;
+        if (diff != NO_DIFF) {
+            addDiff(diff, 1);
+        }
+        while (beatTimestamp - beatTimestamps.get(0) > windowMs) {
+            evictFirst();
+        }
+        version++;
+
+        if (getDurationMs() >= MIN_SPECTRUM_DURATION_MS
+                && (lastSpectrumBeat < 0 || beatTimestamp - lastSpectrumBeat >= spectrumIntervalMs)) {
+            updateSpectrum();
+            lastSpectrumBeat = beatTimestamp;
+        }
+        return true;
+    }
+
+    private void evictFirst() {
+        long rr = intervals.get(0);
+        sum -= rr;
+        sumSquares -= rr * rr;
+        long diff = successiveDiffs.get(0);
+        if (diff != NO_DIFF) {
+            addDiff(diff, -1);
+        }
+        beatTimestamps.removeFirst(1);
+        intervals.removeFirst(1);
+        successiveDiffs.removeFirst(1);
+        // 新的首个间期与被淘汰的间期之差不再属于窗口
+        if (!successiveDiffs.isEmpty() && successiveDiffs.get(0) != NO_DIFF) {
+            addDiff(successiveDiffs.get(0), -1);
+            successiveDiffs.set(0, NO_DIFF);
+        }
+    }
+
+    private void addDiff(long diff, int sign) {
+        diffCount += sign;
+        diffSquares += sign * diff * diff;
+        if (Math.abs(diff) > 50) {
+            nn50Count += sign;
+        }
+    }
+
+    private void updateSpectrum() {
+        int count = intervals.size();
+        double mean = getMeanRR();
+        long origin = beatTimestamps.get(0);
+        for (int i = 0; i < count; i++) {
+            spectrumTimes[i] = (beatTimestamps.get(i) - origin) / 1000.0;
+            spectrumValues[i] = intervals.get(i) - mean;
+        }
+        lombScargle.compute(spectrumTimes, spectrumValues, count);
+        lfPower = lombScargle.bandPower(LF_LOW_HZ, LF_HIGH_HZ);
+        hfPower = lombScargle.bandPower(LF_HIGH_HZ, HF_HIGH_HZ);
+        spectrumVersion++;
+    }
+
+    /**
+     * 清空历史，手指离开相机时调用
+     */
+    public void clear() {
+        if (lastAcceptedRR < 0) {
+            return;
+        }
+        beatTimestamps.clear();
+        intervals.clear();
+        successiveDiffs.clear();
+        sum = 0;
+        sumSquares = 0;
+        diffCount = 0;
+        diffSquares = 0;
+        nn50Count = 0;
+        lastAcceptedRR = -1;
+        lastAcceptedBeat = -1;
+        consecutiveRejects = 0;
+        lastSpectrumBeat = -1;
+        version++;
+        if (lfPower != 0 || hfPower != 0) {
+            lfPower = 0;
+            hfPower = 0;
+            spectrumVersion++;
+        }
+    }
+
+    public int getIntervalCount() {
+        return intervals.size();
+    }
+
+    /**
+     * 窗口内第一个间期开始到最后一个心跳的时长，单位：毫秒
+     */
+    public long getDurationMs() {
+        if (intervals.isEmpty()) {
+            return 0;
+        }
+        return beatTimestamps.getLast() - beatTimestamps.get(0) + intervals.get(0);
+    }
+
+    public double getMeanRR() {
+        return intervals.isEmpty() ? 0 : (double) sum / intervals.size();
+    }
+
+    /**
+     * 平均心率，单位：次数/分钟
+     */
+    public double getMeanHeartRate() {
+        return intervals.isEmpty() ? 0 : 60_000.0 * intervals.size() / sum;
+    }
+
+    /**
+     * SDNN，单位：毫秒
+     */
+    public double getSdnn() {
+        long n = intervals.size();
+        if (n == 0) {
+            return 0;
+        }
+        // n * Σx² - (Σx)² 以 long 精确计算
+        return Math.sqrt((double) (n * sumSquares - sum * sum) / ((double) n * n));
+    }
+
+    /**
+     * RMSSD，单位：毫秒
+     */
+    public double getRmssd() {
+        return diffCount == 0 ? 0 : Math.sqrt((double) diffSquares / diffCount);
+    }
+
+    /**
+     * 相邻间期差值超过 50 毫秒的比例，单位：%
+     */
+    public double getPnn50() {
+        return diffCount == 0 ? 0 : 100.0 * nn50Count / diffCount;
+    }
+
+    /**
+     * LF（0.04–0.15 Hz）功率，单位：ms²，数据不足 MIN_SPECTRUM_DURATION_MS 时为 0
+     */
+    public double getLfPower() {
+        return lfPower;
+    }
+
+    /**
+     * HF（0.15–0.4 Hz）功率，单位：ms²，数据不足 MIN_SPECTRUM_DURATION_MS 时为 0
+     */
+    public double getHfPower() {
+        return hfPower;
+    }
+
+    public double getLfHfRatio() {
+        return hfPower > 0 ? lfPower / hfPower : 0;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getSpectrumVersion() {
+        return spectrumVersion;
+    }
+}
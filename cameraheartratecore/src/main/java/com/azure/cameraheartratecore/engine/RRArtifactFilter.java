@@ -0,0 +1,220 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.buffer.BoundedOrderStatistics;
+import com.azure.cameraheartratecore.buffer.LongRingBuffer;
+import com.azure.cameraheartratecore.buffer.LongSequence;
+
+/**
+ * R-R 间期滑动窗口及其增量异常值过滤，结果与 SignalProcessing.filterRRByChange 逐项一致。
+ * <p>
+ * 每个新间期在加入时完成范围判断、与前一个有效间期的变化率判断，并写入有界的顺序统计树，均为 O(log n)。
+ * 计算结果时中位数直接从顺序统计树中查找，后续轮次只需复查被剔除数据之后的那一个间期，
+ * 不再逐轮拷贝和排序整个窗口，窗口可以放大到数百个间期。
+ * 窗口每次变化时版本号加一，调用方可以据此缓存过滤结果和由其导出的指标。
+ */
+public class RRArtifactFilter {
+    private final double changeThreshold;
+    private final int capacity;
+    //原始间期窗口
+    private final LongRingBuffer window;
+    //窗口中在合理范围内的间期，第 i 个的序号为 firstOrdinal + i
+    private final LongRingBuffer inRange;
+    private long firstOrdinal;
+    //与前一个范围内间期相比变化率超过阈值的间期序号，按升序排列
+    private final LongRingBuffer changedOrdinals;
+    private final BoundedOrderStatistics orderStatistics;
+    //按 序号 % capacity 记录本次过滤中被剔除、被列为候选的标记
+    private final int[] removedStamp;
+    private final int[] candidateStamp;
+    private int filterStamp;
+    private int passStamp;
+    private final long[] candidates;
+    private final long[] passRemovals;
+    private final long[] removedValues;
+    private long version;
+
+    public RRArtifactFilter(int capacity, double changeThreshold) {
+        this.capacity = capacity;
+        this.changeThreshold = changeThreshold;
+        window = new LongRingBuffer(capacity);
+        inRange = new LongRingBuffer(capacity);
+        changedOrdinals = new LongRingBuffer(capacity);
+        orderStatistics = new BoundedOrderStatistics(SignalProcessing.RR_MIN, SignalProcessing.RR_MAX);
+        removedStamp = new int[capacity];
+        candidateStamp = new int[capacity];
+        candidates = new long[capacity];
+        passRemovals = new long[capacity];
+        removedValues = new long[capacity];
+    }
+
+    /**
+     * 追加一个间期，窗口已满时淘汰最早的间期
+     */
+    public void add(long rr) {
+        version++;
+        if (window.isFull()) {
+            evict(window.get(0));
+        }
+        window.add(rr);
+        if (!SignalProcessing.isInRange(rr)) {
+            return;
+        }
+        long ordinal = firstOrdinal + inRange.size();
+        if (!inRange.isEmpty() && !SignalProcessing.isWithinChange(rr, inRange.getLast(), changeThreshold)) {
+            changedOrdinals.add(ordinal);
+        }
+        inRange.add(rr);
+        orderStatistics.add(rr);
+    }
+
+    public void addAll(LongSequence values) {
+        for (int i = 0; i < values.size(); i++) {
+            add(values.get(i));
+        }
+    }
+
+    private void evict(long rr) {
+        if (!SignalProcessing.isInRange(rr)) {
+            return;
+        }
+        orderStatistics.remove(inRange.get(0));
+        inRange.removeFirst(1);
+        if (!changedOrdinals.isEmpty() && changedOrdinals.get(0) == firstOrdinal) {
+            changedOrdinals.removeFirst(1);
+        }
+        firstOrdinal++;
+    }
+
+    /**
+     * 把过滤后的间期写入 out（会先清空），out 的容量不小于窗口容量
+     */
+    public void filter(LongRingBuffer out) {
+        out.clear();
+        filterStamp++;
+        int removedCount = inRange.size() >= 3 ? removeArtifacts() : 0;
+        for (int i = 0; i < inRange.size(); i++) {
+            if (removedStamp[index(firstOrdinal + i)] != filterStamp) {
+                out.add(inRange.get(i));
+            }
+        }
+        // 恢复顺序统计树，使其继续对应整个范围内窗口
+        for (int i = 0; i < removedCount; i++) {
+            orderStatistics.add(removedValues[i]);
+        }
+    }
+
+    /**
+     * 按 filterRRByChange 的规则逐轮剔除：首个间期与中位数比较，其余与上一轮中的前一个间期比较，直到没有数据被剔除。
+     * 一轮中前一个间期不变的间期，结论与上一轮相同，所以只需复查首个间期和被剔除数据之后的间期。
+     *
+     * @return 剔除的间期个数
+     */
+    private int removeArtifacts() {
+        long endOrdinal = firstOrdinal + inRange.size();
+        long first = firstOrdinal;
+        int live = inRange.size();
+        int removedCount = 0;
+        int candidateCount = 0;
+        for (int i = 0; i < changedOrdinals.size(); i++) {
+            long ordinal = changedOrdinals.get(i);
+            if (ordinal != first) {
+                candidates[candidateCount++] = ordinal;
+            }
+        }
+
+        while (live >= 3) {
+            long medianRR = median(live);
+            int passCount = 0;
+            if (!SignalProcessing.isWithinChange(value(first), medianRR, changeThreshold)) {
+                passRemovals[passCount++] = first;
+            }
+            for (int i = 0; i < candidateCount; i++) {
+                long ordinal = candidates[i];
+                if (!SignalProcessing.isWithinChange(value(ordinal), value(previousLive(ordinal)), changeThreshold)) {
+                    passRemovals[passCount++] = ordinal;
+                }
+            }
+            if (passCount == 0) {
+                break;
+            }
+
+            // 同一轮的判断都基于本轮开始时的序列，判断完再统一剔除
+            for (int i = 0; i < passCount; i++) {
+                long ordinal = passRemovals[i];
+                long rr = value(ordinal);
+                removedStamp[index(ordinal)] = filterStamp;
+                orderStatistics.remove(rr);
+                removedValues[removedCount++] = rr;
+            }
+            live -= passCount;
+            while (first < endOrdinal && isRemoved(first)) {
+                first++;
+            }
+
+            passStamp++;
+            candidateCount = 0;
+            for (int i = 0; i < passCount; i++) {
+                long next = passRemovals[i] + 1;
+                while (next < endOrdinal && isRemoved(next)) {
+                    next++;
+                }
+                if (next < endOrdinal && next != first && candidateStamp[index(next)] != passStamp) {
+                    candidateStamp[index(next)] = passStamp;
+                    candidates[candidateCount++] = next;
+                }
+            }
+        }
+        return removedCount;
+    }
+
+    private long median(int live) {
+        if (live % 2 == 0) {
+            return (long) ((orderStatistics.select(live / 2 - 1) + orderStatistics.select(live / 2)) / 2.0);
+        } else {
+            return orderStatistics.select(live / 2);
+        }
+    }
+
+    private long previousLive(long ordinal) {
+        long previous = ordinal - 1;
+        while (isRemoved(previous)) {
+            previous--;
+        }
+        return previous;
+    }
+
+    private boolean isRemoved(long ordinal) {
+        return removedStamp[index(ordinal)] == filterStamp;
+    }
+
+    private long value(long ordinal) {
+        return inRange.get((int) (ordinal - firstOrdinal));
+    }
+
+    private int index(long ordinal) {
+        return (int) (ordinal % capacity);
+    }
+
+    /**
+     * 窗口中原始间期的个数，包括被过滤掉的
+     */
+    public int size() {
+        return window.size();
+    }
+
+    /**
+     * 窗口内容的版本号，add 和 clear 后递增，版本号不变时 filter 的结果也不变
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void clear() {
+        version++;
+        window.clear();
+        firstOrdinal += inRange.size();
+        inRange.clear();
+        changedOrdinals.clear();
+        orderStatistics.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package com.azure.cameraheartratecore.engine;
+
+/**
+ * 引擎需要输出的结果，由调用方按实际订阅的指标设置，未包含的指标输出 0 且不参与计算
+ */
+public enum ResultOutputs {
+    /**
+     * 只输出心率与心率有效值比例
+     */
+    HEART_RATE,
+    /**
+     * 只输出 SDNN、RMSSD 与 HRV 有效值比例，R-R 间期提取照常进行
+     */
+    HRV,
+    /**
+     * 输出全部指标
+     */
+    ALL;
+
+    public boolean includesHeartRate() {
+        return this != HRV;
+    }
+
+    public boolean includesHrv() {
+        return this != HEART_RATE;
+    }
+}
@@ -0,0 +1,219 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.buffer.DoubleRingBuffer;
+import com.azure.cameraheartratecore.buffer.DoubleSequence;
+import com.azure.cameraheartratecore.buffer.LongRingBuffer;
+import com.azure.cameraheartratecore.buffer.LongSequence;
+
+import java.util.Arrays;
+
+/**
+ * 心率/HRV 计算的各个信号处理阶段，不依赖 android.*，可在 JVM 上直接测试和基准测试。
+ * 所有方法都在调用方提供的缓冲区上工作，本身不分配内存。
+ */
+public final class SignalProcessing {
+    // 合理的 R-R 间期范围，单位：毫秒
+    static final long RR_MIN = 300;
+    static final long RR_MAX = 1400;
+
+    private SignalProcessing() {
+    }
+
+    /**
+     * 根据帧时间戳和峰值位置计算 R-R 间期，追加到 out 中
+     *
+     * @return 峰值少于两个时返回 false
+     */
+    public static boolean calculateRR(LongSequence timestamps, int[] peaks, int peakCount, LongRingBuffer out){
+        if (peakCount < 2) return false;
+
+        for (int i = 0; i < peakCount - 1; i++) {
+            out.add(timestamps.get(peaks[i + 1]) - timestamps.get(peaks[i]));
+        }
+        return true;
+    }
+
+    /**
+     * 根据 R-R 间期计算心率，单位为 次数/分钟
+     */
+    public static int calculateHeartRate(LongSequence durations) {
+        if (durations == null){
+            return 0;
+        }
+
+        double averageDuration = 0;
+        for (int i = 0; i < durations.size(); i++) {
+            averageDuration += durations.get(i);
+        }
+        averageDuration /= durations.size();
+        int heartRateNew = (int) (60 * 1000 / averageDuration);
+
+        return heartRateNew;
+    }
+
+    /**
+     * 查找局部极大值，位置写入 peaks
+     *
+     * @return 峰值个数
+     */
+    public static int findPeaks(DoubleSequence intensities, int[] peaks) {
+        int peakCount = 0;
+        for (int i = 1; i < intensities.size() - 1; i++) {
+            double current = intensities.get(i);
+            if (current > intensities.get(i - 1) && current > intensities.get(i + 1)) {
+                peaks[peakCount++] = i;
+            }
+        }
+        return peakCount;
+    }
+
+    /**
+     * 滑动平均平滑，结果写入 out（会先清空）
+     */
+    public static void smoothData(DoubleSequence intensities, int windowSize, DoubleRingBuffer out) {
+        out.clear();
+        int size = intensities.size();
+        for (int i = 0; i < size; i++) {
+            int start = Math.max(0, i - windowSize / 2);
+            int end = Math.min(size, i + windowSize / 2);
+            double average = 0;
+            for (int j = start; j < end; j++) {
+                average += intensities.get(j);
+            }
+            out.add(average / (end - start));
+        }
+    }
+
+    /**
+     * 过滤 R-R 间期数据，每次都从头计算，引擎中使用的是结果相同的增量实现 RRArtifactFilter。过滤条件为：
+     * 1. 只保留 [0.3, 1.4] 秒内的数值
+     * 2. 计算相邻间期变化率，超过 changeThreshold 的数据将被剔除
+     *
+     * @param rrIntervals 原始 R-R 间期数组
+     * @param changeThreshold 变化率阈值，默认 0.2
+     * @param out 过滤后的 R-R 间期，容量不小于 rrIntervals 的长度
+     * @param scratch 计算中位数使用的临时数组，长度不小于 rrIntervals 的长度
+     */
+    public static void filterRRByChange(LongSequence rrIntervals, double changeThreshold, LongRingBuffer out, long[] scratch) {
+        out.clear();
+        // 过滤掉不在合理范围内的数据
+        for (int i = 0; i < rrIntervals.size(); i++) {
+            long rr = rrIntervals.get(i);
+            if (isInRange(rr)) {
+                out.add(rr);
+            }
+        }
+
+        // 循环过滤，直到没有数据被剔除
+        while (out.size() >= 3) {
+            // 求中位数
+            long medianRR = median(out, scratch);
+
+            // 根据相邻 R-R 之间的变化率过滤数据，首元素与中位数比较
+            int size = out.size();
+            int kept = 0;
+            long previous = out.get(0);
+            if (isWithinChange(previous, medianRR, changeThreshold)) {
+                scratch[kept++] = previous;
+            }
+            for (int i = 1; i < size; i++) {
+                long current = out.get(i);
+                if (isWithinChange(current, previous, changeThreshold)) {
+                    scratch[kept++] = current;
+                }
+                previous = current;
+            }
+
+            // 如果数据量没有变化，则退出循环
+            if (kept == size) {
+                break;
+            }
+            out.clear();
+            for (int i = 0; i < kept; i++) {
+                out.add(scratch[i]);
+            }
+        }
+    }
+
+    static boolean isInRange(long rr) {
+        return rr >= RR_MIN && rr <= RR_MAX;
+    }
+
+    /**
+     * value 相对 reference 的变化率是否不超过阈值
+     */
+    static boolean isWithinChange(long value, long reference, double changeThreshold) {
+        return (float) Math.abs(value - reference) / reference <= changeThreshold;
+    }
+
+    /**
+     * 计算序列的中位数
+     *
+     * @param list 数据列表
+     * @param scratch 排序使用的临时数组，长度不小于 list 的长度
+     * @return 中位数
+     */
+    public static long median(LongSequence list, long[] scratch) {
+        int n = list.size();
+        for (int i = 0; i < n; i++) {
+            scratch[i] = list.get(i);
+        }
+        Arrays.sort(scratch, 0, n);
+        if (n % 2 == 0) {
+            return (long) ((scratch[n / 2 - 1] + scratch[n / 2]) / 2.0);
+        } else {
+            return scratch[n / 2];
+        }
+    }
+
+    /**
+     * 计算 SDNN，即所有心跳间期（NN间期）的标准差
+     * @param rrIntervals 心跳间隔数组，单位：毫秒
+     * @return SDNN 值（毫秒）
+     */
+    public static int calculateSDNN(LongSequence rrIntervals) {
+        if (rrIntervals == null || rrIntervals.size() == 0) {
+            return 0;
+        }
+
+        // 计算平均值
+        double sum = 0;
+        for (int i = 0; i < rrIntervals.size(); i++) {
+            sum += rrIntervals.get(i);
+        }
+        double mean = sum / rrIntervals.size();
+
+        // 计算方差
+        double variance = 0;
+        for (int i = 0; i < rrIntervals.size(); i++) {
+            double diff = rrIntervals.get(i) - mean;
+            variance += diff * diff;
+        }
+        variance = variance / rrIntervals.size();
+
+        // 返回标准差
+        return (int) Math.sqrt(variance);
+    }
+
+    /**
+     * 计算 RMSSD，即相邻心跳间隔差的均方根
+     * @param rrIntervals 心跳间隔数组，单位：毫秒
+     * @return RMSSD 值（毫秒）
+     */
+    public static int calculateRMSSD(LongSequence rrIntervals) {
+        if (rrIntervals == null || rrIntervals.size() < 2) {
+            return 0;
+        }
+
+        double sumSquaredDiffs = 0;
+        // 计算连续间隔差的平方和
+        for (int i = 1; i < rrIntervals.size(); i++) {
+            long diff = rrIntervals.get(i) - rrIntervals.get(i - 1);
+            sumSquaredDiffs += diff * diff;
+        }
+
+        // 计算均值，然后取平方根
+        double meanSquaredDiff = sumSquaredDiffs / (rrIntervals.size() - 1);
+        return (int) Math.sqrt(meanSquaredDiff);
+    }
+}
@@ -0,0 +1,51 @@
+package com.azure.cameraheartratecore.filter;
+
+/**
+ * 四阶巴特沃斯高通与四阶巴特沃斯低通级联组成的带通滤波器，共四个二阶节。
+ * 默认通带 0.7–3.5 Hz，对应 42–210 次/分钟，去除呼吸引起的基线漂移和高频噪声。
+ * 低通截止频率超过奈奎斯特频率时自动压到 0.45 倍采样率。
+ */
+public class BandPassFilter implements SignalFilter {
+    //四阶巴特沃斯拆成两个二阶节时的品质因数
+    private static final double Q1 = 0.5412;
+    private static final double Q2 = 1.3066;
+
+    private final double lowHz;
+    private final double highHz;
+    private final Biquad highPass1 = new Biquad();
+    private final Biquad highPass2 = new Biquad();
+    private final Biquad lowPass1 = new Biquad();
+    private final Biquad lowPass2 = new Biquad();
+
+    public BandPassFilter() {
+        this(0.7, 3.5);
+    }
+
+    public BandPassFilter(double lowHz, double highHz) {
+        this.lowHz = lowHz;
+        this.highHz = highHz;
+        setSampleRate(10);
+    }
+
+    @Override
+    public void setSampleRate(double sampleRateHz) {
+        double cutoffHz = Math.min(highHz, 0.45 * sampleRateHz);
+        highPass1.setHighPass(sampleRateHz, lowHz, Q1);
+        highPass2.setHighPass(sampleRateHz, lowHz, Q2);
+        lowPass1.setLowPass(sampleRateHz, cutoffHz, Q1);
+        lowPass2.setLowPass(sampleRateHz, cutoffHz, Q2);
+    }
+
+    @Override
+    public double process(double value) {
+        return lowPass2.process(lowPass1.process(highPass2.process(highPass1.process(value))));
+    }
+
+    @Override
+    public void reset() {
+        highPass1.reset();
+        highPass2.reset();
+        lowPass1.reset();
+        lowPass2.reset();
+    }
+}
@@ -0,0 +1,58 @@
+package com.azure.cameraheartratecore.filter;
+
+/**
+ * 二阶 IIR 节（转置直接 II 型），系数按 RBJ Audio EQ Cookbook 计算，状态为两个 double
+ */
+public class Biquad {
+    private double b0;
+    private double b1;
+    private double b2;
+    private double a1;
+    private double a2;
+    private double z1;
+    private double z2;
+
+    /**
+     * 设为二阶低通
+     *
+     * @param q 品质因数，0.7071 为巴特沃斯
+     */
+    public void setLowPass(double sampleRateHz, double cutoffHz, double q) {
+        double w0 = 2 * Math.PI * cutoffHz / sampleRateHz;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2 * q);
+        setCoefficients((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+    }
+
+    /**
+     * 设为二阶高通
+     *
+     * @param q 品质因数，0.7071 为巴特沃斯
+     */
+    public void setHighPass(double sampleRateHz, double cutoffHz, double q) {
+        double w0 = 2 * Math.PI * cutoffHz / sampleRateHz;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2 * q);
+        setCoefficients((1 + cos) / 2, -(1 + cos), (1 + cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+    }
+
+    private void setCoefficients(double b0, double b1, double b2, double a0, double a1, double a2) {
+        this.b0 = b0 / a0;
+        this.b1 = b1 / a0;
+        this.b2 = b2 / a0;
+        this.a1 = a1 / a0;
+        this.a2 = a2 / a0;
+    }
+
+    public double process(double x) {
+        double y = b0 * x + z1;
+        z1 = b1 * x - a1 * y + z2;
+        z2 = b2 * x - a2 * y;
+        return y;
+    }
+
+    public void reset() {
+        z1 = 0;
+        z2 = 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.azure.cameraheartratecore.filter;
+
+/**
+ * 减去指数滑动平均作为基线。基线以第一个采样点初始化，
+ * 避免约 200 的直流分量以阶跃形式进入后续高通滤波器而长时间振铃。
+ */
+public class Detrender implements SignalFilter {
+    private final double timeConstantSec;
+    private double alpha;
+    private double baseline;
+    private boolean initialized;
+
+    /**
+     * @param timeConstantSec 基线的时间常数，单位：秒
+     */
+    public Detrender(double timeConstantSec) {
+        this.timeConstantSec = timeConstantSec;
+        setSampleRate(10);
+    }
+
+    @Override
+    public void setSampleRate(double sampleRateHz) {
+        alpha = 1 - Math.exp(-1 / (timeConstantSec * sampleRateHz));
+    }
+
+    @Override
+    public double process(double value) {
+        if (!initialized) {
+            baseline = value;
+            initialized = true;
+        } else {
+            baseline += alpha * (value - baseline);
+        }
+        return value - baseline;
+    }
+
+    @Override
+    public void reset() {
+        initialized = false;
+    }
+}
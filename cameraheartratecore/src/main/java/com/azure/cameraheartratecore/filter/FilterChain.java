@@ -0,0 +1,41 @@
+package com.azure.cameraheartratecore.filter;
+
+/**
+ * 依次串联多个滤波阶段
+ */
+public class FilterChain implements SignalFilter {
+    private final SignalFilter[] filters;
+
+    public FilterChain(SignalFilter... filters) {
+        this.filters = filters.clone();
+    }
+
+    /**
+     * 默认的滤波阶段：先去基线，再 0.7–3.5 Hz 带通
+     */
+    public static SignalFilter createDefault() {
+        return new FilterChain(new Detrender(1.5), new BandPassFilter());
+    }
+
+    @Override
+    public double process(double value) {
+        for (SignalFilter filter : filters) {
+            value = filter.process(value);
+        }
+        return value;
+    }
+
+    @Override
+    public void setSampleRate(double sampleRateHz) {
+        for (SignalFilter filter : filters) {
+            filter.setSampleRate(sampleRateHz);
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (SignalFilter filter : filters) {
+            filter.reset();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.azure.cameraheartratecore.filter;
+
+/**
+ * 逐采样点的信号滤波阶段，实现需保证每个采样点 O(1) 且不分配内存
+ */
+public interface SignalFilter {
+    /**
+     * 输入一个采样点，返回滤波后的值
+     */
+    double process(double value);
+
+    /**
+     * 设置采样率，帧率变化时由引擎调用，实现应就地重新计算系数
+     */
+    void setSampleRate(double sampleRateHz);
+
+    /**
+     * 清空内部状态
+     */
+    void reset();
+}
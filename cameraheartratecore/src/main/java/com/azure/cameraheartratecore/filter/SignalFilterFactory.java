@@ -0,0 +1,8 @@
+package com.azure.cameraheartratecore.filter;
+
+/**
+ * 创建滤波阶段，每个引擎实例使用独立的滤波器状态
+ */
+public interface SignalFilterFactory {
+    SignalFilter create();
+}
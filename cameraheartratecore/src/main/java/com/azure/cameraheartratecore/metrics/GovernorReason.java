@@ -0,0 +1,21 @@
+package com.azure.cameraheartratecore.metrics;
+
+/**
+ * 自适应调节器改变档位或开关 HRV 计算的原因
+ */
+public enum GovernorReason {
+    //处理耗时超出 CPU 预算，降档
+    OVER_BUDGET,
+    //温度或电量提示压缩了预算，降档
+    THERMAL,
+    //处理耗时远低于预算，升档
+    HEADROOM,
+    //信号质量偏低，升档以采样更多像素
+    LOW_QUALITY,
+    //信号质量好且心率稳定，降档省电
+    GOOD_SIGNAL,
+    //心率已稳定，开始计算 HRV
+    HR_STABLE,
+    //心率不稳定或手指离开，暂停计算 HRV
+    HR_UNSTABLE
+}
@@ -0,0 +1,56 @@
+package com.azure.cameraheartratecore.metrics;
+
+/**
+ * LatencyHistogram 的不可变快照
+ */
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long count, long total, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.total = total;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count > 0 ? (double) total / count : 0;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * 百分位数，返回所在桶的上界，最大不超过记录到的最大值
+     *
+     * @param percentile 取值 [0, 100]，例如 99
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return Math.min(max, LatencyHistogram.bucketUpperBound(i) - 1);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + (long) getMean() + ", p50=" + getPercentile(50)
+                + ", p99=" + getPercentile(99) + ", max=" + max;
+    }
+}
@@ -0,0 +1,103 @@
+package com.azure.cameraheartratecore.metrics;
+
+/**
+ * PipelineMetrics 的不可变快照，耗时单位均为纳秒
+ */
+public class MetricsSnapshot {
+    private final long framesReceived;
+    private final long framesAnalyzed;
+    private final long framesPreChecked;
+    private final long framesDropped;
+    private final long framesLowQuality;
+    private final HistogramSnapshot[] stages;
+    private final HistogramSnapshot timeToFirstReading;
+    private final long[] governorDecisions;
+    private final int governorLevel;
+
+    MetricsSnapshot(long framesReceived, long framesAnalyzed, long framesPreChecked,
+                    long framesDropped, long framesLowQuality,
+                    HistogramSnapshot[] stages, HistogramSnapshot timeToFirstReading,
+                    long[] governorDecisions, int governorLevel) {
+        this.framesReceived = framesReceived;
+        this.framesAnalyzed = framesAnalyzed;
+        this.framesPreChecked = framesPreChecked;
+        this.framesDropped = framesDropped;
+        this.framesLowQuality = framesLowQuality;
+        this.stages = stages;
+        this.timeToFirstReading = timeToFirstReading;
+        this.governorDecisions = governorDecisions;
+        this.governorLevel = governorLevel;
+    }
+
+    public long getFramesReceived() {
+        return framesReceived;
+    }
+
+    public long getFramesAnalyzed() {
+        return framesAnalyzed;
+    }
+
+    /**
+     * 手指未放置时只粗略采样判断覆盖比例的帧数，不计入 getFramesAnalyzed
+     */
+    public long getFramesPreChecked() {
+        return framesPreChecked;
+    }
+
+    public long getFramesDropped() {
+        return framesDropped;
+    }
+
+    /**
+     * 因信号质量过低未交给引擎的帧数
+     */
+    public long getFramesLowQuality() {
+        return framesLowQuality;
+    }
+
+    public HistogramSnapshot getStage(PipelineStage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    /**
+     * 从检测到手指到第一个非零心率的耗时分布
+     */
+    public HistogramSnapshot getTimeToFirstReading() {
+        return timeToFirstReading;
+    }
+
+    /**
+     * 自适应调节器因该原因做出调整的次数
+     */
+    public long getGovernorDecisions(GovernorReason reason) {
+        return governorDecisions[reason.ordinal()];
+    }
+
+    /**
+     * 自适应调节器当前档位，0 为最精细，-1 表示未使用
+     */
+    public int getGovernorLevel() {
+        return governorLevel;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append("received=").append(framesReceived)
+                .append(", analyzed=").append(framesAnalyzed)
+                .append(", preChecked=").append(framesPreChecked)
+                .append(", dropped=").append(framesDropped)
+                .append(", lowQuality=").append(framesLowQuality);
+        for (PipelineStage stage : PipelineStage.values()) {
+            builder.append("\n").append(stage).append(": ").append(getStage(stage));
+        }
+        builder.append("\ntimeToFirstReading: ").append(timeToFirstReading);
+        if (governorLevel >= 0) {
+            builder.append("\ngovernor: level=").append(governorLevel);
+            for (GovernorReason reason : GovernorReason.values()) {
+                builder.append(", ").append(reason).append("=").append(getGovernorDecisions(reason));
+            }
+        }
+        return builder.toString();
+    }
+}
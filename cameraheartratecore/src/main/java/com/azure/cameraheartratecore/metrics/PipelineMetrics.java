@@ -0,0 +1,182 @@
+package com.azure.cameraheartratecore.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分析流水线的可选性能指标：各阶段耗时直方图、帧计数以及首个有效读数的耗时。
+ * 默认关闭，关闭时调用方只需读取一次 volatile 标志，不调用 System.nanoTime()。
+ * 所有记录方法均为无锁操作，可在分析线程记录的同时在其他线程生成快照。
+ */
+public class PipelineMetrics {
+    private static final PipelineStage[] STAGES = PipelineStage.values();
+    private static final GovernorReason[] GOVERNOR_REASONS = GovernorReason.values();
+    private static final long NOT_STARTED = -1;
+    private static final long READING_RECORDED = -2;
+
+    private volatile boolean enabled;
+    private final LatencyHistogram[] stageHistograms = new LatencyHistogram[STAGES.length];
+    private final LatencyHistogram timeToFirstReading = new LatencyHistogram();
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong framesAnalyzed = new AtomicLong();
+    private final AtomicLong framesPreChecked = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong framesLowQuality = new AtomicLong();
+    private final AtomicLong[] governorDecisions = new AtomicLong[GOVERNOR_REASONS.length];
+    //自适应调节器当前档位，-1 表示未使用
+    private volatile int governorLevel = -1;
+    //本次测量开始的时间（纳秒），NOT_STARTED 表示尚未开始，READING_RECORDED 表示本次测量已记录过首个读数
+    private final AtomicLong measurementStartNs = new AtomicLong(NOT_STARTED);
+
+    public PipelineMetrics() {
+        for (int i = 0; i < stageHistograms.length; i++) {
+            stageHistograms[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < governorDecisions.length; i++) {
+            governorDecisions[i] = new AtomicLong();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 记录某个阶段的耗时
+     *
+     * @param durationNs 耗时，单位：纳秒
+     */
+    public void recordStage(PipelineStage stage, long durationNs) {
+        if (enabled) {
+            stageHistograms[stage.ordinal()].record(durationNs);
+        }
+    }
+
+    /**
+     * 收到一帧
+     */
+    public void onFrameReceived() {
+        if (enabled) {
+            framesReceived.incrementAndGet();
+        }
+    }
+
+    /**
+     * 一帧进入了分析
+     */
+    public void onFrameAnalyzed() {
+        if (enabled) {
+            framesAnalyzed.incrementAndGet();
+        }
+    }
+
+    /**
+     * 手指未放置时一帧只做了粗略采样判断覆盖比例，不计入 onFrameAnalyzed
+     */
+    public void onFramePreChecked() {
+        if (enabled) {
+            framesPreChecked.incrementAndGet();
+        }
+    }
+
+    /**
+     * 一帧未经分析被丢弃，例如被采样节奏跳过或格式不支持
+     */
+    public void onFrameDropped() {
+        if (enabled) {
+            framesDropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 一帧已采样，但信号质量过低未交给引擎
+     */
+    public void onFrameLowQuality() {
+        if (enabled) {
+            framesLowQuality.incrementAndGet();
+        }
+    }
+
+    /**
+     * 自适应调节器做出一次调整，档位在关闭时也会更新
+     *
+     * @param level 调整后的档位，0 为最精细
+     */
+    public void onGovernorDecision(GovernorReason reason, int level) {
+        governorLevel = level;
+        if (enabled) {
+            governorDecisions[reason.ordinal()].incrementAndGet();
+        }
+    }
+
+    /**
+     * 开始使用自适应调节器时设置初始档位，不计入调整次数
+     */
+    public void setGovernorLevel(int level) {
+        governorLevel = level;
+    }
+
+    /**
+     * 开始一次测量（检测到手指放上），已开始或本次测量已得到读数时忽略
+     *
+     * @param timestampNs 帧时间戳，单位：纳秒
+     */
+    public void onMeasurementStarted(long timestampNs) {
+        if (enabled) {
+            measurementStartNs.compareAndSet(NOT_STARTED, timestampNs);
+        }
+    }
+
+    /**
+     * 测量结束（手指离开），尚未得到有效读数的测量不再计时，下次开始时重新计时
+     */
+    public void onMeasurementStopped() {
+        measurementStartNs.set(NOT_STARTED);
+    }
+
+    /**
+     * 得到有效读数，记录距离测量开始的耗时，每次测量只记录第一次，直到 onMeasurementStopped 后重新开始
+     *
+     * @param timestampNs 帧时间戳，单位：纳秒
+     */
+    public void onValidReading(long timestampNs) {
+        if (enabled) {
+            long start = measurementStartNs.get();
+            if (start >= 0 && measurementStartNs.compareAndSet(start, READING_RECORDED)) {
+                timeToFirstReading.record(timestampNs - start);
+            }
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        HistogramSnapshot[] stages = new HistogramSnapshot[STAGES.length];
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = stageHistograms[i].snapshot();
+        }
+        long[] decisions = new long[GOVERNOR_REASONS.length];
+        for (int i = 0; i < decisions.length; i++) {
+            decisions[i] = governorDecisions[i].get();
+        }
+        return new MetricsSnapshot(framesReceived.get(), framesAnalyzed.get(), framesPreChecked.get(),
+                framesDropped.get(), framesLowQuality.get(), stages, timeToFirstReading.snapshot(), decisions, governorLevel);
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : stageHistograms) {
+            histogram.reset();
+        }
+        timeToFirstReading.reset();
+        framesReceived.set(0);
+        framesAnalyzed.set(0);
+        framesPreChecked.set(0);
+        framesDropped.set(0);
+        framesLowQuality.set(0);
+        for (AtomicLong decisions : governorDecisions) {
+            decisions.set(0);
+        }
+        measurementStartNs.set(NOT_STARTED);
+    }
+}
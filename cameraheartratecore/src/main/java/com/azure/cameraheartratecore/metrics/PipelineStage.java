@@ -0,0 +1,39 @@
+package com.azure.cameraheartratecore.metrics;
+
+/**
+ * 分析流水线中单独计时的阶段
+ */
+public enum PipelineStage {
+    /**
+     * 图像格式转换，只有旧的 Bitmap 路径存在
+     */
+    CONVERSION,
+    /**
+     * 独立的手指覆盖检测；与强度采样在同一次遍历中完成时计入 INTENSITY
+     */
+    COVERAGE,
+    /**
+     * 像素采样
+     */
+    INTENSITY,
+    /**
+     * FILTERED 模式的去基线与带通滤波
+     */
+    FILTER,
+    /**
+     * 平滑、找峰与 R-R 间期提取
+     */
+    PEAKS,
+    /**
+     * R-R 间期异常值过滤
+     */
+    RR_FILTER,
+    /**
+     * 频谱心率估计
+     */
+    SPECTRUM,
+    /**
+     * 心率与 HRV 指标计算
+     */
+    HRV
+}
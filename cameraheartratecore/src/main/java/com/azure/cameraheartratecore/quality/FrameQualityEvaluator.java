@@ -0,0 +1,148 @@
+package com.azure.cameraheartratecore.quality;
+
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.SignalChannel;
+
+/**
+ * 逐帧信号质量指数（SQI）与信号通道选择。
+ * <p>
+ * SQI 取值 [0, 1]，为曝光分数与稳定性分数之积：曝光分数是所选通道未过曝且未欠曝的像素比例，
+ * 稳定性分数由所选通道均值的帧间相对变化决定，变化达到 MAX_JUMP 时为 0。
+ * 测量开始时直接选择可用像素最多的通道（同等情况下依次优先红、绿、亮度）；测量过程中只有当另一通道
+ * 连续 SWITCH_FRAMES 帧明显更好时才切换，避免在阈值附近来回跳动。单帧不分配内存，非线程安全。
+ */
+public class FrameQualityEvaluator {
+    //均值帧间相对变化达到该值时稳定性分数为 0
+    private static final double MAX_JUMP = 0.05;
+    //切换通道要求的不可用像素比例差
+    private static final double SWITCH_MARGIN = 0.1;
+    //切换通道要求连续满足条件的帧数
+    private static final int SWITCH_FRAMES = 10;
+    //SQI 不低于该值时认为没有明显问题
+    private static final double GOOD_QUALITY = 0.8;
+    private static final SignalChannel[] CHANNELS = SignalChannel.values();
+
+    private SignalChannel channel = SignalChannel.RED;
+    private boolean measuring;
+    private boolean channelChanged;
+    private SignalChannel candidate;
+    private int candidateFrames;
+    private double previousMean = Double.NaN;
+    private float quality;
+    private QualityIssue issue = QualityIssue.NO_FINGER;
+
+    /**
+     * 评估一帧
+     *
+     * @param fingerDetected 是否检测到手指，未检测到时 SQI 为 0 并在下次测量开始时重新选择通道
+     */
+    public void evaluate(FrameStats stats, boolean fingerDetected) {
+        channelChanged = false;
+        if (!fingerDetected) {
+            reset();
+            return;
+        }
+        SignalChannel best = bestChannel(stats);
+        if (!measuring) {
+            measuring = true;
+            channel = best;
+        } else if (best != channel
+                && unusableFraction(stats, channel) - unusableFraction(stats, best) > SWITCH_MARGIN) {
+            if (best != candidate) {
+                candidate = best;
+                candidateFrames = 0;
+            }
+            if (++candidateFrames >= SWITCH_FRAMES) {
+                channel = best;
+                channelChanged = true;
+                candidate = null;
+                candidateFrames = 0;
+                previousMean = Double.NaN;
+            }
+        } else {
+            candidate = null;
+            candidateFrames = 0;
+        }
+
+        double exposure = Math.max(0.0, 1.0 - unusableFraction(stats, channel));
+        double mean = stats.getMean(channel);
+        double stability = 1.0;
+        if (!Double.isNaN(previousMean)) {
+            double jump = Math.abs(mean - previousMean) / Math.max(previousMean, 1.0);
+            stability = Math.max(0.0, 1.0 - jump / MAX_JUMP);
+        }
+        previousMean = mean;
+        quality = (float) (exposure * stability);
+        if (quality >= GOOD_QUALITY) {
+            issue = QualityIssue.NONE;
+        } else if (stability < exposure) {
+            issue = QualityIssue.MOTION;
+        } else if (stats.getSaturatedFraction(channel) >= stats.getClippedFraction(channel)) {
+            issue = QualityIssue.SATURATED;
+        } else {
+            issue = QualityIssue.TOO_DARK;
+        }
+    }
+
+    private static SignalChannel bestChannel(FrameStats stats) {
+        SignalChannel best = CHANNELS[0];
+        double bestUnusable = unusableFraction(stats, best);
+        for (int i = 1; i < CHANNELS.length; i++) {
+            double unusable = unusableFraction(stats, CHANNELS[i]);
+            if (unusable < bestUnusable) {
+                best = CHANNELS[i];
+                bestUnusable = unusable;
+            }
+        }
+        return best;
+    }
+
+    private static double unusableFraction(FrameStats stats, SignalChannel channel) {
+        return stats.getSaturatedFraction(channel) + stats.getClippedFraction(channel);
+    }
+
+    /**
+     * 当前帧的信号质量指数，取值 [0, 1]
+     */
+    public float getQuality() {
+        return quality;
+    }
+
+    /**
+     * 限制当前帧质量的主要原因
+     */
+    public QualityIssue getIssue() {
+        return issue;
+    }
+
+    /**
+     * 当前使用的信号通道
+     */
+    public SignalChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * 当前帧是否切换了信号通道
+     */
+    public boolean isChannelChanged() {
+        return channelChanged;
+    }
+
+    /**
+     * 丢弃上一帧的均值，采样区域或步长改变后调用，阶跃不计入稳定性分数
+     */
+    public void rebase() {
+        previousMean = Double.NaN;
+    }
+
+    public void reset() {
+        measuring = false;
+        channelChanged = false;
+        candidate = null;
+        candidateFrames = 0;
+        previousMean = Double.NaN;
+        quality = 0f;
+        issue = QualityIssue.NO_FINGER;
+    }
+}
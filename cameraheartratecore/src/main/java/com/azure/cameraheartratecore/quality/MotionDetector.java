@@ -0,0 +1,161 @@
+package com.azure.cameraheartratecore.quality;
+
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.SignalChannel;
+
+/**
+ * 逐帧的运动伪影检测，只使用像素采样已经得到的统计量，不需要再次遍历图像。
+ * <p>
+ * 满足以下任一条件的帧判定为运动：
+ * <ul>
+ * <li>信号通道均值每秒的相对变化率超过其滑动平均的 DERIVATIVE_RATIO 倍（且不低于 MIN_DERIVATIVE），
+ * 脉搏波形变化平缓，手指移动和按压变化则造成陡峭的跳变。按时间归一化，丢帧和调整帧率不会误报；</li>
+ * <li>亮度均值的帧间相对变化超过 LUMA_JUMP，例如手指滑动露出缝隙；</li>
+ * <li>各分块亮度相对整体均值的分布发生变化，脉搏使各块同步变化，手指移动则改变画面的空间分布。</li>
+ * </ul>
+ * 触发后在 holdMs 内保持运动状态，覆盖滤波器和峰值检测的恢复时间。单帧不分配内存，非线程安全。
+ */
+public class MotionDetector {
+    //相对变化率超过其滑动平均的倍数，干净的脉搏波形最大变化率约为平均值的 4.5 倍
+    private static final double DERIVATIVE_RATIO = 6.0;
+    //相对变化率的下限，单位：每秒，信号非常平稳时避免误报
+    private static final double MIN_DERIVATIVE = 0.15;
+    //亮度均值帧间相对变化的上限
+    private static final double LUMA_JUMP = 0.05;
+    //各分块相对亮度帧间变化的平均值上限
+    private static final double TILE_CHANGE = 0.02;
+    //滑动平均幅度的更新权重
+    private static final double SCALE_WEIGHT = 0.05;
+    //开始检测前用于估计幅度的帧数，约覆盖一个心动周期
+    private static final int WARM_UP_FRAMES = 30;
+    //运动状态持续超过该时长时，视为信号幅度本身发生了变化，重新估计，单位：毫秒
+    private static final long MAX_MOTION_MS = 5_000;
+
+    private volatile long holdMs = 500;
+    private double previousMean = Double.NaN;
+    private long previousTimestampMs;
+    private double previousLuma = Double.NaN;
+    private final double[] previousTiles = new double[FrameStats.MAX_TILES];
+    private int previousTileCount;
+    //信号通道相对变化率的滑动平均，单位：每秒
+    private double derivativeScale;
+    private int frames;
+    private long lastMotionMs = Long.MIN_VALUE;
+    private long motionStartMs;
+    private boolean motion;
+
+    /**
+     * 更新一帧
+     *
+     * @param timestampMs 帧时间戳，单位：毫秒
+     * @param stats 采样结果
+     * @param channel 当前的信号通道
+     * @return 该帧是否处于运动伪影中
+     */
+    public boolean update(long timestampMs, FrameStats stats, SignalChannel channel) {
+        boolean triggered = false;
+        double mean = stats.getMean(channel);
+        long intervalMs = timestampMs - previousTimestampMs;
+        if (!Double.isNaN(previousMean) && previousMean > 0 && intervalMs > 0) {
+            double derivative = Math.abs(mean - previousMean) / previousMean * 1000.0 / intervalMs;
+            double bound = Math.max(MIN_DERIVATIVE, DERIVATIVE_RATIO * derivativeScale);
+            frames++;
+            if (frames <= WARM_UP_FRAMES) {
+                derivativeScale += (derivative - derivativeScale) / frames;
+            } else {
+                triggered = derivative > bound;
+                // 只用未触发的帧更新，运动不会把阈值抬高
+                if (!triggered) {
+                    derivativeScale += SCALE_WEIGHT * (derivative - derivativeScale);
+                }
+            }
+        }
+        previousMean = mean;
+        previousTimestampMs = timestampMs;
+
+        double luma = stats.getMean(SignalChannel.LUMA);
+        if (!Double.isNaN(previousLuma) && previousLuma > 0 && Math.abs(luma - previousLuma) / previousLuma > LUMA_JUMP) {
+            triggered = true;
+        }
+        previousLuma = luma;
+
+        int tileCount = stats.getTileCount();
+        if (tileCount > 0 && luma > 0) {
+            if (tileCount == previousTileCount && tileChange(stats, luma) > TILE_CHANGE) {
+                triggered = true;
+            }
+            for (int i = 0; i < tileCount; i++) {
+                previousTiles[i] = stats.getTileMean(i) / luma;
+            }
+        }
+        previousTileCount = luma > 0 ? tileCount : 0;
+
+        boolean wasMotion = motion;
+        if (triggered) {
+            lastMotionMs = timestampMs;
+        }
+        motion = lastMotionMs != Long.MIN_VALUE && timestampMs - lastMotionMs <= holdMs;
+        if (motion && !wasMotion) {
+            motionStartMs = timestampMs;
+        } else if (motion && timestampMs - motionStartMs > MAX_MOTION_MS) {
+            derivativeScale = 0;
+            frames = 0;
+            lastMotionMs = Long.MIN_VALUE;
+            motion = false;
+        }
+        return motion;
+    }
+
+    //各块相对亮度与上一帧之差的平均值
+    private double tileChange(FrameStats stats, double luma) {
+        double change = 0;
+        int tileCount = stats.getTileCount();
+        for (int i = 0; i < tileCount; i++) {
+            change += Math.abs(stats.getTileMean(i) / luma - previousTiles[i]);
+        }
+        return change / tileCount;
+    }
+
+    /**
+     * 最近一帧是否处于运动伪影中
+     */
+    public boolean isMotion() {
+        return motion;
+    }
+
+    /**
+     * 设置最后一次触发后保持运动状态的时长，默认 500 毫秒
+     */
+    public void setHoldMs(long holdMs) {
+        if (holdMs < 0) {
+            throw new IllegalArgumentException("holdMs must not be negative: " + holdMs);
+        }
+        this.holdMs = holdMs;
+    }
+
+    public long getHoldMs() {
+        return holdMs;
+    }
+
+    /**
+     * 丢弃上一帧的均值与分块分布，保留幅度估计和运动状态，采样区域或步长改变后调用，避免把阶跃判定为运动
+     */
+    public void rebase() {
+        previousMean = Double.NaN;
+        previousLuma = Double.NaN;
+        previousTileCount = 0;
+    }
+
+    /**
+     * 清空状态，手指离开或信号通道切换时调用
+     */
+    public void reset() {
+        previousMean = Double.NaN;
+        previousLuma = Double.NaN;
+        previousTileCount = 0;
+        derivativeScale = 0;
+        frames = 0;
+        lastMotionMs = Long.MIN_VALUE;
+        motion = false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.azure.cameraheartratecore.quality;
+
+/**
+ * 限制当前帧信号质量的主要原因，可用于提示用户调整手指
+ */
+public enum QualityIssue {
+    /**
+     * 信号质量良好
+     */
+    NONE,
+    /**
+     * 未检测到手指覆盖镜头
+     */
+    NO_FINGER,
+    /**
+     * 画面过曝，通常是手指按得太轻或闪光灯直射
+     */
+    SATURATED,
+    /**
+     * 画面过暗，通常是手指按得太重阻断了血流
+     */
+    TOO_DARK,
+    /**
+     * 帧间亮度突变，通常是手指移动
+     */
+    MOTION
+}
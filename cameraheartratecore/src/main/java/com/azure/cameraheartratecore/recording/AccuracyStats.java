@@ -0,0 +1,52 @@
+package com.azure.cameraheartratecore.recording;
+
+import java.util.Locale;
+
+/**
+ * 一项指标在多路输入上相对参考值的误差统计
+ */
+public class AccuracyStats {
+    private int count;
+    private double sumAbsError;
+    private double sumSquaredError;
+    private double maxAbsError;
+
+    void add(double estimate, double reference) {
+        double error = Math.abs(estimate - reference);
+        count++;
+        sumAbsError += error;
+        sumSquaredError += error * error;
+        maxAbsError = Math.max(maxAbsError, error);
+    }
+
+    /**
+     * 参与统计的输入个数，即有参考值且有结果的输入
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 平均绝对误差，没有数据时返回 NaN
+     */
+    public double getMeanAbsoluteError() {
+        return count == 0 ? Double.NaN : sumAbsError / count;
+    }
+
+    /**
+     * 均方根误差，没有数据时返回 NaN
+     */
+    public double getRootMeanSquareError() {
+        return count == 0 ? Double.NaN : Math.sqrt(sumSquaredError / count);
+    }
+
+    public double getMaxAbsoluteError() {
+        return maxAbsError;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "n=%d mae=%.2f rmse=%.2f max=%.2f",
+                count, getMeanAbsoluteError(), getRootMeanSquareError(), maxAbsError);
+    }
+}
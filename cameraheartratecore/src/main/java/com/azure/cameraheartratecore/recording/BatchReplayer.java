@@ -0,0 +1,98 @@
+package com.azure.cameraheartratecore.recording;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * 批量离线处理多路输入，例如一批录制文件或数据集中的亮度序列。每路输入使用各自独立的 pipeline，
+ * 在 ForkJoinPool 上并行处理，结果与逐路调用 SessionReplayer 完全一致，顺序与输入一致。
+ */
+public final class BatchReplayer {
+
+    private BatchReplayer() {
+    }
+
+    /**
+     * 使用公共 ForkJoinPool 和指定配置处理，config 被所有 pipeline 共享，处理期间不能修改
+     */
+    public static BatchResult replay(List<SampleStream> streams, HeartRateEngineConfig config) throws IOException {
+        return replay(streams, () -> new HeartRatePipeline(config), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 处理所有输入，任一路读取失败时抛出第一个失败的 IOException
+     *
+     * @param pipelineFactory 为每路输入创建新的 pipeline，会在工作线程上调用
+     * @param pool 执行处理的线程池，并行度决定同时处理的路数
+     */
+    public static BatchResult replay(List<SampleStream> streams, Supplier<HeartRatePipeline> pipelineFactory,
+                                     ForkJoinPool pool) throws IOException {
+        List<SampleStream> snapshot = new ArrayList<>(streams);
+        int count = snapshot.size();
+        ReplayResult[] results = new ReplayResult[count];
+        IOException[] failures = new IOException[count];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+        long startNs = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            final SampleStream stream = snapshot.get(i);
+            tasks.add(pool.submit(() -> {
+                try {
+                    results[index] = stream.replay(pipelineFactory.get());
+                } catch (IOException e) {
+                    failures[index] = e;
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        long elapsedNs = System.nanoTime() - startNs;
+        for (IOException failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        return new BatchResult(snapshot, results, elapsedNs);
+    }
+
+    /**
+     * 命令行批量回放目录下的所有录制文件，输出每个文件的最终结果和整体统计：
+     * <pre>
+     * java -cp cameraheartratecore.jar com.azure.cameraheartratecore.recording.BatchReplayer recordings/ [BATCH|STREAMING|FILTERED]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        File[] files = args.length < 1 ? null : new File(args[0]).listFiles((dir, name) -> name.endsWith(".chrs"));
+        if (files == null) {
+            System.err.println("usage: BatchReplayer <directory> [BATCH|STREAMING|FILTERED]");
+            System.exit(2);
+        }
+        HeartRateEngineConfig config = new HeartRateEngineConfig();
+        if (args.length > 1) {
+            config.setAnalysisMode(AnalysisMode.valueOf(args[1]));
+        }
+        List<SampleStream> streams = new ArrayList<>(files.length);
+        for (File file : files) {
+            streams.add(SampleStream.ofRecording(file));
+        }
+        BatchResult batch = replay(streams, config);
+        System.out.println("file,results,heart_rate,sdnn,rmssd");
+        for (int i = 0; i < batch.size(); i++) {
+            ReplayResult result = batch.getResult(i);
+            int last = BatchResult.lastValidIndex(result);
+            System.out.println(batch.getStream(i).getName() + "," + result.size() + ","
+                    + (last < 0 ? ",," : result.getHeartRate(last) + "," + result.getSdnn(last) + "," + result.getRmssd(last)));
+        }
+        System.err.println(batch);
+    }
+}
@@ -0,0 +1,117 @@
+package com.azure.cameraheartratecore.recording;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 批量处理的结果：每路输入的完整结果序列，以及以每路最后一个有效结果计算的整体误差统计
+ */
+public class BatchResult {
+    private final List<SampleStream> streams;
+    private final ReplayResult[] results;
+    private final long elapsedNs;
+    private final AccuracyStats heartRateAccuracy = new AccuracyStats();
+    private final AccuracyStats sdnnAccuracy = new AccuracyStats();
+    private final AccuracyStats rmssdAccuracy = new AccuracyStats();
+    private int sessionsWithResult;
+    private long frameCount;
+
+    BatchResult(List<SampleStream> streams, ReplayResult[] results, long elapsedNs) {
+        this.streams = Collections.unmodifiableList(streams);
+        this.results = results;
+        this.elapsedNs = elapsedNs;
+        for (int i = 0; i < results.length; i++) {
+            ReplayResult result = results[i];
+            frameCount += result.getFrameCount();
+            int last = lastValidIndex(result);
+            if (last < 0) {
+                continue;
+            }
+            sessionsWithResult++;
+            SampleStream stream = streams.get(i);
+            addIfKnown(heartRateAccuracy, result.getHeartRate(last), stream.getReferenceHeartRate());
+            addIfKnown(sdnnAccuracy, result.getSdnn(last), stream.getReferenceSdnn());
+            addIfKnown(rmssdAccuracy, result.getRmssd(last), stream.getReferenceRmssd());
+        }
+    }
+
+    /**
+     * 最后一个心率不为 0 的结果位置，没有时返回 -1
+     */
+    static int lastValidIndex(ReplayResult result) {
+        for (int i = result.size() - 1; i >= 0; i--) {
+            if (result.getHeartRate(i) > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void addIfKnown(AccuracyStats stats, double estimate, double reference) {
+        if (!Double.isNaN(reference)) {
+            stats.add(estimate, reference);
+        }
+    }
+
+    /**
+     * 输入路数
+     */
+    public int size() {
+        return results.length;
+    }
+
+    public SampleStream getStream(int index) {
+        return streams.get(index);
+    }
+
+    /**
+     * 第 index 路输入的结果，顺序与提交时一致
+     */
+    public ReplayResult getResult(int index) {
+        return results[index];
+    }
+
+    /**
+     * 至少输出过一个有效心率的输入路数
+     */
+    public int getSessionsWithResult() {
+        return sessionsWithResult;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 整批处理的墙钟时间，单位：纳秒
+     */
+    public long getElapsedNs() {
+        return elapsedNs;
+    }
+
+    public double getSessionsPerSecond() {
+        return elapsedNs == 0 ? 0 : results.length * 1e9 / elapsedNs;
+    }
+
+    public AccuracyStats getHeartRateAccuracy() {
+        return heartRateAccuracy;
+    }
+
+    public AccuracyStats getSdnnAccuracy() {
+        return sdnnAccuracy;
+    }
+
+    public AccuracyStats getRmssdAccuracy() {
+        return rmssdAccuracy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "sessions=%d withResult=%d frames=%d elapsed=%.1fms sessions/s=%.1f",
+                results.length, sessionsWithResult, frameCount, elapsedNs / 1e6, getSessionsPerSecond())
+                + "\nheartRate: " + heartRateAccuracy
+                + "\nsdnn: " + sdnnAccuracy
+                + "\nrmssd: " + rmssdAccuracy;
+    }
+}
@@ -0,0 +1,109 @@
+package com.azure.cameraheartratecore.recording;
+
+import java.util.Arrays;
+
+/**
+ * 一次回放的结果：每次引擎输出新结果时的时间戳与各项指标，以基本类型数组保存
+ */
+public class ReplayResult {
+    private long[] timestampsNs = new long[64];
+    private int[] heartRates = new int[64];
+    private int[] sdnns = new int[64];
+    private int[] rmssds = new int[64];
+    private float[] hrEffectiveValueRates = new float[64];
+    private float[] hrvEffectiveValueRates = new float[64];
+    private int size;
+    private long frameCount;
+    private long fingerFrameCount;
+    private long elapsedNs;
+
+    void addResult(long timestampNs, int heartRate, int sdnn, int rmssd,
+                   float hrEffectiveValueRate, float hrvEffectiveValueRate) {
+        if (size == timestampsNs.length) {
+            int capacity = size * 2;
+            timestampsNs = Arrays.copyOf(timestampsNs, capacity);
+            heartRates = Arrays.copyOf(heartRates, capacity);
+            sdnns = Arrays.copyOf(sdnns, capacity);
+            rmssds = Arrays.copyOf(rmssds, capacity);
+            hrEffectiveValueRates = Arrays.copyOf(hrEffectiveValueRates, capacity);
+            hrvEffectiveValueRates = Arrays.copyOf(hrvEffectiveValueRates, capacity);
+        }
+        timestampsNs[size] = timestampNs;
+        heartRates[size] = heartRate;
+        sdnns[size] = sdnn;
+        rmssds[size] = rmssd;
+        hrEffectiveValueRates[size] = hrEffectiveValueRate;
+        hrvEffectiveValueRates[size] = hrvEffectiveValueRate;
+        size++;
+    }
+
+    void onFrame(boolean fingerDetected) {
+        frameCount++;
+        if (fingerDetected) {
+            fingerFrameCount++;
+        }
+    }
+
+    void setElapsedNs(long elapsedNs) {
+        this.elapsedNs = elapsedNs;
+    }
+
+    /**
+     * 结果个数
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getTimestampNs(int index) {
+        return timestampsNs[index];
+    }
+
+    public int getHeartRate(int index) {
+        return heartRates[index];
+    }
+
+    public int getSdnn(int index) {
+        return sdnns[index];
+    }
+
+    public int getRmssd(int index) {
+        return rmssds[index];
+    }
+
+    public float getHrEffectiveValueRate(int index) {
+        return hrEffectiveValueRates[index];
+    }
+
+    public float getHrvEffectiveValueRate(int index) {
+        return hrvEffectiveValueRates[index];
+    }
+
+    /**
+     * 回放的总帧数
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 检测到手指的帧数
+     */
+    public long getFingerFrameCount() {
+        return fingerFrameCount;
+    }
+
+    /**
+     * 回放实际耗费的墙钟时间，单位：纳秒
+     */
+    public long getElapsedNs() {
+        return elapsedNs;
+    }
+
+    /**
+     * 录制时长与回放耗时之比，即回放比实时快多少倍
+     */
+    public double getSpeedup(long recordedDurationNs) {
+        return elapsedNs == 0 ? 0 : (double) recordedDurationNs / elapsedNs;
+    }
+}
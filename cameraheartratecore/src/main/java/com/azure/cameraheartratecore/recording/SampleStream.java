@@ -0,0 +1,82 @@
+package com.azure.cameraheartratecore.recording;
+
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 批量离线处理的一路输入：录制文件或逐帧亮度序列，可附带参考值用于统计误差。
+ * 每次 replay 都从头读取，同一个实例可以被多次处理。
+ */
+public abstract class SampleStream {
+    private final String name;
+    private double referenceHeartRate = Double.NaN;
+    private double referenceSdnn = Double.NaN;
+    private double referenceRmssd = Double.NaN;
+
+    SampleStream(String name) {
+        this.name = name;
+    }
+
+    /**
+     * SessionRecorder 录制的文件
+     */
+    public static SampleStream ofRecording(final File recording) {
+        return new SampleStream(recording.getName()) {
+            @Override
+            public ReplayResult replay(HeartRatePipeline pipeline) throws IOException {
+                return SessionReplayer.replay(recording, pipeline);
+            }
+        };
+    }
+
+    /**
+     * 逐帧亮度序列，数组在处理期间不能修改
+     *
+     * @param timestampsMs 帧时间戳，单位：毫秒
+     */
+    public static SampleStream ofIntensities(String name, final long[] timestampsMs, final double[] intensities) {
+        if (timestampsMs.length != intensities.length) {
+            throw new IllegalArgumentException("timestamps and intensities differ in length: "
+                    + timestampsMs.length + " vs " + intensities.length);
+        }
+        return new SampleStream(name) {
+            @Override
+            public ReplayResult replay(HeartRatePipeline pipeline) {
+                return SessionReplayer.replay(timestampsMs, intensities, pipeline);
+            }
+        };
+    }
+
+    /**
+     * 把整段数据送入 pipeline，pipeline 只属于这一路输入
+     */
+    public abstract ReplayResult replay(HeartRatePipeline pipeline) throws IOException;
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 设置参考值（例如心电或合成数据的真实值），未知的项传 Double.NaN，不参与误差统计
+     */
+    public SampleStream setReference(double heartRate, double sdnn, double rmssd) {
+        this.referenceHeartRate = heartRate;
+        this.referenceSdnn = sdnn;
+        this.referenceRmssd = rmssd;
+        return this;
+    }
+
+    public double getReferenceHeartRate() {
+        return referenceHeartRate;
+    }
+
+    public double getReferenceSdnn() {
+        return referenceSdnn;
+    }
+
+    public double getReferenceRmssd() {
+        return referenceRmssd;
+    }
+}
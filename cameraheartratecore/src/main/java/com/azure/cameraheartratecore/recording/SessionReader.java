@@ -0,0 +1,204 @@
+package com.azure.cameraheartratecore.recording;
+
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.SignalChannel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 以内存映射方式顺序读取 SessionRecorder 生成的录制文件，读取过程中不分配内存。
+ * 版本 1 的录制文件只有红色通道，读出的 FrameStats 其余统计为 0；版本 2 的录制文件没有分块均值和采样切换标记。
+ * <pre>
+ * try (SessionReader reader = SessionReader.open(file)) {
+ *     while (reader.next()) {
+ *         reader.getTimestampNs(); reader.getFrameStats();
+ *     }
+ * }
+ * </pre>
+ */
+public class SessionReader implements Closeable {
+    private static final SignalChannel[] CHANNELS = SignalChannel.values();
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int planeWidth;
+    private final int planeHeight;
+    private final int recordSize;
+    private final int fieldsSize;
+    private final long frameCount;
+    private final boolean redOnly;
+    private final boolean tiles;
+
+    private int recordOffset = -1;
+    private long timestampNs;
+    private boolean samplingChanged;
+    private final FrameStats frameStats = new FrameStats();
+
+    private SessionReader(RandomAccessFile file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < SessionRecorder.HEADER_SIZE || buffer.getInt(0) != SessionRecorder.MAGIC) {
+            throw new IOException("not a session recording");
+        }
+        short version = buffer.getShort(4);
+        if (version == SessionRecorder.VERSION) {
+            fieldsSize = SessionRecorder.FRAME_FIELDS_SIZE;
+        } else if (version == SessionRecorder.VERSION_NO_TILES) {
+            fieldsSize = SessionRecorder.NO_TILES_FIELDS_SIZE;
+        } else if (version == SessionRecorder.VERSION_RED_ONLY) {
+            fieldsSize = SessionRecorder.RED_ONLY_FIELDS_SIZE;
+        } else {
+            throw new IOException("unsupported recording version: " + version);
+        }
+        redOnly = version == SessionRecorder.VERSION_RED_ONLY;
+        tiles = version == SessionRecorder.VERSION;
+        boolean planes = (buffer.getShort(6) & SessionRecorder.FLAG_PLANES) != 0;
+        planeWidth = planes ? buffer.getShort(8) : 0;
+        planeHeight = planes ? buffer.getShort(10) : 0;
+        recordSize = buffer.getInt(12);
+        if (recordSize != fieldsSize + 2 * planeWidth * planeHeight) {
+            throw new IOException("corrupt recording header");
+        }
+        // 忽略末尾不完整的记录（例如录制过程中进程被杀）
+        frameCount = (buffer.capacity() - SessionRecorder.HEADER_SIZE) / recordSize;
+    }
+
+    public static SessionReader open(File input) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(input, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SessionReader(file, buffer);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 移动到下一帧
+     *
+     * @return 没有更多帧时返回 false
+     */
+    public boolean next() {
+        int offset = recordOffset < 0 ? SessionRecorder.HEADER_SIZE : recordOffset + recordSize;
+        if ((offset - SessionRecorder.HEADER_SIZE) / recordSize >= frameCount) {
+            return false;
+        }
+        recordOffset = offset;
+        timestampNs = buffer.getLong(offset);
+        if (redOnly) {
+            frameStats.setRedOnly(buffer.getDouble(offset + 8), buffer.getDouble(offset + 16));
+            return true;
+        }
+        frameStats.setCoverageRatio(buffer.getDouble(offset + 8));
+        int channelOffset = offset + 16;
+        for (SignalChannel channel : CHANNELS) {
+            frameStats.setMean(channel, buffer.getDouble(channelOffset))
+                    .setSaturatedFraction(channel, buffer.getDouble(channelOffset + 8))
+                    .setClippedFraction(channel, buffer.getDouble(channelOffset + 16));
+            channelOffset += 24;
+        }
+        if (tiles) {
+            int tileCount = buffer.getInt(channelOffset);
+            if (tileCount < 0 || tileCount > FrameStats.MAX_TILES) {
+                // 损坏的记录不带分块统计
+                tileCount = 0;
+            }
+            samplingChanged = (buffer.getInt(channelOffset + 4) & SessionRecorder.FRAME_FLAG_SAMPLING_CHANGED) != 0;
+            int tileOffset = channelOffset + 8;
+            for (int i = 0; i < tileCount; i++) {
+                frameStats.setTileMean(i, buffer.getDouble(tileOffset + 8 * i));
+            }
+            frameStats.setTileCount(tileCount);
+        }
+        return true;
+    }
+
+    /**
+     * 回到第一帧之前
+     */
+    public void rewind() {
+        recordOffset = -1;
+    }
+
+    public long getTimestampNs() {
+        return timestampNs;
+    }
+
+    /**
+     * 采样区域或步长是否在当前帧之前改变，版本 3 之前的录制文件总是 false
+     */
+    public boolean isSamplingChanged() {
+        return samplingChanged;
+    }
+
+    /**
+     * 当前帧的采样统计，下一次 next() 时会被覆盖
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * 当前帧的红色通道均值
+     */
+    public double getIntensity() {
+        return frameStats.getMean(SignalChannel.RED);
+    }
+
+    public double getCoverage() {
+        return frameStats.getCoverageRatio();
+    }
+
+    public boolean hasPlanes() {
+        return planeWidth > 0;
+    }
+
+    public int getPlaneWidth() {
+        return planeWidth;
+    }
+
+    public int getPlaneHeight() {
+        return planeHeight;
+    }
+
+    /**
+     * 读取当前帧下采样后的 Y 平面，out 长度不小于 planeWidth * planeHeight
+     */
+    public void getYPlane(byte[] out) {
+        copyPlane(0, out);
+    }
+
+    /**
+     * 读取当前帧下采样后的 V 平面，out 长度不小于 planeWidth * planeHeight
+     */
+    public void getVPlane(byte[] out) {
+        copyPlane(planeWidth * planeHeight, out);
+    }
+
+    private void copyPlane(int planeOffset, byte[] out) {
+        ((Buffer) buffer).position(recordOffset + fieldsSize + planeOffset);
+        buffer.get(out, 0, planeWidth * planeHeight);
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 关闭文件。Java 8 无法主动解除内存映射，映射会在缓冲区被回收时释放
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
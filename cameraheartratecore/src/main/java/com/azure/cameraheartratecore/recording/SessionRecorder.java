@@ -0,0 +1,193 @@
+package com.azure.cameraheartratecore.recording;
+
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.SignalChannel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * 把逐帧的精简信号写入紧凑的二进制录制文件，用于离线排查和回放。
+ * <p>
+ * 文件格式（小端）：
+ * <pre>
+ * 头部 16 字节：int magic "CHRS" | short version | short flags | short planeWidth | short planeHeight | int recordSize
+ * 每帧记录：long timestampNs | double coverage | 红、绿、亮度依次为 double mean | double saturated | double clipped
+ *          | int tileCount | int frameFlags | double[FrameStats.MAX_TILES] tileMean
+ *          | [byte[planeWidth*planeHeight] Y | byte[planeWidth*planeHeight] V]
+ * </pre>
+ * 版本 2 的每帧记录没有 tileCount 到 tileMean 的部分，版本 1 的每帧记录只有 long timestampNs | double intensity | double coverage，
+ * SessionReader 仍可读取。flags 的第 0 位表示是否包含下采样后的 Y/V 平面；frameFlags 的第 0 位表示采样区域或步长在该帧之前改变，
+ * 见 markSamplingChanged。统计值按 double 原样保存。写入经过复用的直接缓冲区批量提交到 FileChannel，
+ * 每帧不分配内存。非线程安全，应在分析线程上调用。
+ */
+public class SessionRecorder implements Closeable {
+    static final int MAGIC = 0x43485253;
+    static final short VERSION = 3;
+    static final short VERSION_NO_TILES = 2;
+    static final short VERSION_RED_ONLY = 1;
+    static final int HEADER_SIZE = 16;
+    static final int FLAG_PLANES = 1;
+    static final int FRAME_FLAG_SAMPLING_CHANGED = 1;
+    static final int NO_TILES_FIELDS_SIZE = 8 + 8 + 3 * (8 + 8 + 8);
+    static final int FRAME_FIELDS_SIZE = NO_TILES_FIELDS_SIZE + 4 + 4 + 8 * FrameStats.MAX_TILES;
+    static final int RED_ONLY_FIELDS_SIZE = 8 + 8 + 8;
+    private static final SignalChannel[] CHANNELS = SignalChannel.values();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int planeWidth;
+    private final int planeHeight;
+    private final int recordSize;
+    private long frameCount;
+    //下一帧记录是否带采样切换标记
+    private boolean samplingChanged;
+    //旧接口只有强度与覆盖比例，复用该实例转换
+    private final FrameStats redOnlyStats = new FrameStats();
+
+    /**
+     * 只录制采样统计，不录制平面
+     */
+    public SessionRecorder(File output) throws IOException {
+        this(output, 0, 0);
+    }
+
+    /**
+     * @param planeWidth 下采样后 Y/V 平面的宽度，为 0 时不录制平面
+     * @param planeHeight 下采样后 Y/V 平面的高度，为 0 时不录制平面
+     */
+    public SessionRecorder(File output, int planeWidth, int planeHeight) throws IOException {
+        if (planeWidth < 0 || planeHeight < 0 || planeWidth > Short.MAX_VALUE || planeHeight > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid plane size: " + planeWidth + "x" + planeHeight);
+        }
+        boolean planes = planeWidth > 0 && planeHeight > 0;
+        this.planeWidth = planes ? planeWidth : 0;
+        this.planeHeight = planes ? planeHeight : 0;
+        this.recordSize = FRAME_FIELDS_SIZE + 2 * this.planeWidth * this.planeHeight;
+        file = new RandomAccessFile(output, "rw");
+        file.setLength(0);
+        channel = file.getChannel();
+        buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, recordSize)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) (planes ? FLAG_PLANES : 0))
+                .putShort((short) this.planeWidth)
+                .putShort((short) this.planeHeight)
+                .putInt(recordSize);
+    }
+
+    /**
+     * 录制只有红色通道的一帧，其余统计记为 0
+     */
+    public void recordFrame(long timestampNs, double intensity, double coverage) throws IOException {
+        recordFrame(timestampNs, redOnlyStats.setRedOnly(intensity, coverage));
+    }
+
+    /**
+     * 录制一帧，若录制文件包含平面则平面数据填 0
+     */
+    public void recordFrame(long timestampNs, FrameStats stats) throws IOException {
+        ensureCapacity();
+        putFields(timestampNs, stats);
+        for (int i = 2 * planeWidth * planeHeight; i > 0; i--) {
+            buffer.put((byte) 0);
+        }
+        frameCount++;
+    }
+
+    /**
+     * 录制只有红色通道的一帧及其下采样平面
+     */
+    public void recordFrame(long timestampNs, double intensity, double coverage, int width, int height,
+                            ByteBuffer yBuffer, int yRowStride, int yPixelStride,
+                            ByteBuffer vBuffer, int uvRowStride, int uvPixelStride) throws IOException {
+        recordFrame(timestampNs, redOnlyStats.setRedOnly(intensity, coverage), width, height,
+                yBuffer, yRowStride, yPixelStride, vBuffer, uvRowStride, uvPixelStride);
+    }
+
+    /**
+     * 录制一帧，并把 YUV_420_888 图像的 Y 平面和 V 平面最近邻下采样到 planeWidth x planeHeight
+     */
+    public void recordFrame(long timestampNs, FrameStats stats, int width, int height,
+                            ByteBuffer yBuffer, int yRowStride, int yPixelStride,
+                            ByteBuffer vBuffer, int uvRowStride, int uvPixelStride) throws IOException {
+        ensureCapacity();
+        putFields(timestampNs, stats);
+        for (int oy = 0; oy < planeHeight; oy++) {
+            int rowOffset = (oy * height / planeHeight) * yRowStride;
+            for (int ox = 0; ox < planeWidth; ox++) {
+                buffer.put(yBuffer.get(rowOffset + (ox * width / planeWidth) * yPixelStride));
+            }
+        }
+        for (int oy = 0; oy < planeHeight; oy++) {
+            int rowOffset = ((oy * height / planeHeight) >> 1) * uvRowStride;
+            for (int ox = 0; ox < planeWidth; ox++) {
+                buffer.put(vBuffer.get(rowOffset + ((ox * width / planeWidth) >> 1) * uvPixelStride));
+            }
+        }
+        frameCount++;
+    }
+
+    private void putFields(long timestampNs, FrameStats stats) {
+        buffer.putLong(timestampNs)
+                .putDouble(stats.getCoverageRatio());
+        for (SignalChannel channel : CHANNELS) {
+            buffer.putDouble(stats.getMean(channel))
+                    .putDouble(stats.getSaturatedFraction(channel))
+                    .putDouble(stats.getClippedFraction(channel));
+        }
+        int tileCount = stats.getTileCount();
+        buffer.putInt(tileCount)
+                .putInt(samplingChanged ? FRAME_FLAG_SAMPLING_CHANGED : 0);
+        for (int i = 0; i < FrameStats.MAX_TILES; i++) {
+            buffer.putDouble(i < tileCount ? stats.getTileMean(i) : 0);
+        }
+        samplingChanged = false;
+    }
+
+    /**
+     * 标记采样区域或步长已改变，与 HeartRatePipeline.onSamplingChanged 同时调用；
+     * 标记写入下一帧的记录，回放时在该帧之前同样通知 pipeline
+     */
+    public void markSamplingChanged() {
+        samplingChanged = true;
+    }
+
+    private void ensureCapacity() throws IOException {
+        if (buffer.remaining() < recordSize) {
+            flush();
+        }
+    }
+
+    /**
+     * 把缓冲区中的数据写入文件
+     */
+    public void flush() throws IOException {
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        ((Buffer) buffer).clear();
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.azure.cameraheartratecore.recording;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.FrameOutcome;
+import com.azure.cameraheartratecore.engine.HeartRateEngine;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * 把录制文件按原始时间戳送入 HeartRatePipeline，不等待帧间隔，因此远快于实时。录制中的采样切换点同样通知 pipeline。
+ * 实时相机与回放使用同一套 HeartRatePipeline，便于离线排查问题和对比算法改动。
+ */
+public final class SessionReplayer {
+
+    private SessionReplayer() {
+    }
+
+    /**
+     * 使用默认配置回放录制文件
+     */
+    public static ReplayResult replay(File recording) throws IOException {
+        return replay(recording, new HeartRatePipeline());
+    }
+
+    public static ReplayResult replay(File recording, HeartRatePipeline pipeline) throws IOException {
+        try (SessionReader reader = SessionReader.open(recording)) {
+            return replay(reader, pipeline);
+        }
+    }
+
+    /**
+     * 从 reader 的当前位置开始回放到文件末尾
+     */
+    public static ReplayResult replay(SessionReader reader, HeartRatePipeline pipeline) {
+        ReplayResult result = new ReplayResult();
+        long startNs = System.nanoTime();
+        while (reader.next()) {
+            if (reader.isSamplingChanged()) {
+                pipeline.onSamplingChanged();
+            }
+            FrameOutcome outcome = pipeline.processFrame(reader.getTimestampNs(), reader.getFrameStats());
+            collect(result, pipeline, outcome, reader.getTimestampNs());
+        }
+        result.setElapsedNs(System.nanoTime() - startNs);
+        return result;
+    }
+
+    /**
+     * 回放逐帧亮度序列，覆盖比例视为 1，适合没有原始录制、只有亮度曲线的数据
+     *
+     * @param timestampsMs 帧时间戳，单位：毫秒
+     * @param intensities 与时间戳一一对应的亮度
+     */
+    public static ReplayResult replay(long[] timestampsMs, double[] intensities, HeartRatePipeline pipeline) {
+        if (timestampsMs.length != intensities.length) {
+            throw new IllegalArgumentException("timestamps and intensities differ in length: "
+                    + timestampsMs.length + " vs " + intensities.length);
+        }
+        ReplayResult result = new ReplayResult();
+        long startNs = System.nanoTime();
+        for (int i = 0; i < timestampsMs.length; i++) {
+            long timestampNs = timestampsMs[i] * 1_000_000L;
+            FrameOutcome outcome = pipeline.processFrame(timestampNs, intensities[i], 1.0);
+            collect(result, pipeline, outcome, timestampNs);
+        }
+        result.setElapsedNs(System.nanoTime() - startNs);
+        return result;
+    }
+
+    /**
+     * 把同一份录制依次送入多个相互独立的 pipeline，例如对比两套算法参数，每帧只读取一次
+     *
+     * @return 与 pipelines 一一对应的回放结果
+     */
+    public static ReplayResult[] replayAll(SessionReader reader, HeartRatePipeline... pipelines) {
+        ReplayResult[] results = new ReplayResult[pipelines.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new ReplayResult();
+        }
+        long startNs = System.nanoTime();
+        while (reader.next()) {
+            for (int i = 0; i < pipelines.length; i++) {
+                if (reader.isSamplingChanged()) {
+                    pipelines[i].onSamplingChanged();
+                }
+                FrameOutcome outcome = pipelines[i].processFrame(reader.getTimestampNs(), reader.getFrameStats());
+                collect(results[i], pipelines[i], outcome, reader.getTimestampNs());
+            }
+        }
+        long elapsedNs = System.nanoTime() - startNs;
+        for (ReplayResult result : results) {
+            result.setElapsedNs(elapsedNs);
+        }
+        return results;
+    }
+
+    private static void collect(ReplayResult result, HeartRatePipeline pipeline, FrameOutcome outcome, long timestampNs) {
+        result.onFrame(pipeline.isFingerDetected());
+        if (outcome == FrameOutcome.RESULT) {
+            HeartRateEngine engine = pipeline.getEngine();
+            result.addResult(timestampNs, engine.getHeartRate(), engine.getSdnn(), engine.getRmssd(),
+                    engine.getHrEffectiveValueRate(), engine.getHrvEffectiveValueRate());
+        }
+    }
+
+    /**
+     * 命令行回放，以 CSV 格式输出每次结果：
+     * <pre>
+     * java -cp cameraheartratecore.jar com.azure.cameraheartratecore.recording.SessionReplayer session.chrs [BATCH|STREAMING]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: SessionReplayer <recording> [BATCH|STREAMING]");
+            System.exit(2);
+        }
+        HeartRateEngineConfig config = new HeartRateEngineConfig();
+        if (args.length > 1) {
+            config.setAnalysisMode(AnalysisMode.valueOf(args[1]));
+        }
+        ReplayResult result = replay(new File(args[0]), new HeartRatePipeline(config));
+        PrintStream out = System.out;
+        out.println("timestamp_ns,heart_rate,sdnn,rmssd,hr_effective_rate,hrv_effective_rate");
+        for (int i = 0; i < result.size(); i++) {
+            out.println(String.format(Locale.US, "%d,%d,%d,%d,%.2f,%.2f", result.getTimestampNs(i),
+                    result.getHeartRate(i), result.getSdnn(i), result.getRmssd(i),
+                    result.getHrEffectiveValueRate(i), result.getHrvEffectiveValueRate(i)));
+        }
+        System.err.println(String.format(Locale.US, "frames=%d finger=%d results=%d elapsed=%.1fms",
+                result.getFrameCount(), result.getFingerFrameCount(), result.size(), result.getElapsedNs() / 1e6));
+    }
+}
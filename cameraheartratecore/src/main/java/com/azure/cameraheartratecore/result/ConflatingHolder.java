@@ -0,0 +1,99 @@
+package com.azure.cameraheartratecore.result;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 只保留最新值的持有者：publish 可在任意线程频繁调用，同一时刻最多只有一个投递任务在执行器中排队，
+ * 任务执行时取当时最新的值交给消费方，消费方处理不过来时中间的旧值被直接丢弃。
+ * 执行器为 null 时在 publish 的线程上同步投递。
+ * <p>
+ * 已投递完和未投递就被替换的值交回持有者，发布方可以通过 obtain 取回改写后再次发布，稳定后不再分配新值。
+ */
+public class ConflatingHolder<T> {
+    private final Consumer<? super T> consumer;
+    private volatile Executor executor;
+    //最近一次发布的值，供轮询读取
+    private volatile T latest;
+    //尚未投递的值
+    private final AtomicReference<T> pending = new AtomicReference<>();
+    //消费方不再使用、可由发布方复用的值；投递和替换可能同时交回，因此留两个位置
+    private final AtomicReference<T> free = new AtomicReference<>();
+    private final AtomicReference<T> spare = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final Runnable drain = this::drain;
+
+    public ConflatingHolder(Executor executor, Consumer<? super T> consumer) {
+        this.executor = executor;
+        this.consumer = consumer;
+    }
+
+    public void publish(T value) {
+        latest = value;
+        published.incrementAndGet();
+        T replaced = pending.getAndSet(value);
+        if (replaced != null) {
+            //被替换的值不会再交给消费方
+            recycle(replaced);
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            Executor current = executor;
+            if (current == null) {
+                drain();
+            } else {
+                current.execute(drain);
+            }
+        }
+    }
+
+    private void drain() {
+        // 先清除标记再取值，之后发布的值会安排新的投递，不会丢失最新值
+        scheduled.set(false);
+        T value = pending.getAndSet(null);
+        if (value != null) {
+            delivered.incrementAndGet();
+            consumer.accept(value);
+            recycle(value);
+        }
+    }
+
+    /**
+     * 取一个消费方已不再使用的值，由发布方改写后再次发布；没有可复用的值时返回 null，由发布方新建
+     */
+    public T obtain() {
+        T value = free.getAndSet(null);
+        return value != null ? value : spare.getAndSet(null);
+    }
+
+    private void recycle(T value) {
+        if (!free.compareAndSet(null, value)) {
+            spare.compareAndSet(null, value);
+        }
+    }
+
+    /**
+     * 最近一次发布的值，尚未发布时返回 null。发布方通过 obtain 复用值时，返回的实例之后可能被改写
+     */
+    public T getLatest() {
+        return latest;
+    }
+
+    /**
+     * 设置投递所在的执行器，为 null 时同步投递
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 因消费方来不及处理而被丢弃的值的个数
+     */
+    public long getDroppedCount() {
+        return published.get() - delivered.get() - (pending.get() != null ? 1 : 0);
+    }
+}
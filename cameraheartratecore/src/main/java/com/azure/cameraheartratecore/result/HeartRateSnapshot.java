@@ -0,0 +1,123 @@
+package com.azure.cameraheartratecore.result;
+
+import com.azure.cameraheartratecore.quality.QualityIssue;
+
+/**
+ * 一次计算结果的快照，所有字段来自同一帧，消费方不会看到新旧数值混在一起的中间状态。
+ * 会话会循环复用快照实例，回调中拿到的快照在回调返回后可能被改写，需要保留时调用 copy()。
+ */
+public final class HeartRateSnapshot {
+    private long timestampNs;
+    private int heartRate;
+    private int sdnn;
+    private int rmssd;
+    private boolean fingerDetected;
+    private float hrEffectiveValueRate;
+    private float hrvEffectiveValueRate;
+    private float quality;
+    private QualityIssue qualityIssue;
+
+    public HeartRateSnapshot() {
+    }
+
+    public HeartRateSnapshot(long timestampNs, int heartRate, int sdnn, int rmssd, boolean fingerDetected,
+                             float hrEffectiveValueRate, float hrvEffectiveValueRate,
+                             float quality, QualityIssue qualityIssue) {
+        set(timestampNs, heartRate, sdnn, rmssd, fingerDetected, hrEffectiveValueRate, hrvEffectiveValueRate,
+                quality, qualityIssue);
+    }
+
+    /**
+     * 整体改写所有字段，只应由发布方在复用实例、再次发布之前调用
+     */
+    public void set(long timestampNs, int heartRate, int sdnn, int rmssd, boolean fingerDetected,
+                    float hrEffectiveValueRate, float hrvEffectiveValueRate,
+                    float quality, QualityIssue qualityIssue) {
+        this.timestampNs = timestampNs;
+        this.heartRate = heartRate;
+        this.sdnn = sdnn;
+        this.rmssd = rmssd;
+        this.fingerDetected = fingerDetected;
+        this.hrEffectiveValueRate = hrEffectiveValueRate;
+        this.hrvEffectiveValueRate = hrvEffectiveValueRate;
+        this.quality = quality;
+        this.qualityIssue = qualityIssue;
+    }
+
+    /**
+     * 手指离开时的快照，所有数值为 0
+     */
+    public static HeartRateSnapshot noFinger(long timestampNs) {
+        HeartRateSnapshot snapshot = new HeartRateSnapshot();
+        snapshot.setNoFinger(timestampNs);
+        return snapshot;
+    }
+
+    /**
+     * 改写为手指离开时的快照，所有数值为 0
+     */
+    public void setNoFinger(long timestampNs) {
+        set(timestampNs, 0, 0, 0, false, 0f, 0f, 0f, QualityIssue.NO_FINGER);
+    }
+
+    /**
+     * 复制一份，副本不会被复用
+     */
+    public HeartRateSnapshot copy() {
+        return new HeartRateSnapshot(timestampNs, heartRate, sdnn, rmssd, fingerDetected,
+                hrEffectiveValueRate, hrvEffectiveValueRate, quality, qualityIssue);
+    }
+
+    /**
+     * 帧时间戳，单位：纳秒
+     */
+    public long getTimestampNs() {
+        return timestampNs;
+    }
+
+    /**
+     * 心率，单位为 次数/分钟
+     */
+    public int getHeartRate() {
+        return heartRate;
+    }
+
+    public int getSdnn() {
+        return sdnn;
+    }
+
+    public int getRmssd() {
+        return rmssd;
+    }
+
+    public boolean isFingerDetected() {
+        return fingerDetected;
+    }
+
+    public float getHrEffectiveValueRate() {
+        return hrEffectiveValueRate;
+    }
+
+    public float getHrvEffectiveValueRate() {
+        return hrvEffectiveValueRate;
+    }
+
+    /**
+     * 信号质量指数，取值 [0, 1]
+     */
+    public float getQuality() {
+        return quality;
+    }
+
+    public QualityIssue getQualityIssue() {
+        return qualityIssue;
+    }
+
+    @Override
+    public String toString() {
+        return "timestampNs=" + timestampNs + ", heartRate=" + heartRate + ", sdnn=" + sdnn + ", rmssd=" + rmssd
+                + ", fingerDetected=" + fingerDetected + ", hrEffectiveValueRate=" + hrEffectiveValueRate
+                + ", hrvEffectiveValueRate=" + hrvEffectiveValueRate + ", quality=" + quality
+                + ", qualityIssue=" + qualityIssue;
+    }
+}
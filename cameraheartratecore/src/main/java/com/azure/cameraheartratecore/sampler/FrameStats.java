@@ -0,0 +1,128 @@
+package com.azure.cameraheartratecore.sampler;
+
+/**
+ * 一帧采样区域的统计结果：各通道均值、过曝（≥ 250）与欠曝（≤ 5）像素比例、手指覆盖比例，
+ * 以及采样区域按 TILE_ROWS x TILE_COLUMNS 划分后各块的亮度均值。
+ * PixelSampler 每帧复用同一个实例，需要保留时应调用 copyFrom 拷贝。
+ */
+public class FrameStats {
+    public static final int TILE_ROWS = 3;
+    public static final int TILE_COLUMNS = 3;
+    public static final int MAX_TILES = TILE_ROWS * TILE_COLUMNS;
+
+    private final double[] means = new double[SignalChannel.COUNT];
+    private final double[] saturatedFractions = new double[SignalChannel.COUNT];
+    private final double[] clippedFractions = new double[SignalChannel.COUNT];
+    private double coverageRatio;
+    //分块亮度均值，tileCount 为 0 表示没有分块统计，例如旧格式输入或录制回放
+    private final double[] tileMeans = new double[MAX_TILES];
+    private int tileCount;
+
+    /**
+     * 通道均值，取值 [0, 255]
+     */
+    public double getMean(SignalChannel channel) {
+        return means[channel.ordinal()];
+    }
+
+    /**
+     * 通道值不小于 250（过曝）的像素比例
+     */
+    public double getSaturatedFraction(SignalChannel channel) {
+        return saturatedFractions[channel.ordinal()];
+    }
+
+    /**
+     * 通道值不大于 5（欠曝）的像素比例
+     */
+    public double getClippedFraction(SignalChannel channel) {
+        return clippedFractions[channel.ordinal()];
+    }
+
+    /**
+     * 红色占优像素的比例
+     */
+    public double getCoverageRatio() {
+        return coverageRatio;
+    }
+
+    /**
+     * 分块统计的块数，为 0 时没有分块统计
+     */
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    /**
+     * 第 index 块的亮度均值，按行优先排列
+     */
+    public double getTileMean(int index) {
+        return tileMeans[index];
+    }
+
+    public FrameStats setMean(SignalChannel channel, double mean) {
+        means[channel.ordinal()] = mean;
+        return this;
+    }
+
+    public FrameStats setSaturatedFraction(SignalChannel channel, double fraction) {
+        saturatedFractions[channel.ordinal()] = fraction;
+        return this;
+    }
+
+    public FrameStats setClippedFraction(SignalChannel channel, double fraction) {
+        clippedFractions[channel.ordinal()] = fraction;
+        return this;
+    }
+
+    public FrameStats setCoverageRatio(double coverageRatio) {
+        this.coverageRatio = coverageRatio;
+        return this;
+    }
+
+    public FrameStats setTileMean(int index, double mean) {
+        tileMeans[index] = mean;
+        return this;
+    }
+
+    /**
+     * 设置有效的块数，取值 [0, MAX_TILES]
+     */
+    public FrameStats setTileCount(int tileCount) {
+        if (tileCount < 0 || tileCount > MAX_TILES) {
+            throw new IllegalArgumentException("invalid tile count: " + tileCount);
+        }
+        this.tileCount = tileCount;
+        return this;
+    }
+
+    /**
+     * 只有红色通道均值和覆盖比例的旧格式输入，其余统计为 0
+     */
+    public FrameStats setRedOnly(double meanRed, double coverageRatio) {
+        clear();
+        means[SignalChannel.RED.ordinal()] = meanRed;
+        this.coverageRatio = coverageRatio;
+        return this;
+    }
+
+    public FrameStats copyFrom(FrameStats other) {
+        System.arraycopy(other.means, 0, means, 0, means.length);
+        System.arraycopy(other.saturatedFractions, 0, saturatedFractions, 0, saturatedFractions.length);
+        System.arraycopy(other.clippedFractions, 0, clippedFractions, 0, clippedFractions.length);
+        coverageRatio = other.coverageRatio;
+        System.arraycopy(other.tileMeans, 0, tileMeans, 0, tileMeans.length);
+        tileCount = other.tileCount;
+        return this;
+    }
+
+    public void clear() {
+        for (int i = 0; i < SignalChannel.COUNT; i++) {
+            means[i] = 0;
+            saturatedFractions[i] = 0;
+            clippedFractions[i] = 0;
+        }
+        coverageRatio = 0;
+        tileCount = 0;
+    }
+}
@@ -0,0 +1,80 @@
+package com.azure.cameraheartratecore.sampler;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * 把 YUV_420_888 的三个平面按行步长和像素步长拷贝成紧凑的 NV21（Y 平面后接交错的 VU），
+ * 输出可以是缓冲池中的直接 ByteBuffer。逐行经复用的行缓冲区批量拷贝，单帧不分配内存，非线程安全。
+ */
+public class Nv21Converter {
+    //复用的行缓冲区
+    private byte[] row = new byte[0];
+    private byte[] uRow = new byte[0];
+    private byte[] vuRow = new byte[0];
+
+    /**
+     * NV21 所需的字节数
+     */
+    public static int nv21Size(int width, int height) {
+        return width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2);
+    }
+
+    /**
+     * 从 out 的当前位置写入 nv21Size(width, height) 个字节，输入缓冲区的 position 保持不变
+     */
+    public void convert(int width, int height,
+                        ByteBuffer yBuffer, int yRowStride, int yPixelStride,
+                        ByteBuffer uBuffer, ByteBuffer vBuffer, int uvRowStride, int uvPixelStride,
+                        ByteBuffer out) {
+        int yPosition = yBuffer.position();
+        int uPosition = uBuffer.position();
+        int vPosition = vBuffer.position();
+        int yRowLength = (width - 1) * yPixelStride + 1;
+        int uvWidth = (width + 1) / 2;
+        int uvRowLength = (uvWidth - 1) * uvPixelStride + 1;
+        ensureRowCapacity(Math.max(yRowLength, uvRowLength), 2 * uvWidth);
+        byte[] row = this.row;
+        byte[] uRow = this.uRow;
+        byte[] vuRow = this.vuRow;
+        for (int y = 0; y < height; y++) {
+            copyRow(yBuffer, y * yRowStride, row, yRowLength);
+            if (yPixelStride == 1) {
+                out.put(row, 0, width);
+            } else {
+                for (int x = 0; x < width; x++) {
+                    out.put(row[x * yPixelStride]);
+                }
+            }
+        }
+        int uvHeight = (height + 1) / 2;
+        for (int y = 0; y < uvHeight; y++) {
+            copyRow(vBuffer, y * uvRowStride, row, uvRowLength);
+            copyRow(uBuffer, y * uvRowStride, uRow, uvRowLength);
+            for (int x = 0; x < uvWidth; x++) {
+                int index = x * uvPixelStride;
+                vuRow[2 * x] = row[index];
+                vuRow[2 * x + 1] = uRow[index];
+            }
+            out.put(vuRow, 0, 2 * uvWidth);
+        }
+        ((Buffer) yBuffer).position(yPosition);
+        ((Buffer) uBuffer).position(uPosition);
+        ((Buffer) vBuffer).position(vPosition);
+    }
+
+    private void ensureRowCapacity(int rowLength, int vuRowLength) {
+        if (row.length < rowLength) {
+            row = new byte[rowLength];
+            uRow = new byte[rowLength];
+        }
+        if (vuRow.length < vuRowLength) {
+            vuRow = new byte[vuRowLength];
+        }
+    }
+
+    private static void copyRow(ByteBuffer buffer, int offset, byte[] row, int length) {
+        ((Buffer) buffer).position(offset);
+        buffer.get(row, 0, Math.min(length, buffer.limit() - offset));
+    }
+}
@@ -0,0 +1,297 @@
+package com.azure.cameraheartratecore.sampler;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * 单次遍历同时计算红、绿、亮度三个通道的均值、过曝/欠曝像素比例，以及手指覆盖比例（红色占优像素的比例），
+ * 结果写入复用的 FrameStats。
+ * 采样区域（ROI）以画面比例表示，与分辨率无关；stride 为横纵方向的采样步长。
+ * <p>
+ * YUV 输入逐行批量拷贝到复用的行缓冲区后在 byte[] 上计算，内层循环只有整数运算、没有分支，
+ * 便于 JIT/ART 展开和向量化。每行按分块的列边界分段遍历，同一次遍历中累加各块的亮度，供运动检测使用。
+ * 单帧不分配内存，非线程安全。
+ */
+public class PixelSampler {
+    private volatile float roiLeft = 0.25f;
+    private volatile float roiTop = 0.25f;
+    private volatile float roiRight = 0.75f;
+    private volatile float roiBottom = 0.75f;
+    private volatile int stride = 4;
+
+    //复用的行缓冲区
+    private byte[] yRow = new byte[0];
+    private byte[] uRow = new byte[0];
+    private byte[] vRow = new byte[0];
+
+    private final FrameStats frameStats = new FrameStats();
+    //复用的分块累加器
+    private final long[] tileSums = new long[FrameStats.MAX_TILES];
+    private final int[] tilePixelCounts = new int[FrameStats.MAX_TILES];
+
+    /**
+     * 设置采样区域，参数为相对画面宽高的比例，取值 [0, 1]，默认为中心 1/2 区域
+     */
+    public PixelSampler setRegionOfInterest(float left, float top, float right, float bottom) {
+        if (left < 0 || top < 0 || right > 1 || bottom > 1 || left >= right || top >= bottom) {
+            throw new IllegalArgumentException("invalid region: " + left + ", " + top + ", " + right + ", " + bottom);
+        }
+        roiLeft = left;
+        roiTop = top;
+        roiRight = right;
+        roiBottom = bottom;
+        return this;
+    }
+
+    /**
+     * 设置采样步长，默认每隔 4 个像素采样一次
+     */
+    public PixelSampler setStride(int stride) {
+        if (stride <= 0) {
+            throw new IllegalArgumentException("stride must be positive: " + stride);
+        }
+        this.stride = stride;
+        return this;
+    }
+
+    /**
+     * 对一帧 YUV_420_888 图像采样，U/V 平面为 2x2 下采样，支持任意行步长和像素步长
+     */
+    public void sampleYuv(int width, int height,
+                          ByteBuffer yBuffer, int yRowStride, int yPixelStride,
+                          ByteBuffer uBuffer, ByteBuffer vBuffer, int uvRowStride, int uvPixelStride) {
+        sampleYuv(width, height, yBuffer, yRowStride, yPixelStride, uBuffer, vBuffer, uvRowStride, uvPixelStride, stride);
+    }
+
+    /**
+     * 粗略采样：在采样区域内取至多 gridSize x gridSize 个点，用于手指未放置时低成本地判断覆盖比例
+     */
+    public void sampleYuvCoarse(int width, int height,
+                                ByteBuffer yBuffer, int yRowStride, int yPixelStride,
+                                ByteBuffer uBuffer, ByteBuffer vBuffer, int uvRowStride, int uvPixelStride,
+                                int gridSize) {
+        int roiWidth = (int) (width * (roiRight - roiLeft));
+        int roiHeight = (int) (height * (roiBottom - roiTop));
+        int step = Math.max(stride, (Math.max(roiWidth, roiHeight) + gridSize - 1) / gridSize);
+        sampleYuv(width, height, yBuffer, yRowStride, yPixelStride, uBuffer, vBuffer, uvRowStride, uvPixelStride, step);
+    }
+
+    private void sampleYuv(int width, int height,
+                           ByteBuffer yBuffer, int yRowStride, int yPixelStride,
+                           ByteBuffer uBuffer, ByteBuffer vBuffer, int uvRowStride, int uvPixelStride,
+                           int step) {
+        int x0 = (int) (width * roiLeft);
+        int x1 = Math.max(x0 + 1, (int) (width * roiRight));
+        int y0 = (int) (height * roiTop);
+        int y1 = Math.max(y0 + 1, (int) (height * roiBottom));
+        // x0 对齐到偶数，保证采样点与色度平面对齐方式固定
+        x0 &= ~1;
+
+        int yRowLength = (x1 - 1 - x0) * yPixelStride + 1;
+        int uvStart = x0 >> 1;
+        int uvRowLength = (((x1 - 1) >> 1) - uvStart) * uvPixelStride + 1;
+        ensureRowCapacity(yRowLength, uvRowLength);
+        byte[] yRow = this.yRow;
+        byte[] uRow = this.uRow;
+        byte[] vRow = this.vRow;
+
+        int yPosition = yBuffer.position();
+        int uPosition = uBuffer.position();
+        int vPosition = vBuffer.position();
+        long redSum = 0;
+        long greenSum = 0;
+        int redSaturated = 0;
+        int greenSaturated = 0;
+        int lumaSaturated = 0;
+        int redClipped = 0;
+        int greenClipped = 0;
+        int lumaClipped = 0;
+        int redPixelCount = 0;
+        int lastUvRow = -1;
+        int roiWidth = x1 - x0;
+        int roiHeight = y1 - y0;
+        clearTiles();
+        for (int y = y0; y < y1; y += step) {
+            copyRow(yBuffer, y * yRowStride + x0 * yPixelStride, yRow, yRowLength);
+            int uvRowIndex = y >> 1;
+            if (uvRowIndex != lastUvRow) {
+                int uvOffset = uvRowIndex * uvRowStride + uvStart * uvPixelStride;
+                copyRow(uBuffer, uvOffset, uRow, uvRowLength);
+                copyRow(vBuffer, uvOffset, vRow, uvRowLength);
+                lastUvRow = uvRowIndex;
+            }
+            int tile = (y - y0) * FrameStats.TILE_ROWS / roiHeight * FrameStats.TILE_COLUMNS;
+            int x = 0;
+            for (int column = 0; column < FrameStats.TILE_COLUMNS; column++, tile++) {
+                int xEnd = (column + 1) * roiWidth / FrameStats.TILE_COLUMNS;
+                long tileLuma = 0;
+                int tilePixels = 0;
+                for (; x < xEnd; x += step) {
+                    int luma = yRow[x * yPixelStride] & 0xFF;
+                    int uvIndex = (x >> 1) * uvPixelStride;
+                    int u = (uRow[uvIndex] & 0xFF) - 128;
+                    int v = (vRow[uvIndex] & 0xFF) - 128;
+                    int red = clamp(luma + ((359 * v) >> 8));
+                    int green = clamp(luma - ((88 * u + 183 * v) >> 8));
+                    int blue = clamp(luma + ((454 * u) >> 8));
+                    redSum += red;
+                    greenSum += green;
+                    tileLuma += luma;
+                    // v >= 250 与 v <= 5 均用符号位代替分支
+                    redSaturated += (249 - red) >>> 31;
+                    greenSaturated += (249 - green) >>> 31;
+                    lumaSaturated += (249 - luma) >>> 31;
+                    redClipped += (red - 6) >>> 31;
+                    greenClipped += (green - 6) >>> 31;
+                    lumaClipped += (luma - 6) >>> 31;
+                    // red > green && red > blue
+                    redPixelCount += ((green - red) >>> 31) & ((blue - red) >>> 31);
+                    tilePixels++;
+                }
+                tileSums[tile] += tileLuma;
+                tilePixelCounts[tile] += tilePixels;
+            }
+        }
+        ((Buffer) yBuffer).position(yPosition);
+        ((Buffer) uBuffer).position(uPosition);
+        ((Buffer) vBuffer).position(vPosition);
+        finish(redSum, greenSum, redSaturated, greenSaturated, lumaSaturated,
+                redClipped, greenClipped, lumaClipped, redPixelCount);
+    }
+
+    /**
+     * 对一帧 ARGB 像素采样，例如 Bitmap.getPixels 的结果
+     */
+    public void sampleArgb(int[] pixels, int width, int height) {
+        int step = stride;
+        int x0 = (int) (width * roiLeft);
+        int x1 = Math.max(x0 + 1, (int) (width * roiRight));
+        int y0 = (int) (height * roiTop);
+        int y1 = Math.max(y0 + 1, (int) (height * roiBottom));
+
+        long redSum = 0;
+        long greenSum = 0;
+        int redSaturated = 0;
+        int greenSaturated = 0;
+        int lumaSaturated = 0;
+        int redClipped = 0;
+        int greenClipped = 0;
+        int lumaClipped = 0;
+        int redPixelCount = 0;
+        int roiWidth = x1 - x0;
+        int roiHeight = y1 - y0;
+        clearTiles();
+        for (int y = y0; y < y1; y += step) {
+            int rowOffset = y * width + x0;
+            int tile = (y - y0) * FrameStats.TILE_ROWS / roiHeight * FrameStats.TILE_COLUMNS;
+            int x = 0;
+            for (int column = 0; column < FrameStats.TILE_COLUMNS; column++, tile++) {
+                int xEnd = (column + 1) * roiWidth / FrameStats.TILE_COLUMNS;
+                long tileLuma = 0;
+                int tilePixels = 0;
+                for (; x < xEnd; x += step) {
+                    int pixel = pixels[rowOffset + x];
+                    int red = (pixel >> 16) & 0xFF;
+                    int green = (pixel >> 8) & 0xFF;
+                    int blue = pixel & 0xFF;
+                    // BT.601 亮度
+                    int luma = (77 * red + 150 * green + 29 * blue) >> 8;
+                    redSum += red;
+                    greenSum += green;
+                    tileLuma += luma;
+                    redSaturated += (249 - red) >>> 31;
+                    greenSaturated += (249 - green) >>> 31;
+                    lumaSaturated += (249 - luma) >>> 31;
+                    redClipped += (red - 6) >>> 31;
+                    greenClipped += (green - 6) >>> 31;
+                    lumaClipped += (luma - 6) >>> 31;
+                    redPixelCount += ((green - red) >>> 31) & ((blue - red) >>> 31);
+                    tilePixels++;
+                }
+                tileSums[tile] += tileLuma;
+                tilePixelCounts[tile] += tilePixels;
+            }
+        }
+        finish(redSum, greenSum, redSaturated, greenSaturated, lumaSaturated,
+                redClipped, greenClipped, lumaClipped, redPixelCount);
+    }
+
+    private void clearTiles() {
+        for (int i = 0; i < FrameStats.MAX_TILES; i++) {
+            tileSums[i] = 0;
+            tilePixelCounts[i] = 0;
+        }
+    }
+
+    /**
+     * 由各通道累加值和分块累加值写入统计结果，亮度均值与像素数由分块汇总
+     */
+    private void finish(long redSum, long greenSum, int redSaturated, int greenSaturated, int lumaSaturated,
+                        int redClipped, int greenClipped, int lumaClipped, int redPixelCount) {
+        long lumaSum = 0;
+        int pixelCount = 0;
+        boolean allTiles = true;
+        for (int i = 0; i < FrameStats.MAX_TILES; i++) {
+            lumaSum += tileSums[i];
+            pixelCount += tilePixelCounts[i];
+            allTiles &= tilePixelCounts[i] > 0;
+            frameStats.setTileMean(i, tilePixelCounts[i] > 0 ? (double) tileSums[i] / tilePixelCounts[i] : 0.0);
+        }
+        // 采样区域过小、某些块没有采样点时不提供分块统计
+        frameStats.setTileCount(allTiles ? FrameStats.MAX_TILES : 0);
+        finish(SignalChannel.RED, redSum, redSaturated, redClipped, pixelCount);
+        finish(SignalChannel.GREEN, greenSum, greenSaturated, greenClipped, pixelCount);
+        finish(SignalChannel.LUMA, lumaSum, lumaSaturated, lumaClipped, pixelCount);
+        frameStats.setCoverageRatio(pixelCount > 0 ? (double) redPixelCount / pixelCount : 0.0);
+    }
+
+    private void finish(SignalChannel channel, long sum, int saturated, int clipped, int pixelCount) {
+        if (pixelCount == 0) {
+            frameStats.setMean(channel, 0).setSaturatedFraction(channel, 0).setClippedFraction(channel, 0);
+            return;
+        }
+        frameStats.setMean(channel, (double) sum / pixelCount)
+                .setSaturatedFraction(channel, (double) saturated / pixelCount)
+                .setClippedFraction(channel, (double) clipped / pixelCount);
+    }
+
+    private void ensureRowCapacity(int yRowLength, int uvRowLength) {
+        if (yRow.length < yRowLength) {
+            yRow = new byte[yRowLength];
+        }
+        if (uRow.length < uvRowLength) {
+            uRow = new byte[uvRowLength];
+            vRow = new byte[uvRowLength];
+        }
+    }
+
+    private static void copyRow(ByteBuffer buffer, int offset, byte[] row, int length) {
+        ((Buffer) buffer).position(offset);
+        buffer.get(row, 0, Math.min(length, buffer.limit() - offset));
+    }
+
+    private static int clamp(int value) {
+        return Math.min(255, Math.max(0, value));
+    }
+
+    /**
+     * 最近一帧的统计结果，下一次采样时会被覆盖
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * 采样区域内红色通道均值
+     */
+    public double getMeanRed() {
+        return frameStats.getMean(SignalChannel.RED);
+    }
+
+    /**
+     * 采样区域内红色占优像素的比例
+     */
+    public double getCoverageRatio() {
+        return frameStats.getCoverageRatio();
+    }
+}
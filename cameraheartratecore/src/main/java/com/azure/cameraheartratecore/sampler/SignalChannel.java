@@ -0,0 +1,21 @@
+package com.azure.cameraheartratecore.sampler;
+
+/**
+ * PixelSampler 提取的颜色通道
+ */
+public enum SignalChannel {
+    /**
+     * 红色通道，闪光灯透射手指时脉搏信号最强，但最容易过曝
+     */
+    RED,
+    /**
+     * 绿色通道，血红蛋白吸收强、不易过曝，但在手指遮挡下整体偏暗
+     */
+    GREEN,
+    /**
+     * 亮度（Y），作为前两者都不可用时的后备
+     */
+    LUMA;
+
+    static final int COUNT = 3;
+}
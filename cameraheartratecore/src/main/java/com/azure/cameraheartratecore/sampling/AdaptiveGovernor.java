@@ -0,0 +1,270 @@
+package com.azure.cameraheartratecore.sampling;
+
+import com.azure.cameraheartratecore.engine.HeartRateEngine;
+import com.azure.cameraheartratecore.metrics.GovernorReason;
+import com.azure.cameraheartratecore.metrics.PipelineMetrics;
+import com.azure.cameraheartratecore.sampler.PixelSampler;
+
+import java.util.Arrays;
+
+/**
+ * 自适应调节器：根据每帧处理耗时、信号质量和温度/电量提示，在若干档位之间切换分析频率、像素采样步长与采样区域，
+ * 并在心率稳定之前跳过 HRV 计算。
+ * <ul>
+ *     <li>处理耗时超出预算（CPU 预算 × 温度余量）时降档</li>
+ *     <li>信号质量偏低且有余量时升档，采样更多像素</li>
+ *     <li>信号质量好且心率稳定时降档省电，最多降到 efficientLevel</li>
+ *     <li>心率尚未稳定且耗时远低于预算时升档，稳定之后保持档位</li>
+ * </ul>
+ * 每次调整后等待若干帧重新测量耗时再做下一次判断；升档前参考该档位上次实测的负载，预计超出预算时不升，避免来回切换。
+ * 每次调整都记录到 PipelineMetrics。
+ * 除 getter 外的方法都应在分析线程上调用。
+ */
+public class AdaptiveGovernor {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    //处理耗时指数平均的权重
+    private static final double PROCESSING_EMA_ALPHA = 0.2;
+    //每次调整后至少等待的分析帧数
+    private static final int SETTLE_FRAMES = 10;
+    //低于预算的该比例时升档
+    private static final double HEADROOM_RATIO = 0.4;
+    private static final float LOW_QUALITY = 0.5f;
+    private static final float GOOD_QUALITY = 0.9f;
+    //最近若干个心率的极差不超过阈值时视为稳定，超过退出阈值才视为不稳定
+    private static final int STABLE_RESULTS = 5;
+    private static final int STABLE_RANGE_BPM = 8;
+    private static final int UNSTABLE_RANGE_BPM = 15;
+    //升档时预计负载不能超过预算的该比例
+    private static final double UPGRADE_LOAD_RATIO = 0.8;
+
+    private final GovernorLevel[] levels;
+    private final SamplingPolicy[] policies;
+    //各档位上次实测的负载（耗时占墙钟时间的比例），0 表示未测量过
+    private final double[] measuredLoads;
+    //分析耗时占墙钟时间的比例上限
+    private final double cpuBudget;
+    private volatile ThermalHint thermalHint = ThermalHint.NONE;
+    private PipelineMetrics metrics = new PipelineMetrics();
+    private int efficientLevel;
+
+    private volatile int level;
+    private volatile boolean hrvEnabled;
+    //档位或 HRV 开关每变化一次加一，调用方据此判断是否需要重新应用设置
+    private volatile long version;
+    private volatile GovernorReason lastReason;
+    private double processingEmaNs;
+    private int framesSinceChange;
+    private final int[] recentHeartRates = new int[STABLE_RESULTS];
+    private int recentCount;
+    private int recentIndex;
+    private volatile boolean heartRateStable;
+
+    /**
+     * 使用默认档位
+     *
+     * @param cpuBudget 分析耗时占墙钟时间的比例上限，取值 (0, 1]，例如 0.3
+     */
+    public AdaptiveGovernor(double cpuBudget) {
+        this(cpuBudget, GovernorLevel.DEFAULT_LEVELS);
+    }
+
+    /**
+     * @param levels 从最精细到最省电排列的档位
+     */
+    public AdaptiveGovernor(double cpuBudget, GovernorLevel... levels) {
+        if (cpuBudget <= 0 || cpuBudget > 1) {
+            throw new IllegalArgumentException("cpuBudget must be in (0, 1]: " + cpuBudget);
+        }
+        if (levels.length == 0) {
+            throw new IllegalArgumentException("at least one level is required");
+        }
+        this.cpuBudget = cpuBudget;
+        this.levels = levels.clone();
+        policies = new SamplingPolicy[levels.length];
+        measuredLoads = new double[levels.length];
+        for (int i = 0; i < levels.length; i++) {
+            policies[i] = SamplingPolicy.targetHz(levels[i].getAnalysisHz());
+        }
+        efficientLevel = Math.min(2, levels.length - 1);
+    }
+
+    /**
+     * 判断该时间戳的帧是否需要分析，返回 true 时视为已采样
+     */
+    public boolean shouldSample(long timestampNs) {
+        return policies[level].shouldSample(timestampNs);
+    }
+
+    /**
+     * 反馈一帧的实际处理耗时和信号质量，可能因此切换档位
+     *
+     * @param processingNs 处理耗时，单位：纳秒
+     * @param quality 信号质量指数，取值 [0, 1]
+     */
+    public void onFrameProcessed(long processingNs, float quality) {
+        processingEmaNs = processingEmaNs == 0
+                ? processingNs
+                : processingEmaNs + PROCESSING_EMA_ALPHA * (processingNs - processingEmaNs);
+        if (++framesSinceChange < SETTLE_FRAMES) {
+            return;
+        }
+        double headroom = Math.max(0.1, Math.min(1.0, thermalHint.getHeadroom()));
+        double budget = cpuBudget * headroom;
+        double load = processingEmaNs * levels[level].getAnalysisHz() / NANOS_PER_SECOND;
+        int current = level;
+        measuredLoads[current] = load;
+        boolean upgradeFits = current > 0 && measuredLoads[current - 1] <= budget * UPGRADE_LOAD_RATIO;
+        if (load > budget && current < levels.length - 1) {
+            changeLevel(current + 1, load > cpuBudget ? GovernorReason.OVER_BUDGET : GovernorReason.THERMAL);
+        } else if (quality < LOW_QUALITY) {
+            if (upgradeFits && load < budget * UPGRADE_LOAD_RATIO) {
+                changeLevel(current - 1, GovernorReason.LOW_QUALITY);
+            }
+        } else if (heartRateStable) {
+            if (quality >= GOOD_QUALITY && current < efficientLevel) {
+                changeLevel(current + 1, GovernorReason.GOOD_SIGNAL);
+            }
+        } else if (upgradeFits && load < budget * HEADROOM_RATIO) {
+            changeLevel(current - 1, GovernorReason.HEADROOM);
+        }
+    }
+
+    /**
+     * 反馈一次心率结果，用于判断心率是否稳定，0 表示手指离开
+     */
+    public void onResult(int heartRate) {
+        if (heartRate <= 0) {
+            recentCount = 0;
+            recentIndex = 0;
+        } else {
+            recentHeartRates[recentIndex] = heartRate;
+            recentIndex = (recentIndex + 1) % STABLE_RESULTS;
+            recentCount = Math.min(STABLE_RESULTS, recentCount + 1);
+        }
+        if (recentCount < STABLE_RESULTS) {
+            heartRateStable = false;
+        } else {
+            int range = heartRateRange();
+            heartRateStable = heartRateStable ? range <= UNSTABLE_RANGE_BPM : range <= STABLE_RANGE_BPM;
+        }
+        updateHrvEnabled(heartRateStable ? GovernorReason.HR_STABLE : GovernorReason.HR_UNSTABLE);
+    }
+
+    private void changeLevel(int newLevel, GovernorReason reason) {
+        level = newLevel;
+        policies[newLevel].reset();
+        // 新档位的耗时与之前不同，重新测量
+        processingEmaNs = 0;
+        framesSinceChange = 0;
+        lastReason = reason;
+        version++;
+        metrics.onGovernorDecision(reason, newLevel);
+        updateHrvEnabled(heartRateStable ? GovernorReason.HR_STABLE : GovernorReason.HR_UNSTABLE);
+    }
+
+    private void updateHrvEnabled(GovernorReason reason) {
+        boolean enabled = levels[level].isHrvAllowed() && heartRateStable;
+        if (enabled != hrvEnabled) {
+            hrvEnabled = enabled;
+            lastReason = reason;
+            version++;
+            metrics.onGovernorDecision(reason, level);
+        }
+    }
+
+    private int heartRateRange() {
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int heartRate : recentHeartRates) {
+            min = Math.min(min, heartRate);
+            max = Math.max(max, heartRate);
+        }
+        return max - min;
+    }
+
+    /**
+     * 最近几个心率结果是否都有效且足够接近
+     */
+    public boolean isHeartRateStable() {
+        return heartRateStable;
+    }
+
+    /**
+     * 把当前档位的步长和采样区域应用到采样器
+     */
+    public void apply(PixelSampler pixelSampler) {
+        GovernorLevel current = levels[level];
+        float margin = (1 - current.getRoiScale()) / 2;
+        pixelSampler.setStride(current.getStride())
+                .setRegionOfInterest(margin, margin, 1 - margin, 1 - margin);
+    }
+
+    /**
+     * 把 HRV 开关应用到引擎
+     */
+    public void apply(HeartRateEngine engine) {
+        engine.setHrvEnabled(hrvEnabled);
+    }
+
+    /**
+     * 回到最精细的档位并清空心率历史，例如相机重新打开之后
+     */
+    public void reset() {
+        level = 0;
+        policies[0].reset();
+        processingEmaNs = 0;
+        framesSinceChange = 0;
+        recentCount = 0;
+        recentIndex = 0;
+        heartRateStable = false;
+        hrvEnabled = false;
+        Arrays.fill(measuredLoads, 0);
+        version++;
+    }
+
+    public void setThermalHint(ThermalHint thermalHint) {
+        this.thermalHint = thermalHint == null ? ThermalHint.NONE : thermalHint;
+    }
+
+    /**
+     * 设置记录调整决策的性能指标
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+        metrics.setGovernorLevel(level);
+    }
+
+    /**
+     * 信号好且心率稳定时最多降到的档位，默认为 2
+     */
+    public void setEfficientLevel(int efficientLevel) {
+        this.efficientLevel = Math.max(0, Math.min(levels.length - 1, efficientLevel));
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public GovernorLevel getCurrentLevel() {
+        return levels[level];
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    public boolean isHrvEnabled() {
+        return hrvEnabled;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 最近一次调整的原因，尚未调整时返回 null
+     */
+    public GovernorReason getLastReason() {
+        return lastReason;
+    }
+}
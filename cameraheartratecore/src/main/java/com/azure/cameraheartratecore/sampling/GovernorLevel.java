@@ -0,0 +1,59 @@
+package com.azure.cameraheartratecore.sampling;
+
+/**
+ * 自适应调节器的一个档位：分析频率、像素采样步长、采样区域大小，以及是否允许计算 HRV
+ */
+public final class GovernorLevel {
+    /**
+     * 默认档位，从最精细到最省电。默认采样区域为画面中央 50%，步长 4
+     */
+    public static final GovernorLevel[] DEFAULT_LEVELS = {
+            new GovernorLevel(30, 2, 0.5f, true),
+            new GovernorLevel(30, 4, 0.5f, true),
+            new GovernorLevel(15, 4, 0.5f, true),
+            new GovernorLevel(15, 8, 0.4f, true),
+            new GovernorLevel(10, 8, 0.3f, false),
+    };
+
+    private final double analysisHz;
+    private final int stride;
+    private final float roiScale;
+    private final boolean hrvAllowed;
+
+    /**
+     * @param analysisHz 分析频率
+     * @param stride 像素采样步长
+     * @param roiScale 采样区域占画面宽高的比例，以画面中心为中心，取值 (0, 1]
+     * @param hrvAllowed 该档位是否允许计算 HRV
+     */
+    public GovernorLevel(double analysisHz, int stride, float roiScale, boolean hrvAllowed) {
+        if (analysisHz <= 0 || stride <= 0 || roiScale <= 0 || roiScale > 1) {
+            throw new IllegalArgumentException("invalid level: " + analysisHz + "Hz stride=" + stride + " roi=" + roiScale);
+        }
+        this.analysisHz = analysisHz;
+        this.stride = stride;
+        this.roiScale = roiScale;
+        this.hrvAllowed = hrvAllowed;
+    }
+
+    public double getAnalysisHz() {
+        return analysisHz;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public float getRoiScale() {
+        return roiScale;
+    }
+
+    public boolean isHrvAllowed() {
+        return hrvAllowed;
+    }
+
+    @Override
+    public String toString() {
+        return analysisHz + "Hz stride=" + stride + " roi=" + roiScale + (hrvAllowed ? "" : " noHrv");
+    }
+}
@@ -0,0 +1,133 @@
+package com.azure.cameraheartratecore.sampling;
+
+/**
+ * 帧采样节奏策略，以传感器时间戳（纳秒）为时间基准决定哪些帧参与分析。
+ * <ul>
+ *     <li>EVERY_FRAME：每一帧都分析</li>
+ *     <li>TARGET_HZ：按固定频率分析，按计划时间而不是上一帧时间推进，避免抖动累积</li>
+ *     <li>ADAPTIVE：根据实测的单帧处理耗时，在 CPU 预算内自动调整分析频率</li>
+ * </ul>
+ */
+public class SamplingPolicy {
+    public enum Type {
+        EVERY_FRAME,
+        TARGET_HZ,
+        ADAPTIVE
+    }
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    //处理耗时指数平均的权重
+    private static final double PROCESSING_EMA_ALPHA = 0.1;
+
+    private final Type type;
+    private final double maxHz;
+    private final double minHz;
+    //ADAPTIVE 模式下分析耗时占墙钟时间的比例上限
+    private final double cpuBudget;
+
+    private long intervalNs;
+    private long nextDueNs = Long.MIN_VALUE;
+    private double processingEmaNs;
+
+    private SamplingPolicy(Type type, double maxHz, double minHz, double cpuBudget) {
+        this.type = type;
+        this.maxHz = maxHz;
+        this.minHz = minHz;
+        this.cpuBudget = cpuBudget;
+        this.intervalNs = maxHz > 0 ? (long) (NANOS_PER_SECOND / maxHz) : 0;
+    }
+
+    /**
+     * 每一帧都分析
+     */
+    public static SamplingPolicy everyFrame() {
+        return new SamplingPolicy(Type.EVERY_FRAME, 0, 0, 1);
+    }
+
+    /**
+     * 按固定频率分析
+     *
+     * @param hz 目标频率，例如 10 表示每 100 毫秒分析一帧
+     */
+    public static SamplingPolicy targetHz(double hz) {
+        if (hz <= 0) {
+            throw new IllegalArgumentException("hz must be positive: " + hz);
+        }
+        return new SamplingPolicy(Type.TARGET_HZ, hz, hz, 1);
+    }
+
+    /**
+     * 在 CPU 预算内自适应调整分析频率
+     *
+     * @param maxHz 最高频率，通常为相机帧率
+     * @param minHz 最低频率
+     * @param cpuBudget 分析耗时占墙钟时间的比例上限，取值 (0, 1]，例如 0.3
+     */
+    public static SamplingPolicy adaptive(double maxHz, double minHz, double cpuBudget) {
+        if (minHz <= 0 || maxHz < minHz) {
+            throw new IllegalArgumentException("invalid range: " + minHz + " ~ " + maxHz);
+        }
+        if (cpuBudget <= 0 || cpuBudget > 1) {
+            throw new IllegalArgumentException("cpuBudget must be in (0, 1]: " + cpuBudget);
+        }
+        return new SamplingPolicy(Type.ADAPTIVE, maxHz, minHz, cpuBudget);
+    }
+
+    /**
+     * 判断该时间戳的帧是否需要分析，返回 true 时视为已采样
+     *
+     * @param timestampNs 传感器时间戳，单位：纳秒
+     */
+    public boolean shouldSample(long timestampNs) {
+        if (type == Type.EVERY_FRAME) {
+            return true;
+        }
+        if (nextDueNs != Long.MIN_VALUE && timestampNs < nextDueNs) {
+            return false;
+        }
+        // 按计划推进；落后超过一个周期（如掉帧）时以当前帧重新对齐
+        nextDueNs = nextDueNs == Long.MIN_VALUE ? timestampNs + intervalNs : nextDueNs + intervalNs;
+        if (nextDueNs <= timestampNs) {
+            nextDueNs = timestampNs + intervalNs;
+        }
+        return true;
+    }
+
+    /**
+     * 反馈一帧的实际处理耗时，ADAPTIVE 模式据此调整频率
+     *
+     * @param processingNs 处理耗时，单位：纳秒
+     */
+    public void onFrameProcessed(long processingNs) {
+        if (type != Type.ADAPTIVE) {
+            return;
+        }
+        processingEmaNs = processingEmaNs == 0
+                ? processingNs
+                : processingEmaNs + PROCESSING_EMA_ALPHA * (processingNs - processingEmaNs);
+        // 处理耗时 / 采样间隔 <= cpuBudget
+        double hz = processingEmaNs > 0 ? cpuBudget * NANOS_PER_SECOND / processingEmaNs : maxHz;
+        hz = Math.max(minHz, Math.min(maxHz, hz));
+        intervalNs = (long) (NANOS_PER_SECOND / hz);
+    }
+
+    /**
+     * 重新开始计时，例如相机重新打开之后
+     */
+    public void reset() {
+        nextDueNs = Long.MIN_VALUE;
+        processingEmaNs = 0;
+        intervalNs = maxHz > 0 ? (long) (NANOS_PER_SECOND / maxHz) : 0;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * 当前的采样频率，EVERY_FRAME 模式返回 0 表示跟随相机帧率
+     */
+    public double getCurrentHz() {
+        return intervalNs > 0 ? (double) NANOS_PER_SECOND / intervalNs : 0;
+    }
+}
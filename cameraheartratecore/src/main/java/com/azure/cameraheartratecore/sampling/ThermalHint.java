@@ -0,0 +1,17 @@
+package com.azure.cameraheartratecore.sampling;
+
+/**
+ * 设备温度、电量等外部状态的提示，由平台层实现，例如 Android 的 PowerManager 温控状态与电池电量
+ */
+public interface ThermalHint {
+    /**
+     * 不受限制
+     */
+    ThermalHint NONE = () -> 1.0;
+
+    /**
+     * 当前可用的余量，取值 [0, 1]，1 表示不受限制，越小表示温度越高或电量越低，分析的 CPU 预算按比例缩小。
+     * 每分析一帧调用一次，实现应当只返回缓存的值
+     */
+    double getHeadroom();
+}
@@ -0,0 +1,74 @@
+package com.azure.cameraheartratecore.spectrum;
+
+/**
+ * 定长基 2 复数 FFT，旋转因子和位反转表在构造时预先计算，变换就地进行，不分配内存
+ */
+public class Fft {
+    private final int size;
+    private final double[] cosTable;
+    private final double[] sinTable;
+    private final int[] bitReverse;
+
+    /**
+     * @param size 变换长度，必须是 2 的幂
+     */
+    public Fft(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("size must be a power of two: " + size);
+        }
+        this.size = size;
+        cosTable = new double[size / 2];
+        sinTable = new double[size / 2];
+        for (int i = 0; i < size / 2; i++) {
+            cosTable[i] = Math.cos(2 * Math.PI * i / size);
+            sinTable[i] = Math.sin(2 * Math.PI * i / size);
+        }
+        bitReverse = new int[size];
+        int bits = Integer.numberOfTrailingZeros(size);
+        for (int i = 0; i < size; i++) {
+            bitReverse[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    /**
+     * 就地正变换
+     *
+     * @param re 实部，长度为 size
+     * @param im 虚部，长度为 size
+     */
+    public void transform(double[] re, double[] im) {
+        for (int i = 0; i < size; i++) {
+            int j = bitReverse[i];
+            if (j > i) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+        for (int length = 2; length <= size; length <<= 1) {
+            int half = length >> 1;
+            int tableStep = size / length;
+            for (int start = 0; start < size; start += length) {
+                for (int k = 0; k < half; k++) {
+                    double cos = cosTable[k * tableStep];
+                    double sin = sinTable[k * tableStep];
+                    int a = start + k;
+                    int b = a + half;
+                    double tre = re[b] * cos + im[b] * sin;
+                    double tim = im[b] * cos - re[b] * sin;
+                    re[b] = re[a] - tre;
+                    im[b] = im[a] - tim;
+                    re[a] += tre;
+                    im[a] += tim;
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,114 @@
+package com.azure.cameraheartratecore.spectrum;
+
+import java.util.Arrays;
+
+/**
+ * 非均匀采样序列的 Lomb-Scargle 周期图，适用于以心跳时刻为采样点的 R-R 间期序列，无需重采样。
+ * 频率网格等间隔，逐频率时用旋转递推更新每个采样点的 sin/cos，每个频率只需一次 atan2。
+ * 所有数组在构造时分配，计算时不分配内存。
+ */
+public class LombScargle {
+    private final double minHz;
+    private final double stepHz;
+    private final double[] psd;
+    private final double[] cos;
+    private final double[] sin;
+    private final double[] cosStep;
+    private final double[] sinStep;
+
+    /**
+     * @param minHz 频率网格下限
+     * @param maxHz 频率网格上限
+     * @param stepHz 频率间隔
+     * @param maxPoints 最多的采样点数
+     */
+    public LombScargle(double minHz, double maxHz, double stepHz, int maxPoints) {
+        this.minHz = minHz;
+        this.stepHz = stepHz;
+        psd = new double[(int) Math.floor((maxHz - minHz) / stepHz + 1e-9) + 1];
+        cos = new double[maxPoints];
+        sin = new double[maxPoints];
+        cosStep = new double[maxPoints];
+        sinStep = new double[maxPoints];
+    }
+
+    /**
+     * 计算功率谱密度，缩放使各频率功率之和近似等于序列方差
+     *
+     * @param times 采样时刻，单位：秒，升序
+     * @param values 已去均值的采样值
+     * @param count 采样点数
+     */
+    public void compute(double[] times, double[] values, int count) {
+        if (count < 3) {
+            Arrays.fill(psd, 0);
+            return;
+        }
+        double duration = times[count - 1] - times[0];
+        double stepOmega = 2 * Math.PI * stepHz;
+        double omega = 2 * Math.PI * minHz;
+        for (int i = 0; i < count; i++) {
+            double t = times[i] - times[0];
+            cos[i] = Math.cos(omega * t);
+            sin[i] = Math.sin(omega * t);
+            cosStep[i] = Math.cos(stepOmega * t);
+            sinStep[i] = Math.sin(stepOmega * t);
+        }
+        for (int f = 0; f < psd.length; f++) {
+            // tan(2ωτ) = Σsin(2ωt) / Σcos(2ωt)
+            double sumSin2 = 0;
+            double sumCos2 = 0;
+            for (int i = 0; i < count; i++) {
+                sumSin2 += 2 * sin[i] * cos[i];
+                sumCos2 += cos[i] * cos[i] - sin[i] * sin[i];
+            }
+            double theta = 0.5 * Math.atan2(sumSin2, sumCos2);
+            double cosTheta = Math.cos(theta);
+            double sinTheta = Math.sin(theta);
+            double yc = 0;
+            double ys = 0;
+            double cc = 0;
+            double ss = 0;
+            for (int i = 0; i < count; i++) {
+                double c = cos[i] * cosTheta + sin[i] * sinTheta;
+                double s = sin[i] * cosTheta - cos[i] * sinTheta;
+                yc += values[i] * c;
+                ys += values[i] * s;
+                cc += c * c;
+                ss += s * s;
+                // 旋转到下一个频率
+                double nextCos = cos[i] * cosStep[i] - sin[i] * sinStep[i];
+                sin[i] = sin[i] * cosStep[i] + cos[i] * sinStep[i];
+                cos[i] = nextCos;
+            }
+            double power = 0.5 * ((cc > 0 ? yc * yc / cc : 0) + (ss > 0 ? ys * ys / ss : 0));
+            psd[f] = 2 * power * duration / count;
+        }
+    }
+
+    /**
+     * [lowHz, highHz) 频段内的功率，即功率谱密度在频段内的积分
+     */
+    public double bandPower(double lowHz, double highHz) {
+        double power = 0;
+        for (int f = 0; f < psd.length; f++) {
+            double hz = getFrequency(f);
+            if (hz >= lowHz && hz < highHz) {
+                power += psd[f] * stepHz;
+            }
+        }
+        return power;
+    }
+
+    public double getFrequency(int index) {
+        return minHz + index * stepHz;
+    }
+
+    public double getPsd(int index) {
+        return psd[index];
+    }
+
+    public int size() {
+        return psd.length;
+    }
+}
@@ -0,0 +1,202 @@
+package com.azure.cameraheartratecore.spectrum;
+
+import com.azure.cameraheartratecore.buffer.DoubleRingBuffer;
+import com.azure.cameraheartratecore.buffer.LongRingBuffer;
+
+/**
+ * 基于短窗口频谱的心率估计，不依赖逐个峰值，数秒数据即可给出读数。
+ * <p>
+ * 最近 windowMs 的强度采样按时间戳线性插值重采样到 20 Hz 的均匀网格，去线性趋势、加 Hann 窗、
+ * 补零后做 FFT，在 0.7–3.5 Hz 心率频段内取功率最大的频点并做抛物线插值。
+ * 质量分数为主频附近功率占频段总功率的比例，取值 0–1。所有缓冲区在构造时分配，估计时不分配内存。
+ */
+public class SpectralHeartRateEstimator {
+    public static final double MIN_HZ = 0.7;
+    public static final double MAX_HZ = 3.5;
+    //重采样频率
+    private static final double RESAMPLE_HZ = 20;
+    //窗口内数据时长达到 windowMs 的该比例即可开始估计
+    private static final double MIN_COVERAGE = 0.75;
+    //主频附近计入质量分数的半宽，单位：Hz
+    private static final double PEAK_HALF_WIDTH_HZ = 0.15;
+
+    private final long windowMs;
+    private final LongRingBuffer timestamps;
+    private final DoubleRingBuffer values;
+    private final Fft fft;
+    private final double[] re;
+    private final double[] im;
+    private final double[] power;
+
+    private double heartRate;
+    private double quality;
+
+    public SpectralHeartRateEstimator(long windowMs) {
+        this.windowMs = windowMs;
+        // 最高按 100 fps 预留
+        int capacity = (int) (windowMs / 10) + 2;
+        timestamps = new LongRingBuffer(capacity);
+        values = new DoubleRingBuffer(capacity);
+        int maxPoints = (int) Math.ceil(windowMs * RESAMPLE_HZ / 1000.0) + 1;
+        // 至少补零到两倍长度，频点间隔不大于 RESAMPLE_HZ / 256
+        fft = new Fft(Math.max(256, Integer.highestOneBit(maxPoints * 2 - 1) << 1));
+        re = new double[fft.size()];
+        im = new double[fft.size()];
+        power = new double[fft.size() / 2];
+    }
+
+    /**
+     * 添加一个强度采样点
+     *
+     * @param timestamp 采样时间，单位：毫秒
+     */
+    public void add(long timestamp, double intensity) {
+        timestamps.add(timestamp);
+        values.add(intensity);
+        int expired = 0;
+        while (expired < timestamps.size() && timestamp - timestamps.get(expired) > windowMs) {
+            expired++;
+        }
+        timestamps.removeFirst(expired);
+        values.removeFirst(expired);
+    }
+
+    /**
+     * 用当前窗口估计心率
+     *
+     * @return 窗口内数据不足时返回 false
+     */
+    public boolean estimate() {
+        if (timestamps.size() < 4) {
+            return false;
+        }
+        long start = timestamps.get(0);
+        long span = timestamps.getLast() - start;
+        if (span < windowMs * MIN_COVERAGE) {
+            return false;
+        }
+        int points = (int) (span * RESAMPLE_HZ / 1000.0) + 1;
+        resample(start, points);
+        detrendAndWindow(points);
+        for (int i = points; i < re.length; i++) {
+            re[i] = 0;
+        }
+        for (int i = 0; i < im.length; i++) {
+            im[i] = 0;
+        }
+        fft.transform(re, im);
+
+        double binHz = RESAMPLE_HZ / fft.size();
+        int minBin = (int) Math.ceil(MIN_HZ / binHz);
+        int maxBin = Math.min(power.length - 2, (int) Math.floor(MAX_HZ / binHz));
+        double total = 0;
+        int peakBin = minBin;
+        for (int k = minBin; k <= maxBin; k++) {
+            power[k] = re[k] * re[k] + im[k] * im[k];
+            total += power[k];
+            if (power[k] > power[peakBin]) {
+                peakBin = k;
+            }
+        }
+        if (total <= 0) {
+            return false;
+        }
+        // 重搏波较强时二次谐波可能最高，基频处功率接近时取基频
+        int halfBin = Math.round(peakBin / 2.0f);
+        if (halfBin - 1 >= minBin) {
+            int best = halfBin;
+            for (int k = halfBin - 1; k <= halfBin + 1; k++) {
+                if (power[k] > power[best]) {
+                    best = k;
+                }
+            }
+            if (power[best] >= 0.5 * power[peakBin] && isLocalMaximum(best, minBin, maxBin)) {
+                peakBin = best;
+            }
+        }
+
+        double offset = 0;
+        if (peakBin > minBin && peakBin < maxBin) {
+            double a = power[peakBin - 1];
+            double b = power[peakBin];
+            double c = power[peakBin + 1];
+            double denominator = a - 2 * b + c;
+            if (denominator < 0) {
+                offset = 0.5 * (a - c) / denominator;
+            }
+        }
+        double peakHz = (peakBin + offset) * binHz;
+        heartRate = peakHz * 60;
+
+        int halfWidth = (int) Math.round(PEAK_HALF_WIDTH_HZ / binHz);
+        double peakPower = 0;
+        for (int k = Math.max(minBin, peakBin - halfWidth); k <= Math.min(maxBin, peakBin + halfWidth); k++) {
+            peakPower += power[k];
+        }
+        quality = peakPower / total;
+        return true;
+    }
+
+    private boolean isLocalMaximum(int bin, int minBin, int maxBin) {
+        return (bin == minBin || power[bin] >= power[bin - 1]) && (bin == maxBin || power[bin] >= power[bin + 1]);
+    }
+
+    //按时间戳线性插值到均匀网格
+    private void resample(long start, int points) {
+        int source = 0;
+        int last = timestamps.size() - 1;
+        for (int i = 0; i < points; i++) {
+            double t = start + i * 1000.0 / RESAMPLE_HZ;
+            while (source < last - 1 && timestamps.get(source + 1) < t) {
+                source++;
+            }
+            long t0 = timestamps.get(source);
+            long t1 = timestamps.get(source + 1);
+            double v0 = values.get(source);
+            double v1 = values.get(source + 1);
+            re[i] = t1 == t0 ? v1 : v0 + (v1 - v0) * (t - t0) / (t1 - t0);
+        }
+    }
+
+    //最小二乘去线性趋势后乘以 Hann 窗
+    private void detrendAndWindow(int points) {
+        double meanX = (points - 1) / 2.0;
+        double meanY = 0;
+        for (int i = 0; i < points; i++) {
+            meanY += re[i];
+        }
+        meanY /= points;
+        double sxy = 0;
+        double sxx = 0;
+        for (int i = 0; i < points; i++) {
+            sxy += (i - meanX) * (re[i] - meanY);
+            sxx += (i - meanX) * (i - meanX);
+        }
+        double slope = sxx == 0 ? 0 : sxy / sxx;
+        for (int i = 0; i < points; i++) {
+            double hann = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / (points - 1));
+            re[i] = (re[i] - meanY - slope * (i - meanX)) * hann;
+        }
+    }
+
+    /**
+     * 最近一次估计的心率，单位：次数/分钟
+     */
+    public double getHeartRate() {
+        return heartRate;
+    }
+
+    /**
+     * 最近一次估计的质量分数，0–1，越大表示频谱越集中在主频
+     */
+    public double getQuality() {
+        return quality;
+    }
+
+    public void reset() {
+        timestamps.clear();
+        values.clear();
+        heartRate = 0;
+        quality = 0;
+    }
+}
@@ -0,0 +1,201 @@
+package com.azure.cameraheartratecore.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 一个定长的列式段文件，整体映射到内存。
+ * <p>
+ * 文件格式（小端）：
+ * <pre>
+ * 头部 32 字节：int magic "CHRC" | short version | short reserved | int capacity | int count | long baseTimestampNs | long reserved
+ * 列区域依次为：long[capacity] 相对 baseTimestampNs 的纳秒数 | short[capacity] heartRate | short[capacity] sdnn
+ *            | short[capacity] rmssd | short[capacity] hrEffectiveValueRate | short[capacity] hrvEffectiveValueRate
+ *            | short[capacity] quality
+ * </pre>
+ * 比例类数值按 1/10000 定点保存。count 在整行写入后才更新，进程中途退出时最多丢失最后一行。
+ * 版本 1 的时间列为 int 微秒，最多只能覆盖约 35 分钟，长时间不用后每次追加都要新建段；仍可读取和续写。
+ */
+final class ResultSegment {
+    static final int MAGIC = 0x43485243;
+    static final short VERSION = 2;
+    static final short VERSION_INT_MICROS = 1;
+    static final int HEADER_SIZE = 32;
+    static final int ROW_SIZE = 8 + 6 * 2;
+    static final float RATIO_SCALE = 10000f;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int COUNT_OFFSET = 12;
+    private static final int BASE_OFFSET = 16;
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long baseTimestampNs;
+    //时间列每行的字节数，版本 1 为 4
+    private final int timestampSize;
+    private final int heartRateOffset;
+    private final int sdnnOffset;
+    private final int rmssdOffset;
+    private final int hrEffectiveOffset;
+    private final int hrvEffectiveOffset;
+    private final int qualityOffset;
+    //只由追加线程写入，查询线程只读到已完整写入的行
+    private volatile int count;
+
+    private ResultSegment(File file, MappedByteBuffer buffer, int capacity, long baseTimestampNs, int count, int timestampSize) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.baseTimestampNs = baseTimestampNs;
+        this.count = count;
+        this.timestampSize = timestampSize;
+        heartRateOffset = HEADER_SIZE + timestampSize * capacity;
+        sdnnOffset = heartRateOffset + 2 * capacity;
+        rmssdOffset = sdnnOffset + 2 * capacity;
+        hrEffectiveOffset = rmssdOffset + 2 * capacity;
+        hrvEffectiveOffset = hrEffectiveOffset + 2 * capacity;
+        qualityOffset = hrvEffectiveOffset + 2 * capacity;
+    }
+
+    static ResultSegment create(File file, int capacity, long baseTimestampNs) throws IOException {
+        MappedByteBuffer buffer = map(file, HEADER_SIZE + (long) capacity * ROW_SIZE, true);
+        buffer.putInt(0, MAGIC)
+                .putShort(4, VERSION)
+                .putInt(CAPACITY_OFFSET, capacity)
+                .putInt(COUNT_OFFSET, 0)
+                .putLong(BASE_OFFSET, baseTimestampNs);
+        return new ResultSegment(file, buffer, capacity, baseTimestampNs, 0, 8);
+    }
+
+    static ResultSegment open(File file) throws IOException {
+        MappedByteBuffer buffer = map(file, file.length(), false);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a result segment: " + file);
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION && version != VERSION_INT_MICROS) {
+            throw new IOException("unsupported segment version " + version + ": " + file);
+        }
+        int timestampSize = version == VERSION ? 8 : 4;
+        int capacity = buffer.getInt(CAPACITY_OFFSET);
+        int count = buffer.getInt(COUNT_OFFSET);
+        long rowSize = ROW_SIZE - 8 + timestampSize;
+        if (capacity <= 0 || buffer.capacity() != HEADER_SIZE + capacity * rowSize || count < 0 || count > capacity) {
+            throw new IOException("corrupt segment header: " + file);
+        }
+        return new ResultSegment(file, buffer, capacity, buffer.getLong(BASE_OFFSET), count, timestampSize);
+    }
+
+    static MappedByteBuffer map(File file, long size, boolean create) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            if (create) {
+                randomAccessFile.setLength(size);
+            }
+            // 关闭文件后映射仍然有效
+            MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    /**
+     * 是否还能以 timestampNs 追加一行：段未满，版本 1 的段还要求相对时间不超过 int 微秒的范围
+     */
+    boolean canAppend(long timestampNs) {
+        return count < capacity && (timestampSize == 8 || (timestampNs - baseTimestampNs) / 1000 <= Integer.MAX_VALUE);
+    }
+
+    void append(long timestampNs, int heartRate, int sdnn, int rmssd,
+                float hrEffectiveValueRate, float hrvEffectiveValueRate, float quality) {
+        int row = count;
+        if (timestampSize == 8) {
+            buffer.putLong(HEADER_SIZE + 8 * row, timestampNs - baseTimestampNs);
+        } else {
+            buffer.putInt(HEADER_SIZE + 4 * row, (int) ((timestampNs - baseTimestampNs) / 1000));
+        }
+        buffer.putShort(heartRateOffset + 2 * row, clampShort(heartRate));
+        buffer.putShort(sdnnOffset + 2 * row, clampShort(sdnn));
+        buffer.putShort(rmssdOffset + 2 * row, clampShort(rmssd));
+        buffer.putShort(hrEffectiveOffset + 2 * row, toFixed(hrEffectiveValueRate));
+        buffer.putShort(hrvEffectiveOffset + 2 * row, toFixed(hrvEffectiveValueRate));
+        buffer.putShort(qualityOffset + 2 * row, toFixed(quality));
+        buffer.putInt(COUNT_OFFSET, row + 1);
+        count = row + 1;
+    }
+
+    static short clampShort(int value) {
+        return (short) Math.max(0, Math.min(Short.MAX_VALUE, value));
+    }
+
+    static short toFixed(float ratio) {
+        return (short) Math.max(0, Math.min(0xFFFF, Math.round(ratio * RATIO_SCALE)));
+    }
+
+    /**
+     * 第一个时间戳不小于 timestampNs 的行，都小于时返回 count
+     */
+    int lowerBound(long timestampNs, int count) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getTimestampNs(mid) < timestampNs) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getTimestampNs(int row) {
+        if (timestampSize == 8) {
+            return baseTimestampNs + buffer.getLong(HEADER_SIZE + 8 * row);
+        }
+        return baseTimestampNs + buffer.getInt(HEADER_SIZE + 4 * row) * 1000L;
+    }
+
+    int getHeartRate(int row) {
+        return buffer.getShort(heartRateOffset + 2 * row);
+    }
+
+    int getSdnn(int row) {
+        return buffer.getShort(sdnnOffset + 2 * row);
+    }
+
+    int getRmssd(int row) {
+        return buffer.getShort(rmssdOffset + 2 * row);
+    }
+
+    float getHrEffectiveValueRate(int row) {
+        return (buffer.getShort(hrEffectiveOffset + 2 * row) & 0xFFFF) / RATIO_SCALE;
+    }
+
+    float getHrvEffectiveValueRate(int row) {
+        return (buffer.getShort(hrvEffectiveOffset + 2 * row) & 0xFFFF) / RATIO_SCALE;
+    }
+
+    float getQuality(int row) {
+        return getFixedQuality(row) / RATIO_SCALE;
+    }
+
+    int getFixedQuality(int row) {
+        return buffer.getShort(qualityOffset + 2 * row) & 0xFFFF;
+    }
+}
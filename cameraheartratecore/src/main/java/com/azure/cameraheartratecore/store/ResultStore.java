@@ -0,0 +1,310 @@
+package com.azure.cameraheartratecore.store;
+
+import com.azure.cameraheartratecore.result.HeartRateSnapshot;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 只追加的列式结果存储，用于保存长时间的心率/HRV 历史并按时间范围查询或汇总。
+ * <p>
+ * 数据按定长段文件保存在一个目录下，每个段整体映射到内存，各列连续存放；时间戳按相对段起点的纳秒数保存为 long，
+ * 其余列为 short，每行 20 字节。追加只是几次内存写入，可以直接在分析线程上调用；只有段写满时才创建并映射新文件，
+ * 两次使用之间隔得再久也不会提前换段。
+ * <p>
+ * 按分钟和按小时的汇总在追加时同步更新，保存在 minute.chrr 和 hour.chrr 中，rollupByMinute、rollupByHour
+ * 以及桶宽度为整分钟的 rollup 直接读取预计算的桶，只有查询范围两端不完整的分钟和尚未结束的分钟才读取原始行。
+ * 汇总文件缺失或与原始数据不一致时在打开时重建。
+ * <p>
+ * 追加必须在同一个线程上按时间顺序调用，查询可以在其他线程上并发进行，只会看到已完整写入的行。
+ */
+public class ResultStore implements Closeable {
+    public static final long MINUTE_NS = TimeUnit.MINUTES.toNanos(1);
+    public static final long HOUR_NS = TimeUnit.HOURS.toNanos(1);
+    //默认每段 16384 行，约 320KB，10Hz 输出时约 27 分钟的测量一段
+    public static final int DEFAULT_SEGMENT_CAPACITY = 16384;
+    static final String SEGMENT_SUFFIX = ".chrc";
+    static final String MINUTE_ROLLUP_FILE = "minute.chrr";
+    static final String HOUR_ROLLUP_FILE = "hour.chrr";
+
+    private final File directory;
+    private final int segmentCapacity;
+    //写时复制，查询线程遍历时无需加锁
+    private final List<ResultSegment> segments = new CopyOnWriteArrayList<>();
+    private ResultSegment current;
+    private RollupFile minuteRollups;
+    private RollupFile hourRollups;
+    //由粗到细的汇总级别，查询时逐级使用
+    private RollupFile[] rollupLevels;
+    private long lastTimestampNs = Long.MIN_VALUE;
+    private volatile boolean closed;
+
+    private ResultStore(File directory, int segmentCapacity) {
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+    }
+
+    public static ResultStore open(File directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_CAPACITY);
+    }
+
+    /**
+     * 打开或创建存储目录，已有的段文件会被映射，之后的追加接在最后一段后面
+     *
+     * @param segmentCapacity 新建段的行数
+     */
+    public static ResultStore open(File directory, int segmentCapacity) throws IOException {
+        if (segmentCapacity <= 0) {
+            throw new IllegalArgumentException("segmentCapacity must be positive: " + segmentCapacity);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create directory: " + directory);
+        }
+        ResultStore store = new ResultStore(directory, segmentCapacity);
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            // 文件名为定长的序号，按名字排序即为时间顺序
+            Arrays.sort(files);
+            for (File file : files) {
+                ResultSegment segment = ResultSegment.open(file);
+                if (segment.getCount() > 0) {
+                    store.lastTimestampNs = segment.getTimestampNs(segment.getCount() - 1);
+                }
+                store.segments.add(segment);
+                store.current = segment;
+            }
+        }
+        store.minuteRollups = store.openRollups(MINUTE_ROLLUP_FILE, MINUTE_NS);
+        store.hourRollups = store.openRollups(HOUR_ROLLUP_FILE, HOUR_NS);
+        store.rollupLevels = new RollupFile[]{store.hourRollups, store.minuteRollups};
+        return store;
+    }
+
+    /**
+     * 打开汇总文件并补上其中缺少的行，汇总的行数多于原始数据时（例如段文件被删除）整体重建
+     */
+    private RollupFile openRollups(String name, long bucketNs) throws IOException {
+        RollupFile rollupFile = RollupFile.open(new File(directory, name), bucketNs);
+        long skip = rollupFile.getRowsCovered();
+        if (skip > size()) {
+            rollupFile.clear();
+            skip = 0;
+        }
+        for (ResultSegment segment : segments) {
+            int count = segment.getCount();
+            if (skip >= count) {
+                skip -= count;
+                continue;
+            }
+            for (int row = (int) skip; row < count; row++) {
+                rollupFile.add(segment.getTimestampNs(row), segment.getHeartRate(row), segment.getSdnn(row),
+                        segment.getRmssd(row), segment.getFixedQuality(row));
+            }
+            skip = 0;
+        }
+        return rollupFile;
+    }
+
+    public void append(HeartRateSnapshot snapshot) throws IOException {
+        append(snapshot.getTimestampNs(), snapshot.getHeartRate(), snapshot.getSdnn(), snapshot.getRmssd(),
+                snapshot.getHrEffectiveValueRate(), snapshot.getHrvEffectiveValueRate(), snapshot.getQuality());
+    }
+
+    /**
+     * 追加一行，时间戳不能早于上一行
+     */
+    public void append(long timestampNs, int heartRate, int sdnn, int rmssd,
+                       float hrEffectiveValueRate, float hrvEffectiveValueRate, float quality) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("store is closed");
+        }
+        if (timestampNs < lastTimestampNs) {
+            throw new IllegalArgumentException("timestamp " + timestampNs + " is before last row " + lastTimestampNs);
+        }
+        ResultSegment segment = current;
+        if (segment == null || !segment.canAppend(timestampNs)) {
+            segment = newSegment(timestampNs);
+        }
+        segment.append(timestampNs, heartRate, sdnn, rmssd, hrEffectiveValueRate, hrvEffectiveValueRate, quality);
+        lastTimestampNs = timestampNs;
+        //与段中保存的值一致，汇总结果与直接扫描原始行相同
+        int storedHeartRate = ResultSegment.clampShort(heartRate);
+        int storedSdnn = ResultSegment.clampShort(sdnn);
+        int storedRmssd = ResultSegment.clampShort(rmssd);
+        int fixedQuality = ResultSegment.toFixed(quality) & 0xFFFF;
+        minuteRollups.add(timestampNs, storedHeartRate, storedSdnn, storedRmssd, fixedQuality);
+        hourRollups.add(timestampNs, storedHeartRate, storedSdnn, storedRmssd, fixedQuality);
+    }
+
+    private ResultSegment newSegment(long baseTimestampNs) throws IOException {
+        if (current != null) {
+            current.force();
+        }
+        File file = new File(directory, String.format(Locale.US, "%08d%s", segments.size(), SEGMENT_SUFFIX));
+        ResultSegment segment = ResultSegment.create(file, segmentCapacity, baseTimestampNs);
+        segments.add(segment);
+        current = segment;
+        return segment;
+    }
+
+    /**
+     * 按时间顺序读取 [fromNs, toNs) 内的所有行
+     *
+     * @return 读取的行数
+     */
+    public long scan(long fromNs, long toNs, RowVisitor visitor) {
+        long visited = 0;
+        for (ResultSegment segment : segments) {
+            int count = segment.getCount();
+            if (count == 0 || segment.getTimestampNs(count - 1) < fromNs) {
+                continue;
+            }
+            if (segment.getTimestampNs(0) >= toNs) {
+                break;
+            }
+            for (int row = segment.lowerBound(fromNs, count); row < count; row++) {
+                long timestampNs = segment.getTimestampNs(row);
+                if (timestampNs >= toNs) {
+                    break;
+                }
+                visitor.visit(timestampNs, segment.getHeartRate(row), segment.getSdnn(row), segment.getRmssd(row),
+                        segment.getHrEffectiveValueRate(row), segment.getHrvEffectiveValueRate(row), segment.getQuality(row));
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * [fromNs, toNs) 内的行数，只做二分查找，不读取数据列
+     */
+    public long count(long fromNs, long toNs) {
+        long total = 0;
+        for (ResultSegment segment : segments) {
+            int count = segment.getCount();
+            total += segment.lowerBound(toNs, count) - segment.lowerBound(fromNs, count);
+        }
+        return total;
+    }
+
+    /**
+     * 按固定宽度的时间桶汇总 [fromNs, toNs) 内的数据，桶的边界为 bucketNs 的整数倍，没有数据的桶不回调。
+     * bucketNs 为整小时或整分钟时合并预计算的桶，否则扫描原始行的时间戳、心率、SDNN、RMSSD 和信号质量五列。
+     * 回调在调用线程上进行，可与追加并发
+     *
+     * @return 回调的桶数
+     */
+    public int rollup(long fromNs, long toNs, long bucketNs, RollupVisitor visitor) {
+        if (bucketNs <= 0) {
+            throw new IllegalArgumentException("bucketNs must be positive: " + bucketNs);
+        }
+        RollupBuilder builder = new RollupBuilder(bucketNs, visitor);
+        int level = bucketNs % HOUR_NS == 0 ? 0 : bucketNs % MINUTE_NS == 0 ? 1 : rollupLevels.length;
+        if (fromNs < toNs && !segments.isEmpty() && segments.get(0).getCount() > 0) {
+            rollupRange(Math.max(fromNs, segments.get(0).getTimestampNs(0)), toNs, level, builder);
+        }
+        return builder.finish();
+    }
+
+    /**
+     * 用第 level 级预计算的桶汇总完整落在 [fromNs, toNs) 内且已经结束的部分，两端剩余的部分交给更细的一级，
+     * 最后才读取原始行
+     */
+    private void rollupRange(long fromNs, long toNs, int level, RollupBuilder builder) {
+        if (level == rollupLevels.length) {
+            rollupRows(fromNs, toNs, builder);
+            return;
+        }
+        RollupFile rollupFile = rollupLevels[level];
+        long levelNs = rollupFile.getBucketNs();
+        long startNs = Math.floorDiv(fromNs, levelNs) * levelNs;
+        if (startNs < fromNs) {
+            startNs += levelNs;
+        }
+        long limitNs = Math.min(toNs, rollupFile.getCoveredEndNs());
+        long endNs = limitNs > startNs ? startNs + (limitNs - startNs) / levelNs * levelNs : startNs;
+        if (endNs <= startNs) {
+            rollupRange(fromNs, toNs, level + 1, builder);
+            return;
+        }
+        rollupRange(fromNs, startNs, level + 1, builder);
+        rollupFile.rollup(startNs, endNs, builder);
+        rollupRange(endNs, toNs, level + 1, builder);
+    }
+
+    private void rollupRows(long fromNs, long toNs, RollupBuilder builder) {
+        for (ResultSegment segment : segments) {
+            int count = segment.getCount();
+            if (count == 0 || segment.getTimestampNs(count - 1) < fromNs) {
+                continue;
+            }
+            if (segment.getTimestampNs(0) >= toNs) {
+                break;
+            }
+            for (int row = segment.lowerBound(fromNs, count); row < count; row++) {
+                long timestampNs = segment.getTimestampNs(row);
+                if (timestampNs >= toNs) {
+                    break;
+                }
+                builder.bucketAt(timestampNs)
+                        .add(segment.getHeartRate(row), segment.getSdnn(row), segment.getRmssd(row), segment.getFixedQuality(row));
+            }
+        }
+    }
+
+    public int rollupByMinute(long fromNs, long toNs, RollupVisitor visitor) {
+        return rollup(fromNs, toNs, MINUTE_NS, visitor);
+    }
+
+    public int rollupByHour(long fromNs, long toNs, RollupVisitor visitor) {
+        return rollup(fromNs, toNs, HOUR_NS, visitor);
+    }
+
+    /**
+     * 总行数
+     */
+    public long size() {
+        long total = 0;
+        for (ResultSegment segment : segments) {
+            total += segment.getCount();
+        }
+        return total;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 把当前段和汇总文件写回磁盘，映射内存中的数据即使不调用也会由系统择机写回
+     */
+    public void flush() {
+        ResultSegment segment = current;
+        if (segment != null) {
+            segment.force();
+        }
+        minuteRollups.force();
+        hourRollups.force();
+    }
+
+    /**
+     * 写回当前段并停止追加，已打开的查询仍可继续
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            flush();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.azure.cameraheartratecore.store;
+
+/**
+ * 一个时间桶（例如 1 分钟）内的汇总。心率、SDNN、RMSSD 只统计心率不为 0 的行，信号质量统计所有行。
+ * 可复用的持有者，由 ResultStore 在各个桶之间重置；也用于保存按分钟/小时预计算的桶。
+ */
+public class Rollup {
+    private long bucketStartNs;
+    private long bucketNs;
+    private int rowCount;
+    private int validCount;
+    private long heartRateSum;
+    private int minHeartRate;
+    private int maxHeartRate;
+    private long sdnnSum;
+    private long rmssdSum;
+    //信号质量按定点值累加
+    private long qualitySum;
+
+    void reset(long bucketStartNs, long bucketNs) {
+        this.bucketStartNs = bucketStartNs;
+        this.bucketNs = bucketNs;
+        rowCount = 0;
+        validCount = 0;
+        heartRateSum = 0;
+        minHeartRate = Integer.MAX_VALUE;
+        maxHeartRate = 0;
+        sdnnSum = 0;
+        rmssdSum = 0;
+        qualitySum = 0;
+    }
+
+    void add(int heartRate, int sdnn, int rmssd, int fixedQuality) {
+        rowCount++;
+        qualitySum += fixedQuality;
+        if (heartRate > 0) {
+            validCount++;
+            heartRateSum += heartRate;
+            minHeartRate = Math.min(minHeartRate, heartRate);
+            maxHeartRate = Math.max(maxHeartRate, heartRate);
+            sdnnSum += sdnn;
+            rmssdSum += rmssd;
+        }
+    }
+
+    /**
+     * 并入一个更细粒度的预计算桶
+     */
+    void merge(int rowCount, int validCount, long heartRateSum, int minHeartRate, int maxHeartRate,
+               long sdnnSum, long rmssdSum, long fixedQualitySum) {
+        this.rowCount += rowCount;
+        qualitySum += fixedQualitySum;
+        if (validCount > 0) {
+            this.validCount += validCount;
+            this.heartRateSum += heartRateSum;
+            this.minHeartRate = Math.min(this.minHeartRate, minHeartRate);
+            this.maxHeartRate = Math.max(this.maxHeartRate, maxHeartRate);
+            this.sdnnSum += sdnnSum;
+            this.rmssdSum += rmssdSum;
+        }
+    }
+
+    long getHeartRateSum() {
+        return heartRateSum;
+    }
+
+    long getSdnnSum() {
+        return sdnnSum;
+    }
+
+    long getRmssdSum() {
+        return rmssdSum;
+    }
+
+    long getFixedQualitySum() {
+        return qualitySum;
+    }
+
+    /**
+     * 桶的起始时间，为桶宽度的整数倍，单位：纳秒
+     */
+    public long getBucketStartNs() {
+        return bucketStartNs;
+    }
+
+    public long getBucketNs() {
+        return bucketNs;
+    }
+
+    /**
+     * 桶内的总行数
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 桶内心率不为 0 的行数
+     */
+    public int getValidCount() {
+        return validCount;
+    }
+
+    public double getMeanHeartRate() {
+        return validCount == 0 ? 0 : (double) heartRateSum / validCount;
+    }
+
+    public int getMinHeartRate() {
+        return validCount == 0 ? 0 : minHeartRate;
+    }
+
+    public int getMaxHeartRate() {
+        return maxHeartRate;
+    }
+
+    public double getMeanSdnn() {
+        return validCount == 0 ? 0 : (double) sdnnSum / validCount;
+    }
+
+    public double getMeanRmssd() {
+        return validCount == 0 ? 0 : (double) rmssdSum / validCount;
+    }
+
+    public double getMeanQuality() {
+        return rowCount == 0 ? 0 : qualitySum / ResultSegment.RATIO_SCALE / rowCount;
+    }
+}
@@ -0,0 +1,45 @@
+package com.azure.cameraheartratecore.store;
+
+/**
+ * 按时间顺序把原始行和预计算的桶归入输出桶，进入下一个输出桶时回调上一个
+ */
+final class RollupBuilder {
+    private final long bucketNs;
+    private final RollupVisitor visitor;
+    private final Rollup rollup = new Rollup();
+    private long bucketEndNs = Long.MIN_VALUE;
+    private int buckets;
+
+    RollupBuilder(long bucketNs, RollupVisitor visitor) {
+        this.bucketNs = bucketNs;
+        this.visitor = visitor;
+    }
+
+    /**
+     * timestampNs 所在的输出桶，时间戳需按顺序给出
+     */
+    Rollup bucketAt(long timestampNs) {
+        if (timestampNs >= bucketEndNs) {
+            if (buckets > 0) {
+                visitor.visit(rollup);
+            }
+            long bucketStartNs = Math.floorDiv(timestampNs, bucketNs) * bucketNs;
+            rollup.reset(bucketStartNs, bucketNs);
+            bucketEndNs = bucketStartNs + bucketNs;
+            buckets++;
+        }
+        return rollup;
+    }
+
+    /**
+     * 回调最后一个输出桶
+     *
+     * @return 回调的桶数
+     */
+    int finish() {
+        if (buckets > 0) {
+            visitor.visit(rollup);
+        }
+        return buckets;
+    }
+}
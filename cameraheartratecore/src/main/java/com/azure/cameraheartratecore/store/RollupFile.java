@@ -0,0 +1,206 @@
+package com.azure.cameraheartratecore.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+
+/**
+ * 一个汇总级别（按分钟或按小时）的预计算结果，整体映射到内存，追加原始行时同步更新，
+ * 查询时直接读取各个桶，不再扫描原始行。
+ * <p>
+ * 文件格式（小端）：
+ * <pre>
+ * 头部 32 字节：int magic "CHRR" | short version | short reserved | int capacity | int count | long bucketNs | long rowsCovered
+ * 之后每个桶 56 字节：long bucketStartNs | int rowCount | int validCount | long heartRateSum
+ *                   | short minHeartRate | short maxHeartRate | int reserved | long sdnnSum | long rmssdSum | long qualitySum
+ * </pre>
+ * 只有出现过数据的桶才占一行。最后一个桶尚未结束，随追加原地更新，查询只读取它之前的桶；
+ * rowsCovered 为已汇总的原始行数，重新打开时据此补上缺少的行。写满时按两倍容量扩展并重新映射。
+ */
+final class RollupFile {
+    static final int MAGIC = 0x43485252;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int BUCKET_SIZE = 56;
+    static final int INITIAL_CAPACITY = 1024;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int COUNT_OFFSET = 12;
+    private static final int BUCKET_NS_OFFSET = 16;
+    private static final int ROWS_COVERED_OFFSET = 24;
+
+    private final File file;
+    private final long bucketNs;
+    //扩展时替换，查询线程先读 closedCount 再读 buffer，保证读到的映射足够大
+    private volatile MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+    private long rowsCovered;
+    //追加线程持有的未结束桶
+    private final Rollup open = new Rollup();
+    //已结束的桶数与未结束桶的起始时间，早于 coveredEndNs 的原始行都已计入已结束的桶
+    private volatile int closedCount;
+    private volatile long coveredEndNs = Long.MIN_VALUE;
+
+    private RollupFile(File file, long bucketNs, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.bucketNs = bucketNs;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 打开汇总文件，文件不存在、已损坏或桶宽度不同时重新创建，之后由调用方补上缺少的行
+     */
+    static RollupFile open(File file, long bucketNs) throws IOException {
+        if (file.isFile() && file.length() >= HEADER_SIZE) {
+            MappedByteBuffer buffer = ResultSegment.map(file, file.length(), false);
+            int capacity = buffer.getInt(CAPACITY_OFFSET);
+            int count = buffer.getInt(COUNT_OFFSET);
+            if (buffer.getInt(0) == MAGIC && buffer.getShort(4) == VERSION && buffer.getLong(BUCKET_NS_OFFSET) == bucketNs
+                    && capacity > 0 && buffer.capacity() == HEADER_SIZE + (long) capacity * BUCKET_SIZE
+                    && count >= 0 && count <= capacity) {
+                RollupFile rollupFile = new RollupFile(file, bucketNs, buffer, capacity);
+                rollupFile.load(count, buffer.getLong(ROWS_COVERED_OFFSET));
+                return rollupFile;
+            }
+        }
+        RollupFile rollupFile = new RollupFile(file, bucketNs, ResultSegment.map(file, size(INITIAL_CAPACITY), true), INITIAL_CAPACITY);
+        rollupFile.clear();
+        return rollupFile;
+    }
+
+    private static long size(int capacity) {
+        return HEADER_SIZE + (long) capacity * BUCKET_SIZE;
+    }
+
+    private void load(int count, long rowsCovered) {
+        this.count = count;
+        this.rowsCovered = rowsCovered;
+        if (count > 0) {
+            int index = count - 1;
+            long startNs = getBucketStartNs(buffer, index);
+            open.reset(startNs, bucketNs);
+            addTo(buffer, index, open);
+            closedCount = index;
+            coveredEndNs = startNs;
+        }
+    }
+
+    /**
+     * 清空所有桶，用于原始数据与汇总不一致时重建
+     */
+    void clear() {
+        closedCount = 0;
+        coveredEndNs = Long.MIN_VALUE;
+        count = 0;
+        rowsCovered = 0;
+        buffer.putInt(0, MAGIC)
+                .putShort(4, VERSION)
+                .putInt(CAPACITY_OFFSET, capacity)
+                .putInt(COUNT_OFFSET, 0)
+                .putLong(BUCKET_NS_OFFSET, bucketNs)
+                .putLong(ROWS_COVERED_OFFSET, 0);
+    }
+
+    /**
+     * 计入一行原始数据，数值为段中保存的值，时间戳不能早于上一行
+     */
+    void add(long timestampNs, int heartRate, int sdnn, int rmssd, int fixedQuality) throws IOException {
+        long startNs = Math.floorDiv(timestampNs, bucketNs) * bucketNs;
+        MappedByteBuffer current = buffer;
+        int index = count - 1;
+        if (count == 0 || startNs != open.getBucketStartNs()) {
+            if (count == capacity) {
+                current = grow();
+            }
+            index = count;
+            open.reset(startNs, bucketNs);
+        }
+        open.add(heartRate, sdnn, rmssd, fixedQuality);
+        write(current, index, open);
+        if (index == count) {
+            count = index + 1;
+            current.putInt(COUNT_OFFSET, count);
+            closedCount = index;
+            coveredEndNs = startNs;
+        }
+        current.putLong(ROWS_COVERED_OFFSET, ++rowsCovered);
+    }
+
+    private MappedByteBuffer grow() throws IOException {
+        int newCapacity = capacity * 2;
+        MappedByteBuffer grown = ResultSegment.map(file, size(newCapacity), true);
+        grown.putInt(CAPACITY_OFFSET, newCapacity);
+        capacity = newCapacity;
+        buffer = grown;
+        return grown;
+    }
+
+    private static void write(MappedByteBuffer buffer, int index, Rollup rollup) {
+        int offset = HEADER_SIZE + index * BUCKET_SIZE;
+        buffer.putLong(offset, rollup.getBucketStartNs())
+                .putInt(offset + 8, rollup.getRowCount())
+                .putInt(offset + 12, rollup.getValidCount())
+                .putLong(offset + 16, rollup.getHeartRateSum())
+                .putShort(offset + 24, (short) rollup.getMinHeartRate())
+                .putShort(offset + 26, (short) rollup.getMaxHeartRate())
+                .putLong(offset + 32, rollup.getSdnnSum())
+                .putLong(offset + 40, rollup.getRmssdSum())
+                .putLong(offset + 48, rollup.getFixedQualitySum());
+    }
+
+    private static long getBucketStartNs(MappedByteBuffer buffer, int index) {
+        return buffer.getLong(HEADER_SIZE + index * BUCKET_SIZE);
+    }
+
+    private static void addTo(MappedByteBuffer buffer, int index, Rollup target) {
+        int offset = HEADER_SIZE + index * BUCKET_SIZE;
+        target.merge(buffer.getInt(offset + 8), buffer.getInt(offset + 12), buffer.getLong(offset + 16),
+                buffer.getShort(offset + 24), buffer.getShort(offset + 26),
+                buffer.getLong(offset + 32), buffer.getLong(offset + 40), buffer.getLong(offset + 48));
+    }
+
+    /**
+     * 把起始时间在 [fromNs, toNs) 内的已结束桶依次并入 builder，toNs 不应晚于 getCoveredEndNs()
+     */
+    void rollup(long fromNs, long toNs, RollupBuilder builder) {
+        int closed = closedCount;
+        MappedByteBuffer current = buffer;
+        int low = 0;
+        int high = closed;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getBucketStartNs(current, mid) < fromNs) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int index = low; index < closed; index++) {
+            long startNs = getBucketStartNs(current, index);
+            if (startNs >= toNs) {
+                break;
+            }
+            addTo(current, index, builder.bucketAt(startNs));
+        }
+    }
+
+    /**
+     * 早于该时间的原始行都已计入可以查询的桶，没有数据时为 Long.MIN_VALUE
+     */
+    long getCoveredEndNs() {
+        return coveredEndNs;
+    }
+
+    long getBucketNs() {
+        return bucketNs;
+    }
+
+    long getRowsCovered() {
+        return rowsCovered;
+    }
+
+    void force() {
+        buffer.force();
+    }
+}
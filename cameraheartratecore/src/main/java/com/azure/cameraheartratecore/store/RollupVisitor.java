@@ -0,0 +1,8 @@
+package com.azure.cameraheartratecore.store;
+
+/**
+ * 按时间桶读取汇总结果，rollup 实例在各个桶之间复用，需要保留时应复制其中的数值
+ */
+public interface RollupVisitor {
+    void visit(Rollup rollup);
+}
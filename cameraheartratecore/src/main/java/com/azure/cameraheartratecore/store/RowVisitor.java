@@ -0,0 +1,9 @@
+package com.azure.cameraheartratecore.store;
+
+/**
+ * 逐行读取查询结果，参数为基本类型，扫描过程不分配内存
+ */
+public interface RowVisitor {
+    void visit(long timestampNs, int heartRate, int sdnn, int rmssd,
+               float hrEffectiveValueRate, float hrvEffectiveValueRate, float quality);
+}
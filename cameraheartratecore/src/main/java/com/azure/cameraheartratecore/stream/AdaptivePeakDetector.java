@@ -0,0 +1,118 @@
+package com.azure.cameraheartratecore.stream;
+
+/**
+ * 针对带通滤波后信号的峰值检测，带不应期和自适应阈值。
+ * <p>
+ * 阈值参照 Pan-Tompkins：分别跟踪信号峰和噪声峰的滑动电平，阈值取两者之间靠近噪声的位置，
+ * 低于阈值或落在不应期内的局部极大值计入噪声电平。不应期取固定下限与平均间期 70% 中的较大者。峰值时刻用三点抛物线插值到帧间，
+ * 低帧率下 R-R 间期的分辨率也不受帧间隔限制。每个采样点 O(1)，不分配内存。
+ */
+public class AdaptivePeakDetector {
+    //电平更新权重
+    private static final double LEVEL_WEIGHT = 0.125;
+    //阈值在噪声电平与信号电平之间的位置
+    private static final double THRESHOLD_RATIO = 0.25;
+    //不应期至少为平均间期的该比例，排除重搏波
+    private static final double REFRACTORY_RATIO = 0.7;
+    //平均间期每次最多按当前值的该比例调整，漏检一拍不会把不应期拉长到锁定半速
+    private static final double MAX_INTERVAL_STEP = 0.25;
+
+    private final long refractoryMs;
+    private long previousTimestamp;
+    private long beforePreviousTimestamp;
+    private double previousValue;
+    private double beforePreviousValue;
+    private int count;
+    private double signalLevel;
+    private double noiseLevel;
+    private long lastPeakTimestamp = -1;
+    //已确认峰值间隔的滑动平均，单位：毫秒
+    private double averageInterval;
+
+    public AdaptivePeakDetector() {
+        this(250);
+    }
+
+    /**
+     * @param refractoryMs 不应期下限，单位：毫秒，两个峰值的间隔不会小于该值
+     */
+    public AdaptivePeakDetector(long refractoryMs) {
+        this.refractoryMs = refractoryMs;
+    }
+
+    /**
+     * 添加一个滤波后的采样点
+     *
+     * @return 确认了新的峰值且存在上一个峰值时返回两峰间隔（毫秒），否则返回 -1
+     */
+    public long add(long timestamp, double value) {
+        long interval = -1;
+        if (count >= 2 && previousValue > beforePreviousValue && previousValue >= value) {
+            long peakTimestamp = interpolatePeak(timestamp, value);
+            double threshold = noiseLevel + THRESHOLD_RATIO * (signalLevel - noiseLevel);
+            boolean refractory = lastPeakTimestamp >= 0 && peakTimestamp - lastPeakTimestamp < Math.max(refractoryMs, REFRACTORY_RATIO * averageInterval);
+            if (previousValue > threshold && !refractory) {
+                signalLevel += LEVEL_WEIGHT * (previousValue - signalLevel);
+                if (lastPeakTimestamp >= 0) {
+                    interval = peakTimestamp - lastPeakTimestamp;
+                    updateAverageInterval(interval);
+                }
+                lastPeakTimestamp = peakTimestamp;
+            } else {
+                noiseLevel += LEVEL_WEIGHT * (previousValue - noiseLevel);
+            }
+        }
+        beforePreviousValue = previousValue;
+        beforePreviousTimestamp = previousTimestamp;
+        previousValue = value;
+        previousTimestamp = timestamp;
+        if (count < 2) {
+            count++;
+        }
+        return interval;
+    }
+
+    private void updateAverageInterval(long interval) {
+        if (averageInterval == 0) {
+            averageInterval = interval;
+            return;
+        }
+        double maxStep = MAX_INTERVAL_STEP * averageInterval;
+        averageInterval += LEVEL_WEIGHT * Math.max(-maxStep, Math.min(maxStep, interval - averageInterval));
+    }
+
+    //过三个点的抛物线顶点时刻
+    private long interpolatePeak(long timestamp, double value) {
+        double denominator = beforePreviousValue - 2 * previousValue + value;
+        if (denominator >= 0) {
+            return previousTimestamp;
+        }
+        double offset = 0.5 * (beforePreviousValue - value) / denominator;
+        long step = offset > 0 ? timestamp - previousTimestamp : previousTimestamp - beforePreviousTimestamp;
+        return previousTimestamp + Math.round(offset * step);
+    }
+
+    /**
+     * 最近一次确认的峰值时刻，尚未确认峰值时返回 -1
+     */
+    public long getLastPeakTimestamp() {
+        return lastPeakTimestamp;
+    }
+
+    /**
+     * 中断峰值序列，例如遇到运动伪影：丢弃上一个峰值和尚未确认的局部极大值，下一个间期从中断后的第二个峰值开始计算。
+     * 信号/噪声电平和平均间期保留，中断结束后不需要重新收敛
+     */
+    public void interrupt() {
+        count = 0;
+        lastPeakTimestamp = -1;
+    }
+
+    public void reset() {
+        count = 0;
+        signalLevel = 0;
+        noiseLevel = 0;
+        lastPeakTimestamp = -1;
+        averageInterval = 0;
+    }
+}
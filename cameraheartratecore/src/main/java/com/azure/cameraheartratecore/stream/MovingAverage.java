@@ -0,0 +1,42 @@
+package com.azure.cameraheartratecore.stream;
+
+import com.azure.cameraheartratecore.buffer.DoubleRingBuffer;
+
+/**
+ * 基于累加和的滑动平均，每个采样点 O(1)。
+ * 输出的是以窗口中心为准的平均值，相对输入延迟 getDelay() 个采样点。
+ */
+public class MovingAverage {
+    private final DoubleRingBuffer window;
+    private double sum;
+
+    public MovingAverage(int windowSize) {
+        window = new DoubleRingBuffer(windowSize);
+    }
+
+    /**
+     * 添加一个采样点
+     *
+     * @return 窗口已满时返回窗口平均值，否则返回 Double.NaN
+     */
+    public double add(double value) {
+        if (window.isFull()) {
+            sum -= window.get(0);
+        }
+        window.add(value);
+        sum += value;
+        return window.isFull() ? sum / window.size() : Double.NaN;
+    }
+
+    /**
+     * 平均值对应的采样点相对最新输入的延迟
+     */
+    public int getDelay() {
+        return window.capacity() / 2;
+    }
+
+    public void reset() {
+        window.clear();
+        sum = 0;
+    }
+}
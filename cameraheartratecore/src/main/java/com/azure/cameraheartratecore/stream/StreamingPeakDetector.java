@@ -0,0 +1,46 @@
+package com.azure.cameraheartratecore.stream;
+
+/**
+ * 逐采样点检测局部极大值，峰值在下一个采样点到来时确认，确认后输出与上一个峰值的间隔
+ */
+public class StreamingPeakDetector {
+    private long previousTimestamp;
+    private double previousValue;
+    private double beforePreviousValue;
+    private int count;
+    private long lastPeakTimestamp = -1;
+
+    /**
+     * 添加一个平滑后的采样点
+     *
+     * @return 确认了新的峰值且存在上一个峰值时返回两峰间隔（毫秒），否则返回 -1
+     */
+    public long add(long timestamp, double value) {
+        long interval = -1;
+        if (count >= 2 && previousValue > beforePreviousValue && previousValue > value) {
+            if (lastPeakTimestamp >= 0) {
+                interval = previousTimestamp - lastPeakTimestamp;
+            }
+            lastPeakTimestamp = previousTimestamp;
+        }
+        beforePreviousValue = previousValue;
+        previousValue = value;
+        previousTimestamp = timestamp;
+        if (count < 2) {
+            count++;
+        }
+        return interval;
+    }
+
+    /**
+     * 最近一次确认的峰值时刻，尚未确认峰值时返回 -1
+     */
+    public long getLastPeakTimestamp() {
+        return lastPeakTimestamp;
+    }
+
+    public void reset() {
+        count = 0;
+        lastPeakTimestamp = -1;
+    }
+}
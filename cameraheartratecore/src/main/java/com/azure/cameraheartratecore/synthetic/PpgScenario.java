@@ -0,0 +1,143 @@
+package com.azure.cameraheartratecore.synthetic;
+
+/**
+ * SyntheticPpg 的生成参数，默认为 30fps、72 次/分钟、无运动伪影、无饱和、不丢帧的 1 分钟数据
+ */
+public class PpgScenario {
+    private String name = "default";
+    private int sampleCount = 1800;
+    private double sampleRateHz = 30;
+    private double heartRateBpm = 72;
+    //逐拍 R-R 间期的相对抖动
+    private double rrVariability = 0.05;
+    //高斯噪声标准差
+    private double noise = 0.2;
+    //每分钟运动伪影的平均次数，为 0 时没有运动伪影
+    private double motionPerMinute;
+    //运动伪影的幅度与持续时间，单位：亮度、毫秒
+    private double motionAmplitude = 20;
+    private long motionDurationMs = 1500;
+    //整体亮度偏移，使亮度接近 255 时波峰被截断，模拟曝光过度
+    private double exposureOffset;
+    //每帧被丢弃的概率
+    private double dropRate;
+    private long seed = 42;
+
+    public String getName() {
+        return name;
+    }
+
+    public PpgScenario setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * 丢帧之前的采样点数
+     */
+    public PpgScenario setSampleCount(int sampleCount) {
+        this.sampleCount = sampleCount;
+        return this;
+    }
+
+    public double getSampleRateHz() {
+        return sampleRateHz;
+    }
+
+    public PpgScenario setSampleRateHz(double sampleRateHz) {
+        this.sampleRateHz = sampleRateHz;
+        return this;
+    }
+
+    public double getHeartRateBpm() {
+        return heartRateBpm;
+    }
+
+    public PpgScenario setHeartRateBpm(double heartRateBpm) {
+        this.heartRateBpm = heartRateBpm;
+        return this;
+    }
+
+    public double getRrVariability() {
+        return rrVariability;
+    }
+
+    public PpgScenario setRrVariability(double rrVariability) {
+        this.rrVariability = rrVariability;
+        return this;
+    }
+
+    public double getNoise() {
+        return noise;
+    }
+
+    public PpgScenario setNoise(double noise) {
+        this.noise = noise;
+        return this;
+    }
+
+    public double getMotionPerMinute() {
+        return motionPerMinute;
+    }
+
+    public PpgScenario setMotionPerMinute(double motionPerMinute) {
+        this.motionPerMinute = motionPerMinute;
+        return this;
+    }
+
+    public double getMotionAmplitude() {
+        return motionAmplitude;
+    }
+
+    public PpgScenario setMotionAmplitude(double motionAmplitude) {
+        this.motionAmplitude = motionAmplitude;
+        return this;
+    }
+
+    public long getMotionDurationMs() {
+        return motionDurationMs;
+    }
+
+    public PpgScenario setMotionDurationMs(long motionDurationMs) {
+        this.motionDurationMs = motionDurationMs;
+        return this;
+    }
+
+    public double getExposureOffset() {
+        return exposureOffset;
+    }
+
+    public PpgScenario setExposureOffset(double exposureOffset) {
+        this.exposureOffset = exposureOffset;
+        return this;
+    }
+
+    public double getDropRate() {
+        return dropRate;
+    }
+
+    public PpgScenario setDropRate(double dropRate) {
+        this.dropRate = dropRate;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public PpgScenario setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": samples=" + sampleCount + " rate=" + sampleRateHz + "Hz bpm=" + heartRateBpm
+                + " rrVariability=" + rrVariability + " noise=" + noise + " motion=" + motionPerMinute + "/min"
+                + " exposureOffset=" + exposureOffset + " dropRate=" + dropRate + " seed=" + seed;
+    }
+}
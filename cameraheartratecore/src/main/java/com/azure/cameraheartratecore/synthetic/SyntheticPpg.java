@@ -0,0 +1,195 @@
+package com.azure.cameraheartratecore.synthetic;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 合成指尖 PPG 波形，用于基准测试和离线测试。
+ * 波形由收缩期主峰、重搏波、基线漂移和高斯噪声组成，相同的参数和种子生成完全相同的数据。
+ * 通过 PpgScenario 还可以加入运动伪影、曝光过度造成的截断以及丢帧。
+ */
+public class SyntheticPpg {
+    //无手指时的直流分量，接近手电照射下的红色通道均值
+    private static final double BASELINE = 200.0;
+    //脉搏波幅度
+    private static final double PULSE_AMPLITUDE = 3.0;
+    //基线漂移幅度与频率（呼吸）
+    private static final double WANDER_AMPLITUDE = 1.5;
+    private static final double WANDER_HZ = 0.25;
+    //红色通道的饱和值，以及开始出现饱和像素的亮度
+    private static final double SATURATION_LEVEL = 255.0;
+    private static final double SATURATION_ONSET = 245.0;
+    //指尖透射光中绿色通道的相对亮度，曝光过度时红色先饱和
+    private static final double GREEN_RATIO = 0.25;
+
+    private final long[] timestamps;
+    private final double[] intensities;
+    //每个心跳起始时间，单位：毫秒，可作为参考 R-R 间期
+    private final long[] beatTimestamps;
+    private final int beatCount;
+    //每帧饱和像素的比例、绿色通道亮度，以及是否处于运动伪影中
+    private final double[] saturatedFractions;
+    private final double[] greenIntensities;
+    private final boolean[] motion;
+
+    private SyntheticPpg(long[] timestamps, double[] intensities, long[] beatTimestamps, int beatCount,
+                         double[] saturatedFractions, double[] greenIntensities, boolean[] motion) {
+        this.timestamps = timestamps;
+        this.intensities = intensities;
+        this.beatTimestamps = beatTimestamps;
+        this.beatCount = beatCount;
+        this.saturatedFractions = saturatedFractions;
+        this.greenIntensities = greenIntensities;
+        this.motion = motion;
+    }
+
+    /**
+     * 生成合成 PPG 序列
+     *
+     * @param sampleCount 采样点数
+     * @param sampleRateHz 采样率
+     * @param heartRateBpm 平均心率，单位：次数/分钟
+     * @param rrVariability 逐拍 R-R 间期的相对抖动，例如 0.05
+     * @param noise 高斯噪声标准差
+     * @param seed 随机种子
+     */
+    public static SyntheticPpg generate(int sampleCount, double sampleRateHz, double heartRateBpm,
+                                        double rrVariability, double noise, long seed) {
+        return generate(new PpgScenario()
+                .setSampleCount(sampleCount)
+                .setSampleRateHz(sampleRateHz)
+                .setHeartRateBpm(heartRateBpm)
+                .setRrVariability(rrVariability)
+                .setNoise(noise)
+                .setSeed(seed));
+    }
+
+    /**
+     * 按场景生成合成 PPG 序列。未启用运动伪影、截断和丢帧时，结果与同参数的
+     * generate(sampleCount, sampleRateHz, heartRateBpm, rrVariability, noise, seed) 完全相同
+     */
+    public static SyntheticPpg generate(PpgScenario scenario) {
+        int sampleCount = scenario.getSampleCount();
+        double sampleRateHz = scenario.getSampleRateHz();
+        double heartRateBpm = scenario.getHeartRateBpm();
+        double rrVariability = scenario.getRrVariability();
+        double noise = scenario.getNoise();
+        Random random = new Random(scenario.getSeed());
+        // 运动伪影和丢帧使用独立的随机序列，不影响基础波形
+        Random eventRandom = new Random(~scenario.getSeed());
+        long[] timestamps = new long[sampleCount];
+        double[] intensities = new double[sampleCount];
+        double[] saturatedFractions = new double[sampleCount];
+        double[] greenIntensities = new double[sampleCount];
+        boolean[] motion = new boolean[sampleCount];
+        double durationMs = sampleCount * 1000.0 / sampleRateHz;
+        double meanRR = 60000.0 / heartRateBpm;
+        long[] beats = new long[(int) (durationMs / (meanRR * (1 - 3 * rrVariability))) + 2];
+
+        int beatCount = 0;
+        double beatStart = 0;
+        double beatLength = nextRR(random, meanRR, rrVariability);
+        beats[beatCount++] = 0;
+        double motionProbability = scenario.getMotionPerMinute() / (60 * sampleRateHz);
+        double motionStart = Double.NEGATIVE_INFINITY;
+        double motionAmplitude = 0;
+        int kept = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            double t = i * 1000.0 / sampleRateHz;
+            while (t >= beatStart + beatLength && beatCount < beats.length) {
+                beatStart += beatLength;
+                beatLength = nextRR(random, meanRR, rrVariability);
+                beats[beatCount++] = Math.round(beatStart);
+            }
+            double phase = (t - beatStart) / beatLength;
+            double intensity = BASELINE
+                    + PULSE_AMPLITUDE * pulse(phase)
+                    + WANDER_AMPLITUDE * Math.sin(2 * Math.PI * WANDER_HZ * t / 1000.0)
+                    + noise * random.nextGaussian();
+            if (motionProbability > 0) {
+                if (t - motionStart >= scenario.getMotionDurationMs() && eventRandom.nextDouble() < motionProbability) {
+                    motionStart = t;
+                    motionAmplitude = scenario.getMotionAmplitude() * (eventRandom.nextBoolean() ? 1 : -1);
+                }
+                double motionPhase = (t - motionStart) / scenario.getMotionDurationMs();
+                if (motionPhase < 1) {
+                    // 手指按压变化造成的大幅慢变，叠加抖动
+                    intensity += motionAmplitude * Math.sin(Math.PI * motionPhase)
+                            + 0.2 * Math.abs(motionAmplitude) * eventRandom.nextGaussian();
+                    motion[kept] = true;
+                }
+            }
+            if (scenario.getDropRate() > 0 && eventRandom.nextDouble() < scenario.getDropRate()) {
+                motion[kept] = false;
+                continue;
+            }
+            greenIntensities[kept] = GREEN_RATIO * (intensity + scenario.getExposureOffset());
+            intensity += scenario.getExposureOffset();
+            saturatedFractions[kept] = Math.max(0, Math.min(1, (intensity - SATURATION_ONSET) / (SATURATION_LEVEL - SATURATION_ONSET)));
+            timestamps[kept] = Math.round(t);
+            intensities[kept] = Math.min(SATURATION_LEVEL, intensity);
+            kept++;
+        }
+        if (kept < sampleCount) {
+            timestamps = Arrays.copyOf(timestamps, kept);
+            intensities = Arrays.copyOf(intensities, kept);
+            saturatedFractions = Arrays.copyOf(saturatedFractions, kept);
+            greenIntensities = Arrays.copyOf(greenIntensities, kept);
+            motion = Arrays.copyOf(motion, kept);
+        }
+        return new SyntheticPpg(timestamps, intensities, beats, beatCount, saturatedFractions, greenIntensities, motion);
+    }
+
+    private static double nextRR(Random random, double meanRR, double rrVariability) {
+        double rr = meanRR * (1 + rrVariability * random.nextGaussian());
+        return Math.max(meanRR * (1 - 3 * rrVariability), Math.min(meanRR * (1 + 3 * rrVariability), rr));
+    }
+
+    // 单个心动周期内的波形：主峰 + 重搏波
+    private static double pulse(double phase) {
+        double systolic = (phase - 0.2) / 0.1;
+        double dicrotic = (phase - 0.5) / 0.15;
+        return Math.exp(-systolic * systolic) + 0.25 * Math.exp(-dicrotic * dicrotic);
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public double[] getIntensities() {
+        return intensities;
+    }
+
+    public int getBeatCount() {
+        return beatCount;
+    }
+
+    public long getBeatTimestamp(int index) {
+        return beatTimestamps[index];
+    }
+
+    /**
+     * 每帧饱和像素的比例，未发生截断时为 0
+     */
+    public double[] getSaturatedFractions() {
+        return saturatedFractions;
+    }
+
+    /**
+     * 每帧绿色通道的亮度，不会饱和
+     */
+    public double[] getGreenIntensities() {
+        return greenIntensities;
+    }
+
+    /**
+     * 该帧是否处于运动伪影中，可作为运动检测的参考
+     */
+    public boolean isMotion(int index) {
+        return motion[index];
+    }
+}
@@ -0,0 +1,154 @@
+package com.azure.cameraheartratecore.buffer;
+
+import com.azure.cameraheartratecore.sampler.Nv21Converter;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 缓冲池按尺寸复用、有界、检测重复归还与泄漏
+ */
+public class FramePoolTest {
+
+    @Test
+    public void acquire_reusesBuffersOfSameSize() {
+        FramePool<ByteBuffer> pool = FramePool.directByteBuffers(12, 2);
+        PooledFrame<ByteBuffer> first = pool.acquire(640, 480);
+        assertEquals(640 * 480 * 3 / 2, first.getValue().capacity());
+        assertTrue(first.getValue().isDirect());
+        ByteBuffer buffer = first.getValue();
+        first.release();
+        for (int i = 0; i < 100; i++) {
+            PooledFrame<ByteBuffer> frame = pool.acquire(640, 480);
+            assertSame(buffer, frame.getValue());
+            frame.release();
+        }
+        // 尺寸不同时重新分配
+        PooledFrame<ByteBuffer> other = pool.acquire(320, 240);
+        assertNotSame(buffer, other.getValue());
+        other.release();
+
+        PoolStats stats = pool.getStats();
+        assertEquals(102, stats.getAcquires());
+        assertEquals(100, stats.getReuses());
+        assertEquals(2, stats.getAllocations());
+        assertEquals(0, stats.getOutstanding());
+        assertEquals(2, stats.getIdle());
+    }
+
+    @Test
+    public void tryAcquire_dropsFramesWhenOutstandingLimitReached() {
+        FramePool<ByteBuffer> pool = FramePool.directByteBuffers(12, 3);
+        pool.setOutstandingLimit(2);
+        List<PooledFrame<ByteBuffer>> held = new ArrayList<>();
+        // 调用方从不归还时，最多只分配 limit 个
+        for (int i = 0; i < 100; i++) {
+            PooledFrame<ByteBuffer> frame = pool.tryAcquire(64, 48);
+            if (frame != null) {
+                held.add(frame);
+            }
+        }
+        assertEquals(2, held.size());
+        PoolStats stats = pool.getStats();
+        assertEquals(2, stats.getAllocations());
+        assertEquals(98, stats.getDrops());
+        assertEquals(2, stats.getOutstanding());
+
+        // 归还后可以再次借出，且复用已有缓冲区
+        held.remove(0).release();
+        PooledFrame<ByteBuffer> frame = pool.tryAcquire(64, 48);
+        assertNotNull(frame);
+        assertNull(pool.tryAcquire(64, 48));
+        assertEquals(2, pool.getStats().getAllocations());
+        assertEquals(99, pool.getStats().getDrops());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setOutstandingLimit_rejectsNonPositive() {
+        FramePool.directByteBuffers(12, 2).setOutstandingLimit(0);
+    }
+
+    @Test
+    public void release_boundsIdleFramesAndRejectsDoubleRelease() {
+        List<Integer> disposed = new ArrayList<>();
+        FramePool<int[]> pool = new FramePool<>(new FramePool.Allocator<int[]>() {
+            @Override
+            public int[] allocate(int width, int height) {
+                return new int[width * height];
+            }
+
+            @Override
+            public void dispose(int[] value) {
+                disposed.add(value.length);
+            }
+        }, 2);
+        List<PooledFrame<int[]>> frames = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            frames.add(pool.acquire(i, 1));
+        }
+        for (PooledFrame<int[]> frame : frames) {
+            frame.release();
+        }
+        assertEquals(2, pool.getStats().getIdle());
+        assertEquals(1, pool.getStats().getDiscards());
+        assertEquals(1, (int) disposed.get(0));
+
+        try {
+            frames.get(0).release();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void debug_reportsFramesThatWereNeverReleased() {
+        FramePool<ByteBuffer> pool = FramePool.directByteBuffers(8, 1);
+        pool.setDebug(true);
+        List<Throwable> leaks = new ArrayList<>();
+        pool.setLeakListener((width, height, acquisitionSite) -> leaks.add(acquisitionSite));
+
+        pool.acquire(4, 4).release();
+        pool.acquire(4, 4);
+        assertEquals(1, pool.checkLeaks());
+        assertEquals(1, leaks.size());
+        assertTrue(leaks.get(0).getStackTrace()[1].getMethodName().contains("debug_reportsFramesThatWereNeverReleased"));
+
+        // 同时借出超过上限时立即报告
+        leaks.clear();
+        pool.acquire(4, 4);
+        assertEquals(2, leaks.size());
+    }
+
+    @Test
+    public void nv21Converter_handlesStridesIntoPooledBuffer() {
+        int width = 4;
+        int height = 2;
+        ByteBuffer y = ByteBuffer.allocateDirect(6 * height);
+        for (int i = 0; i < 6 * height; i++) {
+            y.put(i, (byte) i);
+        }
+        // 半平面交错排列，U/V 的像素步长为 2，行步长为 6
+        ByteBuffer u = ByteBuffer.allocateDirect(6);
+        ByteBuffer v = ByteBuffer.allocateDirect(6);
+        for (int i = 0; i < 6; i++) {
+            u.put(i, (byte) (50 + i));
+            v.put(i, (byte) (100 + i));
+        }
+        FramePool<ByteBuffer> pool = FramePool.directByteBuffers(12, 1);
+        PooledFrame<ByteBuffer> frame = pool.acquire(width, height);
+        ByteBuffer out = frame.getValue();
+        out.clear();
+        new Nv21Converter().convert(width, height, y, 6, 1, u, v, 6, 2, out);
+        assertEquals(Nv21Converter.nv21Size(width, height), out.position());
+        byte[] nv21 = new byte[out.position()];
+        out.flip();
+        out.get(nv21);
+        assertArrayEquals(new byte[]{0, 1, 2, 3, 6, 7, 8, 9, 100, 50, 102, 52}, nv21);
+        frame.release();
+    }
+}
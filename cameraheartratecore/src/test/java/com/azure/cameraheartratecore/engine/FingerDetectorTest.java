@@ -0,0 +1,63 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.sampler.FrameStats;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 手指检测的确认帧数与迟滞：单帧噪声不清空 R-R 历史，离开只报告一次
+ */
+public class FingerDetectorTest {
+
+    @Test
+    public void update_requiresConsecutiveFramesAndHysteresis() {
+        FingerDetector detector = new FingerDetector();
+        assertEquals(FingerDetector.State.ACQUIRING, detector.update(0.97));
+        // 确认过程中一帧不达标即重新开始
+        assertEquals(FingerDetector.State.ABSENT, detector.update(0.90));
+        detector.update(0.97);
+        detector.update(0.97);
+        assertEquals(FingerDetector.State.PRESENT, detector.update(0.97));
+        // 介于离开阈值与放置阈值之间仍视为放置
+        assertEquals(FingerDetector.State.PRESENT, detector.update(0.90));
+        assertEquals(FingerDetector.State.RELEASING, detector.update(0.5));
+        assertEquals(FingerDetector.State.PRESENT, detector.update(0.9));
+        detector.update(0.5);
+        detector.update(0.5);
+        assertEquals(FingerDetector.State.ABSENT, detector.update(0.5));
+        assertFalse(detector.needsFullSample());
+    }
+
+    @Test
+    public void pipeline_reportsNoFingerOnlyOnTransition() {
+        HeartRatePipeline pipeline = new HeartRatePipeline();
+        FrameStats stats = new FrameStats();
+        assertEquals(FrameOutcome.IDLE, pipeline.processFrame(0, stats.setRedOnly(100, 0.2)));
+        long timestampNs = 0;
+        for (int i = 0; i < 100; i++) {
+            timestampNs += 100_000_000L;
+            pipeline.processFrame(timestampNs, stats.setRedOnly(200 + Math.sin(i * 0.75), 0.99));
+        }
+        assertTrue(pipeline.isFingerDetected());
+        int heartRate = pipeline.getEngine().getHeartRate();
+        assertTrue(heartRate > 0);
+
+        // 单帧覆盖下降不清空 R-R 历史
+        assertEquals(FrameOutcome.LOW_QUALITY, pipeline.processFrame(timestampNs += 100_000_000L, stats.setRedOnly(200, 0.3)));
+        assertEquals(heartRate, pipeline.getEngine().getHeartRate());
+
+        int noFinger = 0;
+        for (int i = 0; i < 20; i++) {
+            FrameOutcome outcome = pipeline.processFrame(timestampNs += 100_000_000L, stats.setRedOnly(100, 0.3));
+            if (outcome == FrameOutcome.NO_FINGER) {
+                noFinger++;
+            } else if (i > 2) {
+                assertEquals(FrameOutcome.IDLE, outcome);
+            }
+        }
+        assertEquals(1, noFinger);
+        assertFalse(pipeline.isFingerDetected());
+    }
+}
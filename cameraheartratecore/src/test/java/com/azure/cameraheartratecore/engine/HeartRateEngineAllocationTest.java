@@ -0,0 +1,62 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * 校验稳定运行时引擎每个采样点不分配堆内存，依赖 HotSpot 的线程分配计数
+ */
+public class HeartRateEngineAllocationTest {
+
+    @Test
+    public void addSample_isAllocationFreeInSteadyState() {
+        assertAllocationFree(AnalysisMode.BATCH);
+    }
+
+    @Test
+    public void addSample_isAllocationFreeInStreamingModes() {
+        assertAllocationFree(AnalysisMode.STREAMING);
+        assertAllocationFree(AnalysisMode.FILTERED);
+    }
+
+    private static void assertAllocationFree(AnalysisMode mode) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        SyntheticPpg ppg = SyntheticPpg.generate(3000, 10, 72, 0.05, 0.2, 7);
+        // 开启长时 HRV，同时覆盖增量统计和频域计算
+        HeartRateEngine engine = new HeartRateEngine(new HeartRateEngineConfig()
+                .setAnalysisMode(mode)
+                .setLongTermHrvWindowMs(300_000));
+        long[] timestamps = ppg.getTimestamps();
+        double[] intensities = ppg.getIntensities();
+
+        // 预热，让所有缓冲区进入稳定状态并触发 JIT 编译
+        for (int i = 0; i < 1000; i++) {
+            engine.addSample(timestamps[i], intensities[i]);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        int updates = 0;
+        for (int i = 1000; i < timestamps.length; i++) {
+            if (engine.addSample(timestamps[i], intensities[i])) {
+                updates++;
+            }
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(updates > 0);
+        // 允许计数接口本身的少量分配
+        assertTrue(mode + " allocated " + allocated + " bytes for " + (timestamps.length - 1000) + " samples", allocated < 1024);
+    }
+}
@@ -0,0 +1,264 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.buffer.DoubleRingBuffer;
+import com.azure.cameraheartratecore.buffer.LongRingBuffer;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * BATCH 模式必须与原 HeartRateAnalyzer 的计算逐次一致，包括原实现中有意保留的细节：
+ * smoothData 的窗口少一个点、变化率先转 float 再与阈值比较、偶数个间期的中位数截断为整数
+ */
+public class HeartRateEngineBaselineTest {
+
+    @Test
+    public void batch_matchesBaselineOnFixedTrace() {
+        SyntheticPpg ppg = SyntheticPpg.generate(1200, 10, 72, 0.08, 0.1, 2);
+        HeartRateEngine engine = new HeartRateEngine(new HeartRateEngineConfig());
+        BaselineAnalyzer baseline = new BaselineAnalyzer();
+        int updates = 0;
+        for (int i = 0; i < ppg.size(); i++) {
+            boolean updated = engine.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]);
+            assertEquals(updated, baseline.add(ppg.getTimestamps()[i], ppg.getIntensities()[i]));
+            if (updated) {
+                updates++;
+                assertEquals("update " + updates, baseline.heartRate, engine.getHeartRate());
+                assertEquals("update " + updates, baseline.sdnn, engine.getSdnn());
+                assertEquals("update " + updates, baseline.rmssd, engine.getRmssd());
+                assertEquals(baseline.hrEffectiveValueRate, engine.getHrEffectiveValueRate(), 0);
+                assertEquals(baseline.hrvEffectiveValueRate, engine.getHrvEffectiveValueRate(), 0);
+            }
+        }
+        // 每 31 个采样点一次
+        assertEquals(38, updates);
+        // 固定轨迹上的原有结果，任何改变计算结果的修改都会在这里失败
+        assertEquals(76, engine.getHeartRate());
+        assertEquals(94, engine.getSdnn());
+        assertEquals(111, engine.getRmssd());
+    }
+
+    @Test
+    public void smoothData_windowIsOneSampleShort() {
+        DoubleRingBuffer input = new DoubleRingBuffer(8);
+        for (double value : new double[]{0, 0, 0, 40, 0, 0, 0, 0}) {
+            input.add(value);
+        }
+        DoubleRingBuffer out = new DoubleRingBuffer(8);
+        SignalProcessing.smoothData(input, 5, out);
+        // 窗口为 [i-2, i+2)，只有 4 个点且不对称：峰值落在后两个点的窗口内，前两个点的窗口取不到
+        double[] expected = {0, 0, 10, 10, 10, 10, 0, 0};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("index " + i, expected[i], out.get(i), 1e-12);
+        }
+    }
+
+    @Test
+    public void changeFilter_comparesFloatRatio() {
+        // 1300/1000 的变化率恰为 0.3，先转 float 后略大于 0.3，因此被剔除
+        assertFalse(SignalProcessing.isWithinChange(1300, 1000, 0.3));
+        assertTrue(SignalProcessing.isWithinChange(1299, 1000, 0.3));
+        assertTrue(Math.abs(1300 - 1000) / 1000.0 <= 0.3);
+
+        LongRingBuffer rr = new LongRingBuffer(8);
+        for (long value : new long[]{1000, 1000, 1300, 1300, 1000}) {
+            rr.add(value);
+        }
+        LongRingBuffer out = new LongRingBuffer(8);
+        SignalProcessing.filterRRByChange(rr, 0.3, out, new long[8]);
+        // 两个 1300 中与前一个间期相差 30% 的那个被剔除，第二轮中另一个也与 1000 相差 30% 被剔除；按 double 比较时全部保留
+        assertEquals(3, out.size());
+        for (int i = 0; i < out.size(); i++) {
+            assertEquals(1000, out.get(i));
+        }
+    }
+
+    @Test
+    public void median_ofEvenCountTruncates() {
+        LongRingBuffer rr = new LongRingBuffer(4);
+        for (long value : new long[]{1003, 1000, 1002, 1001}) {
+            rr.add(value);
+        }
+        // (1001 + 1002) / 2.0 = 1001.5，截断为 1001
+        assertEquals(1001, SignalProcessing.median(rr, new long[4]));
+    }
+
+    /**
+     * 原 HeartRateAnalyzer 的批处理计算，基于 List 的逐行移植，只去掉了 Android 相关部分
+     */
+    private static class BaselineAnalyzer {
+        private final List<Long> frameTimestamps = new ArrayList<>();
+        private final List<Double> redIntensity = new ArrayList<>();
+        private final List<Long> heartRRList = new ArrayList<>();
+        private final List<Long> hrvRRList = new ArrayList<>();
+        int heartRate;
+        int sdnn;
+        int rmssd;
+        float hrEffectiveValueRate;
+        float hrvEffectiveValueRate;
+
+        boolean add(long timestamp, double intensity) {
+            redIntensity.add(intensity);
+            frameTimestamps.add(timestamp);
+            if (frameTimestamps.size() <= 30) {
+                return false;
+            }
+            List<Long> newRRList = calculateRR(frameTimestamps, redIntensity);
+            addRRElements(heartRRList, newRRList, 10);
+            addRRElements(hrvRRList, newRRList, 20);
+            List<Long> heartFilterRRByChange = filterRRByChange(heartRRList, 0.3);
+            List<Long> hrvFilterRRByChange = filterRRByChange(hrvRRList, 0.3);
+            hrEffectiveValueRate = 0.0f;
+            hrvEffectiveValueRate = 0.0f;
+            if (heartRRList.size() >= 5 && hrvRRList.size() >= 5) {
+                hrEffectiveValueRate = Math.round((float) heartFilterRRByChange.size() / heartRRList.size() * 100) / 100.0f;
+                hrvEffectiveValueRate = Math.round((float) hrvFilterRRByChange.size() / hrvRRList.size() * 100) / 100.0f;
+            }
+            heartRate = calculateHeartRate(heartFilterRRByChange);
+            sdnn = calculateSDNN(hrvFilterRRByChange);
+            rmssd = calculateRMSSD(hrvFilterRRByChange);
+            frameTimestamps.clear();
+            redIntensity.clear();
+            return true;
+        }
+
+        private static List<Long> calculateRR(List<Long> timestamps, List<Double> intensities) {
+            List<Double> smoothedIntensities = smoothData(intensities, 5);
+            List<Integer> peaks = findPeaks(smoothedIntensities);
+            if (peaks.size() < 2) return null;
+
+            List<Long> durations = new ArrayList<>();
+            for (int i = 0; i < peaks.size() - 1; i++) {
+                durations.add(timestamps.get(peaks.get(i + 1)) - timestamps.get(peaks.get(i)));
+            }
+            return durations;
+        }
+
+        private static int calculateHeartRate(List<Long> durations) {
+            if (durations == null) {
+                return 0;
+            }
+            double averageDuration = 0;
+            for (long duration : durations) {
+                averageDuration += duration;
+            }
+            averageDuration /= durations.size();
+            return (int) (60 * 1000 / averageDuration);
+        }
+
+        private static List<Integer> findPeaks(List<Double> intensities) {
+            List<Integer> peaks = new ArrayList<>();
+            for (int i = 1; i < intensities.size() - 1; i++) {
+                if (intensities.get(i) > intensities.get(i - 1) && intensities.get(i) > intensities.get(i + 1)) {
+                    peaks.add(i);
+                }
+            }
+            return peaks;
+        }
+
+        private static List<Double> smoothData(List<Double> intensities, int windowSize) {
+            List<Double> smoothedIntensities = new ArrayList<>();
+            for (int i = 0; i < intensities.size(); i++) {
+                int start = Math.max(0, i - windowSize / 2);
+                int end = Math.min(intensities.size(), i + windowSize / 2);
+                List<Double> window = intensities.subList(start, end);
+                double average = 0;
+                for (double val : window) {
+                    average += val;
+                }
+                smoothedIntensities.add(average / window.size());
+            }
+            return smoothedIntensities;
+        }
+
+        private static void addRRElements(List<Long> original, List<Long> newElements, int capacity) {
+            if (newElements != null) {
+                int totalSize = original.size() + newElements.size();
+                if (totalSize > capacity) {
+                    int toRemove = totalSize - capacity;
+                    for (int i = 0; i < toRemove && !original.isEmpty(); i++) {
+                        original.remove(0);
+                    }
+                }
+                original.addAll(newElements);
+            }
+        }
+
+        private static List<Long> filterRRByChange(List<Long> rrIntervals, double changeThreshold) {
+            List<Long> filteredRR = new ArrayList<>(rrIntervals);
+            double rrMin = 300, rrMax = 1400;
+            Iterator<Long> iter = filteredRR.iterator();
+            while (iter.hasNext()) {
+                double rr = iter.next();
+                if (rr < rrMin || rr > rrMax) {
+                    iter.remove();
+                }
+            }
+            while (filteredRR.size() >= 3) {
+                Long medianRR = median(filteredRR);
+                List<Float> rrDiff = new ArrayList<>();
+                rrDiff.add((float) Math.abs(filteredRR.get(0) - medianRR) / medianRR);
+                for (int i = 1; i < filteredRR.size(); i++) {
+                    rrDiff.add((float) Math.abs(filteredRR.get(i) - filteredRR.get(i - 1)) / filteredRR.get(i - 1));
+                }
+                List<Long> newFilteredRR = new ArrayList<>();
+                for (int i = 0; i < rrDiff.size(); i++) {
+                    if (rrDiff.get(i) <= changeThreshold) {
+                        newFilteredRR.add(filteredRR.get(i));
+                    }
+                }
+                if (newFilteredRR.size() == filteredRR.size()) {
+                    break;
+                }
+                filteredRR = newFilteredRR;
+            }
+            return filteredRR;
+        }
+
+        private static Long median(List<Long> list) {
+            List<Long> temp = new ArrayList<>(list);
+            Collections.sort(temp);
+            int n = temp.size();
+            if (n % 2 == 0) {
+                return (long) ((temp.get(n / 2 - 1) + temp.get(n / 2)) / 2.0);
+            } else {
+                return temp.get(n / 2);
+            }
+        }
+
+        private static int calculateSDNN(List<Long> rrIntervals) {
+            if (rrIntervals == null || rrIntervals.isEmpty()) {
+                return 0;
+            }
+            double sum = 0;
+            for (Long rr : rrIntervals) {
+                sum += rr;
+            }
+            double mean = sum / rrIntervals.size();
+            double variance = 0;
+            for (Long rr : rrIntervals) {
+                variance += Math.pow(rr - mean, 2);
+            }
+            return (int) Math.sqrt(variance / rrIntervals.size());
+        }
+
+        private static int calculateRMSSD(List<Long> rrIntervals) {
+            if (rrIntervals == null || rrIntervals.size() < 2) {
+                return 0;
+            }
+            double sumSquaredDiffs = 0;
+            for (int i = 1; i < rrIntervals.size(); i++) {
+                long diff = rrIntervals.get(i) - rrIntervals.get(i - 1);
+                sumSquaredDiffs += diff * diff;
+            }
+            return (int) Math.sqrt(sumSquaredDiffs / (rrIntervals.size() - 1));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 只计算部分指标时，已计算的指标必须与计算全部指标时逐项一致，未计算的指标为 0
+ */
+public class HeartRateEngineOutputsTest {
+
+    @Test
+    public void partialOutputs_matchFullOutputs() {
+        for (AnalysisMode mode : AnalysisMode.values()) {
+            SyntheticPpg ppg = SyntheticPpg.generate(1800, 10, 72, 0.05, 0.2, 11);
+            HeartRateEngine all = newEngine(mode, ResultOutputs.ALL);
+            HeartRateEngine heartRate = newEngine(mode, ResultOutputs.HEART_RATE);
+            HeartRateEngine hrv = newEngine(mode, ResultOutputs.HRV);
+            int updates = 0;
+            for (int i = 0; i < ppg.size(); i++) {
+                boolean updated = all.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]);
+                assertEquals(updated, heartRate.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]));
+                assertEquals(updated, hrv.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]));
+                if (!updated) {
+                    continue;
+                }
+                updates++;
+                assertEquals(all.getHeartRate(), heartRate.getHeartRate());
+                assertEquals(all.getHrEffectiveValueRate(), heartRate.getHrEffectiveValueRate(), 0);
+                assertEquals(0, heartRate.getSdnn());
+                assertEquals(0, heartRate.getRmssd());
+                assertEquals(0, hrv.getHeartRate());
+                assertEquals(all.getSdnn(), hrv.getSdnn());
+                assertEquals(all.getRmssd(), hrv.getRmssd());
+                assertEquals(all.getHrvEffectiveValueRate(), hrv.getHrvEffectiveValueRate(), 0);
+            }
+            assertTrue(mode + " produced no results", updates > 0);
+            assertTrue(all.getSdnn() > 0);
+        }
+    }
+
+    @Test
+    public void reenablingHrv_restoresFullWindowOnNextUpdate() {
+        SyntheticPpg ppg = SyntheticPpg.generate(1800, 30, 72, 0.05, 0.2, 5);
+        HeartRateEngine reference = newEngine(AnalysisMode.FILTERED, ResultOutputs.ALL);
+        HeartRateEngine engine = newEngine(AnalysisMode.FILTERED, ResultOutputs.HEART_RATE);
+        for (int i = 0; i < ppg.size(); i++) {
+            if (i == ppg.size() / 2) {
+                engine.setOutputs(ResultOutputs.ALL);
+            }
+            boolean updated = reference.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]);
+            engine.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]);
+            if (updated && i >= ppg.size() / 2) {
+                assertEquals(reference.getSdnn(), engine.getSdnn());
+                assertEquals(reference.getRmssd(), engine.getRmssd());
+            }
+        }
+        assertTrue(engine.getSdnn() > 0);
+    }
+
+    @Test
+    public void heartRateOnly_skipsLongTermHrvSpectrum() {
+        SyntheticPpg ppg = SyntheticPpg.generate(3600, 30, 72, 0.05, 0.2, 7);
+        for (AnalysisMode mode : AnalysisMode.values()) {
+            HeartRateEngineConfig config = new HeartRateEngineConfig().setAnalysisMode(mode).setLongTermHrvWindowMs(300_000);
+            HeartRateEngine all = new HeartRateEngine(config);
+            HeartRateEngine heartRate = new HeartRateEngine(config);
+            heartRate.setOutputs(ResultOutputs.HEART_RATE);
+            for (int i = 0; i < ppg.size(); i++) {
+                all.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]);
+                heartRate.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]);
+            }
+            assertTrue(mode + " computed no spectrum", all.getLongTermHrv().getSpectrumVersion() > 0);
+            assertEquals(mode.toString(), 0, heartRate.getLongTermHrv().getSpectrumVersion());
+            assertEquals(mode.toString(), 0, heartRate.getLongTermHrv().getVersion());
+            assertTrue(heartRate.getHeartRate() > 0);
+        }
+    }
+
+    private static HeartRateEngine newEngine(AnalysisMode mode, ResultOutputs outputs) {
+        HeartRateEngine engine = new HeartRateEngine(new HeartRateEngineConfig().setAnalysisMode(mode));
+        engine.setOutputs(outputs);
+        return engine;
+    }
+}
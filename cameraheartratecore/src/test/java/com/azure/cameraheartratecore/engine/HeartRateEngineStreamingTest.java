@@ -0,0 +1,58 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * STREAMING 模式在 BATCH 模式的输入上按步长输出结果，第二分钟的平均心率与 BATCH 模式相差不超过 10 次/分钟
+ */
+public class HeartRateEngineStreamingTest {
+
+    @Test
+    public void streaming_producesResultsOnBatchInput() {
+        for (long seed = 1; seed <= 3; seed++) {
+            SyntheticPpg ppg = SyntheticPpg.generate(1200, 10, 72, 0.05, 0.05, seed);
+            HeartRateEngine batch = new HeartRateEngine(new HeartRateEngineConfig());
+            HeartRateEngine streaming = new HeartRateEngine(new HeartRateEngineConfig()
+                    .setAnalysisMode(AnalysisMode.STREAMING));
+            int batchUpdates = 0;
+            int streamingUpdates = 0;
+            double batchSum = 0;
+            double streamingSum = 0;
+            int batchCount = 0;
+            int streamingCount = 0;
+            for (int i = 0; i < ppg.size(); i++) {
+                long timestamp = ppg.getTimestamps()[i];
+                double intensity = ppg.getIntensities()[i];
+                if (batch.addSample(timestamp, intensity)) {
+                    batchUpdates++;
+                    // 第二分钟两种模式的窗口都已填满
+                    if (i >= ppg.size() / 2) {
+                        batchSum += batch.getHeartRate();
+                        batchCount++;
+                    }
+                }
+                if (streaming.addSample(timestamp, intensity)) {
+                    streamingUpdates++;
+                    assertTrue("seed " + seed + " index " + i, streaming.getHeartRate() > 0 || i < 100);
+                    if (i >= ppg.size() / 2) {
+                        streamingSum += streaming.getHeartRate();
+                        streamingCount++;
+                    }
+                }
+            }
+            // BATCH 每 31 个采样点更新一次，STREAMING 每 hopSize 个采样点更新一次
+            assertEquals(ppg.size() / 31, batchUpdates);
+            assertEquals(ppg.size() / 10, streamingUpdates);
+            double batchMean = batchSum / batchCount;
+            double streamingMean = streamingSum / streamingCount;
+            assertEquals("seed " + seed, batchMean, streamingMean, 10);
+            assertEquals("seed " + seed, 72, streamingMean, 15);
+            assertTrue(streaming.getSdnn() > 0);
+            assertTrue(streaming.getRmssd() > 0);
+        }
+    }
+}
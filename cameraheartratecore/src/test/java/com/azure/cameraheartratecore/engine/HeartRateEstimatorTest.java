@@ -0,0 +1,73 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.synthetic.PpgScenario;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * SPECTRAL 与 FUSED 在已知心率的合成 PPG 上的准确度，以及首个读数出现的时间
+ */
+public class HeartRateEstimatorTest {
+
+    @Test
+    public void spectralAndFused_firstReadingAfterWindowAndAccurate() {
+        AnalysisMode[] modes = {AnalysisMode.FILTERED, AnalysisMode.FILTERED, AnalysisMode.BATCH, AnalysisMode.STREAMING};
+        int[] rates = {30, 10, 10, 10};
+        // BATCH 每 3 秒才输出一次，低心率时窗口刚填满时的质量分数可能不足，允许推迟到下一次输出
+        long[] latestFirstReading = {4_500, 4_500, 6_500, 4_500};
+        for (int m = 0; m < modes.length; m++) {
+            for (int bpm : new int[]{55, 72, 120}) {
+                for (HeartRateEstimator estimator : new HeartRateEstimator[]{HeartRateEstimator.SPECTRAL, HeartRateEstimator.FUSED}) {
+                    PpgScenario scenario = new PpgScenario().setHeartRateBpm(bpm).setSampleRateHz(rates[m]).setSampleCount(40 * rates[m]);
+                    SyntheticPpg ppg = SyntheticPpg.generate(scenario);
+                    HeartRateEngine engine = new HeartRateEngine(new HeartRateEngineConfig()
+                            .setAnalysisMode(modes[m]).setHeartRateEstimator(estimator));
+                    String name = modes[m] + "/" + estimator + " " + scenario;
+                    long first = -1;
+                    int readings = 0;
+                    int updates = 0;
+                    for (int i = 0; i < ppg.size(); i++) {
+                        long timestamp = ppg.getTimestamps()[i];
+                        if (!engine.addSample(timestamp, ppg.getIntensities()[i])) {
+                            continue;
+                        }
+                        if (first >= 0) {
+                            updates++;
+                        }
+                        if (engine.getHeartRate() == 0) {
+                            continue;
+                        }
+                        if (first < 0) {
+                            first = timestamp;
+                        }
+                        readings++;
+                        // 频谱窗口 4 秒，填满四分之三即开始估计；读数从第一个起就应接近真实心率，
+                        // FUSED 接受与频谱结果相差 10% 以内的峰值结果，合成信号本身的心率也有约 5% 的起伏
+                        assertEquals(name + " at " + timestamp, bpm, engine.getHeartRate(), Math.max(8, 0.12 * bpm));
+                    }
+                    assertTrue(name + " first reading at " + first, first >= 3_000 && first <= latestFirstReading[m]);
+                    // 开始输出后几乎每次更新都有读数
+                    assertTrue(name + " " + readings + " of " + updates, readings >= 0.9 * updates && updates >= 10);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fused_usesPeaksOnceTheyAgreeWithSpectrum() {
+        SyntheticPpg ppg = SyntheticPpg.generate(new PpgScenario().setSampleCount(1800));
+        HeartRateEngine engine = new HeartRateEngine(new HeartRateEngineConfig()
+                .setAnalysisMode(AnalysisMode.FILTERED).setHeartRateEstimator(HeartRateEstimator.FUSED));
+        int fromPeaks = 0;
+        for (int i = 0; i < ppg.size(); i++) {
+            if (engine.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]) && ppg.getTimestamps()[i] > 20_000
+                    && engine.getHeartRate() != engine.getSpectralHeartRate()) {
+                fromPeaks++;
+            }
+        }
+        assertTrue(fromPeaks > 0);
+    }
+}
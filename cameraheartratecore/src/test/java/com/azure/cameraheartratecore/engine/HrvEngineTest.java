@@ -0,0 +1,93 @@
+package com.azure.cameraheartratecore.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 长时 HRV 的增量统计与整窗重新计算的结果一致，频域功率落在正确的频段
+ */
+public class HrvEngineTest {
+
+    @Test
+    public void timeDomain_matchesFullRecomputeOverSlidingWindow() {
+        long windowMs = 60_000;
+        HrvEngine engine = new HrvEngine(windowMs, 5_000, 0.3);
+        Random random = new Random(11);
+        List<long[]> accepted = new ArrayList<>();
+        long beat = 0;
+        for (int i = 0; i < 2000; i++) {
+            long rr = 700 + random.nextInt(200);
+            beat += rr;
+            if (engine.addInterval(beat, rr)) {
+                accepted.add(new long[]{beat, rr});
+            }
+        }
+        List<long[]> window = new ArrayList<>();
+        for (long[] interval : accepted) {
+            if (beat - interval[0] <= windowMs) {
+                window.add(interval);
+            }
+        }
+        assertEquals(window.size(), engine.getIntervalCount());
+
+        double sum = 0;
+        for (long[] interval : window) {
+            sum += interval[1];
+        }
+        double mean = sum / window.size();
+        double variance = 0;
+        double diffSquares = 0;
+        int nn50 = 0;
+        for (int i = 0; i < window.size(); i++) {
+            variance += (window.get(i)[1] - mean) * (window.get(i)[1] - mean);
+            if (i > 0) {
+                long diff = window.get(i)[1] - window.get(i - 1)[1];
+                diffSquares += diff * diff;
+                if (Math.abs(diff) > 50) {
+                    nn50++;
+                }
+            }
+        }
+        assertEquals(Math.sqrt(variance / window.size()), engine.getSdnn(), 1e-9);
+        assertEquals(Math.sqrt(diffSquares / (window.size() - 1)), engine.getRmssd(), 1e-9);
+        assertEquals(100.0 * nn50 / (window.size() - 1), engine.getPnn50(), 1e-9);
+        assertEquals(60_000.0 / mean, engine.getMeanHeartRate(), 1e-9);
+    }
+
+    @Test
+    public void spectrum_separatesLowAndHighFrequency() {
+        HrvEngine engine = new HrvEngine(300_000, 5_000, 0.3);
+        double time = 0;
+        long beat = 0;
+        // 0.1 Hz（LF）振幅 50ms，0.25 Hz（HF）振幅 20ms
+        while (time < 300) {
+            long rr = Math.round(1000 + 50 * Math.sin(2 * Math.PI * 0.1 * time) + 20 * Math.sin(2 * Math.PI * 0.25 * time));
+            time += rr / 1000.0;
+            beat += rr;
+            engine.addInterval(beat, rr);
+        }
+        assertTrue(engine.getSpectrumVersion() > 0);
+        assertEquals(1250, engine.getLfPower(), 150);
+        assertEquals(200, engine.getHfPower(), 50);
+        assertTrue(engine.getLfHfRatio() > 4);
+    }
+
+    @Test
+    public void addInterval_rejectsArtifactsAndGapsBreakSuccessiveDiffs() {
+        HrvEngine engine = new HrvEngine(60_000, 5_000, 0.3);
+        assertTrue(engine.addInterval(1000, 1000));
+        assertTrue(engine.addInterval(2050, 1050));
+        // 误检
+        assertFalse(engine.addInterval(2350, 300));
+        // 被拒绝的心跳之后，间期不再与前一个相邻，不计入 RMSSD
+        assertTrue(engine.addInterval(3150, 800));
+        assertEquals(3, engine.getIntervalCount());
+        assertEquals(50, engine.getRmssd(), 1e-9);
+        assertFalse(engine.addInterval(3200, 100));
+    }
+}
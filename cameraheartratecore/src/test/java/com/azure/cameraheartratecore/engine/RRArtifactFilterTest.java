@@ -0,0 +1,73 @@
+package com.azure.cameraheartratecore.engine;
+
+import com.azure.cameraheartratecore.buffer.LongRingBuffer;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 增量过滤的结果必须与 SignalProcessing.filterRRByChange 逐项一致
+ */
+public class RRArtifactFilterTest {
+
+    @Test
+    public void filter_matchesReferenceOnRandomCorpus() {
+        int[] windowSizes = {3, 5, 10, 20, 64, 300};
+        double[] thresholds = {0.1, 0.2, 0.3};
+        Random random = new Random(20240601);
+        for (int windowSize : windowSizes) {
+            for (double threshold : thresholds) {
+                for (int session = 0; session < 20; session++) {
+                    assertSessionMatches(random, windowSize, threshold, 1500);
+                }
+            }
+        }
+    }
+
+    private static void assertSessionMatches(Random random, int windowSize, double threshold, int intervals) {
+        RRArtifactFilter filter = new RRArtifactFilter(windowSize, threshold);
+        LongRingBuffer window = new LongRingBuffer(windowSize);
+        LongRingBuffer expected = new LongRingBuffer(windowSize);
+        LongRingBuffer actual = new LongRingBuffer(windowSize);
+        long[] scratch = new long[windowSize];
+        double meanRR = 450 + random.nextInt(700);
+        for (int i = 0; i < intervals; i++) {
+            long rr = nextInterval(random, meanRR);
+            filter.add(rr);
+            window.add(rr);
+            if (random.nextInt(200) == 0) {
+                // 模拟手指离开
+                filter.clear();
+                window.clear();
+            }
+            if (random.nextInt(3) != 0) {
+                continue;
+            }
+            SignalProcessing.filterRRByChange(window, threshold, expected, scratch);
+            filter.filter(actual);
+            assertEquals(window.size(), filter.size());
+            assertEquals("size at " + i, expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j), actual.get(j));
+            }
+        }
+    }
+
+    private static long nextInterval(Random random, double meanRR) {
+        int kind = random.nextInt(20);
+        if (kind == 0) {
+            // 漏检：间期约为两倍
+            return Math.round(meanRR * 2 + random.nextGaussian() * 30);
+        } else if (kind == 1) {
+            // 误检：间期被拆成两段
+            return Math.round(meanRR * (0.2 + random.nextDouble() * 0.6));
+        } else if (kind == 2) {
+            // 超出合理范围
+            return random.nextBoolean() ? 100 + random.nextInt(200) : 1401 + random.nextInt(1000);
+        }
+        return Math.round(meanRR * (1 + random.nextGaussian() * 0.06));
+    }
+}
@@ -0,0 +1,94 @@
+package com.azure.cameraheartratecore.filter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 滤波阶段：带通只保留心率频段，采样率变化后按新采样率重新计算系数
+ */
+public class SignalFilterTest {
+
+    @Test
+    public void bandPass_passesHeartRateBand() {
+        BandPassFilter filter = new BandPassFilter();
+        filter.setSampleRate(30);
+        // 72 次/分钟基本无衰减，直流被完全去除，5 Hz 的噪声明显衰减
+        assertEquals(1.0, gain(filter, 1.2, 30), 0.05);
+        assertEquals(0.0, gain(filter, 0, 30), 1e-3);
+        assertTrue(gain(filter, 5, 30) < 0.3);
+        // 通带边缘约为 -3dB
+        assertEquals(Math.sqrt(0.5), gain(filter, 0.7, 30), 0.05);
+        assertEquals(Math.sqrt(0.5), gain(filter, 3.5, 30), 0.05);
+    }
+
+    @Test
+    public void bandPass_setSampleRateRecomputesCoefficients() {
+        // 构造时按 10 Hz 设计，直接用于 30 Hz 采样时 1.2 Hz 被当作 0.4 Hz 滤掉
+        assertTrue(gain(new BandPassFilter(), 1.2, 30) < 0.2);
+
+        for (double sampleRateHz : new double[]{10, 15, 30, 60}) {
+            BandPassFilter filter = new BandPassFilter();
+            filter.setSampleRate(sampleRateHz);
+            assertEquals(sampleRateHz + "Hz", 1.0, gain(filter, 1.2, sampleRateHz), 0.05);
+        }
+
+        // 中途切换采样率后与一开始就按该采样率设计的滤波器结果一致
+        BandPassFilter switched = new BandPassFilter();
+        switched.setSampleRate(30);
+        switched.setSampleRate(15);
+        BandPassFilter direct = new BandPassFilter();
+        direct.setSampleRate(15);
+        for (int i = 0; i < 300; i++) {
+            double value = 200 + Math.sin(2 * Math.PI * 1.2 * i / 15);
+            assertEquals(direct.process(value), switched.process(value), 0);
+        }
+    }
+
+    @Test
+    public void bandPass_lowPassCutoffClampedBelowNyquist() {
+        // 6 Hz 采样时 3.5 Hz 高于奈奎斯特频率，截止频率压到 2.7 Hz，输出仍然稳定
+        BandPassFilter filter = new BandPassFilter();
+        filter.setSampleRate(6);
+        assertEquals(1.0, gain(filter, 1.2, 6), 0.1);
+        assertTrue(gain(filter, 2.95, 6) < 0.5);
+    }
+
+    @Test
+    public void detrender_removesBaselineWithTimeConstant() {
+        for (double sampleRateHz : new double[]{10, 30}) {
+            Detrender detrender = new Detrender(1.5);
+            detrender.setSampleRate(sampleRateHz);
+            // 第一个采样点初始化基线，直流分量不会以阶跃形式输出
+            for (int i = 0; i < 10; i++) {
+                assertEquals(0, detrender.process(200), 0);
+            }
+            // 阶跃经过一个时间常数后剩约 1/e
+            int samples = (int) Math.round(1.5 * sampleRateHz);
+            double output = 0;
+            for (int i = 0; i < samples; i++) {
+                output = detrender.process(210);
+            }
+            assertEquals(sampleRateHz + "Hz", 10 / Math.E, output, 0.2);
+        }
+    }
+
+    /**
+     * 输入单位幅度的正弦，等待暂态结束后测量输出幅度
+     */
+    private static double gain(SignalFilter filter, double frequencyHz, double sampleRateHz) {
+        filter.reset();
+        int settle = (int) (20 * sampleRateHz);
+        int measure = (int) (10 * sampleRateHz);
+        double sumSquares = 0;
+        for (int i = 0; i < settle + measure; i++) {
+            double value = frequencyHz == 0 ? 1 : Math.sin(2 * Math.PI * frequencyHz * i / sampleRateHz);
+            double output = filter.process(value);
+            if (i >= settle) {
+                sumSquares += output * output;
+            }
+        }
+        double rms = Math.sqrt(sumSquares / measure);
+        return frequencyHz == 0 ? rms : rms * Math.sqrt(2);
+    }
+}
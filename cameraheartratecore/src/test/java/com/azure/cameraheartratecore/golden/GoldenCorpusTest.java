@@ -0,0 +1,381 @@
+package com.azure.cameraheartratecore.golden;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.FrameOutcome;
+import com.azure.cameraheartratecore.engine.HeartRateEngine;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRateEstimator;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.SignalChannel;
+import com.azure.cameraheartratecore.synthetic.PpgScenario;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 合成 PPG 语料上的准确度与性能回归测试。
+ * <p>
+ * 每个场景覆盖一种心率范围或干扰（噪声、运动伪影、曝光过度、丢帧），逐帧送入 HeartRatePipeline：
+ * <ul>
+ * <li>与生成时的真实心跳比较，心率的平均/最大误差和最终 SDNN、RMSSD 的误差不得超过该场景的上限；</li>
+ * <li>与 src/test/resources/golden 下签入的参考轨迹逐条比较，超出容差即视为算法行为变化；</li>
+ * <li>整个语料的每帧耗时和稳定状态下的每帧分配不得超过预算。</li>
+ * </ul>
+ * 有意修改算法后，用 main 重新生成参考轨迹并与代码一起提交：
+ * <pre>
+ * java -cp ... com.azure.cameraheartratecore.golden.GoldenCorpusTest cameraheartratecore/src/test/resources/golden
+ * </pre>
+ * 耗时预算可通过 -Dgolden.budgetScale 放宽，例如在较慢的 CI 机器上设为 4。
+ */
+public class GoldenCorpusTest {
+    //参考轨迹的容差，吸收不同 JVM 上浮点运算的细微差别
+    private static final int TRACE_HR_TOLERANCE = 1;
+    private static final int TRACE_HRV_TOLERANCE = 2;
+    //心率误差只统计前 20 秒之后的结果，此前窗口尚未填满
+    private static final long WARM_UP_MS = 20_000;
+    //每帧耗时与稳定状态下每帧分配的预算
+    private static final long FRAME_TIME_BUDGET_NS = 20_000;
+    private static final double FRAME_ALLOCATION_BUDGET = 1.0;
+
+    private static final List<Case> CORPUS = new ArrayList<>();
+
+    static {
+        //依次为心率平均误差、心率最大误差、最终 SDNN 误差、最终 RMSSD 误差的上限，
+        //在当前实测误差上留出约 25% 余量，算法改进后应随之收紧
+        add(scenario("rest_55").setHeartRateBpm(55), AnalysisMode.FILTERED, 10, 35, 100, 10);
+        add(scenario("normal_72"), AnalysisMode.FILTERED, 3, 10, 10, 45);
+        add(scenario("exercise_120").setHeartRateBpm(120), AnalysisMode.FILTERED, 2, 5, 5, 6);
+        add(scenario("high_160").setHeartRateBpm(160).setRrVariability(0.02), AnalysisMode.FILTERED, 1.5, 4, 3, 3);
+        add(scenario("noisy_72").setNoise(1.0), AnalysisMode.FILTERED, 3.5, 10, 60, 85);
+        add(scenario("motion_72").setMotionPerMinute(4), AnalysisMode.FILTERED, 3, 10, 10, 45);
+        add(scenario("saturated_72").setExposureOffset(52), AnalysisMode.FILTERED, 3, 10, 10, 45);
+        add(scenario("dropped_72").setDropRate(0.1), AnalysisMode.FILTERED, 5, 15, 25, 70);
+        //批处理与流式模式按 10fps 调校
+        add(scenario("low_rate_72").setSampleRateHz(10), AnalysisMode.FILTERED, 1, 3, 44, 75);
+        add(scenario("low_rate_72").setSampleRateHz(10), AnalysisMode.BATCH, 7, 35, 72, 114);
+        add(scenario("low_rate_72").setSampleRateHz(10), AnalysisMode.STREAMING, 13, 35, 69, 101);
+        //频谱与融合估计，参考轨迹同时固定首个读数出现的时间
+        add(scenario("normal_72"), AnalysisMode.FILTERED, HeartRateEstimator.SPECTRAL, 2.5, 8, 10, 45);
+        add(scenario("normal_72"), AnalysisMode.FILTERED, HeartRateEstimator.FUSED, 3, 8, 10, 45);
+        add(scenario("rest_55").setHeartRateBpm(55), AnalysisMode.FILTERED, HeartRateEstimator.FUSED, 3, 8, 100, 10);
+        add(scenario("exercise_120").setHeartRateBpm(120), AnalysisMode.FILTERED, HeartRateEstimator.FUSED, 2, 5, 5, 6);
+        add(scenario("noisy_72").setNoise(1.0), AnalysisMode.FILTERED, HeartRateEstimator.FUSED, 3.5, 10, 60, 85);
+        add(scenario("motion_72").setMotionPerMinute(4), AnalysisMode.FILTERED, HeartRateEstimator.FUSED, 3, 8, 10, 45);
+        add(scenario("low_rate_72").setSampleRateHz(10), AnalysisMode.BATCH, HeartRateEstimator.SPECTRAL, 2, 7, 72, 114);
+        add(scenario("low_rate_72").setSampleRateHz(10), AnalysisMode.STREAMING, HeartRateEstimator.FUSED, 2.5, 8, 69, 101);
+    }
+
+    private static PpgScenario scenario(String name) {
+        return new PpgScenario().setName(name);
+    }
+
+    private static void add(PpgScenario scenario, AnalysisMode mode, double maxHrMae, int maxHrError,
+                            int maxSdnnError, int maxRmssdError) {
+        add(scenario, mode, HeartRateEstimator.PEAK, maxHrMae, maxHrError, maxSdnnError, maxRmssdError);
+    }
+
+    private static void add(PpgScenario scenario, AnalysisMode mode, HeartRateEstimator estimator, double maxHrMae,
+                            int maxHrError, int maxSdnnError, int maxRmssdError) {
+        //每个场景 90 秒
+        scenario.setSampleCount((int) (90 * scenario.getSampleRateHz()));
+        CORPUS.add(new Case(scenario, mode, estimator, maxHrMae, maxHrError, maxSdnnError, maxRmssdError));
+    }
+
+    @Test
+    public void corpus_staysWithinGroundTruthErrorBounds() {
+        StringBuilder failures = new StringBuilder();
+        for (Case c : CORPUS) {
+            Trace trace = c.run();
+            SyntheticPpg ppg = c.generate();
+            double hrError = 0;
+            int hrMax = 0;
+            int counted = 0;
+            for (int i = 0; i < trace.size(); i++) {
+                if (trace.timestampsMs.get(i) >= WARM_UP_MS && trace.heartRates.get(i) > 0) {
+                    int error = (int) Math.abs(Math.round(trace.heartRates.get(i) - c.scenario.getHeartRateBpm()));
+                    hrError += error;
+                    hrMax = Math.max(hrMax, error);
+                    counted++;
+                }
+            }
+            double hrMae = counted == 0 ? Double.NaN : hrError / counted;
+            int last = trace.size() - 1;
+            double[] truth = trueHrv(ppg, trace.timestampsMs.get(last), new HeartRateEngineConfig().getHrvWindowSize());
+            int sdnnError = (int) Math.abs(Math.round(trace.sdnns.get(last) - truth[0]));
+            int rmssdError = (int) Math.abs(Math.round(trace.rmssds.get(last) - truth[1]));
+            String summary = String.format("%s: hrMae=%.1f hrMax=%d sdnnError=%d rmssdError=%d",
+                    c, hrMae, hrMax, sdnnError, rmssdError);
+            if (!(hrMae <= c.maxHrMae) || hrMax > c.maxHrError
+                    || sdnnError > c.maxSdnnError || rmssdError > c.maxRmssdError) {
+                failures.append('\n').append(summary);
+            }
+        }
+        assertTrue("accuracy regressed:" + failures, failures.length() == 0);
+    }
+
+    @Test
+    public void corpus_matchesCheckedInTraces() throws IOException {
+        StringBuilder failures = new StringBuilder();
+        for (Case c : CORPUS) {
+            Trace expected = Trace.load(c.fileName());
+            Trace actual = c.run();
+            String difference = expected.compare(actual);
+            if (difference != null) {
+                failures.append('\n').append(c).append(": ").append(difference);
+            }
+        }
+        assertTrue("traces differ from " + "src/test/resources/golden, regenerate them if the change is intended:"
+                + failures, failures.length() == 0);
+    }
+
+    @Test
+    public void corpus_staysWithinFrameTimeBudget() {
+        double scale = Double.parseDouble(System.getProperty("golden.budgetScale", "1"));
+        // 第一轮用于 JIT 预热，取后两轮的最好成绩以减小调度抖动的影响
+        long best = Long.MAX_VALUE;
+        long frames = 0;
+        for (int round = 0; round < 3; round++) {
+            long elapsedNs = 0;
+            frames = 0;
+            for (Case c : CORPUS) {
+                SyntheticPpg ppg = c.generate();
+                HeartRatePipeline pipeline = c.newPipeline();
+                FrameStats stats = new FrameStats();
+                long start = System.nanoTime();
+                for (int i = 0; i < ppg.size(); i++) {
+                    feed(pipeline, stats, ppg, i);
+                }
+                elapsedNs += System.nanoTime() - start;
+                frames += ppg.size();
+            }
+            if (round > 0) {
+                best = Math.min(best, elapsedNs);
+            }
+        }
+        long perFrame = best / frames;
+        assertTrue("took " + perFrame + " ns per frame, budget " + (long) (FRAME_TIME_BUDGET_NS * scale),
+                perFrame <= FRAME_TIME_BUDGET_NS * scale);
+    }
+
+    @Test
+    public void corpus_isAllocationFreeInSteadyState() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        long threadId = Thread.currentThread().getId();
+        StringBuilder failures = new StringBuilder();
+        for (Case c : CORPUS) {
+            SyntheticPpg ppg = c.generate();
+            HeartRatePipeline pipeline = c.newPipeline();
+            FrameStats stats = new FrameStats();
+            // 前三分之一用于填满缓冲区
+            int warmUp = ppg.size() / 3;
+            for (int i = 0; i < warmUp; i++) {
+                feed(pipeline, stats, ppg, i);
+            }
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            for (int i = warmUp; i < ppg.size(); i++) {
+                feed(pipeline, stats, ppg, i);
+            }
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+            double perFrame = (double) allocated / (ppg.size() - warmUp);
+            if (perFrame > FRAME_ALLOCATION_BUDGET) {
+                failures.append('\n').append(c).append(": ").append(allocated).append(" bytes");
+            }
+        }
+        assertTrue("allocated in steady state:" + failures, failures.length() == 0);
+    }
+
+    /**
+     * 以截至 timestampMs 的最后 window 个真实 R-R 间期计算 SDNN 和 RMSSD
+     */
+    private static double[] trueHrv(SyntheticPpg ppg, long timestampMs, int window) {
+        int end = 0;
+        while (end + 1 < ppg.getBeatCount() && ppg.getBeatTimestamp(end + 1) <= timestampMs) {
+            end++;
+        }
+        int count = Math.min(window, end);
+        double[] intervals = new double[count];
+        double mean = 0;
+        for (int i = 0; i < count; i++) {
+            int beat = end - count + 1 + i;
+            intervals[i] = ppg.getBeatTimestamp(beat) - ppg.getBeatTimestamp(beat - 1);
+            mean += intervals[i];
+        }
+        mean /= count;
+        double variance = 0;
+        double successive = 0;
+        for (int i = 0; i < count; i++) {
+            variance += (intervals[i] - mean) * (intervals[i] - mean);
+            if (i > 0) {
+                successive += (intervals[i] - intervals[i - 1]) * (intervals[i] - intervals[i - 1]);
+            }
+        }
+        return new double[]{Math.sqrt(variance / count), Math.sqrt(successive / (count - 1))};
+    }
+
+    private static FrameOutcome feed(HeartRatePipeline pipeline, FrameStats stats, SyntheticPpg ppg, int index) {
+        stats.setRedOnly(ppg.getIntensities()[index], 1.0)
+                .setSaturatedFraction(SignalChannel.RED, ppg.getSaturatedFractions()[index])
+                .setMean(SignalChannel.GREEN, ppg.getGreenIntensities()[index]);
+        return pipeline.processFrame(ppg.getTimestamps()[index] * 1_000_000L, stats);
+    }
+
+    /**
+     * 重新生成 args[0] 目录下的参考轨迹
+     */
+    public static void main(String[] args) throws IOException {
+        File dir = new File(args.length > 0 ? args[0] : "cameraheartratecore/src/test/resources/golden");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+        for (Case c : CORPUS) {
+            File file = new File(dir, c.fileName());
+            c.run().save(file, c.scenario.toString());
+            System.out.println("wrote " + file);
+        }
+    }
+
+    private static final class Case {
+        final PpgScenario scenario;
+        final AnalysisMode mode;
+        final HeartRateEstimator estimator;
+        final double maxHrMae;
+        final int maxHrError;
+        final int maxSdnnError;
+        final int maxRmssdError;
+
+        Case(PpgScenario scenario, AnalysisMode mode, HeartRateEstimator estimator, double maxHrMae, int maxHrError,
+             int maxSdnnError, int maxRmssdError) {
+            this.scenario = scenario;
+            this.mode = mode;
+            this.estimator = estimator;
+            this.maxHrMae = maxHrMae;
+            this.maxHrError = maxHrError;
+            this.maxSdnnError = maxSdnnError;
+            this.maxRmssdError = maxRmssdError;
+        }
+
+        SyntheticPpg generate() {
+            return SyntheticPpg.generate(scenario);
+        }
+
+        HeartRatePipeline newPipeline() {
+            return new HeartRatePipeline(new HeartRateEngineConfig().setAnalysisMode(mode).setHeartRateEstimator(estimator));
+        }
+
+        Trace run() {
+            SyntheticPpg ppg = generate();
+            HeartRatePipeline pipeline = newPipeline();
+            FrameStats stats = new FrameStats();
+            Trace trace = new Trace();
+            for (int i = 0; i < ppg.size(); i++) {
+                if (feed(pipeline, stats, ppg, i) == FrameOutcome.RESULT) {
+                    HeartRateEngine engine = pipeline.getEngine();
+                    trace.add(ppg.getTimestamps()[i], engine.getHeartRate(), engine.getSdnn(), engine.getRmssd());
+                }
+            }
+            return trace;
+        }
+
+        String fileName() {
+            String suffix = estimator == HeartRateEstimator.PEAK ? "" : "_" + estimator.name().toLowerCase();
+            return scenario.getName() + "_" + mode.name().toLowerCase() + suffix + ".csv";
+        }
+
+        @Override
+        public String toString() {
+            return scenario.getName() + "/" + mode + (estimator == HeartRateEstimator.PEAK ? "" : "/" + estimator);
+        }
+    }
+
+    /**
+     * 一次运行中每个结果的时间戳与指标，参考轨迹以 CSV 保存
+     */
+    private static final class Trace {
+        final List<Long> timestampsMs = new ArrayList<>();
+        final List<Integer> heartRates = new ArrayList<>();
+        final List<Integer> sdnns = new ArrayList<>();
+        final List<Integer> rmssds = new ArrayList<>();
+
+        void add(long timestampMs, int heartRate, int sdnn, int rmssd) {
+            timestampsMs.add(timestampMs);
+            heartRates.add(heartRate);
+            sdnns.add(sdnn);
+            rmssds.add(rmssd);
+        }
+
+        int size() {
+            return timestampsMs.size();
+        }
+
+        /**
+         * @return 第一处超出容差的差异，没有差异时返回 null
+         */
+        String compare(Trace actual) {
+            if (actual.size() != size()) {
+                return "expected " + size() + " results but got " + actual.size();
+            }
+            for (int i = 0; i < size(); i++) {
+                if (!timestampsMs.get(i).equals(actual.timestampsMs.get(i))
+                        || Math.abs(heartRates.get(i) - actual.heartRates.get(i)) > TRACE_HR_TOLERANCE
+                        || Math.abs(sdnns.get(i) - actual.sdnns.get(i)) > TRACE_HRV_TOLERANCE
+                        || Math.abs(rmssds.get(i) - actual.rmssds.get(i)) > TRACE_HRV_TOLERANCE) {
+                    return "row " + i + " expected " + row(i) + " but got " + actual.row(i);
+                }
+            }
+            return null;
+        }
+
+        String row(int index) {
+            return timestampsMs.get(index) + "," + heartRates.get(index) + ","
+                    + sdnns.get(index) + "," + rmssds.get(index);
+        }
+
+        void save(File file, String comment) throws IOException {
+            try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+                writer.println("# " + comment);
+                writer.println("timestamp_ms,heart_rate,sdnn,rmssd");
+                for (int i = 0; i < size(); i++) {
+                    writer.println(row(i));
+                }
+            }
+        }
+
+        static Trace load(String name) throws IOException {
+            InputStream in = GoldenCorpusTest.class.getResourceAsStream("/golden/" + name);
+            assertNotNull("missing golden trace " + name, in);
+            Trace trace = new Trace();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty() || line.startsWith("#") || line.startsWith("timestamp")) {
+                        continue;
+                    }
+                    String[] fields = line.split(",");
+                    trace.add(Long.parseLong(fields[0]), Integer.parseInt(fields[1]),
+                            Integer.parseInt(fields[2]), Integer.parseInt(fields[3]));
+                }
+            }
+            return trace;
+        }
+    }
+}
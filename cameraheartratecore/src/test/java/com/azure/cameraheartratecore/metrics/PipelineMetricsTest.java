@@ -0,0 +1,72 @@
+package com.azure.cameraheartratecore.metrics;
+
+import com.azure.cameraheartratecore.engine.FrameOutcome;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.synthetic.PpgScenario;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 首个有效读数耗时：每次测量（手指放上到离开）只记录一次；粗略预检的帧不计入分析帧数
+ */
+public class PipelineMetricsTest {
+
+    @Test
+    public void timeToFirstReading_recordedOncePerMeasurement() {
+        SyntheticPpg ppg = SyntheticPpg.generate(new PpgScenario().setSampleCount(1800));
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.setEnabled(true);
+        HeartRatePipeline pipeline = new HeartRatePipeline();
+        pipeline.setMetrics(metrics);
+
+        long offsetNs = 0;
+        int results = 0;
+        for (int measurement = 1; measurement <= 2; measurement++) {
+            for (int i = 0; i < ppg.size(); i++) {
+                if (pipeline.processFrame(offsetNs + ppg.getTimestamps()[i] * 1_000_000L, ppg.getIntensities()[i], 1.0)
+                        == FrameOutcome.RESULT && pipeline.getEngine().getHeartRate() > 0) {
+                    results++;
+                }
+            }
+            offsetNs += ppg.getTimestamps()[ppg.size() - 1] * 1_000_000L;
+            // 手指离开
+            for (int i = 0; i < 10; i++) {
+                offsetNs += 33_000_000L;
+                pipeline.processFrame(offsetNs, 0, 0);
+            }
+            assertFalse(pipeline.isFingerDetected());
+
+            HistogramSnapshot ttfr = metrics.snapshot().getTimeToFirstReading();
+            assertTrue(results > measurement * 10);
+            assertEquals(measurement, ttfr.getCount());
+            // 首个读数需要先填满心率窗口，不可能在几百毫秒内得到
+            assertTrue(ttfr.getMean() + " ns", ttfr.getMean() > 2_000_000_000.0);
+        }
+    }
+
+    @Test
+    public void preCheckedFrames_countedSeparately() {
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.onFramePreChecked();
+        assertEquals(0, metrics.snapshot().getFramesPreChecked());
+
+        metrics.setEnabled(true);
+        for (int i = 0; i < 5; i++) {
+            metrics.onFrameReceived();
+            metrics.onFramePreChecked();
+        }
+        metrics.onFrameReceived();
+        metrics.onFrameAnalyzed();
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(6, snapshot.getFramesReceived());
+        assertEquals(5, snapshot.getFramesPreChecked());
+        assertEquals(1, snapshot.getFramesAnalyzed());
+        assertTrue(snapshot.toString().contains("preChecked=5"));
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().getFramesPreChecked());
+    }
+}
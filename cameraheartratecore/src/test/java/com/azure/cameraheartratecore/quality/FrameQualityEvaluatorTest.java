@@ -0,0 +1,87 @@
+package com.azure.cameraheartratecore.quality;
+
+import com.azure.cameraheartratecore.engine.FrameOutcome;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.PixelSampler;
+import com.azure.cameraheartratecore.sampler.SignalChannel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多通道采样的统计、通道选择与低质量帧的跳过
+ */
+public class FrameQualityEvaluatorTest {
+
+    @Test
+    public void sampleArgb_extractsChannelStatsInOnePass() {
+        int width = 8;
+        int height = 8;
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            // 一半像素红色过曝，一半正常
+            int red = i % 2 == 0 ? 255 : 200;
+            pixels[i] = 0xFF000000 | (red << 16) | (40 << 8) | 20;
+        }
+        PixelSampler sampler = new PixelSampler().setRegionOfInterest(0, 0, 1, 1).setStride(1);
+        sampler.sampleArgb(pixels, width, height);
+        FrameStats stats = sampler.getFrameStats();
+
+        assertEquals(227.5, stats.getMean(SignalChannel.RED), 1e-9);
+        assertEquals(40, stats.getMean(SignalChannel.GREEN), 1e-9);
+        assertEquals(0.5, stats.getSaturatedFraction(SignalChannel.RED), 1e-9);
+        assertEquals(0, stats.getClippedFraction(SignalChannel.GREEN), 1e-9);
+        assertEquals(1.0, stats.getCoverageRatio(), 1e-9);
+    }
+
+    @Test
+    public void evaluate_prefersGreenWhenRedIsSaturated() {
+        FrameQualityEvaluator evaluator = new FrameQualityEvaluator();
+        FrameStats stats = new FrameStats()
+                .setCoverageRatio(1.0)
+                .setMean(SignalChannel.RED, 252).setSaturatedFraction(SignalChannel.RED, 0.9)
+                .setMean(SignalChannel.GREEN, 60)
+                .setMean(SignalChannel.LUMA, 120);
+        evaluator.evaluate(stats, true);
+        assertEquals(SignalChannel.GREEN, evaluator.getChannel());
+        assertEquals(1.0f, evaluator.getQuality(), 1e-6f);
+
+        // 测量过程中红色恢复正常，需要连续多帧明显更好才切换回来
+        stats.setSaturatedFraction(SignalChannel.RED, 0).setClippedFraction(SignalChannel.GREEN, 0.5);
+        evaluator.evaluate(stats, true);
+        assertEquals(SignalChannel.GREEN, evaluator.getChannel());
+        assertEquals(QualityIssue.TOO_DARK, evaluator.getIssue());
+        boolean changed = false;
+        for (int i = 0; i < 20 && !changed; i++) {
+            evaluator.evaluate(stats, true);
+            changed = evaluator.isChannelChanged();
+        }
+        assertTrue(changed);
+        assertEquals(SignalChannel.RED, evaluator.getChannel());
+
+        evaluator.evaluate(stats, false);
+        assertEquals(QualityIssue.NO_FINGER, evaluator.getIssue());
+        assertEquals(0f, evaluator.getQuality(), 0f);
+    }
+
+    @Test
+    public void pipeline_skipsFramesWithLargeJumps() {
+        HeartRatePipeline pipeline = new HeartRatePipeline();
+        FrameStats stats = new FrameStats().setCoverageRatio(1.0).setMean(SignalChannel.RED, 200);
+        // 前两帧用于确认手指放置
+        assertEquals(FrameOutcome.IDLE, pipeline.processFrame(0, stats));
+        assertEquals(FrameOutcome.IDLE, pipeline.processFrame(0, stats));
+        assertNotEquals(FrameOutcome.LOW_QUALITY, pipeline.processFrame(0, stats));
+        assertNotEquals(FrameOutcome.LOW_QUALITY, pipeline.processFrame(33_000_000L, stats.setMean(SignalChannel.RED, 201)));
+
+        // 手指移动导致亮度突变 10%
+        assertEquals(FrameOutcome.LOW_QUALITY, pipeline.processFrame(66_000_000L, stats.setMean(SignalChannel.RED, 221)));
+        assertEquals(QualityIssue.MOTION, pipeline.getQualityEvaluator().getIssue());
+        assertTrue(pipeline.isFingerDetected());
+
+        pipeline.setMinFrameQuality(0);
+        assertNotEquals(FrameOutcome.LOW_QUALITY, pipeline.processFrame(99_000_000L, stats.setMean(SignalChannel.RED, 180)));
+    }
+}
@@ -0,0 +1,129 @@
+package com.azure.cameraheartratecore.quality;
+
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.PixelSampler;
+import com.azure.cameraheartratecore.sampler.SignalChannel;
+import com.azure.cameraheartratecore.synthetic.PpgScenario;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 运动伪影检测：合成运动段的检出率、干净信号上的误报，以及分块统计和手指检测的配合
+ */
+public class MotionDetectorTest {
+
+    @Test
+    public void syntheticMotion_isDetectedWithoutFalseAlarms() {
+        SyntheticPpg ppg = SyntheticPpg.generate(new PpgScenario().setMotionPerMinute(4).setSampleCount(5400));
+        MotionDetector detector = new MotionDetector();
+        FrameStats stats = new FrameStats();
+        int spans = 0;
+        int detectedSpans = 0;
+        int motionFrames = 0;
+        int detectedFrames = 0;
+        boolean inSpan = false;
+        boolean spanDetected = false;
+        for (int i = 0; i < ppg.size(); i++) {
+            stats.setRedOnly(ppg.getIntensities()[i], 1.0);
+            boolean detected = detector.update(ppg.getTimestamps()[i], stats, SignalChannel.RED);
+            boolean motion = ppg.isMotion(i);
+            if (motion && !inSpan) {
+                spans++;
+                spanDetected = false;
+            }
+            if (motion && detected && !spanDetected) {
+                detectedSpans++;
+                spanDetected = true;
+            }
+            inSpan = motion;
+            if (motion) {
+                motionFrames++;
+                if (detected) {
+                    detectedFrames++;
+                }
+            }
+        }
+        assertTrue(spans > 5);
+        assertEquals(spans, detectedSpans);
+        assertTrue(detectedFrames + " of " + motionFrames, detectedFrames >= 0.6 * motionFrames);
+
+        PpgScenario[] clean = {
+                new PpgScenario().setHeartRateBpm(160),
+                new PpgScenario().setNoise(1.0),
+                new PpgScenario().setDropRate(0.1),
+                new PpgScenario().setHeartRateBpm(55).setSampleRateHz(10).setSampleCount(600)
+        };
+        for (PpgScenario scenario : clean) {
+            ppg = SyntheticPpg.generate(scenario);
+            detector.reset();
+            for (int i = 0; i < ppg.size(); i++) {
+                stats.setRedOnly(ppg.getIntensities()[i], 1.0);
+                assertFalse(scenario + " at " + i, detector.update(ppg.getTimestamps()[i], stats, SignalChannel.RED));
+            }
+        }
+    }
+
+    @Test
+    public void tiles_detectShiftButNotUniformPulse() {
+        int width = 60;
+        int height = 60;
+        PixelSampler sampler = new PixelSampler().setRegionOfInterest(0, 0, 1, 1).setStride(1);
+        MotionDetector detector = new MotionDetector();
+        long timestampMs = 0;
+        for (int frame = 0; frame < 60; frame++, timestampMs += 33) {
+            // 整体亮度按脉搏同步起伏 1%
+            double gain = 1 + 0.01 * Math.sin(frame * 0.8);
+            sampler.sampleArgb(gradient(width, height, 0, gain), width, height);
+            assertEquals(FrameStats.MAX_TILES, sampler.getFrameStats().getTileCount());
+            assertFalse("frame " + frame, detector.update(timestampMs, sampler.getFrameStats(), SignalChannel.RED));
+        }
+        // 画面横向平移，整体亮度几乎不变
+        sampler.sampleArgb(gradient(width, height, 12, 1), width, height);
+        assertTrue(detector.update(timestampMs, sampler.getFrameStats(), SignalChannel.RED));
+        assertTrue(detector.isMotion());
+        // 保持时长内仍处于运动状态，之后恢复
+        sampler.sampleArgb(gradient(width, height, 12, 1), width, height);
+        assertTrue(detector.update(timestampMs + detector.getHoldMs(), sampler.getFrameStats(), SignalChannel.RED));
+        assertFalse(detector.update(timestampMs + detector.getHoldMs() + 33, sampler.getFrameStats(), SignalChannel.RED));
+    }
+
+    @Test
+    public void pipeline_keepsFingerDuringMotion() {
+        HeartRatePipeline pipeline = new HeartRatePipeline();
+        FrameStats stats = new FrameStats().setCoverageRatio(1.0).setMean(SignalChannel.RED, 200).setMean(SignalChannel.LUMA, 120);
+        long timestampNs = 0;
+        for (int i = 0; i < 10; i++, timestampNs += 33_000_000L) {
+            pipeline.processFrame(timestampNs, stats);
+        }
+        assertTrue(pipeline.isFingerDetected());
+        // 手指滑动：亮度跳变，覆盖比例降到离开阈值以下但仍有大半覆盖
+        stats.setCoverageRatio(0.7).setMean(SignalChannel.LUMA, 150);
+        for (int i = 0; i < 10; i++, timestampNs += 33_000_000L) {
+            pipeline.processFrame(timestampNs, stats);
+            assertTrue(pipeline.getMotionDetector().isMotion());
+            assertTrue(pipeline.isFingerDetected());
+        }
+        // 手指真正离开
+        stats.setCoverageRatio(0.1);
+        for (int i = 0; i < 5; i++, timestampNs += 33_000_000L) {
+            pipeline.processFrame(timestampNs, stats);
+        }
+        assertFalse(pipeline.isFingerDetected());
+    }
+
+    //水平亮度渐变，offset 为横向平移的像素数
+    private static int[] gradient(int width, int height, int offset, double gain) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = (int) Math.round(gain * (120 + 2 * ((x + offset) % width)));
+                pixels[y * width + x] = 0xFF000000 | (Math.min(255, red) << 16) | (30 << 8) | 20;
+            }
+        }
+        return pixels;
+    }
+}
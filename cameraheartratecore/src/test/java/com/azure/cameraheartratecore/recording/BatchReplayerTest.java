@@ -0,0 +1,68 @@
+package com.azure.cameraheartratecore.recording;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * 并行批量处理的结果应与逐路回放一致，并按参考值统计误差
+ */
+public class BatchReplayerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void replay_matchesSequentialAndReportsAccuracy() throws Exception {
+        List<SampleStream> streams = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int bpm = 55 + i * 10;
+            SyntheticPpg ppg = SyntheticPpg.generate(1800, 30, bpm, 0.03, 0.2, i);
+            streams.add(SampleStream.ofIntensities("bpm" + bpm, ppg.getTimestamps(), ppg.getIntensities())
+                    .setReference(bpm, Double.NaN, Double.NaN));
+        }
+        // 再加入一份录制文件，混合两种输入
+        SyntheticPpg recorded = SyntheticPpg.generate(1800, 30, 72, 0.03, 0.2, 100);
+        File file = temporaryFolder.newFile("session.chrs");
+        try (SessionRecorder recorder = new SessionRecorder(file)) {
+            for (int i = 0; i < recorded.size(); i++) {
+                recorder.recordFrame(recorded.getTimestamps()[i] * 1_000_000L, recorded.getIntensities()[i], 0.99);
+            }
+        }
+        streams.add(SampleStream.ofRecording(file).setReference(72, Double.NaN, Double.NaN));
+
+        HeartRateEngineConfig config = new HeartRateEngineConfig().setAnalysisMode(AnalysisMode.FILTERED);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BatchResult batch;
+        try {
+            batch = BatchReplayer.replay(streams, () -> new HeartRatePipeline(config), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(streams.size(), batch.size());
+        for (int i = 0; i < streams.size(); i++) {
+            assertSame(streams.get(i), batch.getStream(i));
+            ReplayResult expected = streams.get(i).replay(new HeartRatePipeline(config));
+            SessionReplayerTest.assertSameResults(expected, batch.getResult(i));
+        }
+        assertEquals(streams.size(), batch.getSessionsWithResult());
+        AccuracyStats heartRate = batch.getHeartRateAccuracy();
+        assertEquals(streams.size(), heartRate.getCount());
+        assertTrue(heartRate.toString(), heartRate.getMeanAbsoluteError() < 5);
+        assertEquals(0, batch.getSdnnAccuracy().getCount());
+        assertTrue(Double.isNaN(batch.getSdnnAccuracy().getMeanAbsoluteError()));
+    }
+}
@@ -0,0 +1,248 @@
+package com.azure.cameraheartratecore.recording;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.FrameOutcome;
+import com.azure.cameraheartratecore.engine.HeartRateEngine;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.SignalChannel;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * 录制后回放的结果应与直接送入 HeartRatePipeline 的结果完全一致，包括分块均值和采样切换点
+ */
+public class SessionReplayerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void replay_matchesLivePipeline() throws Exception {
+        SyntheticPpg ppg = SyntheticPpg.generate(1200, 10, 72, 0.05, 0.2, 3);
+        File file = temporaryFolder.newFile("session.chrs");
+        HeartRatePipeline live = new HeartRatePipeline();
+        ReplayResult expected = new ReplayResult();
+        try (SessionRecorder recorder = new SessionRecorder(file)) {
+            for (int i = 0; i < ppg.size(); i++) {
+                long timestampNs = ppg.getTimestamps()[i] * 1_000_000L;
+                // 中间一段模拟手指离开
+                double coverage = i >= 500 && i < 520 ? 0.5 : 0.99;
+                recorder.recordFrame(timestampNs, ppg.getIntensities()[i], coverage);
+                if (live.processFrame(timestampNs, ppg.getIntensities()[i], coverage) == FrameOutcome.RESULT) {
+                    HeartRateEngine engine = live.getEngine();
+                    expected.addResult(timestampNs, engine.getHeartRate(), engine.getSdnn(), engine.getRmssd(),
+                            engine.getHrEffectiveValueRate(), engine.getHrvEffectiveValueRate());
+                }
+            }
+        }
+
+        ReplayResult actual = SessionReplayer.replay(file);
+        assertEquals(ppg.size(), actual.getFrameCount());
+        // 放置与重新放置各需 2 帧确认，离开在第 3 帧低覆盖时确认
+        assertEquals(ppg.size() - 2 - 18 - 2, actual.getFingerFrameCount());
+        assertTrue(expected.size() > 0);
+        assertSameResults(expected, actual);
+    }
+
+    @Test
+    public void replayAll_sessionsAreIsolated() throws Exception {
+        SyntheticPpg ppg = SyntheticPpg.generate(1200, 10, 72, 0.05, 0.2, 5);
+        File file = temporaryFolder.newFile("fanout.chrs");
+        try (SessionRecorder recorder = new SessionRecorder(file)) {
+            for (int i = 0; i < ppg.size(); i++) {
+                recorder.recordFrame(ppg.getTimestamps()[i] * 1_000_000L, ppg.getIntensities()[i], 0.99);
+            }
+        }
+        ReplayResult batch = SessionReplayer.replay(file, newPipeline(AnalysisMode.BATCH));
+        ReplayResult filtered = SessionReplayer.replay(file, newPipeline(AnalysisMode.FILTERED));
+
+        // 同一份录制分发给两套配置，结果与各自单独回放相同
+        ReplayResult[] fanOut;
+        try (SessionReader reader = SessionReader.open(file)) {
+            fanOut = SessionReplayer.replayAll(reader, newPipeline(AnalysisMode.BATCH), newPipeline(AnalysisMode.FILTERED));
+        }
+        assertSameResults(batch, fanOut[0]);
+        assertSameResults(filtered, fanOut[1]);
+
+        // 多个线程各自回放，互不影响
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ReplayResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final AnalysisMode mode = i % 2 == 0 ? AnalysisMode.BATCH : AnalysisMode.FILTERED;
+                futures.add(executor.submit(() -> SessionReplayer.replay(file, newPipeline(mode))));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertSameResults(i % 2 == 0 ? batch : filtered, futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static HeartRatePipeline newPipeline(AnalysisMode mode) {
+        return new HeartRatePipeline(new HeartRateEngineConfig().setAnalysisMode(mode));
+    }
+
+    static void assertSameResults(ReplayResult expected, ReplayResult actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getTimestampNs(i), actual.getTimestampNs(i));
+            assertEquals(expected.getHeartRate(i), actual.getHeartRate(i));
+            assertEquals(expected.getSdnn(i), actual.getSdnn(i));
+            assertEquals(expected.getRmssd(i), actual.getRmssd(i));
+            assertEquals(expected.getHrEffectiveValueRate(i), actual.getHrEffectiveValueRate(i), 0);
+        }
+    }
+
+    @Test
+    public void recordFrame_downscalesPlanes() throws Exception {
+        int width = 8;
+        int height = 4;
+        ByteBuffer y = ByteBuffer.allocateDirect(width * height);
+        for (int i = 0; i < width * height; i++) {
+            y.put(i, (byte) i);
+        }
+        // 半平面交错排列，V 的像素步长为 2
+        ByteBuffer v = ByteBuffer.allocateDirect(width * height / 2);
+        for (int i = 0; i < width * height / 2; i++) {
+            v.put(i, (byte) (100 + i));
+        }
+        File file = temporaryFolder.newFile("planes.chrs");
+        try (SessionRecorder recorder = new SessionRecorder(file, 4, 2)) {
+            recorder.recordFrame(1L, 120.5, 0.97, width, height, y, width, 1, v, width, 2);
+        }
+
+        try (SessionReader reader = SessionReader.open(file)) {
+            assertTrue(reader.hasPlanes());
+            assertEquals(1, reader.getFrameCount());
+            assertTrue(reader.next());
+            assertEquals(120.5, reader.getIntensity(), 0);
+            assertEquals(0.97, reader.getCoverage(), 0);
+            byte[] plane = new byte[8];
+            reader.getYPlane(plane);
+            assertArrayEquals(new byte[]{0, 2, 4, 6, 16, 18, 20, 22}, plane);
+            reader.getVPlane(plane);
+            assertArrayEquals(new byte[]{100, 102, 104, 106, 108, 110, 112, 114}, plane);
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void replay_restoresTilesAndSamplingChanges() throws Exception {
+        SyntheticPpg ppg = SyntheticPpg.generate(1200, 10, 72, 0.05, 0.2, 4);
+        // 第 600 帧换用另一组采样区域，各块的相对亮度分布随之改变
+        int changeFrame = 600;
+        File file = temporaryFolder.newFile("tiles.chrs");
+        HeartRatePipeline live = new HeartRatePipeline();
+        ReplayResult expected = new ReplayResult();
+        FrameStats stats = new FrameStats();
+        int liveLowQuality = 0;
+        try (SessionRecorder recorder = new SessionRecorder(file)) {
+            for (int i = 0; i < ppg.size(); i++) {
+                long timestampNs = ppg.getTimestamps()[i] * 1_000_000L;
+                fillTiledStats(stats, ppg.getIntensities()[i], i >= changeFrame);
+                if (i == changeFrame) {
+                    recorder.markSamplingChanged();
+                    live.onSamplingChanged();
+                }
+                recorder.recordFrame(timestampNs, stats);
+                FrameOutcome outcome = live.processFrame(timestampNs, stats);
+                if (outcome == FrameOutcome.LOW_QUALITY) {
+                    liveLowQuality++;
+                } else if (outcome == FrameOutcome.RESULT) {
+                    HeartRateEngine engine = live.getEngine();
+                    expected.addResult(timestampNs, engine.getHeartRate(), engine.getSdnn(), engine.getRmssd(),
+                            engine.getHrEffectiveValueRate(), engine.getHrvEffectiveValueRate());
+                }
+            }
+        }
+
+        try (SessionReader reader = SessionReader.open(file)) {
+            for (int i = 0; reader.next(); i++) {
+                assertEquals("frame " + i, i == changeFrame, reader.isSamplingChanged());
+                FrameStats read = reader.getFrameStats();
+                fillTiledStats(stats, ppg.getIntensities()[i], i >= changeFrame);
+                assertEquals(FrameStats.MAX_TILES, read.getTileCount());
+                for (int tile = 0; tile < FrameStats.MAX_TILES; tile++) {
+                    assertEquals(stats.getTileMean(tile), read.getTileMean(tile), 0);
+                }
+            }
+        }
+
+        assertSameResults(expected, SessionReplayer.replay(file));
+
+        // 不通知采样切换时，分块分布的变化被当作运动，之后的帧被跳过
+        HeartRatePipeline unaware = new HeartRatePipeline();
+        int lowQuality = 0;
+        try (SessionReader reader = SessionReader.open(file)) {
+            while (reader.next()) {
+                if (unaware.processFrame(reader.getTimestampNs(), reader.getFrameStats()) == FrameOutcome.LOW_QUALITY) {
+                    lowQuality++;
+                }
+            }
+        }
+        assertEquals(0, liveLowQuality);
+        assertTrue(lowQuality > 0);
+    }
+
+    @Test
+    public void reader_readsVersion2Recording() throws Exception {
+        File file = temporaryFolder.newFile("v2.chrs");
+        ByteBuffer buffer = ByteBuffer.allocate(SessionRecorder.HEADER_SIZE + SessionRecorder.NO_TILES_FIELDS_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SessionRecorder.MAGIC)
+                .putShort(SessionRecorder.VERSION_NO_TILES)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putInt(SessionRecorder.NO_TILES_FIELDS_SIZE);
+        buffer.putLong(42L).putDouble(0.98);
+        for (int channel = 0; channel < SignalChannel.values().length; channel++) {
+            buffer.putDouble(100 + channel).putDouble(0.01).putDouble(0.02);
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(buffer.array());
+        }
+
+        try (SessionReader reader = SessionReader.open(file)) {
+            assertEquals(1, reader.getFrameCount());
+            assertTrue(reader.next());
+            assertEquals(42L, reader.getTimestampNs());
+            assertEquals(0.98, reader.getCoverage(), 0);
+            assertEquals(100, reader.getFrameStats().getMean(SignalChannel.values()[0]), 0);
+            assertEquals(0, reader.getFrameStats().getTileCount());
+            assertFalse(reader.isSamplingChanged());
+            assertFalse(reader.next());
+        }
+    }
+
+    //红色通道为脉搏信号，亮度恒定，各块相对亮度按采样区域固定分布
+    private static void fillTiledStats(FrameStats stats, double intensity, boolean secondRegion) {
+        double luma = 150;
+        stats.setRedOnly(intensity, 0.99)
+                .setMean(SignalChannel.LUMA, luma);
+        for (int tile = 0; tile < FrameStats.MAX_TILES; tile++) {
+            int rank = secondRegion ? FrameStats.MAX_TILES - 1 - tile : tile;
+            stats.setTileMean(tile, luma * (0.8 + 0.05 * rank));
+        }
+        stats.setTileCount(FrameStats.MAX_TILES);
+    }
+}
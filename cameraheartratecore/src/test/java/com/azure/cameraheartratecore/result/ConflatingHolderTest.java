@@ -0,0 +1,104 @@
+package com.azure.cameraheartratecore.result;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * 消费方跟不上时只投递最新值，排队的投递任务最多一个；投递完和被替换的值交回发布方复用
+ */
+public class ConflatingHolderTest {
+
+    @Test
+    public void slowConsumer_receivesOnlyLatest() {
+        // 手动执行的执行器，模拟回调线程一直忙到发布结束
+        ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        List<Integer> received = new ArrayList<>();
+        ConflatingHolder<Integer> holder = new ConflatingHolder<>(queue::add, received::add);
+        assertNull(holder.getLatest());
+
+        for (int i = 1; i <= 5; i++) {
+            holder.publish(i);
+        }
+        assertEquals(1, queue.size());
+        assertEquals(Integer.valueOf(5), holder.getLatest());
+        queue.poll().run();
+        assertEquals(1, received.size());
+        assertEquals(Integer.valueOf(5), received.get(0));
+        assertEquals(4, holder.getDroppedCount());
+
+        holder.publish(6);
+        queue.poll().run();
+        assertEquals(Integer.valueOf(6), received.get(1));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void nullExecutor_deliversEveryValue() {
+        List<Integer> received = new ArrayList<>();
+        ConflatingHolder<Integer> holder = new ConflatingHolder<>(null, received::add);
+        for (int i = 0; i < 3; i++) {
+            holder.publish(i);
+        }
+        assertEquals(3, received.size());
+        assertEquals(0, holder.getDroppedCount());
+    }
+
+    @Test
+    public void obtain_returnsDeliveredValue() {
+        List<HeartRateSnapshot> received = new ArrayList<>();
+        ConflatingHolder<HeartRateSnapshot> holder = new ConflatingHolder<>(null, received::add);
+        assertNull(holder.obtain());
+
+        HeartRateSnapshot first = new HeartRateSnapshot();
+        first.set(1, 70, 40, 30, true, 1f, 1f, 0.9f, null);
+        holder.publish(first);
+        // 同步投递后立即可以复用，之后一直只用这一个实例
+        for (int i = 2; i <= 5; i++) {
+            HeartRateSnapshot snapshot = holder.obtain();
+            assertSame(first, snapshot);
+            snapshot.set(i, 70 + i, 40, 30, true, 1f, 1f, 0.9f, null);
+            holder.publish(snapshot);
+            assertEquals(70 + i, received.get(received.size() - 1).getHeartRate());
+        }
+        assertEquals(5, received.size());
+    }
+
+    @Test
+    public void slowConsumer_recyclesReplacedValues() {
+        ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        List<HeartRateSnapshot> received = new ArrayList<>();
+        ConflatingHolder<HeartRateSnapshot> holder = new ConflatingHolder<>(queue::add, received::add);
+        Set<HeartRateSnapshot> allocated = Collections.newSetFromMap(new IdentityHashMap<>());
+        HeartRateSnapshot published = null;
+        for (int i = 1; i <= 100; i++) {
+            HeartRateSnapshot snapshot = holder.obtain();
+            if (snapshot == null) {
+                snapshot = new HeartRateSnapshot();
+                allocated.add(snapshot);
+            }
+            // 等待投递的值不会被交回
+            if (!queue.isEmpty()) {
+                assertNotSame(published, snapshot);
+            }
+            snapshot.set(i, i, 0, 0, true, 0f, 0f, 0f, null);
+            holder.publish(snapshot);
+            published = snapshot;
+            if (i % 10 == 0) {
+                queue.poll().run();
+                assertEquals(i, received.get(received.size() - 1).getHeartRate());
+            }
+        }
+        // 一个等待投递、一个空闲，之后不再分配
+        assertEquals(2, allocated.size());
+        assertEquals(10, received.size());
+        assertEquals(90, holder.getDroppedCount());
+    }
+}
@@ -0,0 +1,351 @@
+package com.azure.cameraheartratecore.sampler;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 像素采样：带行填充和像素步长 2 的平面与紧凑平面结果一致，采样区域与步长组合下只取预期网格上的点，
+ * 默认采样区域与原有的整帧采样得到相同的脉搏波形
+ */
+public class PixelSamplerTest {
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+    //填充字节，采样读到时结果会明显偏离
+    private static final byte PADDING = (byte) 0xEE;
+
+    private static final float[][] REGIONS = {
+            {0f, 0f, 1f, 1f},
+            {0.25f, 0.25f, 0.75f, 0.75f},
+            {0.1f, 0.2f, 0.6f, 0.9f},
+            {0.55f, 0f, 1f, 0.5f},
+    };
+    private static final int[] STRIDES = {1, 2, 3, 5};
+
+    /**
+     * 各平面的取值，色度坐标为 2x2 下采样后的坐标
+     */
+    private interface Pattern {
+        int luma(int x, int y);
+
+        int u(int column, int row);
+
+        int v(int column, int row);
+    }
+
+    /**
+     * 左半边红色占优、右半边为灰色，亮度按位置变化且不会截断
+     */
+    private static final Pattern HALF_RED = new Pattern() {
+        @Override
+        public int luma(int x, int y) {
+            return 40 + (x * 7 + y * 13) % 160;
+        }
+
+        @Override
+        public int u(int column, int row) {
+            return 128;
+        }
+
+        @Override
+        public int v(int column, int row) {
+            return column < WIDTH / 4 ? 200 : 128;
+        }
+    };
+
+    private static final class YuvFrame {
+        final int yRowStride;
+        final int yPixelStride;
+        final int uvRowStride;
+        final int uvPixelStride;
+        final ByteBuffer y;
+        final ByteBuffer u;
+        final ByteBuffer v;
+
+        YuvFrame(int yRowStride, int yPixelStride, int uvRowStride, int uvPixelStride, Pattern pattern) {
+            this.yRowStride = yRowStride;
+            this.yPixelStride = yPixelStride;
+            this.uvRowStride = uvRowStride;
+            this.uvPixelStride = uvPixelStride;
+            // 与相机一样，最后一行不含行尾填充
+            byte[] yBytes = filled((HEIGHT - 1) * yRowStride + (WIDTH - 1) * yPixelStride + 1);
+            byte[] uBytes = filled((HEIGHT / 2 - 1) * uvRowStride + (WIDTH / 2 - 1) * uvPixelStride + 1);
+            byte[] vBytes = filled(uBytes.length);
+            for (int row = 0; row < HEIGHT; row++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    yBytes[row * yRowStride + x * yPixelStride] = (byte) pattern.luma(x, row);
+                }
+            }
+            for (int row = 0; row < HEIGHT / 2; row++) {
+                for (int column = 0; column < WIDTH / 2; column++) {
+                    uBytes[row * uvRowStride + column * uvPixelStride] = (byte) pattern.u(column, row);
+                    vBytes[row * uvRowStride + column * uvPixelStride] = (byte) pattern.v(column, row);
+                }
+            }
+            y = ByteBuffer.wrap(yBytes);
+            u = ByteBuffer.wrap(uBytes);
+            v = ByteBuffer.wrap(vBytes);
+        }
+
+        private static byte[] filled(int length) {
+            byte[] bytes = new byte[length];
+            Arrays.fill(bytes, PADDING);
+            return bytes;
+        }
+
+        void sample(PixelSampler sampler) {
+            sampler.sampleYuv(WIDTH, HEIGHT, y, yRowStride, yPixelStride, u, v, uvRowStride, uvPixelStride);
+        }
+    }
+
+    @Test
+    public void paddedStrides_matchTightLayout() {
+        YuvFrame tight = new YuvFrame(WIDTH, 1, WIDTH / 2, 1, HALF_RED);
+        YuvFrame[] padded = {
+                // 行尾填充 + 色度像素步长 2（NV21/NV12 常见布局）
+                new YuvFrame(WIDTH + 16, 1, WIDTH + 16, 2, HALF_RED),
+                // 亮度像素步长也为 2
+                new YuvFrame(2 * WIDTH + 8, 2, WIDTH + 4, 2, HALF_RED),
+        };
+        PixelSampler expected = new PixelSampler();
+        PixelSampler actual = new PixelSampler();
+        for (float[] region : REGIONS) {
+            for (int stride : STRIDES) {
+                expected.setRegionOfInterest(region[0], region[1], region[2], region[3]).setStride(stride);
+                actual.setRegionOfInterest(region[0], region[1], region[2], region[3]).setStride(stride);
+                tight.sample(expected);
+                for (YuvFrame frame : padded) {
+                    frame.sample(actual);
+                    assertSameStats(expected.getFrameStats(), actual.getFrameStats());
+                    assertEquals(0, frame.y.position());
+                    assertEquals(0, frame.u.position());
+                    assertEquals(0, frame.v.position());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void uniformFrame_meanAndCoverage() {
+        PixelSampler sampler = new PixelSampler();
+        // Y=100, V=200：R = 100 + 359*72/256 = 200，G = 100 - 183*72/256 = 49，B = 100
+        YuvFrame red = new YuvFrame(WIDTH + 16, 1, WIDTH + 16, 2, uniform(100, 128, 200));
+        red.sample(sampler);
+        FrameStats stats = sampler.getFrameStats();
+        assertEquals(200, stats.getMean(SignalChannel.RED), 0);
+        assertEquals(49, stats.getMean(SignalChannel.GREEN), 0);
+        assertEquals(100, stats.getMean(SignalChannel.LUMA), 0);
+        assertEquals(1.0, stats.getCoverageRatio(), 0);
+        assertEquals(FrameStats.MAX_TILES, stats.getTileCount());
+
+        YuvFrame gray = new YuvFrame(WIDTH + 16, 1, WIDTH + 16, 2, uniform(100, 128, 128));
+        gray.sample(sampler);
+        assertEquals(100, stats.getMean(SignalChannel.RED), 0);
+        assertEquals(100, stats.getMean(SignalChannel.GREEN), 0);
+        assertEquals(0.0, stats.getCoverageRatio(), 0);
+        assertEquals(0.0, stats.getSaturatedFraction(SignalChannel.RED), 0);
+    }
+
+    @Test
+    public void regionAndStride_sampleExpectedGrid() {
+        YuvFrame frame = new YuvFrame(WIDTH + 16, 1, WIDTH + 16, 2, HALF_RED);
+        PixelSampler sampler = new PixelSampler();
+        for (float[] region : REGIONS) {
+            for (int stride : STRIDES) {
+                sampler.setRegionOfInterest(region[0], region[1], region[2], region[3]).setStride(stride);
+                frame.sample(sampler);
+                // YUV 路径的起始列对齐到偶数
+                int x0 = (int) (WIDTH * region[0]);
+                int x1 = Math.max(x0 + 1, (int) (WIDTH * region[2]));
+                int y0 = (int) (HEIGHT * region[1]);
+                int y1 = Math.max(y0 + 1, (int) (HEIGHT * region[3]));
+                x0 &= ~1;
+                long lumaSum = 0;
+                int redPixels = 0;
+                int count = 0;
+                for (int y = y0; y < y1; y += stride) {
+                    for (int x = x0; x < x1; x += stride) {
+                        lumaSum += HALF_RED.luma(x, y);
+                        redPixels += x < WIDTH / 2 ? 1 : 0;
+                        count++;
+                    }
+                }
+                String label = Arrays.toString(region) + " stride " + stride;
+                FrameStats stats = sampler.getFrameStats();
+                assertEquals(label, (double) lumaSum / count, stats.getMean(SignalChannel.LUMA), 1e-9);
+                assertEquals(label, (double) redPixels / count, stats.getCoverageRatio(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void argbRegionAndStride_sampleExpectedGrid() {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int red = HALF_RED.luma(x, y);
+                pixels[y * WIDTH + x] = 0xFF000000 | red << 16 | (x < WIDTH / 2 ? 0 : red) << 8 | (x < WIDTH / 2 ? 0 : red);
+            }
+        }
+        PixelSampler sampler = new PixelSampler();
+        for (float[] region : REGIONS) {
+            for (int stride : STRIDES) {
+                sampler.setRegionOfInterest(region[0], region[1], region[2], region[3]).setStride(stride);
+                sampler.sampleArgb(pixels, WIDTH, HEIGHT);
+                int x0 = (int) (WIDTH * region[0]);
+                int x1 = Math.max(x0 + 1, (int) (WIDTH * region[2]));
+                int y0 = (int) (HEIGHT * region[1]);
+                int y1 = Math.max(y0 + 1, (int) (HEIGHT * region[3]));
+                long redSum = 0;
+                int redPixels = 0;
+                int count = 0;
+                for (int y = y0; y < y1; y += stride) {
+                    for (int x = x0; x < x1; x += stride) {
+                        redSum += HALF_RED.luma(x, y);
+                        redPixels += x < WIDTH / 2 ? 1 : 0;
+                        count++;
+                    }
+                }
+                String label = Arrays.toString(region) + " stride " + stride;
+                assertEquals(label, (double) redSum / count, sampler.getMeanRed(), 1e-9);
+                assertEquals(label, (double) redPixels / count, sampler.getCoverageRatio(), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * 默认的中心 1/2 区域、步长 4 与原有采样方式（整帧每 10 个像素取红色均值、中心 1/4 区域逐像素判断覆盖）
+     * 在带暗角和噪声的指尖画面上得到相同的脉搏波形和覆盖比例
+     */
+    @Test
+    public void defaultRegion_matchesBaselineWholeFrameSampling() {
+        int width = 160;
+        int height = 120;
+        int frames = 90;
+        int[] pixels = new int[width * height];
+        Random random = new Random(7);
+        PixelSampler sampler = new PixelSampler();
+        double[] sampled = new double[frames];
+        double[] baseline = new double[frames];
+        for (int i = 0; i < frames; i++) {
+            // 30fps 下 72bpm 的脉搏，幅度约为亮度的 1.5%
+            double pulse = 1 + 0.015 * Math.sin(2 * Math.PI * 1.2 * i / 30.0);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    double dx = (x - width / 2.0) / (width / 2.0);
+                    double dy = (y - height / 2.0) / (height / 2.0);
+                    double vignette = 1 - 0.4 * (dx * dx + dy * dy) / 2;
+                    int red = (int) Math.round(200 * vignette * pulse + 3 * random.nextGaussian());
+                    red = Math.max(0, Math.min(255, red));
+                    pixels[y * width + x] = 0xFF000000 | red << 16 | (red / 4) << 8 | (red / 8);
+                }
+            }
+            sampler.sampleArgb(pixels, width, height);
+            sampled[i] = sampler.getMeanRed();
+            baseline[i] = baselineMeanRed(pixels, width, height);
+            assertEquals(1.0, sampler.getCoverageRatio(), 0);
+            assertEquals(baselineCoverage(pixels, width, height), sampler.getCoverageRatio(), 0);
+        }
+        assertTrue("correlation", correlation(sampled, baseline) > 0.97);
+
+        // 手指只盖住左半边时两种方式的覆盖比例都约为一半
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = 200;
+                int other = x < width / 2 ? 40 : 220;
+                pixels[y * width + x] = 0xFF000000 | red << 16 | other << 8 | other;
+            }
+        }
+        sampler.sampleArgb(pixels, width, height);
+        assertEquals(0.5, sampler.getCoverageRatio(), 0.05);
+        assertEquals(baselineCoverage(pixels, width, height), sampler.getCoverageRatio(), 0.05);
+    }
+
+    private static double baselineMeanRed(int[] pixels, int width, int height) {
+        double redSum = 0;
+        int count = 0;
+        for (int y = 0; y < height; y += 10) {
+            for (int x = 0; x < width; x += 10) {
+                redSum += (pixels[y * width + x] >> 16) & 0xFF;
+                count++;
+            }
+        }
+        return redSum / count;
+    }
+
+    private static double baselineCoverage(int[] pixels, int width, int height) {
+        int regionWidth = width / 4;
+        int regionHeight = height / 4;
+        int startX = width / 2 - regionWidth / 2;
+        int startY = height / 2 - regionHeight / 2;
+        int redPixels = 0;
+        int count = 0;
+        for (int y = startY; y < startY + regionHeight; y++) {
+            for (int x = startX; x < startX + regionWidth; x++) {
+                int pixel = pixels[y * width + x];
+                int red = (pixel >> 16) & 0xFF;
+                int green = (pixel >> 8) & 0xFF;
+                int blue = pixel & 0xFF;
+                if (red > green && red > blue) {
+                    redPixels++;
+                }
+                count++;
+            }
+        }
+        return (double) redPixels / count;
+    }
+
+    private static double correlation(double[] a, double[] b) {
+        double meanA = 0;
+        double meanB = 0;
+        for (int i = 0; i < a.length; i++) {
+            meanA += a[i] / a.length;
+            meanB += b[i] / b.length;
+        }
+        double covariance = 0;
+        double varianceA = 0;
+        double varianceB = 0;
+        for (int i = 0; i < a.length; i++) {
+            covariance += (a[i] - meanA) * (b[i] - meanB);
+            varianceA += (a[i] - meanA) * (a[i] - meanA);
+            varianceB += (b[i] - meanB) * (b[i] - meanB);
+        }
+        return covariance / Math.sqrt(varianceA * varianceB);
+    }
+
+    private static Pattern uniform(final int luma, final int u, final int v) {
+        return new Pattern() {
+            @Override
+            public int luma(int x, int y) {
+                return luma;
+            }
+
+            @Override
+            public int u(int column, int row) {
+                return u;
+            }
+
+            @Override
+            public int v(int column, int row) {
+                return v;
+            }
+        };
+    }
+
+    private static void assertSameStats(FrameStats expected, FrameStats actual) {
+        for (SignalChannel channel : SignalChannel.values()) {
+            assertEquals(expected.getMean(channel), actual.getMean(channel), 0);
+            assertEquals(expected.getSaturatedFraction(channel), actual.getSaturatedFraction(channel), 0);
+            assertEquals(expected.getClippedFraction(channel), actual.getClippedFraction(channel), 0);
+        }
+        assertEquals(expected.getCoverageRatio(), actual.getCoverageRatio(), 0);
+        assertEquals(expected.getTileCount(), actual.getTileCount());
+        for (int i = 0; i < FrameStats.MAX_TILES; i++) {
+            assertEquals(expected.getTileMean(i), actual.getTileMean(i), 0);
+        }
+    }
+}
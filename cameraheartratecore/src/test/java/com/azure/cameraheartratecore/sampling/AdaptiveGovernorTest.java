@@ -0,0 +1,180 @@
+package com.azure.cameraheartratecore.sampling;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.FrameOutcome;
+import com.azure.cameraheartratecore.engine.HeartRateEngine;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.metrics.GovernorReason;
+import com.azure.cameraheartratecore.metrics.MetricsSnapshot;
+import com.azure.cameraheartratecore.metrics.PipelineMetrics;
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.PixelSampler;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 以模拟的 CPU 耗时回放 30fps 合成数据：耗时按采样像素数估算，中途温度提示压缩预算
+ */
+public class AdaptiveGovernorTest {
+    private static final double CPU_BUDGET = 0.3;
+
+    @Test
+    public void replay_staysWithinSimulatedBudget() {
+        SyntheticPpg ppg = SyntheticPpg.generate(30 * 180, 30, 72, 0.03, 0.2, 11);
+        HeartRatePipeline pipeline = new HeartRatePipeline(new HeartRateEngineConfig().setAnalysisMode(AnalysisMode.FILTERED));
+        HeartRateEngine engine = pipeline.getEngine();
+        PipelineMetrics metrics = new PipelineMetrics();
+        metrics.setEnabled(true);
+        AdaptiveGovernor governor = new AdaptiveGovernor(CPU_BUDGET);
+        governor.setMetrics(metrics);
+        final double[] headroom = {1.0};
+        governor.setThermalHint(() -> headroom[0]);
+        FrameStats stats = new FrameStats();
+        long appliedVersion = -1;
+        boolean stableOnce = false;
+        boolean hrvSeenBeforeStable = false;
+        int lastSdnn = 0;
+        int lastHeartRate = 0;
+        double load = 0;
+
+        for (int i = 0; i < ppg.size(); i++) {
+            if (i == 30 * 120) {
+                // 2 分钟时设备发热，预算降为 20%
+                headroom[0] = 0.2;
+            }
+            if (governor.getVersion() != appliedVersion) {
+                appliedVersion = governor.getVersion();
+                governor.apply(engine);
+            }
+            long timestampNs = ppg.getTimestamps()[i] * 1_000_000L;
+            if (!governor.shouldSample(timestampNs)) {
+                continue;
+            }
+            stats.setRedOnly(ppg.getIntensities()[i], 0.99);
+            FrameOutcome outcome = pipeline.processFrame(timestampNs, stats);
+            if (outcome == FrameOutcome.RESULT) {
+                // 心率第一次稳定之前不应计算 HRV
+                if (!stableOnce && engine.getSdnn() > 0) {
+                    hrvSeenBeforeStable = true;
+                }
+                governor.onResult(engine.getHeartRate());
+                stableOnce |= governor.isHeartRateStable();
+                lastSdnn = engine.getSdnn();
+                lastHeartRate = engine.getHeartRate();
+            }
+            long costNs = simulatedCostNs(governor.getCurrentLevel());
+            governor.onFrameProcessed(costNs, pipeline.getQualityEvaluator().getQuality());
+            load = (double) costNs * governor.getCurrentLevel().getAnalysisHz() / 1e9;
+        }
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertTrue(snapshot.toString(), snapshot.getGovernorDecisions(GovernorReason.OVER_BUDGET) >= 1);
+        assertTrue(snapshot.toString(), snapshot.getGovernorDecisions(GovernorReason.THERMAL) >= 1);
+        assertTrue(snapshot.toString(), snapshot.getGovernorDecisions(GovernorReason.HR_STABLE) >= 1);
+        assertEquals(governor.getLevel(), snapshot.getGovernorLevel());
+        // 3 分钟内不应来回切换
+        long decisions = 0;
+        for (GovernorReason reason : GovernorReason.values()) {
+            decisions += snapshot.getGovernorDecisions(reason);
+        }
+        assertTrue(snapshot.toString(), decisions <= 12);
+        assertTrue("load " + load, load <= CPU_BUDGET * headroom[0]);
+        assertFalse(hrvSeenBeforeStable);
+        assertTrue(governor.isHrvEnabled());
+        assertTrue(lastSdnn > 0);
+        assertEquals(72, lastHeartRate, 5);
+    }
+
+    @Test
+    public void heartRateStability_gatesHrv() {
+        AdaptiveGovernor governor = new AdaptiveGovernor(CPU_BUDGET);
+        for (int i = 0; i < 4; i++) {
+            governor.onResult(70 + i);
+            assertFalse(governor.isHrvEnabled());
+        }
+        governor.onResult(74);
+        assertTrue(governor.isHrvEnabled());
+        assertEquals(GovernorReason.HR_STABLE, governor.getLastReason());
+        governor.onResult(0);
+        assertFalse(governor.isHrvEnabled());
+        assertEquals(GovernorReason.HR_UNSTABLE, governor.getLastReason());
+    }
+
+    @Test
+    public void levelChange_roiDependentIntensityIsBridged() {
+        int[] steady = replayLevelChanges(false, false);
+        int[] notified = replayLevelChanges(true, true);
+        int[] unnotified = replayLevelChanges(true, false);
+        // 通知流水线后，切换档位不产生额外的运动和低质量帧
+        assertEquals(steady[0], notified[0]);
+        // 不通知时每次切换都被当作运动
+        assertTrue("low quality frames " + unnotified[0], unnotified[0] > steady[0] + 50);
+        assertTrue("max error " + notified[1], notified[1] <= 8);
+        assertTrue("readings " + notified[2], notified[2] >= 100);
+    }
+
+    /**
+     * 画面中心亮、四周暗，档位每 5 秒在两个采样区域之间切换，采样均值随之阶跃约 6%，约为脉搏幅度的 4 倍
+     *
+     * @param switchLevels 是否切换档位
+     * @param notifyPipeline 切换后是否调用 onSamplingChanged
+     * @return 低质量帧数、第 15 秒之后心率与 72 的最大偏差、有效心率个数
+     */
+    private static int[] replayLevelChanges(boolean switchLevels, boolean notifyPipeline) {
+        int size = 48;
+        double[] vignette = new double[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                double dx = (x - (size - 1) / 2.0) / (size / 2.0);
+                double dy = (y - (size - 1) / 2.0) / (size / 2.0);
+                vignette[y * size + x] = 1 - 0.3 * (dx * dx + dy * dy);
+            }
+        }
+        AdaptiveGovernor[] governors = {
+                new AdaptiveGovernor(CPU_BUDGET, new GovernorLevel(30, 2, 0.6f, true)),
+                new AdaptiveGovernor(CPU_BUDGET, new GovernorLevel(30, 4, 0.3f, true)),
+        };
+        SyntheticPpg ppg = SyntheticPpg.generate(30 * 60, 30, 72, 0.03, 0.2, 5);
+        HeartRatePipeline pipeline = new HeartRatePipeline(new HeartRateEngineConfig().setAnalysisMode(AnalysisMode.FILTERED));
+        PixelSampler sampler = new PixelSampler();
+        governors[0].apply(sampler);
+        int[] pixels = new int[size * size];
+        int lowQuality = 0;
+        int maxError = 0;
+        int readings = 0;
+        for (int i = 0; i < ppg.size(); i++) {
+            if (switchLevels && i > 0 && i % (30 * 5) == 0) {
+                governors[i / (30 * 5) % 2].apply(sampler);
+                if (notifyPipeline) {
+                    pipeline.onSamplingChanged();
+                }
+            }
+            double intensity = ppg.getIntensities()[i];
+            for (int p = 0; p < pixels.length; p++) {
+                int red = (int) Math.round(intensity * vignette[p]);
+                pixels[p] = 0xFF000000 | red << 16 | (red / 4) << 8 | (red / 8);
+            }
+            sampler.sampleArgb(pixels, size, size);
+            FrameOutcome outcome = pipeline.processFrame(ppg.getTimestamps()[i] * 1_000_000L, sampler.getFrameStats());
+            if (outcome == FrameOutcome.LOW_QUALITY) {
+                lowQuality++;
+            } else if (outcome == FrameOutcome.RESULT && i >= 30 * 15 && pipeline.getEngine().getHeartRate() > 0) {
+                maxError = Math.max(maxError, Math.abs(pipeline.getEngine().getHeartRate() - 72));
+                readings++;
+            }
+        }
+        return new int[]{lowQuality, maxError, readings};
+    }
+
+    /**
+     * 1 毫秒固定开销，加上与采样像素数成正比的开销
+     */
+    private static long simulatedCostNs(GovernorLevel level) {
+        double sampledFraction = level.getRoiScale() / level.getStride();
+        return 1_000_000L + (long) (200_000_000L * sampledFraction * sampledFraction);
+    }
+}
@@ -0,0 +1,92 @@
+package com.azure.cameraheartratecore.sampling;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 采样节奏：30fps 与 60fps 下按目标频率抽帧，时间戳抖动不累积，掉帧后重新对齐
+ */
+public class SamplingPolicyTest {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    @Test
+    public void targetHz_decimatesCameraFrameRate() {
+        assertDecimation(SamplingPolicy.targetHz(10), 30, 3);
+        assertDecimation(SamplingPolicy.targetHz(15), 30, 2);
+        assertDecimation(SamplingPolicy.targetHz(30), 30, 1);
+        assertDecimation(SamplingPolicy.targetHz(10), 60, 6);
+        assertDecimation(SamplingPolicy.targetHz(15), 60, 4);
+        assertDecimation(SamplingPolicy.targetHz(30), 60, 2);
+        assertDecimation(SamplingPolicy.everyFrame(), 30, 1);
+        assertDecimation(SamplingPolicy.everyFrame(), 60, 1);
+    }
+
+    @Test
+    public void targetHz_jitterDoesNotAccumulate() {
+        for (int fps : new int[]{30, 60}) {
+            SamplingPolicy policy = SamplingPolicy.targetHz(10);
+            Random random = new Random(fps);
+            int frames = fps * 60;
+            int sampled = 0;
+            for (int i = 0; i < frames; i++) {
+                // 每帧 ±2 毫秒抖动
+                long jitterNs = (long) ((random.nextDouble() * 2 - 1) * 2_000_000);
+                if (policy.shouldSample(i * NANOS_PER_SECOND / fps + jitterNs)) {
+                    sampled++;
+                }
+            }
+            // 60 秒内仍为 10Hz，抖动只会让个别帧提前或推后一帧
+            assertEquals("fps " + fps, 600, sampled, 2);
+        }
+    }
+
+    @Test
+    public void targetHz_realignsAfterDroppedFrames() {
+        SamplingPolicy policy = SamplingPolicy.targetHz(10);
+        assertTrue(policy.shouldSample(0));
+        // 中间 1 秒没有帧，恢复后的第一帧立即采样，之后仍每 3 帧一次，不会连续补采
+        assertTrue(policy.shouldSample(NANOS_PER_SECOND));
+        int sampled = 0;
+        for (int i = 31; i <= 60; i++) {
+            if (policy.shouldSample(i * NANOS_PER_SECOND / 30)) {
+                sampled++;
+            }
+        }
+        assertEquals(10, sampled);
+    }
+
+    @Test
+    public void adaptive_fitsProcessingTimeIntoBudget() {
+        SamplingPolicy policy = SamplingPolicy.adaptive(60, 10, 0.3);
+        assertEquals(60, policy.getCurrentHz(), 0.01);
+        // 每帧 10 毫秒，30% 预算下为 30Hz，60fps 时每 2 帧分析一帧
+        policy.onFrameProcessed(10_000_000);
+        assertEquals(30, policy.getCurrentHz(), 0.01);
+        assertDecimation(policy, 60, 2);
+
+        // 耗时过长时不低于 minHz
+        for (int i = 0; i < 200; i++) {
+            policy.onFrameProcessed(100_000_000);
+        }
+        assertEquals(10, policy.getCurrentHz(), 0.01);
+
+        policy.reset();
+        assertEquals(60, policy.getCurrentHz(), 0.01);
+        assertDecimation(policy, 60, 1);
+    }
+
+    /**
+     * 以 fps 帧率的理想时间戳回放 10 秒，检查恰好每 interval 帧采样一次
+     */
+    private static void assertDecimation(SamplingPolicy policy, int fps, int interval) {
+        String label = policy.getType() + " " + policy.getCurrentHz() + "Hz @ " + fps + "fps";
+        int frames = fps * 10;
+        for (int i = 0; i < frames; i++) {
+            boolean sampled = policy.shouldSample(i * NANOS_PER_SECOND / fps);
+            assertEquals(label + " frame " + i, i % interval == 0, sampled);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.azure.cameraheartratecore.spectrum;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * FFT 与直接计算的 DFT 一致，纯音和冲激的频谱符合解析结果
+ */
+public class FftTest {
+
+    @Test
+    public void transform_matchesDirectDft() {
+        Random random = new Random(3);
+        for (int size : new int[]{2, 8, 64, 256}) {
+            double[] re = new double[size];
+            double[] im = new double[size];
+            for (int i = 0; i < size; i++) {
+                re[i] = random.nextGaussian();
+                im[i] = random.nextGaussian();
+            }
+            double[] expectedRe = new double[size];
+            double[] expectedIm = new double[size];
+            for (int k = 0; k < size; k++) {
+                for (int n = 0; n < size; n++) {
+                    double angle = -2 * Math.PI * k * n / size;
+                    expectedRe[k] += re[n] * Math.cos(angle) - im[n] * Math.sin(angle);
+                    expectedIm[k] += re[n] * Math.sin(angle) + im[n] * Math.cos(angle);
+                }
+            }
+            new Fft(size).transform(re, im);
+            assertArrayEquals(expectedRe, re, 1e-9 * size);
+            assertArrayEquals(expectedIm, im, 1e-9 * size);
+        }
+    }
+
+    @Test
+    public void transform_cosineAndImpulse() {
+        int size = 128;
+        Fft fft = new Fft(size);
+        double[] re = new double[size];
+        double[] im = new double[size];
+        // 10 个周期的余弦只落在第 10 和第 size-10 个频点，幅度各为 size/2
+        for (int i = 0; i < size; i++) {
+            re[i] = 3 * Math.cos(2 * Math.PI * 10 * i / size);
+        }
+        fft.transform(re, im);
+        for (int k = 0; k < size; k++) {
+            double expected = k == 10 || k == size - 10 ? 3 * size / 2.0 : 0;
+            assertEquals("bin " + k, expected, Math.hypot(re[k], im[k]), 1e-9);
+        }
+
+        // 冲激的频谱处处为 1
+        re = new double[size];
+        im = new double[size];
+        re[0] = 1;
+        fft.transform(re, im);
+        for (int k = 0; k < size; k++) {
+            assertEquals(1, re[k], 1e-12);
+            assertEquals(0, im[k], 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsNonPowerOfTwo() {
+        new Fft(100);
+    }
+}
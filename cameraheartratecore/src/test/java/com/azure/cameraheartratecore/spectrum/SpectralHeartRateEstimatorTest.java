@@ -0,0 +1,80 @@
+package com.azure.cameraheartratecore.spectrum;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 已知频率的合成信号上的频谱心率估计：准确度、开始输出的时间和强二次谐波下的基频选择
+ */
+public class SpectralHeartRateEstimatorTest {
+    private static final long WINDOW_MS = 4_000;
+
+    @Test
+    public void sinusoid_estimatesFrequencyWithJitteredTimestamps() {
+        Random random = new Random(9);
+        for (double bpm : new double[]{45, 60, 72, 100, 150, 200}) {
+            SpectralHeartRateEstimator estimator = new SpectralHeartRateEstimator(WINDOW_MS);
+            long timestamp = 0;
+            for (int i = 0; i < 300; i++) {
+                // 30fps，帧间隔在 28–38 毫秒之间抖动，叠加慢速基线漂移
+                timestamp += 28 + random.nextInt(11);
+                double t = timestamp / 1000.0;
+                estimator.add(timestamp, 150 + 2 * Math.sin(2 * Math.PI * bpm / 60 * t) + 0.5 * t);
+            }
+            assertTrue(estimator.estimate());
+            assertEquals("at " + bpm, bpm, estimator.getHeartRate(), 1.5);
+            assertTrue("quality " + estimator.getQuality(), estimator.getQuality() > 0.8);
+        }
+    }
+
+    @Test
+    public void estimate_waitsForThreeQuartersOfTheWindow() {
+        SpectralHeartRateEstimator estimator = new SpectralHeartRateEstimator(WINDOW_MS);
+        long first = -1;
+        for (long timestamp = 0; timestamp <= 10_000; timestamp += 33) {
+            estimator.add(timestamp, 100 + Math.sin(2 * Math.PI * 1.2 * timestamp / 1000.0));
+            if (estimator.estimate()) {
+                first = timestamp;
+                break;
+            }
+        }
+        assertTrue(first >= 3_000 && first < 3_100);
+        assertEquals(72, estimator.getHeartRate(), 2);
+
+        estimator.reset();
+        assertFalse(estimator.estimate());
+        assertEquals(0, estimator.getHeartRate(), 0);
+    }
+
+    @Test
+    public void strongSecondHarmonic_prefersFundamental() {
+        SpectralHeartRateEstimator estimator = new SpectralHeartRateEstimator(WINDOW_MS);
+        for (long timestamp = 0; timestamp <= WINDOW_MS; timestamp += 33) {
+            double t = timestamp / 1000.0;
+            // 重搏波使 130bpm 的二次谐波略强于基频
+            estimator.add(timestamp, Math.sin(2 * Math.PI * 65 / 60 * t) + 1.1 * Math.sin(2 * Math.PI * 130 / 60 * t));
+        }
+        assertTrue(estimator.estimate());
+        assertEquals(65, estimator.getHeartRate(), 2);
+    }
+
+    @Test
+    public void noise_hasLowQuality() {
+        // 白噪声的频谱没有主频，质量分数平均低于默认阈值 0.4，且远低于正弦信号
+        double sum = 0;
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            SpectralHeartRateEstimator estimator = new SpectralHeartRateEstimator(WINDOW_MS);
+            for (long timestamp = 0; timestamp <= WINDOW_MS; timestamp += 33) {
+                estimator.add(timestamp, random.nextGaussian());
+            }
+            assertTrue(estimator.estimate());
+            assertTrue("quality " + estimator.getQuality(), estimator.getQuality() < 0.6);
+            sum += estimator.getQuality();
+        }
+        assertTrue(sum / 20 < 0.4);
+    }
+}
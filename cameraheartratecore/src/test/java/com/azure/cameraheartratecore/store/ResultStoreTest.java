@@ -0,0 +1,166 @@
+package com.azure.cameraheartratecore.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 跨段追加、重新打开、范围查询与按分钟汇总
+ */
+public class ResultStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void appendAcrossSegments_reopenAndQueryRange() throws Exception {
+        File directory = new File(temporaryFolder.getRoot(), "results");
+        // 每秒一行，共 10 分钟，每段 100 行
+        try (ResultStore store = ResultStore.open(directory, 100)) {
+            for (int i = 0; i < 600; i++) {
+                store.append(i * 1_000_000_000L, 60 + i % 10, 40, 30, 0.5f, 0.25f, 0.875f);
+            }
+            assertEquals(6, store.getSegmentCount());
+        }
+
+        try (ResultStore store = ResultStore.open(directory, 100)) {
+            assertEquals(600, store.size());
+            store.append(600 * 1_000_000_000L, 70, 41, 31, 1f, 1f, 1f);
+            assertEquals(7, store.getSegmentCount());
+
+            final List<Long> timestamps = new ArrayList<>();
+            long visited = store.scan(95_000_000_000L, 105_000_000_000L,
+                    (timestampNs, heartRate, sdnn, rmssd, hrEffective, hrvEffective, quality) -> {
+                        timestamps.add(timestampNs);
+                        assertEquals(60 + (int) (timestampNs / 1_000_000_000L) % 10, heartRate);
+                        assertEquals(0.5f, hrEffective, 1e-4);
+                        assertEquals(0.875f, quality, 1e-4);
+                    });
+            assertEquals(10, visited);
+            assertEquals(Long.valueOf(95_000_000_000L), timestamps.get(0));
+            assertEquals(Long.valueOf(104_000_000_000L), timestamps.get(9));
+            assertEquals(10, store.count(95_000_000_000L, 105_000_000_000L));
+            assertEquals(601, store.count(Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void rollupByMinute_aggregatesBuckets() throws Exception {
+        try (ResultStore store = ResultStore.open(temporaryFolder.newFolder())) {
+            for (int i = 0; i < 180; i++) {
+                // 第二分钟手指离开，心率为 0
+                int heartRate = i >= 60 && i < 120 ? 0 : 60 + i % 2 * 10;
+                store.append(i * 1_000_000_000L, heartRate, 50, 20, 0f, 0f, 0.5f);
+            }
+            final List<double[]> buckets = new ArrayList<>();
+            int count = store.rollupByMinute(0, Long.MAX_VALUE, rollup -> buckets.add(new double[]{
+                    rollup.getBucketStartNs(), rollup.getRowCount(), rollup.getValidCount(),
+                    rollup.getMeanHeartRate(), rollup.getMinHeartRate(), rollup.getMaxHeartRate(), rollup.getMeanQuality()}));
+            assertEquals(3, count);
+            assertArrayEquals(new double[]{0, 60, 60, 65, 60, 70, 0.5}, buckets.get(0), 1e-9);
+            assertArrayEquals(new double[]{ResultStore.MINUTE_NS, 60, 0, 0, 0, 0, 0.5}, buckets.get(1), 1e-9);
+            assertEquals(1, store.rollupByHour(0, Long.MAX_VALUE, rollup -> assertEquals(120, rollup.getValidCount())));
+        }
+    }
+
+    @Test
+    public void precomputedRollups_matchRawRows() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        Random random = new Random(7);
+        try (ResultStore store = ResultStore.open(directory, 500)) {
+            long timestampNs = 0;
+            // 约 2000 分钟的数据，夹杂数小时的间隔，超过汇总文件的初始容量
+            for (int i = 0; i < 5000; i++) {
+                timestampNs += random.nextInt(10) == 0 ? random.nextInt(3) * ResultStore.HOUR_NS : 20_000_000_000L + random.nextInt(1000);
+                int heartRate = random.nextInt(5) == 0 ? 0 : 50 + random.nextInt(100);
+                store.append(timestampNs, heartRate, random.nextInt(100), random.nextInt(80), 1f, 1f, random.nextFloat());
+            }
+            assertRollupsMatchRows(store, random);
+        }
+        assertTrue(new File(directory, ResultStore.MINUTE_ROLLUP_FILE).delete());
+        try (ResultStore store = ResultStore.open(directory, 500)) {
+            assertRollupsMatchRows(store, random);
+            store.append(Long.MAX_VALUE / 2, 60, 40, 30, 1f, 1f, 1f);
+            assertRollupsMatchRows(store, random);
+        }
+    }
+
+    private static void assertRollupsMatchRows(ResultStore store, Random random) {
+        final long[] last = {0};
+        store.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestampNs, heartRate, sdnn, rmssd, hrEffective, hrvEffective, quality) -> last[0] = timestampNs);
+        long lastNs = last[0];
+        long[] buckets = {ResultStore.MINUTE_NS, ResultStore.HOUR_NS, 5 * ResultStore.MINUTE_NS, 24 * ResultStore.HOUR_NS, 90_000_000_000L};
+        for (int i = 0; i < 50; i++) {
+            long fromNs = i == 0 ? Long.MIN_VALUE : (long) (random.nextDouble() * lastNs);
+            long toNs = i == 0 ? Long.MAX_VALUE : fromNs + (long) (random.nextDouble() * (lastNs - fromNs + ResultStore.HOUR_NS));
+            for (long bucketNs : buckets) {
+                final List<String> expected = new ArrayList<>();
+                final Rollup[] rollup = {null};
+                final long[] bucketEndNs = {Long.MIN_VALUE};
+                store.scan(fromNs, toNs, (timestampNs, heartRate, sdnn, rmssd, hrEffective, hrvEffective, quality) -> {
+                    if (timestampNs >= bucketEndNs[0]) {
+                        if (rollup[0] != null) {
+                            expected.add(describe(rollup[0]));
+                        }
+                        rollup[0] = new Rollup();
+                        long startNs = Math.floorDiv(timestampNs, bucketNs) * bucketNs;
+                        rollup[0].reset(startNs, bucketNs);
+                        bucketEndNs[0] = startNs + bucketNs;
+                    }
+                    rollup[0].add(heartRate, sdnn, rmssd, Math.round(quality * ResultSegment.RATIO_SCALE));
+                });
+                if (rollup[0] != null) {
+                    expected.add(describe(rollup[0]));
+                }
+                final List<String> actual = new ArrayList<>();
+                assertEquals(expected.size(), store.rollup(fromNs, toNs, bucketNs, r -> actual.add(describe(r))));
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    private static String describe(Rollup rollup) {
+        return rollup.getBucketStartNs() + " " + rollup.getRowCount() + " " + rollup.getValidCount() + " "
+                + rollup.getMeanHeartRate() + " " + rollup.getMinHeartRate() + " " + rollup.getMaxHeartRate() + " "
+                + rollup.getMeanSdnn() + " " + rollup.getMeanRmssd() + " " + rollup.getMeanQuality();
+    }
+
+    @Test
+    public void longGaps_doNotStartNewSegments() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        long dayNs = 24 * ResultStore.HOUR_NS;
+        try (ResultStore store = ResultStore.open(directory, 100)) {
+            // 三周内每天测量一次，每次 10 行
+            for (int day = 0; day < 21; day++) {
+                for (int i = 0; i < 10; i++) {
+                    store.append(day * dayNs + i * 100_000_000L + 1, 60 + day, 40, 30, 1f, 1f, 1f);
+                }
+            }
+            assertEquals(3, store.getSegmentCount());
+        }
+        try (ResultStore store = ResultStore.open(directory, 100)) {
+            assertEquals(210, store.size());
+            final long[] last = {-1};
+            store.scan(20 * dayNs, Long.MAX_VALUE, (timestampNs, heartRate, sdnn, rmssd, hrEffective, hrvEffective, quality) -> {
+                assertEquals(80, heartRate);
+                last[0] = timestampNs;
+            });
+            assertEquals(20 * dayNs + 900_000_001L, last[0]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void append_rejectsOutOfOrderTimestamp() throws Exception {
+        try (ResultStore store = ResultStore.open(temporaryFolder.newFolder())) {
+            store.append(2_000_000L, 60, 0, 0, 0f, 0f, 0f);
+            store.append(1_000_000L, 60, 0, 0, 0f, 0f, 0f);
+        }
+    }
+}
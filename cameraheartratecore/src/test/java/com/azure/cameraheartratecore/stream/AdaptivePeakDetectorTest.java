@@ -0,0 +1,123 @@
+package com.azure.cameraheartratecore.stream;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 自适应峰值检测：不应期排除重搏波，阈值随脉搏幅度下降而降低，噪声小峰不计入
+ */
+public class AdaptivePeakDetectorTest {
+    private static final double SAMPLE_RATE_HZ = 100;
+    //约 71 次/分钟，是采样间隔的整数倍
+    private static final long BEAT_MS = 850;
+
+    @Test
+    public void pulseTrain_intervalsMatchBeats() {
+        List<Long> intervals = detect(new AdaptivePeakDetector(), 30, 1, 0, 0, 0);
+        assertEquals(29, intervals.size());
+        for (long interval : intervals) {
+            assertEquals(BEAT_MS, interval, 5);
+        }
+    }
+
+    @Test
+    public void refractoryFloor_rejectsCloseSecondaryPeak() {
+        // 主峰后 150 毫秒的小峰是独立的局部极大值，不应期只有 100 毫秒时会被当作一拍
+        List<Long> unguarded = detect(new AdaptivePeakDetector(100), 30, 1, 0.6, 150, 0);
+        assertTrue(unguarded.size() > 40);
+
+        List<Long> intervals = detect(new AdaptivePeakDetector(), 30, 1, 0.6, 150, 0);
+        assertEquals(29, intervals.size());
+        for (long interval : intervals) {
+            assertEquals(BEAT_MS, interval, 5);
+        }
+    }
+
+    @Test
+    public void adaptiveRefractory_rejectsDicroticPeakAfterIntervalsLearned() {
+        // 前 10 拍没有重搏波，平均间期收敛到 850 毫秒后，主峰后 450 毫秒的重搏波落在 70% 间期的不应期内
+        List<Long> intervals = detect(new AdaptivePeakDetector(), 40, 1, 0.5, 450, 10);
+        assertEquals(39, intervals.size());
+        for (long interval : intervals) {
+            assertEquals(BEAT_MS, interval, 5);
+        }
+    }
+
+    @Test
+    public void threshold_followsDecreasingAmplitude() {
+        AdaptivePeakDetector detector = new AdaptivePeakDetector();
+        List<Long> intervals = new ArrayList<>();
+        long timestamp = 0;
+        int beats = 60;
+        for (int beat = 0; beat < beats; beat++) {
+            // 每 20 拍幅度减半；电平收敛后在两拍之间加入约为当前幅度 10% 的噪声小峰
+            double amplitude = Math.pow(0.5, beat / 20);
+            double noise = beat >= 5 ? 0.1 * amplitude : 0;
+            for (long t = 0; t < BEAT_MS; t += 10, timestamp += 10) {
+                double value = pulse(t, 200, amplitude, 60) + pulse(t, 550, noise, 40);
+                long interval = detector.add(timestamp, value);
+                if (interval > 0) {
+                    intervals.add(interval);
+                }
+            }
+        }
+        assertEquals(beats - 1, intervals.size());
+        for (long interval : intervals) {
+            assertEquals(BEAT_MS, interval, 5);
+        }
+    }
+
+    @Test
+    public void interrupt_restartsIntervalsFromNextPeak() {
+        AdaptivePeakDetector detector = new AdaptivePeakDetector();
+        List<Long> intervals = new ArrayList<>();
+        long timestamp = 0;
+        for (int beat = 0; beat < 20; beat++) {
+            if (beat == 10) {
+                detector.interrupt();
+            }
+            for (long t = 0; t < BEAT_MS; t += 10, timestamp += 10) {
+                long interval = detector.add(timestamp, pulse(t, 200, 1, 60));
+                if (interval > 0) {
+                    intervals.add(interval);
+                }
+            }
+        }
+        // 中断前后的两个峰之间不产生间期
+        assertEquals(18, intervals.size());
+        for (long interval : intervals) {
+            assertEquals(BEAT_MS, interval, 5);
+        }
+    }
+
+    /**
+     * 以 100 Hz 生成固定节律的脉搏序列，每拍一个主峰，从第 cleanBeats 拍开始在主峰后 secondaryOffsetMs 处加一个小峰
+     */
+    private static List<Long> detect(AdaptivePeakDetector detector, int beats, double amplitude,
+                                     double secondaryAmplitude, long secondaryOffsetMs, int cleanBeats) {
+        List<Long> intervals = new ArrayList<>();
+        long stepMs = Math.round(1000 / SAMPLE_RATE_HZ);
+        long timestamp = 0;
+        for (int beat = 0; beat < beats; beat++) {
+            double secondary = beat >= cleanBeats ? secondaryAmplitude : 0;
+            for (long t = 0; t < BEAT_MS; t += stepMs, timestamp += stepMs) {
+                double value = pulse(t, 200, amplitude, 60) + pulse(t, 200 + secondaryOffsetMs, secondary, 40);
+                long interval = detector.add(timestamp, value);
+                if (interval > 0) {
+                    intervals.add(interval);
+                }
+            }
+        }
+        return intervals;
+    }
+
+    //以 centerMs 为中心、宽度为 widthMs 的高斯脉冲
+    private static double pulse(long t, long centerMs, double amplitude, double widthMs) {
+        double x = (t - centerMs) / widthMs;
+        return amplitude * Math.exp(-0.5 * x * x);
+    }
+}
@@ -0,0 +1,63 @@
+package com.azure.cameraheartratecore.stream;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 累加和滑动平均在窗口多次回绕后仍与直接计算的窗口均值一致
+ */
+public class MovingAverageTest {
+
+    @Test
+    public void add_matchesDirectWindowMeanAcrossWraparound() {
+        for (int windowSize : new int[]{1, 2, 5, 8}) {
+            MovingAverage average = new MovingAverage(windowSize);
+            Random random = new Random(windowSize);
+            double[] values = new double[1000];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = 200 + 5 * random.nextGaussian();
+                double result = average.add(values[i]);
+                if (i < windowSize - 1) {
+                    assertTrue("window " + windowSize + " index " + i, Double.isNaN(result));
+                    continue;
+                }
+                double sum = 0;
+                for (int j = i - windowSize + 1; j <= i; j++) {
+                    sum += values[j];
+                }
+                assertEquals("window " + windowSize + " index " + i, sum / windowSize, result, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void add_doesNotDriftOverLongRuns() {
+        // 累加和反复加减 100 万次后，误差仍远小于信号中的脉搏幅度
+        MovingAverage average = new MovingAverage(5);
+        double result = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            result = average.add(200 + Math.sin(i * 0.7) * 3);
+        }
+        double expected = 0;
+        for (int i = 1_000_000 - 5; i < 1_000_000; i++) {
+            expected += 200 + Math.sin(i * 0.7) * 3;
+        }
+        assertEquals(expected / 5, result, 1e-6);
+    }
+
+    @Test
+    public void reset_restartsWindow() {
+        MovingAverage average = new MovingAverage(3);
+        assertEquals(1, average.getDelay());
+        average.add(10);
+        average.add(10);
+        assertEquals(10, average.add(10), 0);
+        average.reset();
+        assertTrue(Double.isNaN(average.add(1)));
+        assertTrue(Double.isNaN(average.add(2)));
+        assertEquals(2, average.add(3), 1e-12);
+    }
+}
@@ -0,0 +1,79 @@
+package com.azure.cameraheartratecore.stream;
+
+import com.azure.cameraheartratecore.buffer.DoubleRingBuffer;
+import com.azure.cameraheartratecore.engine.SignalProcessing;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 逐点峰值检测与批处理的 findPeaks 在同一平滑序列上找到相同的峰，间隔等于相邻峰的时间差
+ */
+public class StreamingPeakDetectorTest {
+
+    @Test
+    public void add_findsSamePeaksAsBatchDetector() {
+        for (long seed = 1; seed <= 3; seed++) {
+            SyntheticPpg ppg = SyntheticPpg.generate(1200, 10, 72, 0.05, 0.2, seed);
+            MovingAverage average = new MovingAverage(5);
+            DoubleRingBuffer smoothed = new DoubleRingBuffer(ppg.size());
+            List<Long> smoothedTimestamps = new ArrayList<>();
+            StreamingPeakDetector detector = new StreamingPeakDetector();
+            List<Long> streamingPeaks = new ArrayList<>();
+            List<Long> intervals = new ArrayList<>();
+            for (int i = 0; i < ppg.size(); i++) {
+                double value = average.add(ppg.getIntensities()[i]);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                long timestamp = ppg.getTimestamps()[i - average.getDelay()];
+                smoothed.add(value);
+                smoothedTimestamps.add(timestamp);
+                long lastPeak = detector.getLastPeakTimestamp();
+                long interval = detector.add(timestamp, value);
+                if (detector.getLastPeakTimestamp() != lastPeak) {
+                    streamingPeaks.add(detector.getLastPeakTimestamp());
+                }
+                if (interval > 0) {
+                    intervals.add(interval);
+                }
+            }
+
+            int[] peaks = new int[smoothed.size()];
+            int peakCount = SignalProcessing.findPeaks(smoothed, peaks);
+            assertTrue(peakCount > 50);
+            assertEquals("seed " + seed, peakCount, streamingPeaks.size());
+            for (int i = 0; i < peakCount; i++) {
+                assertEquals("seed " + seed + " peak " + i, (long) smoothedTimestamps.get(peaks[i]), (long) streamingPeaks.get(i));
+            }
+            assertEquals(peakCount - 1, intervals.size());
+            for (int i = 1; i < peakCount; i++) {
+                assertEquals(streamingPeaks.get(i) - streamingPeaks.get(i - 1), (long) intervals.get(i - 1));
+            }
+        }
+    }
+
+    @Test
+    public void add_plateauIsNotAPeak() {
+        // 与 findPeaks 相同，要求严格大于两侧
+        StreamingPeakDetector detector = new StreamingPeakDetector();
+        double[] values = {0, 1, 1, 0, 2, 0, 3, 0};
+        for (int i = 0; i < values.length; i++) {
+            detector.add(i * 100, values[i]);
+        }
+        assertEquals(600, detector.getLastPeakTimestamp());
+
+        detector.reset();
+        assertEquals(-1, detector.getLastPeakTimestamp());
+        assertEquals(-1, detector.add(0, 0));
+        assertEquals(-1, detector.add(100, 1));
+        assertEquals(-1, detector.add(200, 1));
+        assertEquals(-1, detector.add(300, 0));
+        assertEquals(-1, detector.getLastPeakTimestamp());
+    }
+}
@@ -3,410 +3,528 @@ package com.azure.cameraheartratesdk.analyzer;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.ImageFormat;
+import android.graphics.Rect;
 import android.graphics.YuvImage;
-import android.media.Image;
 import android.util.Log;
 
-import androidx.annotation.OptIn;
-import androidx.camera.core.ExperimentalGetImage;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
 
+import com.azure.cameraheartratecore.buffer.FramePool;
+import com.azure.cameraheartratecore.buffer.PoolStats;
+import com.azure.cameraheartratecore.buffer.PooledFrame;
+import com.azure.cameraheartratecore.engine.FrameOutcome;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.metrics.PipelineMetrics;
+import com.azure.cameraheartratecore.metrics.PipelineStage;
+import com.azure.cameraheartratecore.recording.SessionRecorder;
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.sampler.Nv21Converter;
+import com.azure.cameraheartratecore.sampler.PixelSampler;
+import com.azure.cameraheartratecore.sampling.AdaptiveGovernor;
+import com.azure.cameraheartratecore.sampling.SamplingPolicy;
 import com.azure.cameraheartratesdk.listener.CameraHeartRateListener;
+import com.azure.cameraheartratesdk.listener.FrameCaptureListener;
+import com.azure.cameraheartratesdk.session.HeartRateSession;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
+/**
+ * 对每帧只做一次像素采样，再把采样结果分发给主会话和所有附加会话
+ */
 public class HeartRateAnalyzer implements ImageAnalysis.Analyzer {
-    private long lastAnalyzedTimestamp = 0L;
-    //上次得到的心率
-    private int lastHeartRate = 0;
-    //前项心率占比，平滑过渡心率计算结果
-    private float heartRateSmooth = 0.5f;
-    private final List<Long> frameTimestamps = new ArrayList<>();
-    private final List<Double> redIntensity = new ArrayList<>();
-    Set<CameraHeartRateListener> cameraHeartRateListenerSet = new HashSet<>();
-    List<Long> heartRRList = new ArrayList<>();
-    List<Long> hrvRRList = new ArrayList<>();
-
-    @OptIn(markerClass = ExperimentalGetImage.class)
+    //手指未放置时粗略采样的网格边长，即每帧最多采样 8x8 个点
+    private static final int PRE_CHECK_GRID_SIZE = 8;
+    //帧采样节奏，默认每 100 毫秒分析一帧
+    private volatile SamplingPolicy samplingPolicy = SamplingPolicy.targetHz(10);
+    //第一帧时在分析线程上重置采样节奏，沿用的策略实例可能刚被上一个分析器使用过
+    private boolean samplingStarted;
+    //自适应调节器，设置后代替 samplingPolicy 决定分析节奏，并调整采样步长、采样区域和 HRV 计算
+    private volatile AdaptiveGovernor governor;
+    //本分析器开始使用的调节器，换用时在分析线程上重置，理由同 samplingStarted
+    private AdaptiveGovernor startedGovernor;
+    //已应用到采样器和主会话的调节器及其版本，只在分析线程访问
+    private AdaptiveGovernor appliedGovernor;
+    private long appliedGovernorVersion;
+    private int appliedGovernorLevel;
+    //主会话，兼容原有的单会话接口
+    private final HeartRateSession primarySession;
+    //附加会话，写时复制，分析线程遍历时无需加锁
+    private final List<HeartRateSession> sessions = new CopyOnWriteArrayList<>();
+    //性能指标，默认关闭
+    private PipelineMetrics metrics = new PipelineMetrics();
+    //是否使用旧的 YUV→JPEG→Bitmap 采样路径，仅用于结果对比
+    private volatile boolean legacyBitmapSampling = false;
+    private final PixelSampler pixelSampler = new PixelSampler();
+    //旧路径复用的像素缓冲区
+    private int[] argbPixels = new int[0];
+    private final Nv21Converter nv21Converter = new Nv21Converter();
+    //旧路径的 NV21 缓冲区，YuvImage 需要 byte[]，因此使用堆内 ByteBuffer
+    private final FramePool<ByteBuffer> legacyNv21Pool =
+            new FramePool<>((width, height) -> ByteBuffer.allocate(Nv21Converter.nv21Size(width, height)), 1);
+    private final FramePool<Bitmap> bitmapPool = new FramePool<>(new FramePool.Allocator<Bitmap>() {
+        @Override
+        public Bitmap allocate(int width, int height) {
+            return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+
+        @Override
+        public void dispose(Bitmap value) {
+            value.recycle();
+        }
+    }, 2);
+    //整帧拷贝使用的直接缓冲区，NV21 每像素 12 位
+    private final FramePool<ByteBuffer> capturePool = FramePool.directByteBuffers(12, 3);
+    //旧路径复用的 JPEG 输出流与解码参数
+    private final JpegOutputStream jpegStream = new JpegOutputStream();
+    private final BitmapFactory.Options decodeOptions = new BitmapFactory.Options();
+    private final Rect jpegRect = new Rect();
+    //整帧拷贝回调，为 null 时不拷贝
+    private volatile FrameCaptureListener frameCaptureListener;
+    //帧录制，为 null 时不录制
+    private volatile SessionRecorder sessionRecorder;
+
+    public HeartRateAnalyzer() {
+        this(new HeartRateEngineConfig());
+    }
+
+    public HeartRateAnalyzer(HeartRateEngineConfig config) {
+        this(new HeartRateSession(config));
+    }
+
+    public HeartRateAnalyzer(HeartRateSession primarySession) {
+        this.primarySession = primarySession;
+        decodeOptions.inMutable = true;
+        FramePool.LeakListener leakListener = (width, height, acquisitionSite) ->
+                Log.w("HeartRateAnalyzer", "Frame buffer " + width + "x" + height + " was not released", acquisitionSite);
+        legacyNv21Pool.setLeakListener(leakListener);
+        bitmapPool.setLeakListener(leakListener);
+        capturePool.setLeakListener(leakListener);
+        //回调方最多同时持有 3 帧，不归还时跳过拷贝，不再继续分配直接内存
+        capturePool.setOutstandingLimit(3);
+    }
+
     @Override
     public void analyze(ImageProxy image) {
-        long currentTimestamp = System.currentTimeMillis();
+        metrics.onFrameReceived();
+        //以传感器时间戳为时间基准，避免主线程调度抖动进入 R-R 间期
+        long timestampNs = image.getImageInfo().getTimestamp();
+        if (!samplingStarted) {
+            samplingStarted = true;
+            samplingPolicy.reset();
+        }
+
+        AdaptiveGovernor currentGovernor = governor;
+        if (currentGovernor != null && currentGovernor != startedGovernor) {
+            startedGovernor = currentGovernor;
+            currentGovernor.reset();
+        }
+        if (currentGovernor != null ? !currentGovernor.shouldSample(timestampNs) : !samplingPolicy.shouldSample(timestampNs)) {
+            metrics.onFrameDropped();
+            image.close();
+            return;
+        }
+        if (currentGovernor != null
+                && (currentGovernor != appliedGovernor || currentGovernor.getVersion() != appliedGovernorVersion)) {
+            boolean levelChanged = currentGovernor != appliedGovernor || currentGovernor.getLevel() != appliedGovernorLevel;
+            appliedGovernor = currentGovernor;
+            appliedGovernorVersion = currentGovernor.getVersion();
+            appliedGovernorLevel = currentGovernor.getLevel();
+            currentGovernor.apply(pixelSampler);
+            currentGovernor.apply(primarySession.getHeartRatePipeline().getEngine());
+            if (levelChanged) {
+                //采样区域和步长改变，均值出现阶跃，各会话把下一帧作为衔接点
+                primarySession.getHeartRatePipeline().onSamplingChanged();
+                for (HeartRateSession session : sessions) {
+                    session.getHeartRatePipeline().onSamplingChanged();
+                }
+                SessionRecorder levelRecorder = sessionRecorder;
+                if (levelRecorder != null) {
+                    levelRecorder.markSamplingChanged();
+                }
+            }
+        }
 
-        if (currentTimestamp - lastAnalyzedTimestamp >= 100) {
+        long processingStartNs = System.nanoTime();
+        boolean timing = metrics.isEnabled();
+        boolean fullSample = needsFullSample();
+        if (!fullSample) {
+            //手指未放置时只粗略采样少量点判断覆盖比例，跳过完整采样和格式转换
+            if (!sampleYuvCoarse(image)) {
+                Log.e("HeartRateAnalyzer", "Unsupported image format");
+                metrics.onFrameDropped();
+                image.close();
+                return;
+            }
+            if (timing) {
+                metrics.recordStage(PipelineStage.COVERAGE, System.nanoTime() - processingStartNs);
+            }
+        } else if (legacyBitmapSampling) {
             //转化为RGB格式的Bitmap
-            Bitmap bitmap = yuvToRgb(image.getImage());
+            PooledFrame<Bitmap> bitmap = yuvToRgb(image);
             if (bitmap == null) {
                 Log.e("HeartRateAnalyzer", "Bitmap creation failed");
+                metrics.onFrameDropped();
                 image.close();
                 return;
             }
-
-            //手指是否在相机上
-            if (!isFingerCoveringCamera(bitmap)) {
-                Log.d("HeartRateAnalyzer", "Finger not detected on camera");
-                Set<CameraHeartRateListener> cameraHeartRateListenerSet1 = cloneHeartRateListenerSet();
-                for (CameraHeartRateListener cameraHeartRateListener : cameraHeartRateListenerSet1){
-                    cameraHeartRateListener.onHeartRate(0);
-                    cameraHeartRateListener.onSDNN(0);
-                    cameraHeartRateListener.onRMSSD(0);
-                    cameraHeartRateListener.onFingerDetected(false);
-                    cameraHeartRateListener.onEffectiveValueRate(0.0f,0.0f);
-                    heartRRList.clear();
-                    hrvRRList.clear();
-                }
+            long convertedNs = timing ? System.nanoTime() : 0;
+            sampleBitmap(bitmap.getValue());
+            bitmap.release();
+            if (timing) {
+                metrics.recordStage(PipelineStage.CONVERSION, convertedNs - processingStartNs);
+                metrics.recordStage(PipelineStage.INTENSITY, System.nanoTime() - convertedNs);
+            }
+        } else {
+            //直接从YUV平面采样
+            if (!sampleYuv(image)) {
+                Log.e("HeartRateAnalyzer", "Unsupported image format");
+                metrics.onFrameDropped();
                 image.close();
                 return;
             }
-
-            double avgRedIntensity = calculateAverageRedIntensity(bitmap);
-            redIntensity.add(avgRedIntensity);
-            frameTimestamps.add(currentTimestamp);
-
-            if (frameTimestamps.size() > 30) {
-                List<Long> newRRList = calculateRR(frameTimestamps, redIntensity);
-                addRRElements(heartRRList, newRRList, 10);
-                addRRElements(hrvRRList, newRRList, 20);
-                List<Long> heartFilterRRByChange = filterRRByChange(heartRRList, 0.3);
-                List<Long> hrvFilterRRByChange = filterRRByChange(hrvRRList, 0.3);
-                Log.i("TAG", "heartFilterRRByChange: " + heartFilterRRByChange + ", hrvFilterRRByChange: " + hrvFilterRRByChange);
-
-                float hrEffectiveValueRate = 0.0f;
-                float hrvEffectiveValueRate = 0.0f;
-                if (heartRRList.size() >= 5 &&  hrvRRList.size() >= 5){
-                    hrEffectiveValueRate = Math.round((float) heartFilterRRByChange.size() / heartRRList.size() * 100) / 100.0f;
-                    hrvEffectiveValueRate = Math.round((float) hrvFilterRRByChange.size() / hrvRRList.size() * 100) / 100.0f;
-                }
-                int heartRate = calculateHeartRate(heartFilterRRByChange);
-                int sdnn = calculateSDNN(hrvFilterRRByChange);
-                int rmssd = calculateRMSSD(hrvFilterRRByChange);
-                Set<CameraHeartRateListener> cameraHeartRateListenerSet1 = cloneHeartRateListenerSet();
-                for (CameraHeartRateListener cameraHeartRateListener : cameraHeartRateListenerSet1){
-                    cameraHeartRateListener.onHeartRate(heartRate);
-                    cameraHeartRateListener.onSDNN(sdnn);
-                    cameraHeartRateListener.onRMSSD(rmssd);
-                    cameraHeartRateListener.onFingerDetected(true);
-                    cameraHeartRateListener.onEffectiveValueRate(hrEffectiveValueRate,hrvEffectiveValueRate);
-                }
-                frameTimestamps.clear();
-                redIntensity.clear();
+            if (timing) {
+                metrics.recordStage(PipelineStage.INTENSITY, System.nanoTime() - processingStartNs);
             }
-
-            lastAnalyzedTimestamp = currentTimestamp;
         }
-
+        SessionRecorder recorder = sessionRecorder;
+        if (recorder != null) {
+            recordFrame(recorder, image, timestampNs);
+        }
+        FrameCaptureListener captureListener = frameCaptureListener;
+        if (captureListener != null) {
+            captureFrame(captureListener, image, timestampNs);
+        }
         image.close();
-    }
-
-    private double calculateAverageRedIntensity(Bitmap bitmap) {
-        double redSum = 0.0;
-        int pixelCount = 0;
+        if (fullSample) {
+            metrics.onFrameAnalyzed();
+        } else {
+            metrics.onFramePreChecked();
+        }
 
-        for (int y = 0; y < bitmap.getHeight(); y += 10) {
-            for (int x = 0; x < bitmap.getWidth(); x += 10) {
-                int pixel = bitmap.getPixel(x, y);
-                int red = (pixel >> 16) & 0xFF;
-                redSum += red;
-                pixelCount++;
+        //同一份采样结果依次交给各个会话，不重复采样
+        FrameStats stats = pixelSampler.getFrameStats();
+        FrameOutcome outcome = primarySession.onFrame(timestampNs, stats);
+        if (!sessions.isEmpty()) {
+            for (HeartRateSession session : sessions) {
+                session.onFrame(timestampNs, stats);
             }
         }
 
-        return pixelCount > 0 ? redSum / pixelCount : 0.0;
+        long processingNs = System.nanoTime() - processingStartNs;
+        if (currentGovernor == null) {
+            samplingPolicy.onFrameProcessed(processingNs);
+        } else {
+            HeartRatePipeline primaryPipeline = primarySession.getHeartRatePipeline();
+            if (outcome == FrameOutcome.RESULT) {
+                currentGovernor.onResult(primaryPipeline.getEngine().getHeartRate());
+            } else if (outcome == FrameOutcome.NO_FINGER) {
+                currentGovernor.onResult(0);
+            }
+            //手指未放置时的粗略采样不代表分析的真实耗时，不参与调节
+            if (fullSample) {
+                currentGovernor.onFrameProcessed(processingNs, primaryPipeline.getQualityEvaluator().getQuality());
+            }
+        }
     }
 
-    private List<Long> calculateRR(List<Long> timestamps, List<Double> intensities){
-        List<Double> smoothedIntensities = smoothData(intensities, 5);
-        List<Integer> peaks = findPeaks(smoothedIntensities);
-        if (peaks.size() < 2) return null;
-
-        List<Long> durations = new ArrayList<>();
-        for (int i = 0; i < peaks.size() - 1; i++) {
-            durations.add(timestamps.get(peaks.get(i + 1)) - timestamps.get(peaks.get(i)));
+    private boolean needsFullSample() {
+        if (primarySession.getHeartRatePipeline().needsFullSample()) {
+            return true;
         }
-
-        return durations;
+        if (!sessions.isEmpty()) {
+            for (HeartRateSession session : sessions) {
+                if (session.getHeartRatePipeline().needsFullSample()) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
-    private int calculateHeartRate(List<Long> durations) {
-        if (durations == null){
-            return 0;
+    private boolean sampleYuvCoarse(ImageProxy image) {
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+        if (planes == null || planes.length < 3) {
+            return false;
         }
+        pixelSampler.sampleYuvCoarse(image.getWidth(), image.getHeight(),
+                planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                PRE_CHECK_GRID_SIZE);
+        return true;
+    }
 
-        double averageDuration = 0;
-        for (long duration : durations) {
-            averageDuration += duration;
+    private boolean sampleYuv(ImageProxy image) {
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+        if (planes == null || planes.length < 3) {
+            return false;
         }
-        averageDuration /= durations.size();
-        int heartRateNew = (int) (60 * 1000 / averageDuration);
-
-        return heartRateNew;
+        pixelSampler.sampleYuv(image.getWidth(), image.getHeight(),
+                planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride());
+        return true;
     }
 
-    private List<Integer> findPeaks(List<Double> intensities) {
-        List<Integer> peaks = new ArrayList<>();
-        for (int i = 1; i < intensities.size() - 1; i++) {
-            if (intensities.get(i) > intensities.get(i - 1) && intensities.get(i) > intensities.get(i + 1)) {
-                peaks.add(i);
+    private void recordFrame(SessionRecorder recorder, ImageProxy image, long timestampNs) {
+        try {
+            ImageProxy.PlaneProxy[] planes = image.getPlanes();
+            if (planes != null && planes.length >= 3) {
+                recorder.recordFrame(timestampNs, pixelSampler.getFrameStats(),
+                        image.getWidth(), image.getHeight(),
+                        planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                        planes[2].getBuffer(), planes[2].getRowStride(), planes[2].getPixelStride());
+            } else {
+                recorder.recordFrame(timestampNs, pixelSampler.getFrameStats());
             }
-        }
-        return peaks;
-    }
-
-    private List<Double> smoothData(List<Double> intensities, int windowSize) {
-        List<Double> smoothedIntensities = new ArrayList<>();
-        for (int i = 0; i < intensities.size(); i++) {
-            int start = Math.max(0, i - windowSize / 2);
-            int end = Math.min(intensities.size(), i + windowSize / 2);
-            List<Double> window = intensities.subList(start, end);
-            double average = 0;
-            for (double val : window) {
-                average += val;
+        } catch (IOException e) {
+            Log.e("HeartRateAnalyzer", "Frame recording failed", e);
+            //写入失败后停止录制，不影响心率分析
+            if (sessionRecorder == recorder) {
+                sessionRecorder = null;
             }
-            smoothedIntensities.add(average / window.size());
+            closeQuietly(recorder);
         }
-        return smoothedIntensities;
     }
 
-    private static Bitmap yuvToRgb(Image image) {
-        if (image == null) return null;
-
-        byte[] nv21 = yuv420ToNv21(image);  // 将 YUV420 数据转换为 NV21 格式
-        YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, image.getWidth(), image.getHeight(), null);  // 创建一个 YuvImage 对象
-        ByteArrayOutputStream out = new ByteArrayOutputStream();  // 用于输出数据流
-        yuvImage.compressToJpeg(new android.graphics.Rect(0, 0, image.getWidth(), image.getHeight()), 100, out);  // 将 YUV 数据压缩为 JPEG 格式
-        byte[] imageBytes = out.toByteArray();  // 获取 JPEG 格式的字节数据
-        return BitmapFactory.decodeByteArray(imageBytes, 0, imageBytes.length);  // 将 JPEG 字节数组转换为 Bitmap
+    private static void closeQuietly(SessionRecorder recorder) {
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            Log.e("HeartRateAnalyzer", "Close recording failed", e);
+        }
     }
 
-    private static byte[] yuv420ToNv21(Image image) {
-        ByteBuffer yBuffer = image.getPlanes()[0].getBuffer();  // Y 亮度数据
-        ByteBuffer uBuffer = image.getPlanes()[1].getBuffer();  // U 色度数据
-        ByteBuffer vBuffer = image.getPlanes()[2].getBuffer();  // V 色度数据
-
-        int ySize = yBuffer.remaining();  // Y 数据的大小
-        int uSize = uBuffer.remaining();  // U 数据的大小
-        int vSize = vBuffer.remaining();  // V 数据的大小
-
-        byte[] nv21 = new byte[ySize + uSize + vSize];  // 创建一个字节数组存储转换后的数据
-
-        yBuffer.get(nv21, 0, ySize);  // 将 Y 数据复制到结果数组
-        vBuffer.get(nv21, ySize, vSize);  // 将 V 数据复制到结果数组
-        uBuffer.get(nv21, ySize + vSize, uSize);  // 将 U 数据复制到结果数组
-
-        return nv21;  // 返回 NV21 格式的数据
+    private void sampleBitmap(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        if (argbPixels.length < width * height) {
+            argbPixels = new int[width * height];
+        }
+        //一次性读出像素，避免逐像素 getPixel
+        bitmap.getPixels(argbPixels, 0, width, 0, 0, width, height);
+        pixelSampler.sampleArgb(argbPixels, width, height);
     }
 
+    private void captureFrame(FrameCaptureListener captureListener, ImageProxy image, long timestampNs) {
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+        if (planes == null || planes.length < 3) {
+            return;
+        }
+        PooledFrame<ByteBuffer> frame = capturePool.tryAcquire(image.getWidth(), image.getHeight());
+        if (frame == null) {
+            //缓冲区都未归还，本帧不回调，计入 getCapturePoolStats().getDrops()
+            return;
+        }
+        ByteBuffer buffer = frame.getValue();
+        ((Buffer) buffer).clear();
+        convertToNv21(image, planes, buffer);
+        ((Buffer) buffer).flip();
+        captureListener.onFrameCaptured(frame, timestampNs);
+    }
 
-    private boolean isFingerCoveringCamera(Bitmap bitmap) {
-        int regionWidth = bitmap.getWidth() / 4;
-        int regionHeight = bitmap.getHeight() / 4;
-        int startX = bitmap.getWidth() / 2 - regionWidth / 2;
-        int startY = bitmap.getHeight() / 2 - regionHeight / 2;
-
-        int redPixelCount = 0;
-        int totalPixelCount = 0;
-
-        for (int y = startY; y < startY + regionHeight; y++) {
-            for (int x = startX; x < startX + regionWidth; x++) {
-                int pixel = bitmap.getPixel(x, y);
-                int red = (pixel >> 16) & 0xFF;
-                int green = (pixel >> 8) & 0xFF;
-                int blue = pixel & 0xFF;
+    private void convertToNv21(ImageProxy image, ImageProxy.PlaneProxy[] planes, ByteBuffer out) {
+        nv21Converter.convert(image.getWidth(), image.getHeight(),
+                planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                out);
+    }
 
-                if (red > green && red > blue) {
-                    redPixelCount++;
-                }
-                totalPixelCount++;
-            }
+    /**
+     * YUV→JPEG→Bitmap，NV21 缓冲区、JPEG 输出流和 Bitmap 均复用，返回的 Bitmap 用完后需归还
+     */
+    private PooledFrame<Bitmap> yuvToRgb(ImageProxy image) {
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+        if (planes == null || planes.length < 3) return null;
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        PooledFrame<ByteBuffer> nv21 = legacyNv21Pool.acquire(width, height);
+        try {
+            ByteBuffer buffer = nv21.getValue();
+            ((Buffer) buffer).clear();
+            convertToNv21(image, planes, buffer);  // 将 YUV420 数据转换为 NV21 格式
+            YuvImage yuvImage = new YuvImage(buffer.array(), ImageFormat.NV21, width, height, null);
+            jpegStream.reset();
+            jpegRect.set(0, 0, width, height);
+            yuvImage.compressToJpeg(jpegRect, 100, jpegStream);  // 将 YUV 数据压缩为 JPEG 格式
+        } finally {
+            nv21.release();
         }
-
-        double redRatio = (double) redPixelCount / totalPixelCount;
-        Log.d("HeartRateAnalyzer", "Red pixel ratio: " + redRatio);
-        return redRatio > 0.95; // Adjust this threshold as necessary
+        PooledFrame<Bitmap> bitmap = bitmapPool.acquire(width, height);
+        decodeOptions.inBitmap = bitmap.getValue();
+        // 解码到复用的 Bitmap 中
+        if (BitmapFactory.decodeByteArray(jpegStream.buffer(), 0, jpegStream.size(), decodeOptions) == null) {
+            bitmap.release();
+            return null;
+        }
+        return bitmap;
     }
 
-    public void addHeartRateListener(CameraHeartRateListener cameraHeartRateListener){
-        cameraHeartRateListenerSet.add(cameraHeartRateListener);
+    /**
+     * 可直接访问内部数组的输出流，避免 toByteArray 拷贝
+     */
+    private static final class JpegOutputStream extends ByteArrayOutputStream {
+        JpegOutputStream() {
+            super(64 * 1024);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
     }
 
-    public void removeHeartRateListener(CameraHeartRateListener cameraHeartRateListener){
-        cameraHeartRateListenerSet.remove(cameraHeartRateListener);
+    /**
+     * 设置整帧拷贝回调，为 null 时不拷贝
+     * */
+    public void setFrameCaptureListener(FrameCaptureListener frameCaptureListener) {
+        this.frameCaptureListener = frameCaptureListener;
     }
 
-    private Set<CameraHeartRateListener> cloneHeartRateListenerSet() {
-        Set<CameraHeartRateListener> cameraHeartRateListenerSetNew = new HashSet<>();
-        cameraHeartRateListenerSetNew.addAll(this.cameraHeartRateListenerSet);
-        return cameraHeartRateListenerSetNew;
+    /**
+     * 开启缓冲池的调试模式：记录借出位置，未归还的缓冲区会以警告日志报告，只应在调试版本中开启
+     * */
+    public void setFramePoolDebug(boolean debug) {
+        legacyNv21Pool.setDebug(debug);
+        bitmapPool.setDebug(debug);
+        capturePool.setDebug(debug);
     }
 
     /**
-     * 将 newElements 添加到 original 中，保持 original 的最大长度为 30
-     * 如果相加长度超过30，则从 original 的头部移除最早的数据。
+     * 报告仍未归还的缓冲区
      *
-     * @param original 原有数据列表
-     * @param newElements 新添加的数据列表
-     */
-    private static void addRRElements(List<Long> original, List<Long> newElements, Integer capacity) {
-        if (newElements != null){
-            int totalSize = original.size() + newElements.size();
-
-            // 如果总长度超过容量，则移除多余的数据（从最老的数据开始，即列表头部）
-            if (totalSize > capacity) {
-                int toRemove = totalSize - capacity;
-                // 注意：每次移除首元素，因为每次移除后索引会自动更新
-                for (int i = 0; i < toRemove; i++) {
-                    if (!original.isEmpty()) {
-                        original.remove(0);
-                    } else {
-                        // 如果 original 已经为空，则不需要移除
-                        break;
-                    }
-                }
-            }
-
-            // 将所有 newElements 添加到 original 中
-            original.addAll(newElements);
-        }
+     * @return 未归还的缓冲区个数
+     * */
+    public int checkFramePoolLeaks() {
+        return legacyNv21Pool.checkLeaks() + bitmapPool.checkLeaks() + capturePool.checkLeaks();
     }
 
     /**
-     * 过滤 R-R 间期数据，过滤条件为：
-     * 1. 只保留 [0.3, 1.4] 秒内的数值
-     * 2. 计算相邻间期变化率，超过 changeThreshold 的数据将被剔除
-     *
-     * @param rrIntervals 原始 R-R 间期数组
-     * @param changeThreshold 变化率阈值，默认 0.2
-     * @return 过滤后的 R-R 间期列表
-     */
-    private static List<Long> filterRRByChange(List<Long> rrIntervals, double changeThreshold) {
-        if (rrIntervals == null){
-            return null;
-        }
-        // 将输入数据复制到新的列表中，便于操作
-        List<Long> filteredRR = new ArrayList<>(rrIntervals);
-
-        // 设定合理范围
-        double rrMin = 300, rrMax = 1400;
-        // 过滤掉不在合理范围内的数据
-        Iterator<Long> iter = filteredRR.iterator();
-        while (iter.hasNext()) {
-            double rr = iter.next();
-            if (rr < rrMin || rr > rrMax) {
-                iter.remove();
-            }
-        }
+     * 整帧拷贝缓冲池的统计
+     * */
+    public PoolStats getCapturePoolStats() {
+        return capturePool.getStats();
+    }
 
-        // 循环过滤，直到没有数据被剔除
-        while (true) {
-            if (filteredRR.size() < 3) {
-                break;  // 数据太少，不需要筛选
-            }
+    /**
+     * 旧 Bitmap 采样路径的 Bitmap 缓冲池统计
+     * */
+    public PoolStats getBitmapPoolStats() {
+        return bitmapPool.getStats();
+    }
 
-            // 求中位数
-            Long medianRR = median(filteredRR);
+    /**
+     * 获取像素采样器，用于配置采样区域和步长
+     * */
+    public PixelSampler getPixelSampler() {
+        return pixelSampler;
+    }
 
-            // 计算相邻 R-R 之间的变化率
-            List<Float> rrDiff = new ArrayList<>();
-            // 先计算首元素与中位数的相对差
-            float firstDiff = (float) Math.abs(filteredRR.get(0) - medianRR) / medianRR;
-            rrDiff.add(firstDiff);
+    /**
+     * 获取主会话的逐帧处理流程，用于配置覆盖阈值
+     * */
+    public HeartRatePipeline getHeartRatePipeline() {
+        return primarySession.getHeartRatePipeline();
+    }
 
-            // 对于后续元素，计算相邻元素的变化率
-            for (int i = 1; i < filteredRR.size(); i++) {
-                float diff = (float) Math.abs(filteredRR.get(i) - filteredRR.get(i - 1)) / filteredRR.get(i - 1);
-                rrDiff.add(diff);
-            }
+    /**
+     * 设置帧录制，为 null 时停止录制。录制器只在分析线程上写入，
+     * 替换后需由调用方在分析线程上关闭旧的录制器
+     * */
+    public void setSessionRecorder(SessionRecorder sessionRecorder) {
+        this.sessionRecorder = sessionRecorder;
+    }
 
-            // 根据变化率阈值过滤数据
-            List<Long> newFilteredRR = new ArrayList<>();
-            for (int i = 0; i < rrDiff.size(); i++) {
-                if (rrDiff.get(i) <= changeThreshold) {
-                    newFilteredRR.add(filteredRR.get(i));
-                }
-            }
+    public SessionRecorder getSessionRecorder() {
+        return sessionRecorder;
+    }
 
-            // 如果数据量没有变化，则退出循环
-            if (newFilteredRR.size() == filteredRR.size()) {
-                break;
-            } else {
-                filteredRR = newFilteredRR;
-            }
+    /**
+     * 设置性能指标，需在开始分析之前调用
+     * */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+        primarySession.setMetrics(metrics);
+        AdaptiveGovernor currentGovernor = governor;
+        if (currentGovernor != null) {
+            currentGovernor.setMetrics(metrics);
         }
-        return filteredRR;
     }
 
     /**
-     * 计算 List 中的中位数
-     *
-     * @param list 数据列表
-     * @return 中位数
-     */
-    private static Long median(List<Long> list) {
-        List<Long> temp = new ArrayList<>(list);
-        Collections.sort(temp);
-        int n = temp.size();
-        if (n % 2 == 0) {
-            return (long) ((temp.get(n / 2 - 1) + temp.get(n / 2)) / 2.0);
+     * 设置帧采样节奏
+     * */
+    public void setSamplingPolicy(SamplingPolicy samplingPolicy) {
+        this.samplingPolicy = samplingPolicy;
+    }
+
+    /**
+     * 设置自适应调节器，为 null 时恢复使用 samplingPolicy，并重新开启主会话的 HRV 计算；
+     * 采样步长和采样区域保持调节器最后的档位
+     * */
+    public void setGovernor(AdaptiveGovernor governor) {
+        if (governor != null) {
+            governor.setMetrics(metrics);
         } else {
-            return temp.get(n / 2);
+            primarySession.getHeartRatePipeline().getEngine().setHrvEnabled(true);
         }
+        this.governor = governor;
+    }
+
+    public AdaptiveGovernor getGovernor() {
+        return governor;
     }
 
     /**
-     * 计算 SDNN，即所有心跳间期（NN间期）的标准差
-     * @param rrIntervals 心跳间隔数组，单位：毫秒
-     * @return SDNN 值（毫秒）
-     */
-    private static int calculateSDNN(List<Long> rrIntervals) {
-        if (rrIntervals == null || rrIntervals.isEmpty()) {
-            return 0;
-        }
+     * 设置是否使用旧的 Bitmap 采样路径，默认直接从 YUV 平面采样
+     * */
+    public void setLegacyBitmapSampling(boolean legacyBitmapSampling) {
+        this.legacyBitmapSampling = legacyBitmapSampling;
+    }
 
-        // 计算平均值
-        double sum = 0;
-        for (Long rr : rrIntervals) {
-            sum += rr;
-        }
-        double mean = sum / rrIntervals.size();
+    public void addHeartRateListener(CameraHeartRateListener cameraHeartRateListener){
+        primarySession.addHeartRateListener(cameraHeartRateListener);
+    }
 
-        // 计算方差
-        double variance = 0;
-        for (Long rr : rrIntervals) {
-            variance += Math.pow(rr - mean, 2);
-        }
-        variance = variance / rrIntervals.size();
+    public void removeHeartRateListener(CameraHeartRateListener cameraHeartRateListener){
+        primarySession.removeHeartRateListener(cameraHeartRateListener);
+    }
 
-        // 返回标准差
-        return (int) Math.sqrt(variance);
+    /**
+     * 设置主会话回调所在的线程，为 null 时直接在分析线程回调
+     * */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        primarySession.setCallbackExecutor(callbackExecutor);
     }
 
     /**
-     * 计算 RMSSD，即相邻心跳间隔差的均方根
-     * @param rrIntervals 心跳间隔数组，单位：毫秒
-     * @return RMSSD 值（毫秒）
-     */
-    private static int calculateRMSSD(List<Long> rrIntervals) {
-        if (rrIntervals == null || rrIntervals.size() < 2) {
-            return 0;
+     * 附加一个会话，之后每帧的采样结果也会交给它，可在任意线程调用
+     * */
+    public void addSession(HeartRateSession session) {
+        if (session != primarySession && !sessions.contains(session)) {
+            sessions.add(session);
         }
+    }
 
-        double sumSquaredDiffs = 0;
-        // 计算连续间隔差的平方和
-        for (int i = 1; i < rrIntervals.size(); i++) {
-            long diff = rrIntervals.get(i) - rrIntervals.get(i - 1);
-            sumSquaredDiffs += diff * diff;
-        }
+    public void removeSession(HeartRateSession session) {
+        sessions.remove(session);
+    }
 
-        // 计算均值，然后取平方根
-        double meanSquaredDiff = sumSquaredDiffs / (rrIntervals.size() - 1);
-        return (int) Math.sqrt(meanSquaredDiff);
+    public HeartRateSession getPrimarySession() {
+        return primarySession;
     }
-}
 
+    /**
+     * 当前附加的会话，不含主会话
+     * */
+    public List<HeartRateSession> getSessions() {
+        return Collections.unmodifiableList(sessions);
+    }
+}
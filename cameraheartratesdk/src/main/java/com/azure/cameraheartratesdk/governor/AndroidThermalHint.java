@@ -0,0 +1,90 @@
+package com.azure.cameraheartratesdk.governor;
+
+import android.content.Context;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.PowerManager;
+import android.os.SystemClock;
+
+import com.azure.cameraheartratecore.sampling.ThermalHint;
+
+/**
+ * 基于系统温控状态（Android 10 及以上）、省电模式与电池电量的余量提示。
+ * 温控状态通过监听更新，电量和省电模式每 30 秒最多查询一次，getHeadroom 本身只读取缓存的值
+ * */
+public class AndroidThermalHint implements ThermalHint {
+    private static final long BATTERY_REFRESH_MS = 30_000;
+    //电量低于该百分比且未充电时压缩预算
+    private static final int LOW_BATTERY_PERCENT = 15;
+
+    private final PowerManager powerManager;
+    private final BatteryManager batteryManager;
+    private volatile double thermalHeadroom = 1.0;
+    private double batteryHeadroom = 1.0;
+    private long lastBatteryRefreshMs = Long.MIN_VALUE;
+    private Object thermalListener;
+
+    public AndroidThermalHint(Context context) {
+        Context appContext = context.getApplicationContext();
+        powerManager = (PowerManager) appContext.getSystemService(Context.POWER_SERVICE);
+        batteryManager = (BatteryManager) appContext.getSystemService(Context.BATTERY_SERVICE);
+    }
+
+    /**
+     * 开始监听温控状态，Android 10 以下只使用电量与省电模式
+     * */
+    public void start() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && powerManager != null && thermalListener == null) {
+            PowerManager.OnThermalStatusChangedListener listener =
+                    status -> thermalHeadroom = headroomForThermalStatus(status);
+            powerManager.addThermalStatusListener(listener);
+            thermalListener = listener;
+            thermalHeadroom = headroomForThermalStatus(powerManager.getCurrentThermalStatus());
+        }
+    }
+
+    public void stop() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && powerManager != null && thermalListener != null) {
+            powerManager.removeThermalStatusListener((PowerManager.OnThermalStatusChangedListener) thermalListener);
+            thermalListener = null;
+        }
+        thermalHeadroom = 1.0;
+    }
+
+    @Override
+    public double getHeadroom() {
+        long nowMs = SystemClock.elapsedRealtime();
+        if (lastBatteryRefreshMs == Long.MIN_VALUE || nowMs - lastBatteryRefreshMs >= BATTERY_REFRESH_MS) {
+            lastBatteryRefreshMs = nowMs;
+            batteryHeadroom = queryBatteryHeadroom();
+        }
+        return Math.min(thermalHeadroom, batteryHeadroom);
+    }
+
+    private double queryBatteryHeadroom() {
+        if (powerManager != null && powerManager.isPowerSaveMode()) {
+            return 0.5;
+        }
+        if (batteryManager != null) {
+            int capacity = batteryManager.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY);
+            if (capacity > 0 && capacity < LOW_BATTERY_PERCENT && !batteryManager.isCharging()) {
+                return 0.5;
+            }
+        }
+        return 1.0;
+    }
+
+    private static double headroomForThermalStatus(int status) {
+        switch (status) {
+            case PowerManager.THERMAL_STATUS_NONE:
+            case PowerManager.THERMAL_STATUS_LIGHT:
+                return 1.0;
+            case PowerManager.THERMAL_STATUS_MODERATE:
+                return 0.6;
+            case PowerManager.THERMAL_STATUS_SEVERE:
+                return 0.3;
+            default:
+                return 0.1;
+        }
+    }
+}
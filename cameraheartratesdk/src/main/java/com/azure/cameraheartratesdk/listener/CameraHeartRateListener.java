@@ -1,5 +1,7 @@
 package com.azure.cameraheartratesdk.listener;
 
+import com.azure.cameraheartratecore.quality.QualityIssue;
+
 public interface CameraHeartRateListener {
     /**
      * onHeartRate回调返回值为心率，单位为 次数/分钟
@@ -21,4 +23,21 @@ public interface CameraHeartRateListener {
      * 分别为心率\hrv有效值比例
      * */
     void onEffectiveValueRate(float hrEffectiveValueRate,float hrvEffectiveValueRate);
+    /**
+     * 长时 HRV，需在引擎配置中设置 longTermHrvWindowMs 开启，每接受一个新的 R-R 间期回调一次。
+     * sdnn、rmssd 单位为毫秒，pnn50 单位为 %，meanHeartRate 单位为 次数/分钟
+     * */
+    default void onLongTermHrv(double sdnn, double rmssd, double pnn50, double meanHeartRate){
+    }
+    /**
+     * 长时 HRV 的频域指标，数据满 1 分钟后按固定间隔（默认 5 秒）回调，lfPower、hfPower 单位为 ms²
+     * */
+    default void onHrvSpectrum(double lfPower, double hfPower, double lfHfRatio){
+    }
+    /**
+     * 逐帧信号质量指数，取值 [0, 1]，issue 为限制质量的主要原因，可用于在出结果之前提示用户调整手指。
+     * 只在质量变化超过 0.1 或原因变化时回调
+     * */
+    default void onSignalQuality(float quality, QualityIssue issue){
+    }
 }
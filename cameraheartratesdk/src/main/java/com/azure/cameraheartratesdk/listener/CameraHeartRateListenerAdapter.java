@@ -0,0 +1,34 @@
+package com.azure.cameraheartratesdk.listener;
+
+import com.azure.cameraheartratecore.result.HeartRateSnapshot;
+
+/**
+ * 把快照拆成 CameraHeartRateListener 原有的逐项回调，兼容旧的监听器
+ * */
+public class CameraHeartRateListenerAdapter implements HeartRateSnapshotListener {
+    private final CameraHeartRateListener cameraHeartRateListener;
+
+    public CameraHeartRateListenerAdapter(CameraHeartRateListener cameraHeartRateListener) {
+        this.cameraHeartRateListener = cameraHeartRateListener;
+    }
+
+    @Override
+    public void onSnapshot(HeartRateSnapshot snapshot) {
+        deliver(cameraHeartRateListener, snapshot);
+    }
+
+    public CameraHeartRateListener getCameraHeartRateListener() {
+        return cameraHeartRateListener;
+    }
+
+    /**
+     * 按原有顺序回调 onHeartRate、onSDNN、onRMSSD、onFingerDetected、onEffectiveValueRate
+     * */
+    public static void deliver(CameraHeartRateListener cameraHeartRateListener, HeartRateSnapshot snapshot) {
+        cameraHeartRateListener.onHeartRate(snapshot.getHeartRate());
+        cameraHeartRateListener.onSDNN(snapshot.getSdnn());
+        cameraHeartRateListener.onRMSSD(snapshot.getRmssd());
+        cameraHeartRateListener.onFingerDetected(snapshot.isFingerDetected());
+        cameraHeartRateListener.onEffectiveValueRate(snapshot.getHrEffectiveValueRate(), snapshot.getHrvEffectiveValueRate());
+    }
+}
@@ -0,0 +1,17 @@
+package com.azure.cameraheartratesdk.listener;
+
+import com.azure.cameraheartratecore.buffer.PooledFrame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 整帧拷贝回调，用于预览叠加、调试抓帧等仍需要完整画面的功能
+ * */
+public interface FrameCaptureListener {
+    /**
+     * 在分析线程回调，nv21 为缓冲池中的直接 ByteBuffer，内容为紧凑的 NV21，宽高见 getWidth/getHeight。
+     * 用完后必须调用 nv21.release() 归还，可以在其他线程归还；最多同时持有 3 帧，都未归还时后续帧不再回调，
+     * 跳过的帧数见 CameraHeartRateManager.getCapturePoolStats().getDrops()
+     * */
+    void onFrameCaptured(PooledFrame<ByteBuffer> nv21, long timestampNs);
+}
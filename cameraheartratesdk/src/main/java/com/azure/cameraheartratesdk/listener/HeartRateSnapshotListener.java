@@ -0,0 +1,14 @@
+package com.azure.cameraheartratesdk.listener;
+
+import com.azure.cameraheartratecore.result.HeartRateSnapshot;
+
+/**
+ * 心率结果回调，每次结果更新只回调一次，所有数值来自同一帧
+ * */
+public interface HeartRateSnapshotListener {
+    /**
+     * 在回调线程上回调。回调处理较慢时中间的旧快照会被丢弃，只投递最新的一个。
+     * 快照在回调返回后会被复用，需要保留时调用 snapshot.copy()
+     * */
+    void onSnapshot(HeartRateSnapshot snapshot);
+}
@@ -0,0 +1,34 @@
+package com.azure.cameraheartratesdk.manager;
+
+import android.util.Size;
+
+/**
+ * 分析用的目标分辨率。指尖 PPG 只需要整体的颜色变化，小分辨率即可满足要求，
+ * 同时显著降低每帧的处理量和长时间测量时的发热。
+ * 设备不支持时由 CameraX 选择最接近的可用尺寸，实际尺寸可通过 CameraHeartRateManager.getActualAnalysisResolution() 获取。
+ */
+public enum AnalysisResolution {
+    QCIF(176, 144),
+    QVGA(320, 240),
+    VGA(640, 480);
+
+    private final int width;
+    private final int height;
+
+    AnalysisResolution(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public Size toSize() {
+        return new Size(width, height);
+    }
+}
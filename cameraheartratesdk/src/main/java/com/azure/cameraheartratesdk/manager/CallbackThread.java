@@ -0,0 +1,15 @@
+package com.azure.cameraheartratesdk.manager;
+
+/**
+ * 监听器回调所在的线程
+ */
+public enum CallbackThread {
+    /**
+     * 主线程，可以直接更新 UI
+     */
+    MAIN,
+    /**
+     * 分析线程，没有线程切换开销，回调中不能直接操作 UI，也不应执行耗时操作
+     */
+    ANALYSIS
+}
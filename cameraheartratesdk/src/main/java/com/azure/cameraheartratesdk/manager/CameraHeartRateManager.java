@@ -1,19 +1,102 @@
 package com.azure.cameraheartratesdk.manager;
 
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.Size;
+
+import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
 
+import com.azure.cameraheartratecore.buffer.PoolStats;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.ResultOutputs;
+import com.azure.cameraheartratecore.metrics.MetricsSnapshot;
+import com.azure.cameraheartratecore.metrics.PipelineMetrics;
+import com.azure.cameraheartratecore.recording.SessionRecorder;
+import com.azure.cameraheartratecore.result.HeartRateSnapshot;
+import com.azure.cameraheartratecore.sampling.AdaptiveGovernor;
+import com.azure.cameraheartratecore.sampling.SamplingPolicy;
+import com.azure.cameraheartratecore.store.ResultStore;
 import com.azure.cameraheartratesdk.analyzer.HeartRateAnalyzer;
 import com.azure.cameraheartratesdk.listener.CameraHeartRateListener;
+import com.azure.cameraheartratesdk.listener.FrameCaptureListener;
+import com.azure.cameraheartratesdk.listener.HeartRateSnapshotListener;
+import com.azure.cameraheartratesdk.session.HeartRateSession;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class CameraHeartRateManager {
 
     private static CameraHeartRateManager instance;
 
-    private HeartRateAnalyzer heartRateAnalyzer;
+    private volatile HeartRateAnalyzer heartRateAnalyzer;
+
+    //单线程的后台分析线程，与管理器同生命周期，ImageAnalysis 可以一直绑定在上面；空闲一段时间后线程自动退出，有新任务时重建
+    private final ThreadPoolExecutor analysisExecutor = createAnalysisExecutor();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Executor mainExecutor = mainHandler::post;
+
+    private CallbackThread callbackThread = CallbackThread.MAIN;
+
+    //附加到相机流上的会话，跨 init 保留
+    private final List<HeartRateSession> attachedSessions = new CopyOnWriteArrayList<>();
+
+    //整帧拷贝回调与缓冲池调试模式，跨 init 保留
+    private volatile FrameCaptureListener frameCaptureListener;
+    private boolean framePoolDebug;
+
+    //结果存储，跨 init 保留，由调用方关闭
+    private volatile ResultStore resultStore;
+
+    //帧采样节奏、像素采样区域与步长、手指覆盖阈值和采样路径，跨 init 保留
+    private volatile SamplingPolicy samplingPolicy = SamplingPolicy.targetHz(10);
+    private volatile float[] samplingRegion = {0.25f, 0.25f, 0.75f, 0.75f};
+    private volatile int samplingStride = 4;
+    private volatile double coverageThreshold = 0.95;
+    private volatile boolean legacyBitmapSampling;
+
+    //信号质量指数阈值与手指检测的迟滞，跨 init 保留
+    private volatile double minFrameQuality = 0.3;
+    private volatile double fingerExitThreshold = 0.85;
+    private volatile int fingerConfirmFrames = 3;
+    private volatile int fingerReleaseFrames = 3;
+
+    //自适应调节器，跨 init 保留
+    private volatile AdaptiveGovernor adaptiveGovernor;
+
+    //主会话需要输出的指标，跨 init 保留
+    private volatile ResultOutputs resultOutputs = ResultOutputs.ALL;
+
+    //性能指标，跨 init/unInit 保留，默认关闭
+    private final PipelineMetrics pipelineMetrics = new PipelineMetrics();
+
+    //交给 ImageAnalysis 使用的分析器，转发到当前的 HeartRateAnalyzer
+    private final ImageAnalysis.Analyzer analyzer = this::analyzeImage;
+
+    //createImageAnalysis 使用的目标分辨率
+    private AnalysisResolution analysisResolution = AnalysisResolution.QVGA;
+    //最近一帧的实际分辨率
+    private volatile Size actualAnalysisResolution;
 
     private CameraHeartRateManager() {
     }
 
+    private static ThreadPoolExecutor createAnalysisExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> new Thread(r, "CameraHeartRateAnalysis"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     public static CameraHeartRateManager getInstance() {
         if (instance == null) {
             synchronized (CameraHeartRateManager.class) {
@@ -29,22 +112,195 @@ public class CameraHeartRateManager {
      * 初始化
      * */
     public void init(){
-        heartRateAnalyzer = new HeartRateAnalyzer();
+        init(new HeartRateEngineConfig());
     }
 
     /**
-     * 反初始化
+     * 使用指定的引擎配置初始化，例如切换为流式分析模式。重复调用会重置测量状态，
+     * 但保留已添加的监听器、附加会话、采样、信号质量与手指检测设置和进行中的录制
+     * */
+    public void init(HeartRateEngineConfig config){
+        HeartRateAnalyzer newAnalyzer = new HeartRateAnalyzer(config);
+        newAnalyzer.setCallbackExecutor(callbackExecutor());
+        newAnalyzer.setMetrics(pipelineMetrics);
+        newAnalyzer.setFrameCaptureListener(frameCaptureListener);
+        newAnalyzer.setFramePoolDebug(framePoolDebug);
+        newAnalyzer.getPrimarySession().setResultStore(resultStore);
+        newAnalyzer.getPrimarySession().getHeartRatePipeline().getEngine().setOutputs(resultOutputs);
+        //采样节奏由新分析器在分析线程上重置后使用，不在调用线程上修改上一个分析器可能仍在使用的实例
+        newAnalyzer.setSamplingPolicy(samplingPolicy);
+        newAnalyzer.setLegacyBitmapSampling(legacyBitmapSampling);
+        float[] region = samplingRegion;
+        newAnalyzer.getPixelSampler().setRegionOfInterest(region[0], region[1], region[2], region[3]).setStride(samplingStride);
+        newAnalyzer.getHeartRatePipeline().setCoverageThreshold(coverageThreshold);
+        newAnalyzer.getHeartRatePipeline().setMinFrameQuality(minFrameQuality);
+        //离开阈值不高于放置阈值，需在 setCoverageThreshold 之后设置
+        newAnalyzer.getHeartRatePipeline().getFingerDetector().setExitThreshold(fingerExitThreshold);
+        newAnalyzer.getHeartRatePipeline().getFingerDetector().setConfirmFrames(fingerConfirmFrames, fingerReleaseFrames);
+        //调节器同样由新分析器在分析线程上重置
+        AdaptiveGovernor governor = adaptiveGovernor;
+        if (governor != null) {
+            newAnalyzer.setGovernor(governor);
+        }
+        HeartRateAnalyzer previousAnalyzer = heartRateAnalyzer;
+        if (previousAnalyzer != null) {
+            for (CameraHeartRateListener listener : previousAnalyzer.getPrimarySession().getHeartRateListeners()) {
+                newAnalyzer.addHeartRateListener(listener);
+            }
+            for (HeartRateSnapshotListener listener : previousAnalyzer.getPrimarySession().getSnapshotListeners()) {
+                newAnalyzer.getPrimarySession().addSnapshotListener(listener);
+            }
+            //进行中的录制转交给新的分析器，继续写入同一个文件；录制器只在分析线程上写入，无需关闭重开
+            SessionRecorder recorder = previousAnalyzer.getSessionRecorder();
+            previousAnalyzer.setSessionRecorder(null);
+            newAnalyzer.setSessionRecorder(recorder);
+        }
+        for (HeartRateSession session : attachedSessions) {
+            newAnalyzer.addSession(session);
+        }
+        heartRateAnalyzer = newAnalyzer;
+    }
+
+    /**
+     * 反初始化，同时移除所有附加会话。分析线程和已创建的 ImageAnalysis 仍可使用，之后到达的帧直接关闭，
+     * 再次 init 后恢复分析
      * */
     public void unInit(){
+        stopRecording();
+        attachedSessions.clear();
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null && framePoolDebug) {
+            currentAnalyzer.checkFramePoolLeaks();
+        }
         heartRateAnalyzer = null;
     }
 
+    /**
+     * 获取 SDK 的后台分析线程，配合 getAnalyzer() 传给 ImageAnalysis.setAnalyzer，可在 init 之前调用，跨 init/unInit 不变
+     * */
+    public Executor getAnalysisExecutor(){
+        return analysisExecutor;
+    }
+
+    /**
+     * 获取可直接传给 ImageAnalysis.setAnalyzer 的分析器
+     * */
+    public ImageAnalysis.Analyzer getAnalyzer(){
+        return analyzer;
+    }
+
+    /**
+     * 设置 createImageAnalysis 使用的目标分辨率，默认 320x240，需在 createImageAnalysis 之前调用
+     * */
+    public void setAnalysisResolution(AnalysisResolution analysisResolution){
+        this.analysisResolution = analysisResolution;
+    }
+
+    public AnalysisResolution getAnalysisResolution(){
+        return analysisResolution;
+    }
+
+    /**
+     * 获取相机实际输出的分析分辨率，收到第一帧之前返回 null
+     * */
+    public Size getActualAnalysisResolution(){
+        return actualAnalysisResolution;
+    }
+
+    /**
+     * 创建已配置好的 ImageAnalysis：目标分辨率为 getAnalysisResolution()，输出 YUV_420_888，
+     * 只保留最新帧，并已设置 SDK 的分析线程和分析器，可在 init 之前创建，未初始化时到达的帧直接关闭。
+     * 设备不支持目标分辨率时由 CameraX 选择最接近的尺寸。
+     * */
+    public ImageAnalysis createImageAnalysis(){
+        ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
+                .setTargetResolution(analysisResolution.toSize())
+                .setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888)
+                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                .build();
+        imageAnalysis.setAnalyzer(analysisExecutor, analyzer);
+        return imageAnalysis;
+    }
+
+    /**
+     * 开启或关闭性能指标记录（各阶段耗时、帧计数、首个有效读数耗时），默认关闭
+     * */
+    public void setMetricsEnabled(boolean enabled){
+        pipelineMetrics.setEnabled(enabled);
+    }
+
+    /**
+     * 获取当前性能指标的快照，可在任意线程调用
+     * */
+    public MetricsSnapshot getMetricsSnapshot(){
+        return pipelineMetrics.snapshot();
+    }
+
+    /**
+     * 清空已记录的性能指标
+     * */
+    public void resetMetrics(){
+        pipelineMetrics.reset();
+    }
+
+    /**
+     * 设置监听器回调所在的线程，默认为主线程
+     * */
+    public void setCallbackThread(CallbackThread callbackThread){
+        this.callbackThread = callbackThread;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.setCallbackExecutor(callbackExecutor());
+        }
+    }
+
+    private Executor callbackExecutor(){
+        return callbackThread == CallbackThread.MAIN ? mainExecutor : null;
+    }
+
+    /**
+     * 创建一个独立的会话，拥有自己的配置、窗口状态和监听器，回调线程与当前设置一致。
+     * 可以通过 addSession 附加到相机流上，也可以直接调用 HeartRateSession.onFrame 处理其他来源的帧
+     * */
+    public HeartRateSession createSession(HeartRateEngineConfig config){
+        HeartRateSession session = new HeartRateSession(config);
+        session.setCallbackExecutor(callbackExecutor());
+        return session;
+    }
+
+    /**
+     * 把会话附加到相机流上，每帧只采样一次，采样结果同时交给主会话和所有附加会话，
+     * 例如同时运行两套算法参数做对比。会话在分析线程上处理，需在 init 之后调用
+     * */
+    public void addSession(HeartRateSession session){
+        if (attachedSessions.contains(session)) {
+            return;
+        }
+        attachedSessions.add(session);
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.addSession(session);
+        }
+    }
+
+    /**
+     * 从相机流上移除会话
+     * */
+    public void removeSession(HeartRateSession session){
+        attachedSessions.remove(session);
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.removeSession(session);
+        }
+    }
+
     /**
      * 添加相机心率监听器
      * */
     public void addCameraHeartRateListener(CameraHeartRateListener listener){
-        if (heartRateAnalyzer != null){
-            heartRateAnalyzer.addHeartRateListener(listener);
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.addHeartRateListener(listener);
         }
     }
 
@@ -52,17 +308,267 @@ public class CameraHeartRateManager {
      * 移除相机心率监听器
      * */
     public void removeCameraHeartRateListener(CameraHeartRateListener listener){
-        if (heartRateAnalyzer != null){
-            heartRateAnalyzer.removeHeartRateListener(listener);
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.removeHeartRateListener(listener);
         }
     }
 
+    /**
+     * 添加结果快照监听器，每次结果更新只回调一次，回调处理较慢时只投递最新的快照
+     * */
+    public void addSnapshotListener(HeartRateSnapshotListener listener){
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.getPrimarySession().addSnapshotListener(listener);
+        }
+    }
+
+    /**
+     * 移除结果快照监听器
+     * */
+    public void removeSnapshotListener(HeartRateSnapshotListener listener){
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.getPrimarySession().removeSnapshotListener(listener);
+        }
+    }
+
+    /**
+     * 最近一次结果快照的副本，适合按界面刷新节奏轮询，未初始化或尚无结果时返回 null
+     * */
+    public HeartRateSnapshot getLatestSnapshot(){
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        return currentAnalyzer == null ? null : currentAnalyzer.getPrimarySession().getLatestSnapshot();
+    }
+
+    /**
+     * 设置帧采样节奏，例如 SamplingPolicy.everyFrame()、SamplingPolicy.targetHz(10)、
+     * SamplingPolicy.adaptive(30, 10, 0.3)，默认每秒分析 10 帧
+     * */
+    public void setSamplingPolicy(SamplingPolicy samplingPolicy){
+        if (samplingPolicy == null) {
+            throw new IllegalArgumentException("samplingPolicy must not be null");
+        }
+        this.samplingPolicy = samplingPolicy;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.setSamplingPolicy(samplingPolicy);
+        }
+    }
+
+    /**
+     * 设置自适应调节器，例如 new AdaptiveGovernor(0.3)，设置后代替采样节奏策略，根据处理耗时、信号质量和
+     * 温度/电量提示调整分析频率、采样步长与采样区域，并在心率稳定之前跳过 HRV 计算。为 null 时恢复使用采样节奏策略
+     * */
+    public void setAdaptiveGovernor(AdaptiveGovernor adaptiveGovernor){
+        this.adaptiveGovernor = adaptiveGovernor;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.setGovernor(adaptiveGovernor);
+        }
+    }
+
+    /**
+     * 设置主会话需要输出的指标，默认 ResultOutputs.ALL。只使用心率时设为 HEART_RATE，
+     * 不再计算 SDNN/RMSSD，回调中两者为 0；只使用 HRV 时设为 HRV
+     * */
+    public void setResultOutputs(ResultOutputs resultOutputs){
+        if (resultOutputs == null) {
+            throw new IllegalArgumentException("resultOutputs must not be null");
+        }
+        this.resultOutputs = resultOutputs;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.getPrimarySession().getHeartRatePipeline().getEngine().setOutputs(resultOutputs);
+        }
+    }
+
+    public ResultOutputs getResultOutputs(){
+        return resultOutputs;
+    }
+
+    /**
+     * 设置像素采样区域，参数为相对画面宽高的比例，默认为中心 1/2 区域
+     * */
+    public void setSamplingRegion(float left, float top, float right, float bottom){
+        if (left < 0 || top < 0 || right > 1 || bottom > 1 || left >= right || top >= bottom) {
+            throw new IllegalArgumentException("invalid region: " + left + ", " + top + ", " + right + ", " + bottom);
+        }
+        this.samplingRegion = new float[]{left, top, right, bottom};
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.getPixelSampler().setRegionOfInterest(left, top, right, bottom);
+        }
+    }
+
+    /**
+     * 设置像素采样步长，默认每隔 4 个像素采样一次
+     * */
+    public void setSamplingStride(int stride){
+        if (stride <= 0) {
+            throw new IllegalArgumentException("stride must be positive: " + stride);
+        }
+        this.samplingStride = stride;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.getPixelSampler().setStride(stride);
+        }
+    }
+
+    /**
+     * 设置判定手指覆盖相机的红色像素比例阈值，默认 0.95
+     * */
+    public void setCoverageThreshold(double coverageThreshold){
+        this.coverageThreshold = coverageThreshold;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.getHeartRatePipeline().setCoverageThreshold(coverageThreshold);
+        }
+    }
+
+    /**
+     * 设置手指检测的迟滞：覆盖比例低于 exitThreshold 并连续 releaseFrames 帧才判定为离开，
+     * 高于放置阈值并连续 confirmFrames 帧才判定为放置，默认 0.85、3 帧、3 帧
+     * */
+    public void setFingerDetectionHysteresis(double exitThreshold, int confirmFrames, int releaseFrames){
+        if (confirmFrames <= 0 || releaseFrames <= 0) {
+            throw new IllegalArgumentException("frames must be positive: " + confirmFrames + ", " + releaseFrames);
+        }
+        this.fingerExitThreshold = exitThreshold;
+        this.fingerConfirmFrames = confirmFrames;
+        this.fingerReleaseFrames = releaseFrames;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.getHeartRatePipeline().getFingerDetector().setExitThreshold(exitThreshold);
+            currentAnalyzer.getHeartRatePipeline().getFingerDetector().setConfirmFrames(confirmFrames, releaseFrames);
+        }
+    }
+
+    /**
+     * 设置信号质量指数阈值，低于该值的帧不参与计算，默认 0.3，为 0 时不跳过
+     * */
+    public void setMinFrameQuality(double minFrameQuality){
+        this.minFrameQuality = minFrameQuality;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.getHeartRatePipeline().setMinFrameQuality(minFrameQuality);
+        }
+    }
+
+    /**
+     * 设置是否使用旧的 YUV→JPEG→Bitmap 采样路径，用于与默认的 YUV 平面直接采样结果对比
+     * */
+    public void setLegacyBitmapSampling(boolean legacyBitmapSampling){
+        this.legacyBitmapSampling = legacyBitmapSampling;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.setLegacyBitmapSampling(legacyBitmapSampling);
+        }
+    }
+
+    /**
+     * 设置整帧拷贝回调，用于预览叠加、调试抓帧等需要完整画面的功能，为 null 时不拷贝。
+     * 回调中的缓冲区来自缓冲池，用完后必须调用 release() 归还
+     * */
+    public void setFrameCaptureListener(FrameCaptureListener frameCaptureListener){
+        this.frameCaptureListener = frameCaptureListener;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.setFrameCaptureListener(frameCaptureListener);
+        }
+    }
+
+    /**
+     * 设置结果存储，之后主会话的每个结果都在分析线程上追加保存，为 null 时停止保存。
+     * 历史数据可以通过 ResultStore 的 scan、rollupByMinute 等方法查询，存储的关闭由调用方负责
+     * */
+    public void setResultStore(ResultStore resultStore){
+        this.resultStore = resultStore;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.getPrimarySession().setResultStore(resultStore);
+        }
+    }
+
+    /**
+     * 开启整帧缓冲池的泄漏检测，未归还的缓冲区会以警告日志报告借出位置，建议只在调试版本中开启
+     * */
+    public void setFramePoolDebug(boolean debug){
+        this.framePoolDebug = debug;
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.setFramePoolDebug(debug);
+        }
+    }
+
+    /**
+     * 获取整帧拷贝缓冲池的统计，包括复用率，未初始化时返回 null
+     * */
+    public PoolStats getFramePoolStats(){
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        return currentAnalyzer != null ? currentAnalyzer.getCapturePoolStats() : null;
+    }
+
+    /**
+     * 开始录制每帧的时间戳和多通道采样统计，录制文件可用 SessionReplayer 在 JVM 上离线回放，需在 init 之后调用
+     * */
+    public void startRecording(File output) throws IOException {
+        startRecording(output, 0, 0);
+    }
+
+    /**
+     * 开始录制，并额外保存下采样到 planeWidth x planeHeight 的 Y/V 平面，便于排查采样问题
+     * */
+    public void startRecording(File output, int planeWidth, int planeHeight) throws IOException {
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            SessionRecorder previous = currentAnalyzer.getSessionRecorder();
+            currentAnalyzer.setSessionRecorder(new SessionRecorder(output, planeWidth, planeHeight));
+            closeRecorder(previous);
+        }
+    }
+
+    /**
+     * 停止录制并把剩余数据写入文件
+     * */
+    public void stopRecording(){
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            SessionRecorder previous = currentAnalyzer.getSessionRecorder();
+            currentAnalyzer.setSessionRecorder(null);
+            closeRecorder(previous);
+        }
+    }
+
+    //在分析线程上关闭，避免与正在写入的帧并发
+    private void closeRecorder(final SessionRecorder recorder){
+        if (recorder == null) {
+            return;
+        }
+        Runnable close = () -> {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                Log.e("CameraHeartRateManager", "Close recording failed", e);
+            }
+        };
+        analysisExecutor.execute(close);
+    }
+
     /**
      * 根据图像分析心率
      * */
     public void analyzeImage(ImageProxy image){
-        if (heartRateAnalyzer != null){
-            heartRateAnalyzer.analyze(image);
+        Size resolution = actualAnalysisResolution;
+        if (resolution == null || resolution.getWidth() != image.getWidth() || resolution.getHeight() != image.getHeight()) {
+            actualAnalysisResolution = new Size(image.getWidth(), image.getHeight());
+        }
+        HeartRateAnalyzer currentAnalyzer = heartRateAnalyzer;
+        if (currentAnalyzer != null){
+            currentAnalyzer.analyze(image);
+        } else {
+            image.close();
         }
     }
 }
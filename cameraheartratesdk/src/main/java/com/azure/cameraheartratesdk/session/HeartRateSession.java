@@ -0,0 +1,283 @@
+package com.azure.cameraheartratesdk.session;
+
+import android.util.Log;
+
+import com.azure.cameraheartratecore.engine.FrameOutcome;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.engine.HrvEngine;
+import com.azure.cameraheartratecore.metrics.PipelineMetrics;
+import com.azure.cameraheartratecore.quality.FrameQualityEvaluator;
+import com.azure.cameraheartratecore.quality.QualityIssue;
+import com.azure.cameraheartratecore.result.ConflatingHolder;
+import com.azure.cameraheartratecore.result.HeartRateSnapshot;
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.store.ResultStore;
+import com.azure.cameraheartratesdk.listener.CameraHeartRateListener;
+import com.azure.cameraheartratesdk.listener.HeartRateSnapshotListener;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+
+/**
+ * 一次独立的心率测量：拥有自己的配置、窗口状态和监听器，多个会话之间不共享任何可变状态。
+ * <p>
+ * 同一路相机的采样结果可以分发给多个会话（例如 A/B 两套算法参数），像素只采样一次；
+ * 会话也可以脱离相机直接调用 onFrame，例如回放录制文件。onFrame 需在同一个线程上调用，
+ * 不同会话可以在不同线程上并行处理。
+ */
+public class HeartRateSession {
+    private final HeartRatePipeline heartRatePipeline;
+    //写时复制，分析线程遍历时无需加锁或拷贝
+    private final Set<CameraHeartRateListener> cameraHeartRateListenerSet = new CopyOnWriteArraySet<>();
+    private final Set<HeartRateSnapshotListener> snapshotListenerSet = new CopyOnWriteArraySet<>();
+    //快照监听器只保留最新值，回调线程处理不过来时丢弃旧快照，不会在队列中堆积；投递完的快照交回持有者循环复用
+    private final ConflatingHolder<HeartRateSnapshot> snapshotHolder = new ConflatingHolder<>(null, this::notifyListeners);
+    //供 getLatestSnapshot 轮询的最新结果，与投递给监听器的实例分开，读写都持有它的锁
+    private final HeartRateSnapshot latestSnapshot = new HeartRateSnapshot();
+    private boolean hasLatestSnapshot;
+    //每个结果快照都追加到该存储，为 null 时不保存
+    private volatile ResultStore resultStore;
+    //帧时间戳到墙钟时间的偏移，首次追加时确定，使按分钟/小时的汇总与墙钟对齐
+    private ResultStore offsetStore;
+    private long storeOffsetNs;
+    //回调线程，为 null 时直接在分析线程回调
+    private volatile Executor callbackExecutor;
+    //已回调过的长时 HRV 版本
+    private long lastHrvVersion;
+    private long lastSpectrumVersion;
+    //已回调过的信号质量，按 0.1 分档，只在档位或原因变化时回调
+    private int lastQualityLevel = -1;
+    private QualityIssue lastQualityIssue;
+
+    public HeartRateSession() {
+        this(new HeartRateEngineConfig());
+    }
+
+    public HeartRateSession(HeartRateEngineConfig config) {
+        heartRatePipeline = new HeartRatePipeline(config);
+    }
+
+    /**
+     * 处理一帧的采样结果并回调监听器
+     *
+     * @param timestampNs 帧时间戳，单位：纳秒
+     * @param stats 采样结果，调用返回后不再被引用
+     */
+    public FrameOutcome onFrame(long timestampNs, FrameStats stats) {
+        FrameOutcome outcome = heartRatePipeline.processFrame(timestampNs, stats);
+        dispatchSignalQuality(heartRatePipeline.getQualityEvaluator());
+        if (outcome == FrameOutcome.NO_FINGER || outcome == FrameOutcome.RESULT) {
+            HeartRateSnapshot snapshot = snapshotHolder.obtain();
+            if (snapshot == null) {
+                snapshot = new HeartRateSnapshot();
+            }
+            heartRatePipeline.fillSnapshot(snapshot, timestampNs);
+            appendToStore(snapshot);
+            updateLatestSnapshot(snapshot);
+            dispatchResult(snapshot);
+            snapshotHolder.publish(snapshot);
+        }
+        dispatchLongTermHrv(heartRatePipeline.getEngine().getLongTermHrv());
+        return outcome;
+    }
+
+    /**
+     * 获取逐帧处理流程，用于配置覆盖阈值和信号质量阈值
+     * */
+    public HeartRatePipeline getHeartRatePipeline() {
+        return heartRatePipeline;
+    }
+
+    /**
+     * 设置性能指标，需在开始分析之前调用
+     * */
+    public void setMetrics(PipelineMetrics metrics) {
+        heartRatePipeline.setMetrics(metrics);
+    }
+
+    public void addHeartRateListener(CameraHeartRateListener cameraHeartRateListener){
+        cameraHeartRateListenerSet.add(cameraHeartRateListener);
+    }
+
+    public void removeHeartRateListener(CameraHeartRateListener cameraHeartRateListener){
+        cameraHeartRateListenerSet.remove(cameraHeartRateListener);
+    }
+
+    /**
+     * 当前注册的监听器，只读视图
+     * */
+    public Set<CameraHeartRateListener> getHeartRateListeners() {
+        return Collections.unmodifiableSet(cameraHeartRateListenerSet);
+    }
+
+    public void addSnapshotListener(HeartRateSnapshotListener snapshotListener){
+        snapshotListenerSet.add(snapshotListener);
+    }
+
+    public void removeSnapshotListener(HeartRateSnapshotListener snapshotListener){
+        snapshotListenerSet.remove(snapshotListener);
+    }
+
+    /**
+     * 当前注册的快照监听器，只读视图
+     * */
+    public Set<HeartRateSnapshotListener> getSnapshotListeners() {
+        return Collections.unmodifiableSet(snapshotListenerSet);
+    }
+
+    /**
+     * 最近一次结果快照的副本，可在任意线程轮询，尚无结果时返回 null
+     * */
+    public HeartRateSnapshot getLatestSnapshot() {
+        synchronized (latestSnapshot) {
+            return hasLatestSnapshot ? latestSnapshot.copy() : null;
+        }
+    }
+
+    /**
+     * 因回调处理不及时而被丢弃的快照个数
+     * */
+    public long getDroppedSnapshotCount() {
+        return snapshotHolder.getDroppedCount();
+    }
+
+    /**
+     * 设置结果存储，之后每个结果快照都在分析线程上追加一行，时间戳换算为墙钟时间（纳秒）；为 null 时停止保存。
+     * 存储的关闭由调用方负责
+     * */
+    public void setResultStore(ResultStore resultStore) {
+        this.resultStore = resultStore;
+    }
+
+    public ResultStore getResultStore() {
+        return resultStore;
+    }
+
+    /**
+     * 设置回调所在的线程，为 null 时直接在分析线程回调
+     * */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        snapshotHolder.setExecutor(callbackExecutor);
+    }
+
+    private void appendToStore(HeartRateSnapshot snapshot) {
+        ResultStore store = resultStore;
+        if (store == null) {
+            return;
+        }
+        if (offsetStore != store) {
+            offsetStore = store;
+            storeOffsetNs = System.currentTimeMillis() * 1_000_000L - snapshot.getTimestampNs();
+        }
+        try {
+            store.append(snapshot.getTimestampNs() + storeOffsetNs, snapshot.getHeartRate(), snapshot.getSdnn(),
+                    snapshot.getRmssd(), snapshot.getHrEffectiveValueRate(), snapshot.getHrvEffectiveValueRate(),
+                    snapshot.getQuality());
+        } catch (IOException | RuntimeException e) {
+            // 磁盘写满、时间戳回退等情况下停止保存，不影响测量本身
+            Log.e("HeartRateSession", "Result store append failed", e);
+            if (resultStore == store) {
+                resultStore = null;
+            }
+        }
+    }
+
+    private void updateLatestSnapshot(HeartRateSnapshot snapshot) {
+        synchronized (latestSnapshot) {
+            latestSnapshot.set(snapshot.getTimestampNs(), snapshot.getHeartRate(), snapshot.getSdnn(),
+                    snapshot.getRmssd(), snapshot.isFingerDetected(), snapshot.getHrEffectiveValueRate(),
+                    snapshot.getHrvEffectiveValueRate(), snapshot.getQuality(), snapshot.getQualityIssue());
+            hasLatestSnapshot = true;
+        }
+    }
+
+    //原有监听器的结果回调不合并，每次结果都投递，与快照监听器互不影响
+    private void dispatchResult(HeartRateSnapshot snapshot) {
+        if (cameraHeartRateListenerSet.isEmpty()) {
+            return;
+        }
+        final int heartRate = snapshot.getHeartRate();
+        final int sdnn = snapshot.getSdnn();
+        final int rmssd = snapshot.getRmssd();
+        final boolean fingerDetected = snapshot.isFingerDetected();
+        final float hrEffectiveValueRate = snapshot.getHrEffectiveValueRate();
+        final float hrvEffectiveValueRate = snapshot.getHrvEffectiveValueRate();
+        dispatch(() -> {
+            for (CameraHeartRateListener cameraHeartRateListener : cameraHeartRateListenerSet){
+                cameraHeartRateListener.onHeartRate(heartRate);
+                cameraHeartRateListener.onSDNN(sdnn);
+                cameraHeartRateListener.onRMSSD(rmssd);
+                cameraHeartRateListener.onFingerDetected(fingerDetected);
+                cameraHeartRateListener.onEffectiveValueRate(hrEffectiveValueRate, hrvEffectiveValueRate);
+            }
+        });
+    }
+
+    private void dispatchSignalQuality(FrameQualityEvaluator qualityEvaluator) {
+        final float quality = qualityEvaluator.getQuality();
+        final QualityIssue issue = qualityEvaluator.getIssue();
+        int level = Math.round(quality * 10);
+        if (level == lastQualityLevel && issue == lastQualityIssue) {
+            return;
+        }
+        lastQualityLevel = level;
+        lastQualityIssue = issue;
+        dispatch(() -> {
+            for (CameraHeartRateListener cameraHeartRateListener : cameraHeartRateListenerSet){
+                cameraHeartRateListener.onSignalQuality(quality, issue);
+            }
+        });
+    }
+
+    private void dispatchLongTermHrv(HrvEngine hrvEngine) {
+        if (hrvEngine == null) {
+            return;
+        }
+        if (hrvEngine.getVersion() != lastHrvVersion) {
+            lastHrvVersion = hrvEngine.getVersion();
+            final double sdnn = hrvEngine.getSdnn();
+            final double rmssd = hrvEngine.getRmssd();
+            final double pnn50 = hrvEngine.getPnn50();
+            final double meanHeartRate = hrvEngine.getMeanHeartRate();
+            dispatch(() -> {
+                for (CameraHeartRateListener cameraHeartRateListener : cameraHeartRateListenerSet){
+                    cameraHeartRateListener.onLongTermHrv(sdnn, rmssd, pnn50, meanHeartRate);
+                }
+            });
+        }
+        if (hrvEngine.getSpectrumVersion() != lastSpectrumVersion) {
+            lastSpectrumVersion = hrvEngine.getSpectrumVersion();
+            final double lfPower = hrvEngine.getLfPower();
+            final double hfPower = hrvEngine.getHfPower();
+            final double lfHfRatio = hrvEngine.getLfHfRatio();
+            dispatch(() -> {
+                for (CameraHeartRateListener cameraHeartRateListener : cameraHeartRateListenerSet){
+                    cameraHeartRateListener.onHrvSpectrum(lfPower, hfPower, lfHfRatio);
+                }
+            });
+        }
+    }
+
+    private void dispatch(Runnable callback) {
+        if (cameraHeartRateListenerSet.isEmpty()) {
+            return;
+        }
+        Executor executor = callbackExecutor;
+        if (executor == null) {
+            callback.run();
+        } else {
+            executor.execute(callback);
+        }
+    }
+
+    private void notifyListeners(HeartRateSnapshot snapshot) {
+        for (HeartRateSnapshotListener snapshotListener : snapshotListenerSet){
+            snapshotListener.onSnapshot(snapshot);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.azure.cameraheartratecore.benchmark;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.recording.BatchReplayer;
+import com.azure.cameraheartratecore.recording.BatchResult;
+import com.azure.cameraheartratecore.recording.SampleStream;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量离线处理的吞吐量，单位为 会话/秒：每次调用处理 64 路 1 分钟 30fps 的合成亮度序列。
+ * parallelism 为 0 时使用全部可用核，与 1 对比可以看出并行的加速比（受物理核数限制）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchReplayBenchmark {
+    private static final int SESSIONS = 64;
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    @Param({"BATCH", "FILTERED"})
+    public AnalysisMode mode;
+
+    private final List<SampleStream> streams = new ArrayList<>();
+    private HeartRateEngineConfig config;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        streams.clear();
+        for (int i = 0; i < SESSIONS; i++) {
+            int bpm = 50 + i % 8 * 10;
+            SyntheticPpg ppg = SyntheticPpg.generate(1800, 30, bpm, 0.05, 0.3, i);
+            streams.add(SampleStream.ofIntensities("bpm" + bpm, ppg.getTimestamps(), ppg.getIntensities())
+                    .setReference(bpm, Double.NaN, Double.NaN));
+        }
+        config = new HeartRateEngineConfig().setAnalysisMode(mode);
+        pool = new ForkJoinPool(parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SESSIONS)
+    public BatchResult replay() throws IOException {
+        return BatchReplayer.replay(streams, () -> new HeartRatePipeline(config), pool);
+    }
+}
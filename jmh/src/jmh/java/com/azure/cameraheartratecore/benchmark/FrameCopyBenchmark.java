@@ -0,0 +1,78 @@
+package com.azure.cameraheartratecore.benchmark;
+
+import com.azure.cameraheartratecore.buffer.FramePool;
+import com.azure.cameraheartratecore.buffer.PooledFrame;
+import com.azure.cameraheartratecore.sampler.Nv21Converter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 整帧 NV21 拷贝：allocating 为原来每帧 new byte[] 的做法，pooled 从缓冲池借出直接 ByteBuffer 后归还。
+ * 通过 gc profiler 的 gc.alloc.rate.norm 比较每帧分配量，pooled 稳态下应为 0。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrameCopyBenchmark {
+
+    @Param({"640x480", "1920x1080"})
+    public String resolution;
+
+    private int width;
+    private int height;
+    private ByteBuffer yBuffer;
+    private ByteBuffer uBuffer;
+    private ByteBuffer vBuffer;
+    private FramePool<ByteBuffer> pool;
+    private Nv21Converter converter;
+
+    @Setup
+    public void setUp() {
+        String[] size = resolution.split("x");
+        width = Integer.parseInt(size[0]);
+        height = Integer.parseInt(size[1]);
+        yBuffer = ByteBuffer.allocateDirect(width * height);
+        // V 在前、U 在后交错存储，U 平面是同一块内存偏移一个字节
+        ByteBuffer vu = ByteBuffer.allocateDirect(width * height / 2);
+        vBuffer = vu.duplicate();
+        vBuffer.limit(vu.capacity() - 1);
+        vu.position(1);
+        uBuffer = vu.slice();
+        pool = FramePool.directByteBuffers(12, 2);
+        converter = new Nv21Converter();
+    }
+
+    @Benchmark
+    public int allocating() {
+        int ySize = yBuffer.remaining();
+        int uSize = uBuffer.remaining();
+        int vSize = vBuffer.remaining();
+        byte[] nv21 = new byte[ySize + uSize + vSize];
+        yBuffer.duplicate().get(nv21, 0, ySize);
+        vBuffer.duplicate().get(nv21, ySize, vSize);
+        uBuffer.duplicate().get(nv21, ySize + vSize, uSize);
+        return nv21[nv21.length - 1];
+    }
+
+    @Benchmark
+    public int pooled() {
+        PooledFrame<ByteBuffer> frame = pool.acquire(width, height);
+        ByteBuffer out = frame.getValue();
+        ((Buffer) out).clear();
+        converter.convert(width, height, yBuffer, width, 1, uBuffer, vBuffer, width, 2, out);
+        int last = out.get(out.position() - 1);
+        frame.release();
+        return last;
+    }
+}
@@ -0,0 +1,57 @@
+package com.azure.cameraheartratecore.benchmark;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.HeartRateEngine;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整引擎的逐采样点吞吐量，相当于每帧的信号处理开销，分别测量批处理与流式模式
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HeartRateEngineBenchmark {
+
+    @Param({"30", "300", "3000"})
+    public int windowSize;
+
+    @Param({"BATCH", "STREAMING", "FILTERED"})
+    public AnalysisMode mode;
+
+    private SyntheticPpg ppg;
+    private HeartRateEngine engine;
+    private int index;
+    private long timeOffset;
+
+    @Setup
+    public void setUp() {
+        ppg = SyntheticPpg.generate(windowSize, 30, 72, 0.05, 0.3, 42);
+        engine = new HeartRateEngine(new HeartRateEngineConfig().setAnalysisMode(mode));
+        index = 0;
+        timeOffset = 0;
+    }
+
+    @Benchmark
+    public boolean addSample() {
+        if (index == ppg.size()) {
+            // 循环回放时保持时间戳单调递增
+            timeOffset += ppg.getTimestamps()[ppg.size() - 1] + 33;
+            index = 0;
+        }
+        boolean updated = engine.addSample(timeOffset + ppg.getTimestamps()[index], ppg.getIntensities()[index]);
+        index++;
+        return updated;
+    }
+}
@@ -0,0 +1,101 @@
+package com.azure.cameraheartratecore.benchmark;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.HeartRateEngine;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRateEstimator;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较三种心率估计方式：
+ * update 为每次输出结果的 CPU 开销（喂入 hopSize 个采样点）；
+ * firstReading 为新引擎从第一个采样点到第一个非零心率的耗时，
+ * 辅助计数 signalMs 是此时已经过的信号时长，即用户需要按住手指的时间；JMH 会把各次测量的值相加，除以 Cnt 即为平均值。
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HeartRateEstimatorBenchmark {
+
+    private static final int HOP_SIZE = 10;
+
+    @Param({"PEAK", "SPECTRAL", "FUSED"})
+    public HeartRateEstimator estimator;
+
+    @Param({"10", "30"})
+    public int sampleRateHz;
+
+    private SyntheticPpg ppg;
+    private HeartRateEngineConfig config;
+    private HeartRateEngine engine;
+    private int index;
+    private long timeOffset;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FirstReading {
+        public long signalMs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            signalMs = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ppg = SyntheticPpg.generate(sampleRateHz * 60, sampleRateHz, 72, 0.04, 0.3, 42);
+        config = new HeartRateEngineConfig()
+                .setAnalysisMode(AnalysisMode.FILTERED)
+                .setHopSize(HOP_SIZE)
+                .setHeartRateEstimator(estimator);
+        engine = new HeartRateEngine(config);
+        index = 0;
+        timeOffset = 0;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public int update() {
+        for (int i = 0; i < HOP_SIZE; i++) {
+            if (index == ppg.size()) {
+                // 循环回放时保持时间戳单调递增
+                timeOffset += ppg.getTimestamps()[ppg.size() - 1] + 1000 / sampleRateHz;
+                index = 0;
+            }
+            engine.addSample(timeOffset + ppg.getTimestamps()[index], ppg.getIntensities()[index]);
+            index++;
+        }
+        return engine.getHeartRate();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 20)
+    public int firstReading(FirstReading firstReading) {
+        HeartRateEngine fresh = new HeartRateEngine(config);
+        for (int i = 0; i < ppg.size(); i++) {
+            if (fresh.addSample(ppg.getTimestamps()[i], ppg.getIntensities()[i]) && fresh.getHeartRate() > 0) {
+                firstReading.signalMs = ppg.getTimestamps()[i];
+                return fresh.getHeartRate();
+            }
+        }
+        firstReading.signalMs = ppg.getTimestamps()[ppg.size() - 1];
+        return 0;
+    }
+}
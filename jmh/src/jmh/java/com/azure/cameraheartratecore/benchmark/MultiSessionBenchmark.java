@@ -0,0 +1,80 @@
+package com.azure.cameraheartratecore.benchmark;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.HeartRatePipeline;
+import com.azure.cameraheartratecore.sampler.FrameStats;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多会话并发吞吐量：每个线程独立处理一路帧流，并把同一份采样结果分发给 sessions 个 pipeline。
+ * 会话之间不共享可变状态，threads4 的总吞吐量应接近 threads1 的 4 倍（受物理核数限制）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MultiSessionBenchmark {
+
+    @Param({"1", "4"})
+    public int sessions;
+
+    @Param({"BATCH", "FILTERED"})
+    public AnalysisMode mode;
+
+    private SyntheticPpg ppg;
+    private HeartRatePipeline[] pipelines;
+    private final FrameStats stats = new FrameStats();
+    private int index;
+    private long timeOffsetNs;
+
+    @Setup
+    public void setUp() {
+        ppg = SyntheticPpg.generate(3000, 30, 72, 0.05, 0.3, 42);
+        pipelines = new HeartRatePipeline[sessions];
+        for (int i = 0; i < sessions; i++) {
+            pipelines[i] = new HeartRatePipeline(new HeartRateEngineConfig().setAnalysisMode(mode));
+        }
+        index = 0;
+        timeOffsetNs = 0;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int threads1() {
+        return processFrame();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int threads4() {
+        return processFrame();
+    }
+
+    private int processFrame() {
+        if (index == ppg.size()) {
+            // 循环回放时保持时间戳单调递增
+            timeOffsetNs += (ppg.getTimestamps()[ppg.size() - 1] + 33) * 1_000_000L;
+            index = 0;
+        }
+        stats.setRedOnly(ppg.getIntensities()[index], 0.99);
+        long timestampNs = timeOffsetNs + ppg.getTimestamps()[index] * 1_000_000L;
+        int results = 0;
+        for (HeartRatePipeline pipeline : pipelines) {
+            results += pipeline.processFrame(timestampNs, stats).ordinal();
+        }
+        index++;
+        return results;
+    }
+}
@@ -0,0 +1,90 @@
+package com.azure.cameraheartratecore.benchmark;
+
+import com.azure.cameraheartratecore.sampler.PixelSampler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单帧像素采样耗时。YUV 数据按 Android 常见的半平面布局构造（U/V 交错，pixelStride 为 2，行尾有填充）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PixelSamplerBenchmark {
+
+    @Param({"640x480", "1280x720", "1920x1080"})
+    public String resolution;
+
+    @Param({"1", "4", "10"})
+    public int stride;
+
+    private int width;
+    private int height;
+    private int rowStride;
+    private ByteBuffer yBuffer;
+    private ByteBuffer uBuffer;
+    private ByteBuffer vBuffer;
+    private int[] argbPixels;
+    private PixelSampler sampler;
+
+    @Setup
+    public void setUp() {
+        String[] size = resolution.split("x");
+        width = Integer.parseInt(size[0]);
+        height = Integer.parseInt(size[1]);
+        rowStride = width + 64;
+        Random random = new Random(1);
+
+        yBuffer = ByteBuffer.allocateDirect(rowStride * height);
+        for (int i = 0; i < yBuffer.capacity(); i++) {
+            yBuffer.put(i, (byte) (120 + random.nextInt(60)));
+        }
+        // V 在前、U 在后交错存储，U 平面是同一块内存偏移一个字节
+        ByteBuffer vu = ByteBuffer.allocateDirect(rowStride * height / 2);
+        for (int i = 0; i < vu.capacity(); i++) {
+            vu.put(i, (byte) (i % 2 == 0 ? 190 + random.nextInt(20) : 100 + random.nextInt(20)));
+        }
+        vBuffer = vu.duplicate();
+        vBuffer.limit(vu.capacity() - 1);
+        vu.position(1);
+        uBuffer = vu.slice();
+
+        argbPixels = new int[width * height];
+        for (int i = 0; i < argbPixels.length; i++) {
+            argbPixels[i] = 0xFF000000 | (200 + random.nextInt(50)) << 16 | random.nextInt(60) << 8 | random.nextInt(60);
+        }
+        sampler = new PixelSampler().setStride(stride);
+    }
+
+    @Benchmark
+    public double sampleYuv() {
+        sampler.sampleYuv(width, height, yBuffer, rowStride, 1, uBuffer, vBuffer, rowStride, 2);
+        return sampler.getMeanRed();
+    }
+
+    /**
+     * 手指未放置时的粗略采样，与 sampleYuv 对比即为空闲帧的开销下降幅度
+     */
+    @Benchmark
+    public double sampleYuvCoarse() {
+        sampler.sampleYuvCoarse(width, height, yBuffer, rowStride, 1, uBuffer, vBuffer, rowStride, 2, 8);
+        return sampler.getCoverageRatio();
+    }
+
+    @Benchmark
+    public double sampleArgb() {
+        sampler.sampleArgb(argbPixels, width, height);
+        return sampler.getMeanRed();
+    }
+}
@@ -0,0 +1,67 @@
+package com.azure.cameraheartratecore.benchmark;
+
+import com.azure.cameraheartratecore.engine.AnalysisMode;
+import com.azure.cameraheartratecore.engine.HeartRateEngine;
+import com.azure.cameraheartratecore.engine.HeartRateEngineConfig;
+import com.azure.cameraheartratecore.engine.ResultOutputs;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每次结果更新的平均开销，对比只输出心率与输出全部指标。
+ * 每次调用送入 hopSize 个采样点，恰好产生一次更新；多数更新之间没有新的 R-R 间期，命中缓存。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResultOutputsBenchmark {
+
+    @Param({"ALL", "HEART_RATE"})
+    public ResultOutputs outputs;
+
+    @Param({"20", "300"})
+    public int hrvWindowSize;
+
+    private SyntheticPpg ppg;
+    private HeartRateEngine engine;
+    private int hopSize;
+    private int index;
+    private long timeOffset;
+
+    @Setup
+    public void setUp() {
+        ppg = SyntheticPpg.generate(3000, 30, 72, 0.05, 0.3, 42);
+        HeartRateEngineConfig config = new HeartRateEngineConfig()
+                .setAnalysisMode(AnalysisMode.FILTERED)
+                .setHrvWindowSize(hrvWindowSize);
+        hopSize = config.getHopSize();
+        engine = new HeartRateEngine(config);
+        engine.setOutputs(outputs);
+        index = 0;
+        timeOffset = 0;
+    }
+
+    @Benchmark
+    public int update() {
+        for (int i = 0; i < hopSize; i++) {
+            if (index == ppg.size()) {
+                // 循环回放时保持时间戳单调递增
+                timeOffset += ppg.getTimestamps()[ppg.size() - 1] + 33;
+                index = 0;
+            }
+            engine.addSample(timeOffset + ppg.getTimestamps()[index], ppg.getIntensities()[index]);
+            index++;
+        }
+        return engine.getHeartRate() + engine.getSdnn();
+    }
+}
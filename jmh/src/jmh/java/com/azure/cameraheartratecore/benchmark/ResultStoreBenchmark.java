@@ -0,0 +1,135 @@
+package com.azure.cameraheartratecore.benchmark;
+
+import com.azure.cameraheartratecore.store.ResultStore;
+import com.azure.cameraheartratecore.store.Rollup;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列式结果存储：100 万行（10Hz 约 28 小时）上的全量扫描、1 小时范围扫描、按分钟/小时汇总，以及单行追加的开销。
+ * 追加基准每 100 万行换一个新目录，段文件的创建与映射摊入每次追加的耗时中。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResultStoreBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final long INTERVAL_NS = 100_000_000L;
+
+    private File directory;
+    private ResultStore store;
+    private long endNs;
+    private long hourStartNs;
+    private long sum;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("result-store").toFile();
+        store = ResultStore.open(directory);
+        for (int i = 0; i < ROWS; i++) {
+            store.append(i * INTERVAL_NS, 60 + i % 40, 40 + i % 7, 30 + i % 5, 0.9f, 0.8f, 0.95f);
+        }
+        endNs = ROWS * INTERVAL_NS;
+        hourStartNs = endNs / 2;
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+        deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long scanAll() {
+        sum = 0;
+        store.scan(0, endNs, (timestampNs, heartRate, sdnn, rmssd, hrEffective, hrvEffective, quality) -> sum += heartRate);
+        return sum;
+    }
+
+    @Benchmark
+    public long scanHour() {
+        sum = 0;
+        store.scan(hourStartNs, hourStartNs + ResultStore.HOUR_NS,
+                (timestampNs, heartRate, sdnn, rmssd, hrEffective, hrvEffective, quality) -> sum += heartRate);
+        return sum;
+    }
+
+    @Benchmark
+    public long count() {
+        return store.count(hourStartNs, hourStartNs + ResultStore.HOUR_NS);
+    }
+
+    @Benchmark
+    public int rollupByMinute() {
+        return store.rollupByMinute(0, endNs, this::accumulate);
+    }
+
+    @Benchmark
+    public int rollupByHour() {
+        return store.rollupByHour(0, endNs, this::accumulate);
+    }
+
+    private void accumulate(Rollup rollup) {
+        sum += rollup.getValidCount();
+    }
+
+    @State(Scope.Thread)
+    public static class AppendState {
+        File directory;
+        ResultStore store;
+        int rows;
+
+        @Setup
+        public void setUp() throws IOException {
+            reopen();
+        }
+
+        void reopen() throws IOException {
+            if (store != null) {
+                store.close();
+                deleteRecursively(directory);
+            }
+            directory = Files.createTempDirectory("result-store-append").toFile();
+            store = ResultStore.open(directory);
+            rows = 0;
+        }
+
+        @TearDown
+        public void tearDown() {
+            store.close();
+            deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void append(AppendState state) throws IOException {
+        if (state.rows == ROWS) {
+            state.reopen();
+        }
+        state.store.append(state.rows * INTERVAL_NS, 72, 45, 35, 0.9f, 0.8f, 0.95f);
+        state.rows++;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
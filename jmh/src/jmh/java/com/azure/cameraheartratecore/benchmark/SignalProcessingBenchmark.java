@@ -0,0 +1,124 @@
+package com.azure.cameraheartratecore.benchmark;
+
+import com.azure.cameraheartratecore.buffer.DoubleRingBuffer;
+import com.azure.cameraheartratecore.buffer.LongRingBuffer;
+import com.azure.cameraheartratecore.engine.RRArtifactFilter;
+import com.azure.cameraheartratecore.engine.SignalProcessing;
+import com.azure.cameraheartratecore.synthetic.SyntheticPpg;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各信号处理阶段的吞吐量基准，窗口大小分别对应约 1 秒、10 秒和 100 秒的 30fps 数据。
+ * 分配速率通过 gc profiler 输出（gc.alloc.rate.norm）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SignalProcessingBenchmark {
+
+    @Param({"30", "300", "3000"})
+    public int windowSize;
+
+    private LongRingBuffer timestamps;
+    private DoubleRingBuffer intensities;
+    private DoubleRingBuffer smoothed;
+    private int[] peaks;
+    private int peakCount;
+    private LongRingBuffer rrIntervals;
+    private LongRingBuffer rrOut;
+    private LongRingBuffer filteredOut;
+    private DoubleRingBuffer smoothOut;
+    private long[] scratch;
+    private RRArtifactFilter artifactFilter;
+    private int nextInterval;
+
+    @Setup
+    public void setUp() {
+        SyntheticPpg ppg = SyntheticPpg.generate(windowSize, 30, 72, 0.05, 0.3, 42);
+        timestamps = new LongRingBuffer(windowSize);
+        intensities = new DoubleRingBuffer(windowSize);
+        for (int i = 0; i < ppg.size(); i++) {
+            timestamps.add(ppg.getTimestamps()[i]);
+            intensities.add(ppg.getIntensities()[i]);
+        }
+        smoothed = new DoubleRingBuffer(windowSize);
+        smoothOut = new DoubleRingBuffer(windowSize);
+        SignalProcessing.smoothData(intensities, 5, smoothed);
+        peaks = new int[windowSize];
+        peakCount = SignalProcessing.findPeaks(smoothed, peaks);
+        // R-R 窗口使用合成波形的参考心跳，保证每个窗口大小下都有足够的间期
+        rrIntervals = new LongRingBuffer(Math.max(1, ppg.getBeatCount() - 1));
+        for (int i = 1; i < ppg.getBeatCount(); i++) {
+            rrIntervals.add(ppg.getBeatTimestamp(i) - ppg.getBeatTimestamp(i - 1));
+        }
+        if (rrIntervals.isEmpty()) {
+            rrIntervals.add(830L);
+        }
+        rrOut = new LongRingBuffer(windowSize);
+        filteredOut = new LongRingBuffer(rrIntervals.capacity());
+        scratch = new long[rrIntervals.capacity()];
+        artifactFilter = new RRArtifactFilter(rrIntervals.capacity(), 0.3);
+        artifactFilter.addAll(rrIntervals);
+        nextInterval = 0;
+    }
+
+    @Benchmark
+    public DoubleRingBuffer smoothData() {
+        SignalProcessing.smoothData(intensities, 5, smoothOut);
+        return smoothOut;
+    }
+
+    @Benchmark
+    public int findPeaks() {
+        return SignalProcessing.findPeaks(smoothed, peaks);
+    }
+
+    @Benchmark
+    public LongRingBuffer calculateRR() {
+        rrOut.clear();
+        SignalProcessing.calculateRR(timestamps, peaks, peakCount, rrOut);
+        return rrOut;
+    }
+
+    @Benchmark
+    public LongRingBuffer filterRRByChange() {
+        SignalProcessing.filterRRByChange(rrIntervals, 0.3, filteredOut, scratch);
+        return filteredOut;
+    }
+
+    /**
+     * 增量过滤：滑入一个新间期后输出过滤结果，与 filterRRByChange 对比
+     */
+    @Benchmark
+    public LongRingBuffer rrArtifactFilter() {
+        artifactFilter.add(rrIntervals.get(nextInterval));
+        nextInterval = nextInterval + 1 == rrIntervals.size() ? 0 : nextInterval + 1;
+        artifactFilter.filter(filteredOut);
+        return filteredOut;
+    }
+
+    @Benchmark
+    public long median() {
+        return SignalProcessing.median(rrIntervals, scratch);
+    }
+
+    @Benchmark
+    public int calculateSDNN() {
+        return SignalProcessing.calculateSDNN(rrIntervals);
+    }
+
+    @Benchmark
+    public int calculateRMSSD() {
+        return SignalProcessing.calculateRMSSD(rrIntervals);
+    }
+}